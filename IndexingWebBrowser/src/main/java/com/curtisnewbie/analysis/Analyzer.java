@@ -0,0 +1,195 @@
+package com.curtisnewbie.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>
+ * A pipeline that turns the text of a field into the words that are indexed: a
+ * {@link Tokenizer} followed by a chain of {@link TokenFilter}, e.g., letters
+ * -> lower case -> stopwords -> stemming. The words of the queries go through
+ * the same pipeline (see {@link #analyzeWord(String)}), so a query matches the
+ * words as they are indexed.
+ * </p>
+ * <p>
+ * An analyzer is described by a spec, i.e., a comma separated list of the name
+ * of the tokenizer followed by the names of the filters, e.g.,
+ * "unicode,lowercase,stop,porter". The names are:
+ * </p>
+ * <ul>
+ * <li>"unicode": {@link UnicodeTokenizer}</li>
+ * <li>"letter": {@link LetterTokenizer}</li>
+ * <li>"lowercase": {@link LowerCaseFilter}</li>
+ * <li>"stop": {@link StopFilter} with the English stopwords</li>
+ * <li>"porter": {@link PorterStemFilter}</li>
+ * </ul>
+ * <p>
+ * Three specs are predefined, "standard" (the letters and digits of any script
+ * in lower case, see {@link #STANDARD}), "simple" (the ASCII letters in lower
+ * case, see {@link #SIMPLE}) and "english" (with the stopwords removed and the
+ * words stemmed, see {@link #ENGLISH}). It's immutable and thread-safe.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see Analyzers
+ */
+public final class Analyzer {
+
+    private static final String STANDARD_SPEC = "unicode,lowercase";
+    private static final String SIMPLE_SPEC = "letter,lowercase";
+    private static final String ENGLISH_SPEC = "unicode,lowercase,stop,porter";
+
+    /** Letters and digits of any script in lower case */
+    public static final Analyzer STANDARD = of(STANDARD_SPEC);
+
+    /** ASCII letters in lower case, it's how the words were extracted before */
+    public static final Analyzer SIMPLE = of(SIMPLE_SPEC);
+
+    /** Letters and digits in lower case, without the English stopwords, stemmed */
+    public static final Analyzer ENGLISH = of(ENGLISH_SPEC);
+
+    private final String spec;
+    private final Tokenizer tokenizer;
+    private final TokenFilter[] filters;
+
+    /**
+     * Instantiate Analyzer
+     *
+     * @param spec      spec of the analyzer, it's used as its description
+     * @param tokenizer Tokenizer
+     * @param filters   TokenFilter in the order that they are applied
+     */
+    public Analyzer(String spec, Tokenizer tokenizer, TokenFilter... filters) {
+        if (tokenizer == null)
+            throw new IllegalArgumentException("Tokenizer must not be null");
+        this.spec = spec;
+        this.tokenizer = tokenizer;
+        this.filters = filters.clone();
+    }
+
+    /**
+     * Create the analyzer of the spec
+     *
+     * @param spec a comma separated list of the names of the tokenizer and the
+     *             filters, or "standard", "simple" or "english"
+     * @return Analyzer
+     * @throws IllegalArgumentException if a name is unknown, or the spec doesn't
+     *                                  start with a tokenizer
+     */
+    public static Analyzer of(String spec) throws IllegalArgumentException {
+        String normalized = spec == null ? "" : spec.trim().toLowerCase(Locale.ROOT).replaceAll("\\s", "");
+        if (normalized.equals("standard"))
+            normalized = STANDARD_SPEC;
+        else if (normalized.equals("simple"))
+            normalized = SIMPLE_SPEC;
+        else if (normalized.equals("english"))
+            normalized = ENGLISH_SPEC;
+        String[] names = normalized.split(",");
+        Tokenizer tokenizer = tokenizerOf(names[0]);
+        if (tokenizer == null)
+            throw new IllegalArgumentException("Analyzer should start with a tokenizer: " + spec);
+        List<TokenFilter> filters = new ArrayList<>();
+        for (int i = 1; i < names.length; i++) {
+            TokenFilter filter = filterOf(names[i]);
+            if (filter == null)
+                throw new IllegalArgumentException("Unknown token filter: " + names[i]);
+            filters.add(filter);
+        }
+        return new Analyzer(normalized, tokenizer, filters.toArray(new TokenFilter[0]));
+    }
+
+    private static Tokenizer tokenizerOf(String name) {
+        switch (name) {
+        case "unicode":
+            return new UnicodeTokenizer();
+        case "letter":
+            return new LetterTokenizer();
+        default:
+            return null;
+        }
+    }
+
+    private static TokenFilter filterOf(String name) {
+        switch (name) {
+        case "lowercase":
+            return new LowerCaseFilter();
+        case "stop":
+            return new StopFilter();
+        case "porter":
+            return new PorterStemFilter();
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Analyze the text of a field
+     *
+     * @param text text, e.g., of the head or the body of a webpage
+     * @return a mutable List of the words, including the duplicate ones, in the
+     *         order of appearance
+     */
+    public List<String> analyze(String text) {
+        List<String> tokens = tokenizer.tokenize(text);
+        if (filters.length == 0)
+            return tokens;
+        // filtered in place, the dropped tokens are squeezed out
+        int size = 0;
+        for (int i = 0, n = tokens.size(); i < n; i++) {
+            String token = filter(tokens.get(i));
+            if (token != null)
+                tokens.set(size++, token);
+        }
+        if (size < tokens.size())
+            tokens.subList(size, tokens.size()).clear();
+        return tokens;
+    }
+
+    /**
+     * Analyze a word of a query, it may be split into more than one word, e.g.,
+     * the bigrams of a Chinese word, or none if it's dropped, e.g., a stopword
+     *
+     * @param word a word of a query
+     * @return a List of the words as they are indexed, a WebDoc should contain
+     *         all of them to match the word
+     */
+    public List<String> analyzeWord(String word) {
+        return analyze(word);
+    }
+
+    /**
+     * Analyze a single token, the filters are applied to it (it's not tokenized)
+     *
+     * @param term a token
+     * @return the token as it's indexed, or {@code NULL} if it's dropped, e.g., a
+     *         stopword
+     */
+    public String analyzeTerm(String term) {
+        return filter(term);
+    }
+
+    private String filter(String token) {
+        for (TokenFilter filter : filters) {
+            token = filter.filter(token);
+            if (token == null)
+                return null;
+        }
+        return token;
+    }
+
+    /**
+     * Get the spec of the analyzer
+     *
+     * @return spec, e.g., "unicode,lowercase,stop,porter"
+     */
+    public String getSpec() {
+        return spec;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -0,0 +1,84 @@
+package com.curtisnewbie.analysis;
+
+/**
+ * <p>
+ * The analyzers of the fields (head and body) of the webpages. A WebDoc is
+ * analyzed with them when it's parsed, and the words of the queries are
+ * analyzed with the analyzer of the field that is searched, so they should be
+ * set before any webpage is parsed, e.g., from the config, and not changed
+ * afterwards, otherwise the queries may not match the words indexed earlier.
+ * </p>
+ * <p>
+ * Both are {@link Analyzer#STANDARD} by default.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+public final class Analyzers {
+
+    private static volatile Analyzer head = Analyzer.STANDARD;
+    private static volatile Analyzer body = Analyzer.STANDARD;
+
+    private Analyzers() {
+    }
+
+    /**
+     * Get the analyzer of the head
+     *
+     * @return Analyzer
+     */
+    public static Analyzer getHead() {
+        return head;
+    }
+
+    /**
+     * Set the analyzer of the head
+     *
+     * @param analyzer Analyzer
+     */
+    public static void setHead(Analyzer analyzer) {
+        if (analyzer == null)
+            throw new IllegalArgumentException("Analyzer must not be null");
+        head = analyzer;
+    }
+
+    /**
+     * Get the analyzer of the body
+     *
+     * @return Analyzer
+     */
+    public static Analyzer getBody() {
+        return body;
+    }
+
+    /**
+     * Set the analyzer of the body
+     *
+     * @param analyzer Analyzer
+     */
+    public static void setBody(Analyzer analyzer) {
+        if (analyzer == null)
+            throw new IllegalArgumentException("Analyzer must not be null");
+        body = analyzer;
+    }
+
+    /**
+     * Reset the analyzers of both fields to {@link Analyzer#STANDARD}
+     */
+    public static void reset() {
+        head = Analyzer.STANDARD;
+        body = Analyzer.STANDARD;
+    }
+
+    /**
+     * Check whether the word of a query is dropped by the analyzers of all the
+     * fields, e.g., a stopword, so it can't match anything and it's removed from
+     * the conjunctions and disjunctions
+     *
+     * @param word a word of a query
+     * @return whether it's dropped by all the fields
+     */
+    public static boolean isStopword(String word) {
+        return head.analyzeWord(word).isEmpty() && body.analyzeWord(word).isEmpty();
+    }
+}
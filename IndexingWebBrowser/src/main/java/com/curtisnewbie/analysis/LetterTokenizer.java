@@ -0,0 +1,33 @@
+package com.curtisnewbie.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tokenizer that splits the text into the longest runs of ASCII letters
+ * ([a-zA-Z]+), everything else (digits, punctuations, and non-ASCII letters) is
+ * a separator. The case of the letters is kept.
+ *
+ * @author Yongjie Zhuang
+ */
+public class LetterTokenizer implements Tokenizer {
+
+    @Override
+    public List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0, len = text.length(); i < len; i++) {
+            char c = text.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                if (start < 0)
+                    start = i;
+            } else if (start >= 0) {
+                tokens.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0)
+            tokens.add(text.substring(start));
+        return tokens;
+    }
+}
@@ -0,0 +1,17 @@
+package com.curtisnewbie.analysis;
+
+import java.util.Locale;
+
+/**
+ * TokenFilter that converts the tokens to lower case, the token itself is
+ * returned if it's already in lower case.
+ *
+ * @author Yongjie Zhuang
+ */
+public class LowerCaseFilter implements TokenFilter {
+
+    @Override
+    public String filter(String token) {
+        return token.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,360 @@
+package com.curtisnewbie.analysis;
+
+/**
+ * <p>
+ * TokenFilter that reduces the English words to their stems with the Porter
+ * stemming algorithm (M.F. Porter, 1980, "An algorithm for suffix stripping"),
+ * e.g., "index", "indexes", "indexing" and "indexed" are all reduced to
+ * "index", so a query of any of them matches the others.
+ * </p>
+ * <p>
+ * A stem is not necessarily a word, e.g., "happy" is reduced to "happi". The
+ * tokens are expected to be in lower case, so it should come after the
+ * {@link LowerCaseFilter}. The tokens of up to two letters are not changed.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+public class PorterStemFilter implements TokenFilter {
+
+    @Override
+    public String filter(String token) {
+        if (token.length() <= 2)
+            return token;
+        return new Stemmer(token).stem();
+    }
+
+    /**
+     * State of the stemming of a word, the word is in b[0..k], and j marks the
+     * end of the stem (excluding the suffix) found by {@link #ends(String)}.
+     */
+    private static final class Stemmer {
+        private final String word;
+        private final char[] b;
+        private int k;
+        private int j;
+        private boolean modified;
+
+        private Stemmer(String word) {
+            this.word = word;
+            this.b = word.toCharArray();
+            this.k = b.length - 1;
+        }
+
+        private String stem() {
+            step1ab();
+            if (k > 0) {
+                step1c();
+                step2();
+                step3();
+                step4();
+                step5();
+            }
+            return !modified && k == b.length - 1 ? word : new String(b, 0, k + 1);
+        }
+
+        /** Whether b[i] is a consonant */
+        private boolean cons(int i) {
+            switch (b[i]) {
+            case 'a':
+            case 'e':
+            case 'i':
+            case 'o':
+            case 'u':
+                return false;
+            case 'y':
+                return i == 0 || !cons(i - 1);
+            default:
+                return true;
+            }
+        }
+
+        /**
+         * The measure of b[0..j], i.e., the number of vowel-consonant sequences,
+         * e.g., 0 for "tr", 1 for "trouble", 2 for "private"
+         */
+        private int m() {
+            int n = 0;
+            int i = 0;
+            while (true) {
+                if (i > j)
+                    return n;
+                if (!cons(i))
+                    break;
+                i++;
+            }
+            i++;
+            while (true) {
+                while (true) {
+                    if (i > j)
+                        return n;
+                    if (cons(i))
+                        break;
+                    i++;
+                }
+                i++;
+                n++;
+                while (true) {
+                    if (i > j)
+                        return n;
+                    if (!cons(i))
+                        break;
+                    i++;
+                }
+                i++;
+            }
+        }
+
+        /** Whether b[0..j] contains a vowel */
+        private boolean vowelInStem() {
+            for (int i = 0; i <= j; i++)
+                if (!cons(i))
+                    return true;
+            return false;
+        }
+
+        /** Whether b[i-1..i] is a double consonant */
+        private boolean doubleC(int i) {
+            return i >= 1 && b[i] == b[i - 1] && cons(i);
+        }
+
+        /**
+         * Whether b[i-2..i] is consonant-vowel-consonant and the last consonant is
+         * not w, x or y, e.g., "hop" but not "snow", it's used to restore an 'e'
+         * for the short words, e.g., "hoping" -> "hope"
+         */
+        private boolean cvc(int i) {
+            if (i < 2 || !cons(i) || cons(i - 1) || !cons(i - 2))
+                return false;
+            char c = b[i];
+            return c != 'w' && c != 'x' && c != 'y';
+        }
+
+        /** Whether b[0..k] ends with the suffix, j is set to the end of the stem if so */
+        private boolean ends(String suffix) {
+            int len = suffix.length();
+            int offset = k - len + 1;
+            if (offset < 0)
+                return false;
+            for (int i = 0; i < len; i++)
+                if (b[offset + i] != suffix.charAt(i))
+                    return false;
+            j = k - len;
+            return true;
+        }
+
+        /** Replace b[j+1..k] with the string */
+        private void setTo(String s) {
+            int len = s.length();
+            for (int i = 0; i < len; i++)
+                b[j + 1 + i] = s.charAt(i);
+            k = j + len;
+            modified = true;
+        }
+
+        /** Replace the suffix with the string if the stem has a measure greater than 0 */
+        private void r(String s) {
+            if (m() > 0)
+                setTo(s);
+        }
+
+        /**
+         * Remove the plurals, -ed and -ing, e.g., "caresses" -> "caress", "ponies" ->
+         * "poni", "cats" -> "cat", "agreed" -> "agree", "motoring" -> "motor",
+         * "hopping" -> "hop", "filing" -> "file"
+         */
+        private void step1ab() {
+            if (b[k] == 's') {
+                if (ends("sses"))
+                    k -= 2;
+                else if (ends("ies"))
+                    setTo("i");
+                else if (b[k - 1] != 's')
+                    k--;
+            }
+            if (ends("eed")) {
+                if (m() > 0)
+                    k--;
+            } else if ((ends("ed") || ends("ing")) && vowelInStem()) {
+                k = j;
+                if (ends("at")) {
+                    setTo("ate");
+                } else if (ends("bl")) {
+                    setTo("ble");
+                } else if (ends("iz")) {
+                    setTo("ize");
+                } else if (doubleC(k)) {
+                    char c = b[k];
+                    if (c != 'l' && c != 's' && c != 'z')
+                        k--;
+                } else if (m() == 1 && cvc(k)) {
+                    setTo("e");
+                }
+            }
+        }
+
+        /** Replace the terminal 'y' with 'i' if there's another vowel in the stem */
+        private void step1c() {
+            if (ends("y") && vowelInStem()) {
+                b[k] = 'i';
+                modified = true;
+            }
+        }
+
+        /** Map the double suffixes to the single ones, e.g., "-ization" -> "-ize" */
+        private void step2() {
+            switch (b[k - 1]) {
+            case 'a':
+                if (ends("ational"))
+                    r("ate");
+                else if (ends("tional"))
+                    r("tion");
+                break;
+            case 'c':
+                if (ends("enci"))
+                    r("ence");
+                else if (ends("anci"))
+                    r("ance");
+                break;
+            case 'e':
+                if (ends("izer"))
+                    r("ize");
+                break;
+            case 'l':
+                if (ends("bli"))
+                    r("ble");
+                else if (ends("alli"))
+                    r("al");
+                else if (ends("entli"))
+                    r("ent");
+                else if (ends("eli"))
+                    r("e");
+                else if (ends("ousli"))
+                    r("ous");
+                break;
+            case 'o':
+                if (ends("ization"))
+                    r("ize");
+                else if (ends("ation"))
+                    r("ate");
+                else if (ends("ator"))
+                    r("ate");
+                break;
+            case 's':
+                if (ends("alism"))
+                    r("al");
+                else if (ends("iveness"))
+                    r("ive");
+                else if (ends("fulness"))
+                    r("ful");
+                else if (ends("ousness"))
+                    r("ous");
+                break;
+            case 't':
+                if (ends("aliti"))
+                    r("al");
+                else if (ends("iviti"))
+                    r("ive");
+                else if (ends("biliti"))
+                    r("ble");
+                break;
+            case 'g':
+                if (ends("logi"))
+                    r("log");
+                break;
+            default:
+                break;
+            }
+        }
+
+        /** Deal with -ic-, -full, -ness etc., e.g., "-icate" -> "-ic" */
+        private void step3() {
+            switch (b[k]) {
+            case 'e':
+                if (ends("icate"))
+                    r("ic");
+                else if (ends("ative"))
+                    r("");
+                else if (ends("alize"))
+                    r("al");
+                break;
+            case 'i':
+                if (ends("iciti"))
+                    r("ic");
+                break;
+            case 'l':
+                if (ends("ical"))
+                    r("ic");
+                else if (ends("ful"))
+                    r("");
+                break;
+            case 's':
+                if (ends("ness"))
+                    r("");
+                break;
+            default:
+                break;
+            }
+        }
+
+        /** Remove -ant, -ence etc. if the stem has a measure greater than 1 */
+        private void step4() {
+            boolean found;
+            switch (b[k - 1]) {
+            case 'a':
+                found = ends("al");
+                break;
+            case 'c':
+                found = ends("ance") || ends("ence");
+                break;
+            case 'e':
+                found = ends("er");
+                break;
+            case 'i':
+                found = ends("ic");
+                break;
+            case 'l':
+                found = ends("able") || ends("ible");
+                break;
+            case 'n':
+                found = ends("ant") || ends("ement") || ends("ment") || ends("ent");
+                break;
+            case 'o':
+                found = (ends("ion") && j >= 0 && (b[j] == 's' || b[j] == 't')) || ends("ou");
+                break;
+            case 's':
+                found = ends("ism");
+                break;
+            case 't':
+                found = ends("ate") || ends("iti");
+                break;
+            case 'u':
+                found = ends("ous");
+                break;
+            case 'v':
+                found = ends("ive");
+                break;
+            case 'z':
+                found = ends("ize");
+                break;
+            default:
+                found = false;
+                break;
+            }
+            if (found && m() > 1)
+                k = j;
+        }
+
+        /** Remove the final -e, and -ll -> -l, if the stem has a measure greater than 1 */
+        private void step5() {
+            j = k;
+            if (b[k] == 'e') {
+                int a = m();
+                if (a > 1 || (a == 1 && !cvc(k - 1)))
+                    k--;
+            }
+            if (b[k] == 'l' && doubleC(k) && m() > 1)
+                k--;
+        }
+    }
+}
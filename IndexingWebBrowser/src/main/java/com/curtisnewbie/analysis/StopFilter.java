@@ -0,0 +1,42 @@
+package com.curtisnewbie.analysis;
+
+import java.util.Set;
+
+/**
+ * TokenFilter that drops the stopwords, i.e., the words that are in most of the
+ * webpages, so their postings are large but useless for searching. The
+ * stopwords are compared as they are, so it should come after the
+ * {@link LowerCaseFilter}.
+ *
+ * @author Yongjie Zhuang
+ */
+public class StopFilter implements TokenFilter {
+
+    /** The common English stopwords, in lower case */
+    public static final Set<String> ENGLISH_STOPWORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "but",
+            "by", "for", "if", "in", "into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the",
+            "their", "then", "there", "these", "they", "this", "to", "was", "will", "with");
+
+    private final Set<String> stopwords;
+
+    /**
+     * Instantiate StopFilter with the {@link #ENGLISH_STOPWORDS}
+     */
+    public StopFilter() {
+        this(ENGLISH_STOPWORDS);
+    }
+
+    /**
+     * Instantiate StopFilter
+     *
+     * @param stopwords the words that are dropped
+     */
+    public StopFilter(Set<String> stopwords) {
+        this.stopwords = Set.copyOf(stopwords);
+    }
+
+    @Override
+    public String filter(String token) {
+        return stopwords.contains(token) ? null : token;
+    }
+}
@@ -0,0 +1,20 @@
+package com.curtisnewbie.analysis;
+
+/**
+ * A stage of an {@link Analyzer} after the {@link Tokenizer}, it transforms or
+ * drops each token, e.g., lower-casing, removing the stopwords or stemming.
+ *
+ * @author Yongjie Zhuang
+ */
+@FunctionalInterface
+public interface TokenFilter {
+
+    /**
+     * Filter the token
+     *
+     * @param token a token, it's never {@code NULL}
+     * @return the transformed token (or the same one), or {@code NULL} if it's
+     *         dropped
+     */
+    String filter(String token);
+}
@@ -0,0 +1,22 @@
+package com.curtisnewbie.analysis;
+
+import java.util.List;
+
+/**
+ * The first stage of an {@link Analyzer}, it splits the text into tokens.
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see TokenFilter
+ */
+@FunctionalInterface
+public interface Tokenizer {
+
+    /**
+     * Split the text into tokens
+     *
+     * @param text text of a field, e.g., the head or the body of a webpage
+     * @return a mutable List of tokens, in the order of appearance
+     */
+    List<String> tokenize(String text);
+}
@@ -0,0 +1,142 @@
+package com.curtisnewbie.analysis;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Tokenizer that splits the text into the longest runs of the letters and
+ * digits of any script (see {@link Character#isLetterOrDigit(int)}), e.g.,
+ * "café", "москва" or "2020". The combining marks inside a word are kept, and
+ * the words with non-ASCII characters are normalized to the NFC form, so a
+ * decomposed "e" + "́" is the same as the precomposed "é".
+ * </p>
+ * <p>
+ * Chinese and Japanese (Han, Hiragana and Katakana) are written without spaces,
+ * so each run of their characters is split into the overlapping pairs of
+ * adjacent characters (bigrams), e.g., "東京都" -> "東京", "京都", and a single
+ * character is kept as it is.
+ * </p>
+ * <p>
+ * The ASCII characters are classified by a lookup table rather than the
+ * Unicode properties, and a run of ASCII letters and digits is scanned in a
+ * tight loop, so the English text is tokenized about as fast as by the
+ * {@link LetterTokenizer}.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+public class UnicodeTokenizer implements Tokenizer {
+
+    /** Whether each ASCII character is a letter or a digit */
+    private static final boolean[] ASCII_WORD_CHARS = new boolean[0x80];
+
+    static {
+        for (char c = '0'; c <= '9'; c++)
+            ASCII_WORD_CHARS[c] = true;
+        for (char c = 'a'; c <= 'z'; c++)
+            ASCII_WORD_CHARS[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++)
+            ASCII_WORD_CHARS[c] = true;
+    }
+
+    /** Code points below it are neither Han, Hiragana nor Katakana */
+    private static final int MIN_CJK = 0x2E80;
+
+    @Override
+    public List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int len = text.length();
+        // start of the current word, or -1
+        int start = -1;
+        boolean nonAscii = false;
+        int i = 0;
+        while (i < len) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (!ASCII_WORD_CHARS[c]) {
+                    if (start >= 0) {
+                        addWord(tokens, text, start, i, nonAscii);
+                        start = -1;
+                    }
+                    i++;
+                    continue;
+                }
+                if (start < 0) {
+                    start = i;
+                    nonAscii = false;
+                }
+                while (++i < len && (c = text.charAt(i)) < 0x80 && ASCII_WORD_CHARS[c])
+                    ;
+                continue;
+            }
+            int cp = text.codePointAt(i);
+            if (cp >= MIN_CJK && isCjk(cp)) {
+                if (start >= 0) {
+                    addWord(tokens, text, start, i, nonAscii);
+                    start = -1;
+                }
+                i = addBigrams(tokens, text, i);
+                continue;
+            }
+            if (Character.isLetterOrDigit(cp) || (start >= 0 && isMark(cp))) {
+                if (start < 0)
+                    start = i;
+                nonAscii = true;
+            } else if (start >= 0) {
+                addWord(tokens, text, start, i, nonAscii);
+                start = -1;
+            }
+            i += Character.charCount(cp);
+        }
+        if (start >= 0)
+            addWord(tokens, text, start, len, nonAscii);
+        return tokens;
+    }
+
+    private static void addWord(List<String> tokens, String text, int start, int end, boolean nonAscii) {
+        String word = text.substring(start, end);
+        tokens.add(nonAscii ? Normalizer.normalize(word, Normalizer.Form.NFC) : word);
+    }
+
+    /**
+     * Add the bigrams of the run of CJK characters starting at the index
+     *
+     * @return the end of the run
+     */
+    private static int addBigrams(List<String> tokens, String text, int i) {
+        int len = text.length();
+        int first = i;
+        int prev = -1;
+        while (i < len) {
+            int cp = text.codePointAt(i);
+            if (cp < MIN_CJK || !isCjk(cp))
+                break;
+            int next = i + Character.charCount(cp);
+            if (prev >= 0)
+                tokens.add(text.substring(prev, next));
+            prev = i;
+            i = next;
+        }
+        if (prev == first)
+            tokens.add(text.substring(first, i));
+        return i;
+    }
+
+    private static boolean isCjk(int cp) {
+        // the common blocks are checked before looking up the script
+        if ((cp >= 0x4E00 && cp <= 0x9FFF) || (cp >= 0x3041 && cp <= 0x3096)
+                || (cp >= 0x30A1 && cp <= 0x30FA))
+            return true;
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA;
+    }
+
+    private static boolean isMark(int cp) {
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+                || type == Character.ENCLOSING_MARK;
+    }
+}
@@ -5,4 +5,13 @@ public class Config {
 
     public static final String CONFIG_URL = "defaultUrl";
     public static final String CONFIG_TITLE = "title";
+    public static final String CONFIG_HTTP_PORT = "httpPort";
+    public static final String CONFIG_FETCH_CACHE = "fetchCacheFile";
+    public static final String CONFIG_MEMORY_BUDGET = "memoryBudgetMB";
+    public static final String CONFIG_NEAR_DUPLICATE_MODE = "nearDuplicateMode";
+    public static final String CONFIG_NEAR_DUPLICATE_DISTANCE = "nearDuplicateDistance";
+    public static final String CONFIG_QUERY_LOG = "queryLogFile";
+    public static final String CONFIG_HEAD_ANALYZER = "headAnalyzer";
+    public static final String CONFIG_BODY_ANALYZER = "bodyAnalyzer";
+    public static final String CONFIG_WATCH_DIRS = "watchDirs";
 }
\ No newline at end of file
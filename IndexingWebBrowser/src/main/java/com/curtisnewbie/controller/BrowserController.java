@@ -1,14 +1,29 @@
 package com.curtisnewbie.controller;
 
+import com.curtisnewbie.analysis.Analyzer;
+import com.curtisnewbie.analysis.Analyzers;
 import com.curtisnewbie.config.*;
+import com.curtisnewbie.crawler.CrawlPolicy;
+import com.curtisnewbie.crawler.CrawlStats;
+import com.curtisnewbie.crawler.Crawler;
+import com.curtisnewbie.fetch.FetchCache;
+import com.curtisnewbie.fetch.FetchResult;
+import com.curtisnewbie.fetch.WebFetcher;
+import com.curtisnewbie.jfr.PageLoadEvent;
+import com.curtisnewbie.metrics.JmxMetrics;
+import com.curtisnewbie.util.VirtualThreads;
+import com.curtisnewbie.querylog.QueryLogRecord;
+import com.curtisnewbie.querylog.QueryLogWriter;
 import com.curtisnewbie.view.*;
+import com.curtisnewbie.watcher.DirectoryWatcher;
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+import com.curtisnewbie.webBrowserModel.QueryProfile;
+import com.curtisnewbie.webBrowserModel.SearchResult;
+import com.curtisnewbie.webBrowserModel.UrlCanonicalizer;
 import com.curtisnewbie.webBrowserModel.WebDoc;
-import com.curtisnewbie.webBrowserModel.WebIndexForBody;
-import com.curtisnewbie.webBrowserModel.WebIndexForHead;
-
-import com.curtisnewbie.webBrowserModel.Query;
-import com.curtisnewbie.webBrowserModel.QueryBuilder;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.concurrent.Worker.State;
@@ -17,11 +32,19 @@ import javafx.scene.control.Button;
 import javafx.scene.control.Tab;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
+import javafx.util.Duration;
 
-import java.io.FileNotFoundException;
+import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.w3c.dom.Document;
 import javax.xml.transform.Transformer;
@@ -42,13 +65,60 @@ public class BrowserController {
 
     private final String DEF_URL = "https://www.google.com";
 
+    /** Delay after the last keystroke before the query is evaluated */
+    private final Duration INCREMENTAL_QUERY_DELAY = Duration.millis(250);
+
     private BrowserView view;
     private String default_url;
-    private WebIndexForHead headIndex;
-    private WebIndexForBody bodyIndex;
 
-    /** Map used to keep track of WebDoc that has never been visited */
-    private Map<String, WebDoc> allWebDocs;
+    /** Engine that indexes the visited webpages and evaluates the queries */
+    private IndexingEngine indexingEngine;
+
+    /**
+     * Single background thread in which both the indexing and the query
+     * evaluation are done, so the FX thread is never blocked by them.
+     */
+    private ExecutorService modelExecutor;
+
+    /** The query evaluation that is currently pending or running */
+    private Future<?> pendingQuery;
+
+    /**
+     * Incremented for every query submitted, only the results of the latest query
+     * are published to the QueryResultPanel. It's only accessed in FX thread.
+     */
+    private long queryGeneration;
+
+    /**
+     * Validators of the fetched webpages, so the revisited webpages are only
+     * re-indexed when they are modified
+     */
+    private FetchCache fetchCache;
+
+    /** Log of the submitted queries, it's {@code NULL} unless it's configured */
+    private volatile QueryLogWriter queryLog;
+
+    /** Watcher of the local directories, it's {@code NULL} unless it's configured */
+    private volatile DirectoryWatcher directoryWatcher;
+
+    /** Crawler that pre-indexes the sites reachable from the browsing history */
+    private Crawler crawler;
+
+    /** Whether the crawler is running, it's only accessed in FX thread */
+    private boolean isCrawling;
+
+    /**
+     * Single background thread that runs the crawls, so a crawl doesn't hold up
+     * the indexing of the visited webpages in the modelExecutor
+     */
+    private ExecutorService crawlExecutor;
+
+    /**
+     * Executor of the conditional GETs of the revisited webpages, each one in its
+     * own (virtual, if available) thread, so a slow or dead host never holds up
+     * the queries and the indexing in the modelExecutor
+     */
+    private ExecutorService fetchExecutor;
 
     /** transformer for transform Document to HTML text */
     private Transformer transformer;
@@ -56,10 +126,24 @@ public class BrowserController {
     public BrowserController(BrowserView view) {
         // initialise components
         this.view = view;
-        this.headIndex = new WebIndexForHead();
-        this.bodyIndex = new WebIndexForBody();
-        this.allWebDocs = new HashMap<>();
+        this.indexingEngine = new IndexingEngine();
         this.default_url = DEF_URL;
+        this.fetchCache = new FetchCache(WebFetcher.getDefault(), Paths.get(FetchCache.DEF_CACHE_FILE));
+        this.crawler = new Crawler(indexingEngine, WebFetcher.getDefault(), new CrawlPolicy());
+        JmxMetrics.register(indexingEngine);
+        JmxMetrics.register(() -> fetchCache);
+        JmxMetrics.register(crawler);
+        this.modelExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "model-executor");
+            t.setDaemon(true);
+            return t;
+        });
+        this.crawlExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "crawler");
+            t.setDaemon(true);
+            return t;
+        });
+        this.fetchExecutor = VirtualThreads.newThreadPerTaskExecutor("page-refresh");
 
         // register EventHandlers
         this.view.addMenuEventHandlers(createMenuEventHandlers());
@@ -69,15 +153,85 @@ public class BrowserController {
         this.view.addForwardBtnHandler(createForwardBtnHandler());
         this.view.addInfixQueryHandler(createInfixQueryHandler());
         this.view.addPrefixQueryHandler(createPrefixQueryHandler());
+        this.view.addIncrementalQueryListeners(createIncrementalQueryListener(true),
+                createIncrementalQueryListener(false));
+        this.view.addQueryResultSelectionListener(createQueryResultSelectionListener());
+        loadFetchCache();
     }
 
     public BrowserController(BrowserView view, Map<String, String> configMap) {
         this(view);
         if (configMap != null) {
             default_url = configMap.get(Config.CONFIG_URL);
+            String headAnalyzer = configMap.get(Config.CONFIG_HEAD_ANALYZER);
+            if (headAnalyzer != null && !headAnalyzer.isBlank())
+                Analyzers.setHead(Analyzer.of(headAnalyzer));
+            String bodyAnalyzer = configMap.get(Config.CONFIG_BODY_ANALYZER);
+            if (bodyAnalyzer != null && !bodyAnalyzer.isBlank())
+                Analyzers.setBody(Analyzer.of(bodyAnalyzer));
+            String memoryBudget = configMap.get(Config.CONFIG_MEMORY_BUDGET);
+            if (memoryBudget != null && !memoryBudget.isBlank())
+                indexingEngine.setMemoryBudget(Long.parseLong(memoryBudget.trim()) * 1024 * 1024);
+            String duplicateMode = configMap.get(Config.CONFIG_NEAR_DUPLICATE_MODE);
+            String duplicateDistance = configMap.get(Config.CONFIG_NEAR_DUPLICATE_DISTANCE);
+            if ((duplicateMode != null && !duplicateMode.isBlank())
+                    || (duplicateDistance != null && !duplicateDistance.isBlank())) {
+                indexingEngine.setNearDuplicateDetection(
+                        duplicateMode == null || duplicateMode.isBlank() ? indexingEngine.getDuplicateMode()
+                                : IndexingEngine.DuplicateMode.valueOf(duplicateMode.trim().toUpperCase()),
+                        duplicateDistance == null || duplicateDistance.isBlank()
+                                ? IndexingEngine.DEF_NEAR_DUPLICATE_DISTANCE
+                                : Integer.parseInt(duplicateDistance.trim()),
+                        IndexingEngine.DEF_MIN_WORDS_TO_FINGERPRINT);
+            }
+            String queryLogFile = configMap.get(Config.CONFIG_QUERY_LOG);
+            if (queryLogFile != null && !queryLogFile.isBlank()) {
+                try {
+                    queryLog = new QueryLogWriter(Paths.get(queryLogFile.trim()));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            String watchDirs = configMap.get(Config.CONFIG_WATCH_DIRS);
+            if (watchDirs != null && !watchDirs.isBlank())
+                watchDirectories(watchDirs.split(File.pathSeparator));
+            String cacheFile = configMap.get(Config.CONFIG_FETCH_CACHE);
+            if (cacheFile != null && !cacheFile.isBlank()) {
+                fetchCache = new FetchCache(WebFetcher.getDefault(), Paths.get(cacheFile));
+                loadFetchCache();
+            }
         }
     }
 
+    /**
+     * Watch the local directories, the html files in them are indexed in the
+     * watcher's thread, and then re-indexed as they change
+     */
+    private void watchDirectories(String[] dirs) {
+        try {
+            directoryWatcher = new DirectoryWatcher(indexingEngine);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        List<Path> paths = new ArrayList<>();
+        for (String dir : dirs) {
+            if (!dir.isBlank())
+                paths.add(Paths.get(dir.trim()));
+        }
+        // scanned on the watcher's thread, the IndexingEngine is thread-safe
+        directoryWatcher.start(paths);
+    }
+
+    /**
+     * Get the engine that indexes the visited webpages and evaluates the queries
+     * 
+     * @return IndexingEngine
+     */
+    public IndexingEngine getIndexingEngine() {
+        return indexingEngine;
+    }
+
     /**
      * Create a list of EventHandlers for Menu
      * 
@@ -93,9 +247,42 @@ public class BrowserController {
             // handler for toQueryPane menuItem
             this.view.switchView(view.getQueryPane());
         });
+        handlers.add(e -> {
+            // handler for crawlHistory menuItem
+            startCrawling();
+        });
         return handlers;
     }
 
+    /**
+     * Crawl from the default url and the browsing history in the crawlExecutor,
+     * the crawled pages are indexed but not added to the history, and the
+     * CrawlStats are shown in the summary panel when it's finished. It does
+     * nothing if the crawler is already running.
+     */
+    private void startCrawling() {
+        if (isCrawling)
+            return;
+        isCrawling = true;
+        List<String> seeds = new ArrayList<>();
+        seeds.add(default_url);
+        for (WebDoc doc : indexingEngine.getAllWebDocs()) {
+            if (doc.getFileType() == WebDoc.FileType.WEB_URL)
+                seeds.add(doc.getUrlString());
+        }
+        crawlExecutor.execute(() -> {
+            try {
+                CrawlStats stats = crawler.crawl(seeds);
+                Platform.runLater(
+                        () -> view.getQueryPane().getUrlSummaryPanel().getTextArea().setText("[Crawl:]\n" + stats));
+            } catch (InterruptedException e) {
+                // stopped
+            } finally {
+                Platform.runLater(() -> isCrawling = false);
+            }
+        });
+    }
+
     /**
      * Create EventHandler for loading url in textfield. When no tab exists,
      * entering url in textfield will result in creating a new tab to load such url.
@@ -192,20 +379,25 @@ public class BrowserController {
                         url = textField.getText();
 
                     // save unique url in history
-                    if (url != null && !allWebDocs.containsKey(url)) {
+                    if (url != null && !indexingEngine.contains(url)) {
                         // update browsing history
                         updateHistoryPanel(url);
 
                         // transform document to a string
+                        PageLoadEvent event = new PageLoadEvent();
+                        event.begin();
                         String content = transformDocumentToString(engine.getDocument());
-
-                        // update web index
-                        WebDoc doc = updateWebIndices(url, content);
-
-                        // update unique history
-                        if (doc != null) {
-                            allWebDocs.put(url, doc);
-                        }
+                        if (event.shouldCommit())
+                            event.commit(url, PageLoadEvent.SOURCE_BROWSER, -1,
+                                    content == null ? 0 : content.length(), -1);
+
+                        // update web index and unique history in background
+                        final String docUrl = url;
+                        modelExecutor.execute(() -> updateWebIndices(docUrl, content));
+                    } else if (url != null) {
+                        // revisited, re-index it only if it's modified
+                        final String docUrl = url;
+                        fetchExecutor.execute(() -> refreshWebIndices(docUrl));
                     }
 
                     // update textField to tell the user the location of current webpage (just like
@@ -306,17 +498,7 @@ public class BrowserController {
             var textField = this.view.getQueryPane().getQueryControlPanel().getInfixTf();
             String infixQuery = textField.getText();
             if (infixQuery != null && !infixQuery.isEmpty()) {
-                if (infixQuery.trim().equalsIgnoreCase("/all")) {
-                    // special command for showing all WebDoc
-                    updateQueryResultPanel(allWebDocs.values(), null);
-                } else {
-                    // parse query
-                    Query parsedQuery = QueryBuilder.parseInfixForm(infixQuery);
-                    Set<WebDoc> headResultSet = parsedQuery.matches(headIndex);
-                    Set<WebDoc> bodyResultSet = parsedQuery.matches(bodyIndex);
-                    // update view
-                    updateQueryResultPanel(headResultSet, bodyResultSet);
-                }
+                submitQuery(infixQuery, true);
             }
             textField.clear();
         };
@@ -337,29 +519,123 @@ public class BrowserController {
             var textField = this.view.getQueryPane().getQueryControlPanel().getPrefixTf();
             String prefixQuery = textField.getText();
             if (prefixQuery != null && !prefixQuery.isEmpty()) {
-
-                if (prefixQuery.trim().equalsIgnoreCase("/all")) {
-                    // special command for showing all WebDoc
-                    updateQueryResultPanel(allWebDocs.values(), null);
-                } else {
-                    // parse query
-                    Query parsedQuery = QueryBuilder.parse(prefixQuery);
-                    Set<WebDoc> headResultSet = parsedQuery.matches(headIndex);
-                    Set<WebDoc> bodyResultSet = parsedQuery.matches(bodyIndex);
-                    // update view
-                    updateQueryResultPanel(headResultSet, bodyResultSet);
-                }
+                submitQuery(prefixQuery, false);
             }
             textField.clear();
         };
     }
 
     /**
-     * Update the QueryResultPanel by clearing the {@code ObservableList<Node>} in
-     * the two VBoxs, and refill them with the Buttons that contain the results of
-     * the query (the URL String). Each button is registered with an EventHandler
-     * that when it is clicked, the panel in the middle of the QueryPane will show
-     * the summary (words in head and body) of this url.
+     * <p>
+     * Create {@code ChangeListener} for the search-as-you-type mode. When the mode
+     * is enabled, every keystroke restarts a short delay, and the query is only
+     * submitted once the user stops typing for this delay.
+     * </p>
+     * 
+     * @param isInfix whether it's for the infix query textfield
+     * @return {@code ChangeListener} for the text of the query textfield
+     * 
+     * @see QueryControlPanel
+     * @see #submitQuery(String, boolean)
+     */
+    private ChangeListener<String> createIncrementalQueryListener(boolean isInfix) {
+        PauseTransition debounce = new PauseTransition(INCREMENTAL_QUERY_DELAY);
+        return (observable, oldValue, newValue) -> {
+            if (!view.getQueryPane().getQueryControlPanel().getIncrementalCb().isSelected())
+                return;
+            debounce.stop();
+            if (newValue == null || newValue.isBlank())
+                return;
+            debounce.setOnFinished(e -> submitQuery(newValue, isInfix));
+            debounce.playFromStart();
+        };
+    }
+
+    /**
+     * <p>
+     * Submit the query to be evaluated in background. The previous query that is
+     * still pending or running is cancelled, and only the results of the latest
+     * query are published to the QueryResultPanel.
+     * </p>
+     * <p>
+     * A query starting with "/explain " is also profiled, and the profile of each
+     * node of its query tree is shown in the summary panel.
+     * </p>
+     * <p>
+     * This method should only be called in FX thread.
+     * </p>
+     * 
+     * @param query   the query (or the special command "/all" or "/explain")
+     * @param isInfix whether it's an infix query or a prefix query
+     */
+    private void submitQuery(String query, boolean isInfix) {
+        if (pendingQuery != null)
+            pendingQuery.cancel(true);
+        long generation = ++queryGeneration;
+        pendingQuery = modelExecutor.submit(() -> {
+            SearchResult result;
+            QueryProfile profile = null;
+            try {
+                String searched = query;
+                if (query.startsWith(IndexingEngine.EXPLAIN_COMMAND)) {
+                    searched = query.substring(IndexingEngine.EXPLAIN_COMMAND.length());
+                    profile = indexingEngine.explain(searched, isInfix);
+                }
+                long timestamp = System.currentTimeMillis();
+                long start = System.nanoTime();
+                result = indexingEngine.search(searched, isInfix);
+                if (result == null)
+                    return;
+                logQuery(new QueryLogRecord(searched, isInfix, timestamp, System.nanoTime() - start,
+                        sizeOf(result.getHeadResults()), sizeOf(result.getBodyResults())));
+            } catch (CancellationException e) {
+                // superseded by a newer query
+                return;
+            } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                // ill-formed query, which is expected when it's still being typed
+                return;
+            } catch (RuntimeException e) {
+                // the future is never read, report it here rather than losing it
+                e.printStackTrace();
+                return;
+            }
+            // update view
+            QueryProfile explainedProfile = profile;
+            Platform.runLater(() -> {
+                if (generation != queryGeneration)
+                    return;
+                updateQueryResultPanel(result.getHeadResults(), result.getBodyResults());
+                if (explainedProfile != null)
+                    view.getQueryPane().getUrlSummaryPanel().getTextArea()
+                            .setText("[Query Profile:]\n" + explainedProfile);
+            });
+        });
+    }
+
+    /**
+     * Append the query to the query log, if it's enabled
+     * 
+     * @param record QueryLogRecord
+     */
+    private void logQuery(QueryLogRecord record) {
+        QueryLogWriter log = queryLog;
+        if (log == null)
+            return;
+        try {
+            log.append(record);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static int sizeOf(Collection<WebDoc> results) {
+        return results == null ? 0 : results.size();
+    }
+
+    /**
+     * Update the QueryResultPanel by replacing the results in its two lists with
+     * the url Strings of the given WebDocs. The lists are virtualised, so only the
+     * visible rows are rendered no matter how many results there are.
      * 
      * @param headResSet Collection of WebDoc for the head section
      * @param bodyResSet Collection of WebDoc for the body section
@@ -379,34 +655,27 @@ public class BrowserController {
 
         // update view
         var queryResult = this.view.getQueryPane().getQueryResultPanel();
-        var headVBox = queryResult.getHdResVBox();
-        headVBox.getChildren().clear();
-        for (String url : headList) {
-            headVBox.getChildren().add(createQueryResultBtn(url));
-        }
-        var bodyVBox = queryResult.getBdResVBox();
-        bodyVBox.getChildren().clear();
-        for (String url : bodyList) {
-            bodyVBox.getChildren().add(createQueryResultBtn(url));
-        }
+        queryResult.getHdResList().setResults(headList);
+        queryResult.getBdResList().setResults(bodyList);
     }
 
     /**
-     * Return a new Button of the given url, which is registered with an
-     * EventHandler that when it is clicked, the panel in the middle of the
-     * QueryPane will show the summary (words in head and body) of this url.
+     * Create {@code ChangeListener} for the query results, when a result (url
+     * String) is selected, the panel in the middle of the QueryPane will show the
+     * summary (words in head and body) of this url.
      * 
-     * @param url URL string
-     * @return a new Button of the url that is registered with an EventHandler that
-     *         shows the summary (words in head and body) of this url in the middle
-     *         of the QueryPane.
+     * @return {@code ChangeListener} that shows the summary (words in head and
+     *         body) of the selected url in the middle of the QueryPane.
      * @see QueryPane
      */
-    private Button createQueryResultBtn(String url) {
-        var btn = new Button(url);
-        btn.setOnAction(e -> {
+    private ChangeListener<String> createQueryResultSelectionListener() {
+        return (observable, oldUrl, url) -> {
+            if (url == null)
+                return;
+            WebDoc webDoc = indexingEngine.getWebDoc(url);
+            if (webDoc == null)
+                return;
             var textArea = view.getQueryPane().getUrlSummaryPanel().getTextArea();
-            WebDoc webDoc = allWebDocs.get(url);
             StringBuilder headWords = new StringBuilder();
             for (String wd : webDoc.getHeadWords()) {
                 headWords.append(wd + " ");
@@ -417,19 +686,23 @@ public class BrowserController {
                 bodyWords.append(wd + " ");
             }
             textArea.setText("[Words In Head:]\n" + headWords + "\n\n[Words In Body:]\n" + bodyWords);
-        });
-        return btn;
+        };
     }
 
     /**
      * Add "http://" protocol to the given url string if this url is not starting
-     * with "http://" or "https://".
+     * with "http://" or "https://" (in any case), and canonicalize it.
      * 
      * @param oriUrl
      * @return url string
+     * @see UrlCanonicalizer
      */
     private String completeURL(String oriUrl) {
-        return oriUrl.startsWith("http://") || oriUrl.startsWith("https://") ? oriUrl : "http://" + oriUrl;
+        String url = oriUrl.trim();
+        String lowerCase = url.toLowerCase();
+        if (!lowerCase.startsWith("http://") && !lowerCase.startsWith("https://"))
+            url = "http://" + url;
+        return UrlCanonicalizer.canonicalize(url);
     }
 
     /**
@@ -461,14 +734,19 @@ public class BrowserController {
 
     /**
      * <p>
-     * Update the WebIndex for body and head sections of the webpage, only when this
-     * url has neven been accessed to. This method should only be called when the
-     * url is correct and has been successfully accessed.
+     * Update the WebIndex for body and head sections of the webpage through the
+     * IndexingEngine, which ignores the url that has already been indexed. This
+     * method should only be called when the url is correct and has been
+     * successfully accessed.
      * </p>
      * <p>
-     * This method does not know whether this url has been visited before, so other
-     * means should be used to ensure this url is unique and has neven been passed
-     * to this method before.
+     * The webpage is indexed from the DOM of the WebView, which has no validators,
+     * so none are recorded, the first revisit fetches it unconditionally and
+     * records the validators of the content it indexes (see
+     * {@link #refreshWebIndices(String)}).
+     * </p>
+     * <p>
+     * This method should only be called in the modelExecutor.
      * </p>
      * 
      * @param url     URL String
@@ -477,26 +755,105 @@ public class BrowserController {
      *                making connection to the URL, else it will be constructed by
      *                parsing the given content string.
      * @return the created WebDoc
+     * @see IndexingEngine#index(String, String)
      */
     private WebDoc updateWebIndices(String url, String content) {
         try {
-            WebDoc doc;
-            if (content == null) {
-                doc = new WebDoc(url);
-            } else {
-                doc = new WebDoc(url, content);
-            }
-            headIndex.add(doc);
-            bodyIndex.add(doc);
-            return doc;
+            return indexingEngine.index(url, content);
         } catch (IllegalArgumentException e) {
             e.printStackTrace();
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
         } catch (IOException e) {
             e.printStackTrace();
         }
         return null;
     }
 
+    /**
+     * <p>
+     * Re-fetch the (web URL) webpage with a conditional GET, and re-index it only
+     * if it's modified since it was last fetched. Local files are not refreshed.
+     * </p>
+     * <p>
+     * This method should only be called in the fetchExecutor, the page is fetched
+     * and parsed there, and only the update of the indices is handed to the
+     * modelExecutor.
+     * </p>
+     * 
+     * @param url URL String
+     * @see FetchCache
+     */
+    private void refreshWebIndices(String url) {
+        WebDoc prev = indexingEngine.getWebDoc(url);
+        if (prev == null || prev.getFileType() != WebDoc.FileType.WEB_URL)
+            return;
+        // the canonical url of the indexed WebDoc
+        url = prev.getUrlString();
+        try {
+            final String docUrl = url;
+            FetchResult result = fetchCache.fetch(docUrl);
+            if (result.getStatusCode() == 200) {
+                WebDoc doc = new WebDoc(docUrl, result.getBody());
+                modelExecutor.execute(() -> indexingEngine.update(doc));
+            } else if (result.getStatusCode() == 404 || result.getStatusCode() == 410) {
+                // the webpage no longer exists
+                modelExecutor.execute(() -> indexingEngine.delete(docUrl));
+            }
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Load the persisted validators of the fetchCache in the modelExecutor
+     */
+    private void loadFetchCache() {
+        final FetchCache cache = fetchCache;
+        modelExecutor.execute(() -> {
+            try {
+                cache.load();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Release the resources of this controller, e.g., persist the validators of
+     * the FetchCache. It should be called when the application is stopped.
+     */
+    public void shutdown() {
+        crawler.stop();
+        crawlExecutor.shutdownNow();
+        fetchExecutor.shutdownNow();
+        modelExecutor.execute(() -> {
+            try {
+                fetchCache.save();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        modelExecutor.shutdown();
+        try {
+            modelExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (directoryWatcher != null) {
+            try {
+                directoryWatcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (queryLog != null) {
+            try {
+                queryLog.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
 }
@@ -0,0 +1,86 @@
+package com.curtisnewbie.crawler;
+
+/**
+ * <p>
+ * Budgets and politeness settings of a crawl. The defaults are conservative,
+ * they are meant for pre-indexing a few small sites without hammering them.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see Crawler
+ */
+public class CrawlPolicy {
+
+    public static final int DEF_MAX_DEPTH = 2;
+    public static final int DEF_MAX_PAGES = 200;
+    public static final long DEF_HOST_DELAY_MILLIS = 500;
+    public static final int DEF_MAX_CONCURRENT_FETCHES = 8;
+    public static final int DEF_QUEUE_CAPACITY = 64;
+
+    /** Max number of links followed from a seed url, the seeds are of depth 0 */
+    private int maxDepth = DEF_MAX_DEPTH;
+
+    /** Max number of pages that are fetched in a crawl */
+    private int maxPages = DEF_MAX_PAGES;
+
+    /** Min delay between two requests to the same host */
+    private long hostDelayMillis = DEF_HOST_DELAY_MILLIS;
+
+    /** Max number of pages that are fetched concurrently (across hosts) */
+    private int maxConcurrentFetches = DEF_MAX_CONCURRENT_FETCHES;
+
+    /** Capacity of the queue of pages that are fetched but not yet indexed */
+    private int queueCapacity = DEF_QUEUE_CAPACITY;
+
+    /** Whether only the links to the hosts of the seed urls are followed */
+    private boolean sameHostOnly = true;
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public void setMaxPages(int maxPages) {
+        this.maxPages = maxPages;
+    }
+
+    public long getHostDelayMillis() {
+        return hostDelayMillis;
+    }
+
+    public void setHostDelayMillis(long hostDelayMillis) {
+        this.hostDelayMillis = hostDelayMillis;
+    }
+
+    public int getMaxConcurrentFetches() {
+        return maxConcurrentFetches;
+    }
+
+    public void setMaxConcurrentFetches(int maxConcurrentFetches) {
+        this.maxConcurrentFetches = maxConcurrentFetches;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isSameHostOnly() {
+        return sameHostOnly;
+    }
+
+    public void setSameHostOnly(boolean sameHostOnly) {
+        this.sameHostOnly = sameHostOnly;
+    }
+}
@@ -0,0 +1,86 @@
+package com.curtisnewbie.crawler;
+
+/**
+ * Statistics of a finished crawl
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see Crawler
+ */
+public class CrawlStats {
+
+    private final int numOfFetched;
+    private final int numOfFailed;
+    private final int numOfIndexed;
+    private final long bytesReceived;
+    private final long elapsedMillis;
+
+    public CrawlStats(int numOfFetched, int numOfFailed, int numOfIndexed, long bytesReceived, long elapsedMillis) {
+        this.numOfFetched = numOfFetched;
+        this.numOfFailed = numOfFailed;
+        this.numOfIndexed = numOfIndexed;
+        this.bytesReceived = bytesReceived;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Get number of pages that are fetched successfully
+     *
+     * @return number of pages fetched
+     */
+    public int getNumOfFetched() {
+        return numOfFetched;
+    }
+
+    /**
+     * Get number of urls that failed to be fetched or parsed
+     *
+     * @return number of failed urls
+     */
+    public int getNumOfFailed() {
+        return numOfFailed;
+    }
+
+    /**
+     * Get number of pages that are newly indexed, the pages that were already
+     * indexed are not counted.
+     *
+     * @return number of pages indexed
+     */
+    public int getNumOfIndexed() {
+        return numOfIndexed;
+    }
+
+    /**
+     * Get number of bytes received over the wire
+     *
+     * @return number of bytes received
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Get the wall-clock time of the crawl
+     *
+     * @return elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Get the throughput of the crawl
+     *
+     * @return pages fetched per second
+     */
+    public double getPagesPerSecond() {
+        return elapsedMillis == 0 ? numOfFetched : numOfFetched * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Fetched %d pages (%d failed, %d newly indexed, %d KB) in %d ms, %.1f pages/s",
+                numOfFetched, numOfFailed, numOfIndexed, bytesReceived / 1024, elapsedMillis, getPagesPerSecond());
+    }
+}
@@ -0,0 +1,195 @@
+package com.curtisnewbie.crawler;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.curtisnewbie.crawler.Frontier.CrawlTask;
+import com.curtisnewbie.fetch.FetchResult;
+import com.curtisnewbie.fetch.WebFetcher;
+import com.curtisnewbie.util.VirtualThreads;
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+import com.curtisnewbie.webBrowserModel.UrlCanonicalizer;
+import com.curtisnewbie.webBrowserModel.WebDoc;
+
+/**
+ * <p>
+ * Crawler that pre-indexes the sites reachable from the seed urls (e.g., the
+ * default url and the browsing history), so the pages can be searched without
+ * being visited in a tab first.
+ * </p>
+ * <p>
+ * A number of fetch workers (each in its own virtual thread, if available) take
+ * the urls from the Frontier, fetch and parse them, add their links back to the
+ * Frontier, and put the WebDoc into a bounded queue. The calling thread of
+ * {@link #crawl(Collection)} takes the WebDoc from the queue and indexes them,
+ * so when the indexing falls behind, the fetch workers are blocked rather than
+ * piling up the parsed pages in memory.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see Frontier
+ * @see CrawlPolicy
+ */
+public class Crawler {
+
+    private final IndexingEngine engine;
+    private final WebFetcher fetcher;
+    private final CrawlPolicy policy;
+    private volatile Frontier frontier;
+    private volatile BlockingQueue<WebDoc> parsedDocs;
+
+    public Crawler(IndexingEngine engine, WebFetcher fetcher, CrawlPolicy policy) {
+        this.engine = engine;
+        this.fetcher = fetcher;
+        this.policy = policy;
+    }
+
+    /**
+     * Crawl from the seed urls, it blocks until the frontier is exhausted, the
+     * budgets are used up, or {@link #stop()} is called. Seeds that are not web
+     * URLs are ignored.
+     *
+     * @param seeds seed urls
+     * @return statistics of the crawl
+     * @throws InterruptedException when the calling thread is interrupted, the
+     *                              fetch workers are then stopped as well
+     */
+    public CrawlStats crawl(Collection<String> seeds) throws InterruptedException {
+        long start = System.nanoTime();
+        Frontier currFrontier = new Frontier(policy);
+        frontier = currFrontier;
+        Set<String> seedHosts = new HashSet<>();
+        for (String seed : seeds) {
+            if (currFrontier.add(seed.trim(), 0))
+                seedHosts.add(Frontier.hostOf(seed.trim()));
+        }
+
+        BlockingQueue<WebDoc> parsedDocs = new ArrayBlockingQueue<>(policy.getQueueCapacity());
+        this.parsedDocs = parsedDocs;
+        AtomicInteger numOfFetched = new AtomicInteger();
+        AtomicInteger numOfFailed = new AtomicInteger();
+        AtomicLong bytesReceived = new AtomicLong();
+        int numOfWorkers = Math.max(1, policy.getMaxConcurrentFetches());
+        CountDownLatch workersLeft = new CountDownLatch(numOfWorkers);
+        ExecutorService workers = VirtualThreads.newThreadPerTaskExecutor("crawler");
+        for (int i = 0; i < numOfWorkers; i++) {
+            workers.execute(() -> {
+                try {
+                    CrawlTask task;
+                    while ((task = currFrontier.poll()) != null) {
+                        try {
+                            WebDoc doc = fetch(task, seedHosts, currFrontier, bytesReceived);
+                            if (doc != null) {
+                                numOfFetched.incrementAndGet();
+                                parsedDocs.put(doc);
+                            } else {
+                                numOfFailed.incrementAndGet();
+                            }
+                        } finally {
+                            currFrontier.done(task);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    // stopped
+                } finally {
+                    workersLeft.countDown();
+                }
+            });
+        }
+        workers.shutdown();
+
+        int numOfIndexed = 0;
+        try {
+            while (workersLeft.getCount() > 0 || !parsedDocs.isEmpty()) {
+                WebDoc doc = parsedDocs.poll(50, TimeUnit.MILLISECONDS);
+                if (doc != null && engine.index(doc) == doc)
+                    numOfIndexed++;
+            }
+        } catch (InterruptedException e) {
+            currFrontier.close();
+            workers.shutdownNow();
+            throw e;
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new CrawlStats(numOfFetched.get(), numOfFailed.get(), numOfIndexed, bytesReceived.get(),
+                elapsedMillis);
+    }
+
+    /**
+     * Stop the crawl that is running, the pages that are being fetched are still
+     * indexed.
+     */
+    public void stop() {
+        Frontier currFrontier = frontier;
+        if (currFrontier != null)
+            currFrontier.close();
+    }
+
+    /**
+     * Get number of urls queued in the frontier of the current (or last) crawl
+     *
+     * @return number of urls queued
+     */
+    public int getNumOfQueuedUrls() {
+        Frontier currFrontier = frontier;
+        return currFrontier == null ? 0 : currFrontier.getNumOfQueued();
+    }
+
+    /**
+     * Get number of urls being fetched in the current crawl
+     *
+     * @return number of urls in flight
+     */
+    public int getNumOfInFlight() {
+        Frontier currFrontier = frontier;
+        return currFrontier == null ? 0 : currFrontier.getNumOfInFlight();
+    }
+
+    /**
+     * Get number of parsed pages waiting to be indexed in the current crawl
+     *
+     * @return number of parsed pages queued
+     */
+    public int getNumOfParsedQueued() {
+        BlockingQueue<WebDoc> currParsedDocs = parsedDocs;
+        return currParsedDocs == null ? 0 : currParsedDocs.size();
+    }
+
+    /**
+     * Fetch and parse the page, and add its links to the frontier
+     *
+     * @return the WebDoc, or {@code NULL} if it fails to be fetched or it's not a
+     *         html page
+     */
+    private WebDoc fetch(CrawlTask task, Set<String> seedHosts, Frontier currFrontier, AtomicLong bytesReceived) {
+        try {
+            FetchResult result = fetcher.fetch(task.getUrl());
+            bytesReceived.addAndGet(result.getBytesReceived());
+            String contentType = result.getHeaders().firstValue("Content-Type").orElse("text/html");
+            if (!result.isOk() || !contentType.contains("html"))
+                return null;
+            // the url after redirects is the one that is indexed
+            currFrontier.markSeen(result.getUrl());
+            WebDoc doc = new WebDoc(UrlCanonicalizer.canonicalize(result.getUrl()), result.getBody());
+            if (task.getDepth() < policy.getMaxDepth()) {
+                for (String link : doc.getLinks()) {
+                    if (!policy.isSameHostOnly() || seedHosts.contains(Frontier.hostOf(link)))
+                        currFrontier.add(link, task.getDepth() + 1);
+                }
+            }
+            return doc;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
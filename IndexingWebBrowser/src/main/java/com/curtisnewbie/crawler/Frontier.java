@@ -0,0 +1,284 @@
+package com.curtisnewbie.crawler;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.curtisnewbie.webBrowserModel.UrlCanonicalizer;
+
+/**
+ * <p>
+ * The urls that are yet to be crawled. The urls are deduplicated, so each url
+ * is only scheduled once, and the depth and page budgets of the CrawlPolicy are
+ * enforced when a url is added.
+ * </p>
+ * <p>
+ * The urls are queued per host, and the hosts are visited in a round-robin
+ * manner. A host is only polled again after the host delay has elapsed, so the
+ * crawler is polite to each host while still fetching from different hosts
+ * concurrently.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see Crawler
+ * @see CrawlPolicy
+ */
+public class Frontier {
+
+    private final int maxDepth;
+    private final int maxPages;
+    private final long hostDelayNanos;
+
+    /** Queues of urls for each host, in the round-robin order */
+    private final Map<String, Deque<CrawlTask>> hostQueues;
+
+    /** The earliest time (System.nanoTime) that a host can be polled again */
+    private final Map<String, Long> nextPollTime;
+
+    /** All the urls that have been scheduled or seen */
+    private final Set<String> seen;
+
+    private final ReentrantLock lock;
+    private final Condition changed;
+
+    private int numOfScheduled;
+    private int numOfInFlight;
+    private boolean closed;
+
+    public Frontier(CrawlPolicy policy) {
+        this.maxDepth = policy.getMaxDepth();
+        this.maxPages = policy.getMaxPages();
+        this.hostDelayNanos = TimeUnit.MILLISECONDS.toNanos(policy.getHostDelayMillis());
+        this.hostQueues = new LinkedHashMap<>();
+        this.nextPollTime = new HashMap<>();
+        this.seen = new HashSet<>();
+        this.lock = new ReentrantLock();
+        this.changed = lock.newCondition();
+    }
+
+    /**
+     * Add the url to the frontier, if it's never seen, and it's within the depth
+     * and page budgets. The url is canonicalized, so its different spellings are
+     * only scheduled once.
+     *
+     * @param url   absolute web URL
+     * @param depth number of links followed from the seed url
+     * @return whether the url is scheduled
+     */
+    public boolean add(String url, int depth) {
+        url = UrlCanonicalizer.canonicalize(url);
+        String host = hostOf(url);
+        if (host == null || depth > maxDepth)
+            return false;
+        lock.lock();
+        try {
+            if (closed || numOfScheduled >= maxPages || !seen.add(url))
+                return false;
+            hostQueues.computeIfAbsent(host, h -> new ArrayDeque<>()).add(new CrawlTask(url, host, depth));
+            numOfScheduled++;
+            changed.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mark the url as seen without scheduling it, e.g., the url that a scheduled
+     * url is redirected to.
+     *
+     * @param url absolute web URL
+     */
+    public void markSeen(String url) {
+        lock.lock();
+        try {
+            seen.add(UrlCanonicalizer.canonicalize(url));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the next url whose host can be polled, it blocks until there is one.
+     * The caller must call {@link #done(CrawlTask)} once it finishes with the
+     * returned task.
+     *
+     * @return the next task, or {@code NULL} if the frontier is closed, or it's
+     *         empty and no task is in flight (thus no more url will be added)
+     * @throws InterruptedException when the calling thread is interrupted
+     */
+    public CrawlTask poll() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                if (closed)
+                    return null;
+                long now = System.nanoTime();
+                long minWait = Long.MAX_VALUE;
+                Iterator<Map.Entry<String, Deque<CrawlTask>>> it = hostQueues.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, Deque<CrawlTask>> entry = it.next();
+                    String host = entry.getKey();
+                    long wait = nextPollTime.getOrDefault(host, now) - now;
+                    if (wait > 0) {
+                        minWait = Math.min(minWait, wait);
+                        continue;
+                    }
+                    Deque<CrawlTask> queue = entry.getValue();
+                    CrawlTask task = queue.poll();
+                    // move the host to the end, so the hosts are visited in a round-robin manner
+                    it.remove();
+                    if (!queue.isEmpty())
+                        hostQueues.put(host, queue);
+                    nextPollTime.put(host, now + hostDelayNanos);
+                    numOfInFlight++;
+                    return task;
+                }
+                if (hostQueues.isEmpty() && numOfInFlight == 0)
+                    return null;
+                if (minWait == Long.MAX_VALUE)
+                    changed.await();
+                else
+                    changed.awaitNanos(minWait);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Notify that the task returned by {@link #poll()} is finished, the links in
+     * the page should be added before this is called.
+     *
+     * @param task task
+     */
+    public void done(CrawlTask task) {
+        lock.lock();
+        try {
+            numOfInFlight--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close the frontier, all the waiting and subsequent {@link #poll()} return
+     * {@code NULL}.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get number of urls that have been scheduled
+     *
+     * @return number of urls scheduled
+     */
+    public int getNumOfScheduled() {
+        lock.lock();
+        try {
+            return numOfScheduled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get number of urls that are queued, i.e., scheduled but not yet polled
+     *
+     * @return number of urls queued
+     */
+    public int getNumOfQueued() {
+        lock.lock();
+        try {
+            int queued = 0;
+            for (Deque<CrawlTask> queue : hostQueues.values())
+                queued += queue.size();
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get number of urls that are polled but not yet done, i.e., being fetched
+     *
+     * @return number of urls in flight
+     */
+    public int getNumOfInFlight() {
+        lock.lock();
+        try {
+            return numOfInFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the host (lower case) of the web URL
+     *
+     * @param url URL String
+     * @return host, or {@code NULL} if it's not a valid web URL
+     */
+    public static String hostOf(String url) {
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            if (scheme == null || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https")))
+                return null;
+            String host = uri.getHost();
+            if (host == null)
+                return null;
+            return uri.getPort() == -1 ? host.toLowerCase(Locale.ROOT)
+                    : host.toLowerCase(Locale.ROOT) + ":" + uri.getPort();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * A url scheduled in the frontier
+     */
+    public static class CrawlTask {
+
+        private final String url;
+        private final String host;
+        private final int depth;
+
+        CrawlTask(String url, String host, int depth) {
+            this.url = url;
+            this.host = host;
+            this.depth = depth;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+}
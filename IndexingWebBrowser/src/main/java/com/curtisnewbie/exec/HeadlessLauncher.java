@@ -0,0 +1,289 @@
+package com.curtisnewbie.exec;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.curtisnewbie.analysis.Analyzer;
+import com.curtisnewbie.analysis.Analyzers;
+import com.curtisnewbie.crawler.CrawlPolicy;
+import com.curtisnewbie.crawler.CrawlStats;
+import com.curtisnewbie.crawler.Crawler;
+import com.curtisnewbie.fetch.WebFetcher;
+import com.curtisnewbie.metrics.JmxMetrics;
+import com.curtisnewbie.server.SearchServer;
+import com.curtisnewbie.watcher.DirectoryWatcher;
+import com.curtisnewbie.webBrowserModel.FieldStats;
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+import com.curtisnewbie.webBrowserModel.QueryProfile;
+import com.curtisnewbie.webBrowserModel.SearchResult;
+import com.curtisnewbie.webBrowserModel.WebDoc;
+
+/**
+ * <p>
+ * Entry point of the headless mode, which doesn't depend on JavaFX. It indexes
+ * the given urls (web URLs or local files with a prefix of "file:"), and then
+ * answers the queries read from the stdin or a file, one query per line.
+ * </p>
+ * 
+ * <pre>
+ * Usage:
+ * java -jar IndexingWebBrowser-1.0-SNAPSHOT-headless.jar [options] [url...]
+ * 
+ * Options:
+ * --urls [file]      file that contains the urls to index, one url per line
+ * --queries [file]   file that contains the queries, else they are read from stdin
+ * --stats            print the startup time and memory usage
+ * --http [port]      serve the search API on the port (see SearchServer)
+ * --crawl [depth]    crawl the sites from the urls (as seeds) rather than only indexing them
+ * --max-pages [n]    max number of pages fetched in the crawl
+ * --memory [MB]      evict the least recently accessed pages beyond this budget
+ * --dedup [mode]     off, skip or collapse the near-duplicate pages (default: collapse)
+ * --dedup-distance [n] max Hamming distance of the fingerprints of near-duplicates
+ * --watch [query]    print the pages that match the (infix) query as they are indexed
+ * --analyzer [spec]  analyzer of both head and body, e.g., english or unicode,lowercase,stop,porter
+ * --head-analyzer [spec] analyzer of head only
+ * --body-analyzer [spec] analyzer of body only
+ * --watch-dir [dir] index the html files in the directory, and re-index them as they change
+ * 
+ * Queries:
+ * apple and banana   infix query
+ * p:and(apple,pear)  prefix query
+ * /all               all the WebDoc
+ * /index [url]       index one more url
+ * /delete [url]      delete the url from the indices
+ * /explain [query]   profile of each node of the query tree (p: for prefix query)
+ * /stats             summary of the indices
+ * /terms [n]         df/ttf statistics of head and body, with the n heaviest words
+ * </pre>
+ * 
+ * @author Yongjie Zhuang
+ * 
+ * @see SearchServer
+ * @see Crawler
+ * @see DirectoryWatcher
+ */
+public class HeadlessLauncher {
+
+    private static final String PREFIX_QUERY = "p:";
+    private static final String INDEX_COMMAND = "/index ";
+    private static final String DELETE_COMMAND = "/delete ";
+    private static final String STATS_COMMAND = "/stats";
+    private static final String TERMS_COMMAND = "/terms";
+
+    private final IndexingEngine engine;
+    private final PrintStream out;
+
+    public HeadlessLauncher(IndexingEngine engine, PrintStream out) {
+        this.engine = engine;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> urls = new ArrayList<>();
+        String queryFile = null;
+        boolean printStats = false;
+        int httpPort = -1;
+        int crawlDepth = -1;
+        int maxPages = CrawlPolicy.DEF_MAX_PAGES;
+        long memoryBudgetMB = -1;
+        IndexingEngine.DuplicateMode duplicateMode = IndexingEngine.DuplicateMode.COLLAPSE;
+        int duplicateDistance = IndexingEngine.DEF_NEAR_DUPLICATE_DISTANCE;
+        List<String> watchedQueries = new ArrayList<>();
+        List<String> watchedDirs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--urls") && i + 1 < args.length) {
+                urls.addAll(Files.readAllLines(Paths.get(args[++i]), StandardCharsets.UTF_8));
+            } else if (args[i].equals("--queries") && i + 1 < args.length) {
+                queryFile = args[++i];
+            } else if (args[i].equals("--http") && i + 1 < args.length) {
+                httpPort = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--crawl") && i + 1 < args.length) {
+                crawlDepth = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--max-pages") && i + 1 < args.length) {
+                maxPages = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--memory") && i + 1 < args.length) {
+                memoryBudgetMB = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--dedup") && i + 1 < args.length) {
+                duplicateMode = IndexingEngine.DuplicateMode.valueOf(args[++i].toUpperCase());
+            } else if (args[i].equals("--dedup-distance") && i + 1 < args.length) {
+                duplicateDistance = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--watch") && i + 1 < args.length) {
+                watchedQueries.add(args[++i]);
+            } else if (args[i].equals("--watch-dir") && i + 1 < args.length) {
+                watchedDirs.add(args[++i]);
+            } else if (args[i].equals("--analyzer") && i + 1 < args.length) {
+                Analyzer analyzer = Analyzer.of(args[++i]);
+                Analyzers.setHead(analyzer);
+                Analyzers.setBody(analyzer);
+            } else if (args[i].equals("--head-analyzer") && i + 1 < args.length) {
+                Analyzers.setHead(Analyzer.of(args[++i]));
+            } else if (args[i].equals("--body-analyzer") && i + 1 < args.length) {
+                Analyzers.setBody(Analyzer.of(args[++i]));
+            } else if (args[i].equals("--stats")) {
+                printStats = true;
+            } else {
+                urls.add(args[i]);
+            }
+        }
+
+        IndexingEngine engine = new IndexingEngine();
+        if (memoryBudgetMB > 0)
+            engine.setMemoryBudget(memoryBudgetMB * 1024 * 1024);
+        engine.setNearDuplicateDetection(duplicateMode, duplicateDistance, IndexingEngine.DEF_MIN_WORDS_TO_FINGERPRINT);
+        JmxMetrics.register(engine);
+        HeadlessLauncher launcher = new HeadlessLauncher(engine, System.out);
+        for (String query : watchedQueries)
+            launcher.watch(query);
+        if (crawlDepth >= 0) {
+            CrawlPolicy policy = new CrawlPolicy();
+            policy.setMaxDepth(crawlDepth);
+            policy.setMaxPages(maxPages);
+            try {
+                Crawler crawler = new Crawler(engine, WebFetcher.getDefault(), policy);
+                JmxMetrics.register(crawler);
+                CrawlStats stats = crawler.crawl(urls);
+                System.err.println(stats);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } else {
+            for (String url : urls) {
+                launcher.index(url.trim());
+            }
+        }
+        if (!watchedDirs.isEmpty()) {
+            // the watcher keeps the files indexed while the queries are answered
+            DirectoryWatcher watcher = new DirectoryWatcher(engine);
+            for (String dir : watchedDirs) {
+                try {
+                    watcher.watch(Paths.get(dir));
+                } catch (IOException e) {
+                    System.err.println("Failed to watch " + dir + ": " + e.getMessage());
+                }
+            }
+            watcher.start();
+            System.err.println(watcher);
+        }
+        if (httpPort >= 0) {
+            // the server keeps running after the queries are answered
+            SearchServer server = new SearchServer(engine);
+            server.start(httpPort);
+            System.err.println("Search API is served on http://localhost:" + server.getPort());
+        }
+        if (printStats)
+            System.err.println(StartupReport.describe("Headless"));
+
+        try (BufferedReader reader = queryFile == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(queryFile), StandardCharsets.UTF_8);) {
+            launcher.answer(reader);
+        }
+    }
+
+    /**
+     * Index the url, errors are reported but not thrown.
+     * 
+     * @param url web URL or local file with a prefix of "file:"
+     */
+    public void index(String url) {
+        if (url.isEmpty())
+            return;
+        try {
+            WebDoc doc = engine.index(url, null);
+            if (engine.getDuplicateOf(url) == null)
+                out.println("Indexed " + doc);
+            else
+                out.println("Near-duplicate of " + doc + ", not indexed " + url);
+        } catch (IOException | IllegalArgumentException e) {
+            out.println("Failed to index " + url + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Register an infix query as a standing query, the pages that match it are
+     * printed as they are indexed. Errors are reported but not thrown.
+     * 
+     * @param query infix query
+     */
+    public void watch(String query) {
+        try {
+            engine.getStandingQueries().register(query, true,
+                    (standingQuery, doc, inHead, inBody) -> out.println("Watched [" + standingQuery + "] matches " + doc));
+        } catch (IllegalArgumentException e) {
+            out.println("Failed to watch " + query + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Answer the queries (or commands) read from the reader, one per line, until
+     * the end of the stream.
+     * 
+     * @param reader reader of the queries
+     * @throws IOException when it fails to read
+     */
+    public void answer(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty())
+                continue;
+            if (line.startsWith(INDEX_COMMAND)) {
+                index(line.substring(INDEX_COMMAND.length()).trim());
+            } else if (line.startsWith(DELETE_COMMAND)) {
+                String url = line.substring(DELETE_COMMAND.length()).trim();
+                out.println(engine.delete(url) == null ? "Not indexed " + url : "Deleted " + url);
+            } else if (line.startsWith(IndexingEngine.EXPLAIN_COMMAND)) {
+                explain(line.substring(IndexingEngine.EXPLAIN_COMMAND.length()).trim());
+            } else if (line.equalsIgnoreCase(STATS_COMMAND)) {
+                out.println(engine + ", " + engine.getNumOfDocs() + " documents");
+                out.println(engine.getMemoryStats());
+            } else if (line.equalsIgnoreCase(TERMS_COMMAND) || line.startsWith(TERMS_COMMAND + " ")) {
+                String n = line.substring(TERMS_COMMAND.length()).trim();
+                try {
+                    for (FieldStats field : engine.getFieldStats(n.isEmpty() ? 10 : Integer.parseInt(n)))
+                        out.println(field);
+                } catch (NumberFormatException e) {
+                    out.println("Invalid number " + n);
+                }
+            } else if (line.startsWith(PREFIX_QUERY)) {
+                print(line, engine.search(line.substring(PREFIX_QUERY.length()), false));
+            } else {
+                print(line, engine.search(line, true));
+            }
+        }
+    }
+
+    private void explain(String query) {
+        out.println("> " + IndexingEngine.EXPLAIN_COMMAND + query);
+        QueryProfile profile = query.startsWith(PREFIX_QUERY)
+                ? engine.explain(query.substring(PREFIX_QUERY.length()), false)
+                : engine.explain(query, true);
+        out.print(profile == null ? "Ill-formed query\n" : profile);
+    }
+
+    private void print(String query, SearchResult result) {
+        out.println("> " + query);
+        if (result == null) {
+            out.println("Ill-formed query");
+            return;
+        }
+        print("[Head]", result.getHeadResults());
+        print("[Body]", result.getBodyResults());
+    }
+
+    private void print(String section, Collection<WebDoc> docs) {
+        out.println(section + " " + docs.size() + " results");
+        for (WebDoc doc : docs) {
+            out.println("  " + doc.getUrlString());
+        }
+    }
+}
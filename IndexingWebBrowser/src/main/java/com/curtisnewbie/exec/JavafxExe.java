@@ -13,6 +13,7 @@ import java.util.Map;
 import com.curtisnewbie.config.Config;
 import com.curtisnewbie.config.ConfigLoader;
 import com.curtisnewbie.controller.*;
+import com.curtisnewbie.server.SearchServer;
 
 /**
  * This where the javafx implementation of this program is started.
@@ -25,6 +26,11 @@ public class JavafxExe extends Application {
     private Map<String, String> configMap;
     private String title;
 
+    /** Embedded search API, it's only started when "httpPort" is configured */
+    private SearchServer searchServer;
+
+    private BrowserController controller;
+
     @Override
     public void init() throws Exception {
         super.init();
@@ -43,7 +49,7 @@ public class JavafxExe extends Application {
         BrowserView view = new BrowserView();
 
         // controller that controls the view
-        BrowserController controller = new BrowserController(view, configMap);
+        controller = new BrowserController(view, configMap);
 
         // get screen size
         Rectangle2D screen = Screen.getPrimary().getBounds();
@@ -58,6 +64,24 @@ public class JavafxExe extends Application {
         primaryStage.setScene(scene);
         primaryStage.setTitle(title == null ? DEF_TITLE : title);
         primaryStage.show();
+        System.out.println(StartupReport.describe("GUI"));
+
+        // start the search API if configured
+        String httpPort = configMap == null ? null : configMap.get(Config.CONFIG_HTTP_PORT);
+        if (httpPort != null && !httpPort.isBlank()) {
+            searchServer = new SearchServer(controller.getIndexingEngine());
+            searchServer.start(Integer.parseInt(httpPort));
+            System.out.println("Search API is served on http://localhost:" + searchServer.getPort());
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (searchServer != null)
+            searchServer.stop();
+        if (controller != null)
+            controller.shutdown();
+        super.stop();
     }
 
     public static void main(String... args) {
@@ -0,0 +1,33 @@
+package com.curtisnewbie.exec;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Report of the startup time and the memory usage of this program, it's used
+ * to compare the GUI build and the headless build.
+ * 
+ * @author Yongjie Zhuang
+ */
+public class StartupReport {
+
+    private static final long MB = 1024 * 1024;
+
+    private StartupReport() {
+    }
+
+    /**
+     * Get a string that describes the time elapsed since the JVM is started, and
+     * the current heap and non-heap memory usage.
+     * 
+     * @param mode name of the build or mode, e.g., "GUI" or "Headless"
+     * @return a string of the startup time and the memory usage
+     */
+    public static String describe(String mode) {
+        long startupMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        return "[" + mode + "] started in " + startupMillis + " ms, heap used: "
+                + memory.getHeapMemoryUsage().getUsed() / MB + " MB, non-heap used: "
+                + memory.getNonHeapMemoryUsage().getUsed() / MB + " MB";
+    }
+}
@@ -0,0 +1,238 @@
+package com.curtisnewbie.fetch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * <p>
+ * Cache of the validators (ETag and Last-Modified) of the fetched urls. When a
+ * url that has validators is fetched again, a conditional GET is sent, and the
+ * server answers {@code 304 Not Modified} without the body if the page hasn't
+ * changed, so the page doesn't need to be downloaded or re-indexed.
+ * </p>
+ * <p>
+ * Only the validators (not the bodies) are cached, they are persisted as a JSON
+ * file, so they survive restarts.
+ * </p>
+ *
+ * <pre>
+ * {
+ *   "https://example.com/": { "etag": "\"abc\"", "lastModified": "...", "size": 1256 }
+ * }
+ * </pre>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see WebFetcher
+ */
+public class FetchCache {
+
+    /** Default name of the file where the validators are persisted */
+    public static final String DEF_CACHE_FILE = "fetch-cache.json";
+
+    private final WebFetcher fetcher;
+    private final Path file;
+    private final JsonFactory jsonFactory;
+
+    /** Validators of each url */
+    private final Map<String, Validators> validatorsMap;
+
+    private final AtomicLong numOfNotModified;
+    private final AtomicLong numOfModified;
+    private final AtomicLong bytesSaved;
+
+    /**
+     * Instantiate FetchCache, the persisted validators are not loaded until
+     * {@link #load()} is called.
+     *
+     * @param fetcher WebFetcher
+     * @param file    file where the validators are persisted
+     */
+    public FetchCache(WebFetcher fetcher, Path file) {
+        this.fetcher = fetcher;
+        this.file = file;
+        this.jsonFactory = new JsonFactory();
+        this.validatorsMap = new ConcurrentHashMap<>();
+        this.numOfNotModified = new AtomicLong();
+        this.numOfModified = new AtomicLong();
+        this.bytesSaved = new AtomicLong();
+    }
+
+    /**
+     * Fetch the url, a conditional GET is sent if the url has validators. The
+     * validators are updated when the status code is 200.
+     *
+     * @param url web URL
+     * @return the result, the status code is 304 if the page is not modified
+     * @throws IOException              when it fails to fetch the url
+     * @throws IllegalArgumentException when the url is not valid
+     */
+    public FetchResult fetch(String url) throws IOException, IllegalArgumentException {
+        Validators prev = validatorsMap.get(url);
+        Map<String, String> headers = new HashMap<>();
+        if (prev != null) {
+            if (prev.etag != null)
+                headers.put("If-None-Match", prev.etag);
+            if (prev.lastModified != null)
+                headers.put("If-Modified-Since", prev.lastModified);
+        }
+        FetchResult result = fetcher.fetch(url, headers);
+        if (result.getStatusCode() == 304 && prev != null) {
+            numOfNotModified.incrementAndGet();
+            bytesSaved.addAndGet(prev.size);
+        } else if (result.getStatusCode() == 200) {
+            numOfModified.incrementAndGet();
+            String etag = result.getHeaders().firstValue("ETag").orElse(null);
+            String lastModified = result.getHeaders().firstValue("Last-Modified").orElse(null);
+            if (etag != null || lastModified != null)
+                validatorsMap.put(url, new Validators(etag, lastModified, result.getBytesReceived()));
+            else
+                validatorsMap.remove(url);
+        }
+        return result;
+    }
+
+    /**
+     * Check whether the url has validators, i.e., the next fetch is conditional
+     *
+     * @param url web URL
+     * @return whether the url has validators
+     */
+    public boolean hasValidators(String url) {
+        return validatorsMap.containsKey(url);
+    }
+
+    /**
+     * Forget the validators of the url, so the next fetch is unconditional
+     *
+     * @param url web URL
+     */
+    public void forget(String url) {
+        validatorsMap.remove(url);
+    }
+
+    /**
+     * Load the validators from the file, it does nothing if the file doesn't exist.
+     *
+     * @throws IOException when the file cannot be read or it's malformed
+     */
+    public void load() throws IOException {
+        if (!Files.exists(file))
+            return;
+        try (InputStream in = Files.newInputStream(file); JsonParser parser = jsonFactory.createParser(in);) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("Malformed fetch cache " + file);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String url = parser.getCurrentName();
+                parser.nextToken();
+                String etag = null;
+                String lastModified = null;
+                long size = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    parser.nextToken();
+                    if (name.equals("etag"))
+                        etag = parser.getText();
+                    else if (name.equals("lastModified"))
+                        lastModified = parser.getText();
+                    else if (name.equals("size"))
+                        size = parser.getLongValue();
+                    else
+                        parser.skipChildren();
+                }
+                validatorsMap.put(url, new Validators(etag, lastModified, size));
+            }
+        }
+    }
+
+    /**
+     * Save the validators to the file, the file is replaced atomically.
+     *
+     * @throws IOException when the file cannot be written
+     */
+    public void save() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp);
+                JsonGenerator gen = jsonFactory.createGenerator(out, JsonEncoding.UTF8);) {
+            gen.writeStartObject();
+            for (Map.Entry<String, Validators> entry : validatorsMap.entrySet()) {
+                Validators v = entry.getValue();
+                gen.writeObjectFieldStart(entry.getKey());
+                if (v.etag != null)
+                    gen.writeStringField("etag", v.etag);
+                if (v.lastModified != null)
+                    gen.writeStringField("lastModified", v.lastModified);
+                gen.writeNumberField("size", v.size);
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Get number of conditional GETs answered with 304 Not Modified
+     *
+     * @return number of 304 responses
+     */
+    public long getNumOfNotModified() {
+        return numOfNotModified.get();
+    }
+
+    /**
+     * Get number of fetches answered with 200 (a full body)
+     *
+     * @return number of 200 responses
+     */
+    public long getNumOfModified() {
+        return numOfModified.get();
+    }
+
+    /**
+     * Get number of bytes that didn't need to be downloaded, i.e., the sum of the
+     * last known sizes of the pages that were not modified.
+     *
+     * @return number of bytes saved
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    @Override
+    public String toString() {
+        return "FetchCache: " + validatorsMap.size() + " urls, " + numOfNotModified.get() + " not modified, "
+                + numOfModified.get() + " modified, " + bytesSaved.get() / 1024 + " KB saved";
+    }
+
+    /**
+     * Validators of a url
+     */
+    private static class Validators {
+
+        final String etag;
+        final String lastModified;
+
+        /** Number of bytes received when the page was last fetched */
+        final long size;
+
+        Validators(String etag, String lastModified, long size) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.curtisnewbie.fetch;
+
+import java.net.http.HttpHeaders;
+
+/**
+ * The result of fetching a url, it contains the status code, the headers and
+ * the (decompressed and decoded) body.
+ * 
+ * @author Yongjie Zhuang
+ * 
+ * @see WebFetcher
+ */
+public class FetchResult {
+
+    private final String url;
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final String body;
+    private final long bytesReceived;
+
+    public FetchResult(String url, int statusCode, HttpHeaders headers, String body, long bytesReceived) {
+        this.url = url;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.bytesReceived = bytesReceived;
+    }
+
+    /**
+     * Get the url that is finally fetched (after redirects)
+     * 
+     * @return url
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Get the HTTP status code
+     * 
+     * @return status code
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Check whether the status code is 2xx
+     * 
+     * @return whether the status code is 2xx
+     */
+    public boolean isOk() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Get the response headers
+     * 
+     * @return response headers
+     */
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Get the body, which is decompressed and decoded
+     * 
+     * @return body, it's empty if there is no body
+     */
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Get the number of bytes received over the wire (before decompression)
+     * 
+     * @return number of bytes received
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+}
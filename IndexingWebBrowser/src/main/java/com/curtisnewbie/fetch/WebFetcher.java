@@ -0,0 +1,367 @@
+package com.curtisnewbie.fetch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.curtisnewbie.jfr.PageLoadEvent;
+import com.curtisnewbie.util.VirtualThreads;
+
+import org.jsoup.Jsoup;
+
+/**
+ * <p>
+ * Fetcher of the web pages, which is built on {@code java.net.http.HttpClient}.
+ * A single HttpClient is shared, so the connections are pooled and reused per
+ * host, and the number of concurrent requests to the same host is limited.
+ * </p>
+ * <p>
+ * The bodies are read as streams, they are decompressed on the fly (gzip and
+ * deflate) and the reading stops as soon as the body exceeds the max size, so a
+ * huge (or maliciously compressed) page never fills the heap. The whole
+ * response must be received within the request timeout, the body is closed
+ * when it runs out, so a server that stops sending halfway doesn't hold the
+ * calling thread (and the permit of its host) forever.
+ * </p>
+ * <p>
+ * The body is decoded with the charset of the Content-Type header, or, when
+ * it's absent, the charset detected by Jsoup, i.e., the BOM or the
+ * {@code <meta charset>} (or {@code http-equiv}) of the page, else UTF-8.
+ * </p>
+ * <p>
+ * {@link #fetch(String)} blocks the calling thread, {@link #fetchAll(Collection)}
+ * fetches each url in its own (virtual, if available) thread.
+ * </p>
+ * 
+ * @author Yongjie Zhuang
+ * 
+ * @see VirtualThreads
+ */
+public class WebFetcher {
+
+    public static final Duration DEF_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEF_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    public static final long DEF_MAX_BODY_BYTES = 10 * 1024 * 1024;
+    public static final int DEF_MAX_CONNECTIONS_PER_HOST = 6;
+
+    private static final String USER_AGENT = "IndexingWebBrowser";
+    private static final Pattern CHARSET_PATTERN = Pattern.compile("charset=\"?([^\\s;\"]+)", Pattern.CASE_INSENSITIVE);
+
+    private static volatile WebFetcher defaultFetcher;
+
+    /** Timer that closes the bodies of the responses that exceed the timeout */
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "web-fetcher-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Duration requestTimeout;
+    private final long maxBodyBytes;
+    private final int maxConnectionsPerHost;
+
+    /** Semaphore for each host to limit the concurrent requests */
+    private final ConcurrentHashMap<String, Semaphore> hostPermits;
+
+    /**
+     * Instantiate WebFetcher
+     * 
+     * @param connectTimeout        timeout for establishing a connection
+     * @param requestTimeout        timeout for receiving the whole response,
+     *                              i.e., the headers and the body
+     * @param maxBodyBytes          max size of the (decompressed) body
+     * @param maxConnectionsPerHost max number of concurrent requests to a host
+     */
+    public WebFetcher(Duration connectTimeout, Duration requestTimeout, long maxBodyBytes, int maxConnectionsPerHost) {
+        this.executor = VirtualThreads.newThreadPerTaskExecutor("web-fetcher");
+        this.client = HttpClient.newBuilder().connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL).executor(executor).build();
+        this.requestTimeout = requestTimeout;
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.hostPermits = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the shared WebFetcher with the default timeouts and limits
+     * 
+     * @return the shared WebFetcher
+     */
+    public static WebFetcher getDefault() {
+        if (defaultFetcher == null) {
+            synchronized (WebFetcher.class) {
+                if (defaultFetcher == null)
+                    defaultFetcher = new WebFetcher(DEF_CONNECT_TIMEOUT, DEF_REQUEST_TIMEOUT, DEF_MAX_BODY_BYTES,
+                            DEF_MAX_CONNECTIONS_PER_HOST);
+            }
+        }
+        return defaultFetcher;
+    }
+
+    /**
+     * Fetch the url with a GET request, the calling thread is blocked until the
+     * whole body is read.
+     * 
+     * @param url web URL (http or https)
+     * @return the result, the status code may not be 2xx
+     * @throws IOException              when it fails to connect, times out, or
+     *                                  the body exceeds the max size
+     * @throws IllegalArgumentException when the url is not valid
+     */
+    public FetchResult fetch(String url) throws IOException, IllegalArgumentException {
+        return send(newRequest(url).GET().build());
+    }
+
+    /**
+     * Fetch the url with a GET request that has the extra headers, e.g., the
+     * validators of a conditional GET.
+     * 
+     * @param url     web URL (http or https)
+     * @param headers extra headers of the request
+     * @return the result, the status code may not be 2xx
+     * @throws IOException              when it fails to connect, times out, or
+     *                                  the body exceeds the max size
+     * @throws IllegalArgumentException when the url or a header is not valid
+     * @see #fetch(String)
+     */
+    public FetchResult fetch(String url, Map<String, String> headers) throws IOException, IllegalArgumentException {
+        HttpRequest.Builder builder = newRequest(url).GET();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        return send(builder.build());
+    }
+
+    /**
+     * Fetch the urls concurrently, each url is fetched in its own (virtual, if
+     * available) thread, while the number of concurrent requests to the same host
+     * is still limited.
+     * 
+     * @param urls web URLs
+     * @return a List of futures in the same order as the urls, a future completes
+     *         exceptionally if the url fails to be fetched.
+     */
+    public List<CompletableFuture<FetchResult>> fetchAll(Collection<String> urls) {
+        List<CompletableFuture<FetchResult>> futures = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return fetch(url);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        return futures;
+    }
+
+    /**
+     * Create a request builder with the common headers and the timeout
+     * 
+     * @param url web URL
+     * @return request builder
+     */
+    protected HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout).header("User-Agent", USER_AGENT)
+                .header("Accept-Encoding", "gzip, deflate");
+    }
+
+    /**
+     * Send the request and read the body, it blocks the calling thread.
+     * 
+     * @param request request
+     * @return the result
+     * @throws IOException when it fails to send the request or read the body
+     */
+    protected FetchResult send(HttpRequest request) throws IOException {
+        String host = request.uri().getHost();
+        Semaphore permits = hostPermits.computeIfAbsent(host == null ? "" : host,
+                h -> new Semaphore(maxConnectionsPerHost));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to connect to " + host, e);
+        }
+        PageLoadEvent event = new PageLoadEvent();
+        event.begin();
+        try {
+            FetchResult result;
+            try {
+                result = sendOnce(request);
+            } catch (StaleConnectionException e) {
+                // the pooled connection was closed by the server, retry once with a new one
+                result = sendOnce(request);
+            }
+            if (event.shouldCommit())
+                event.commit(result.getUrl(), PageLoadEvent.SOURCE_FETCH, result.getStatusCode(),
+                        result.getBody().length(), result.getBytesReceived());
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + request.uri(), e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private FetchResult sendOnce(HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<InputStream> resp = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        long contentLength = resp.headers().firstValueAsLong("Content-Length").orElse(-1);
+        if (contentLength > maxBodyBytes) {
+            resp.body().close();
+            throw new IOException("Body of " + request.uri() + " exceeds the max size of " + maxBodyBytes);
+        }
+        // the body is closed when the deadline of the whole response is reached
+        long remaining = requestTimeout.toNanos() - (System.nanoTime() - start);
+        ScheduledFuture<?> deadline = DEADLINES.schedule(() -> {
+            try {
+                resp.body().close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }, Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        CountingInputStream raw = new CountingInputStream(resp.body());
+        String encoding = resp.headers().firstValue("Content-Encoding").orElse("").toLowerCase(Locale.ROOT);
+        byte[] body;
+        try (InputStream in = decompress(raw, encoding)) {
+            body = readAtMost(in, maxBodyBytes, request.uri());
+        } catch (IOException e) {
+            if (deadline.isDone())
+                throw new IOException("Timed out reading the body of " + request.uri() + " after " + requestTimeout, e);
+            if (raw.count == 0 && contentLength != 0)
+                throw new StaleConnectionException(e);
+            throw e;
+        } finally {
+            deadline.cancel(false);
+        }
+        String text = decode(body, resp.headers().firstValue("Content-Type").orElse(""), resp.uri());
+        return new FetchResult(resp.uri().toString(), resp.statusCode(), resp.headers(), text, raw.count);
+    }
+
+    private static InputStream decompress(InputStream in, String encoding) throws IOException {
+        if (encoding.contains("gzip"))
+            return new GZIPInputStream(in);
+        else if (encoding.contains("deflate"))
+            return new InflaterInputStream(in);
+        else
+            return in;
+    }
+
+    private static byte[] readAtMost(InputStream in, long max, URI uri) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        long total = 0;
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            total += n;
+            if (total > max)
+                throw new IOException("Body of " + uri + " exceeds the max size of " + max);
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode the body with the charset of the Content-Type header, or the one
+     * declared in the page (detected by Jsoup like {@code Jsoup.connect()} does)
+     */
+    private static String decode(byte[] body, String contentType, URI uri) throws IOException {
+        Charset charset = charsetOf(contentType);
+        if (charset == null) {
+            if (body.length == 0)
+                return "";
+            Charset detected = Jsoup.parse(new ByteArrayInputStream(body), null, uri.toString()).charset();
+            charset = detected == null ? StandardCharsets.UTF_8 : detected;
+        }
+        return new String(body, charset);
+    }
+
+    /**
+     * Get the charset of the Content-Type header
+     *
+     * @return charset, or {@code NULL} if it's absent or unknown
+     */
+    private static Charset charsetOf(String contentType) {
+        Matcher m = CHARSET_PATTERN.matcher(contentType);
+        if (m.find()) {
+            try {
+                return Charset.forName(m.group(1));
+            } catch (IllegalArgumentException e) {
+                // unknown charset, it's detected from the page
+            }
+        }
+        return null;
+    }
+
+    /**
+     * InputStream that counts the number of bytes read from it
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                count += n;
+            return n;
+        }
+    }
+
+    /**
+     * Thrown when the body fails to be read before any byte is received, which
+     * typically means that the pooled connection has been closed by the server.
+     */
+    private static class StaleConnectionException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        StaleConnectionException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.curtisnewbie.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>
+ * JFR event of the content of a WebDoc that is parsed, and of which the words
+ * are extracted. The duration doesn't include the fetch.
+ * </p>
+ * <p>
+ * It's disabled by default, see "jfr/indexing.jfc".
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+@Name("com.curtisnewbie.DocumentParsed")
+@Label("Document Parsed")
+@Description("Content of a WebDoc parsed and its words extracted")
+@Category({ "Indexing Web Browser", "Indexing" })
+@Enabled(false)
+@StackTrace(false)
+public class DocumentParsedEvent extends Event {
+
+    @Label("URL")
+    private String url;
+
+    @Label("File Type")
+    private String fileType;
+
+    @Label("Content Length")
+    @Description("Number of characters of the content")
+    private int contentLength;
+
+    @Label("Head Words")
+    @Description("Number of unique words in head")
+    private int headWords;
+
+    @Label("Body Words")
+    @Description("Number of unique words in body")
+    private int bodyWords;
+
+    /**
+     * Set the fields and commit the event, it should only be called when
+     * {@link #shouldCommit()} is true
+     *
+     * @param url           url of the WebDoc
+     * @param fileType      file type of the WebDoc
+     * @param contentLength number of characters of the content
+     * @param headWords     number of unique words in head
+     * @param bodyWords     number of unique words in body
+     */
+    public void commit(String url, String fileType, int contentLength, int headWords, int bodyWords) {
+        this.url = url;
+        this.fileType = fileType;
+        this.contentLength = contentLength;
+        this.headWords = headWords;
+        this.bodyWords = bodyWords;
+        commit();
+    }
+}
@@ -0,0 +1,66 @@
+package com.curtisnewbie.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>
+ * JFR event of a WebDoc that is added into the web index of head or body.
+ * </p>
+ * <p>
+ * It's disabled by default, see "jfr/indexing.jfc".
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+@Name("com.curtisnewbie.IndexAdd")
+@Label("Index Add")
+@Description("WebDoc added into the web index of head or body")
+@Category({ "Indexing Web Browser", "Indexing" })
+@Enabled(false)
+@StackTrace(false)
+public class IndexAddEvent extends Event {
+
+    @Label("URL")
+    private String url;
+
+    @Label("Section")
+    @Description("head or body")
+    private String section;
+
+    @Label("Words Added")
+    @Description("Number of words of the WebDoc that are added")
+    private int wordsAdded;
+
+    @Label("Index Words")
+    @Description("Number of unique words in the web index after the addition")
+    private int indexWords;
+
+    @Label("Index Documents")
+    @Description("Number of WebDoc in the web index after the addition")
+    private int indexDocs;
+
+    /**
+     * Set the fields and commit the event, it should only be called when
+     * {@link #shouldCommit()} is true
+     *
+     * @param url        url of the WebDoc
+     * @param section    "head" or "body"
+     * @param wordsAdded number of words added
+     * @param indexWords number of unique words in the web index
+     * @param indexDocs  number of WebDoc in the web index
+     */
+    public void commit(String url, String section, int wordsAdded, int indexWords, int indexDocs) {
+        this.url = url;
+        this.section = section;
+        this.wordsAdded = wordsAdded;
+        this.indexWords = indexWords;
+        this.indexDocs = indexDocs;
+        commit();
+    }
+}
@@ -0,0 +1,76 @@
+package com.curtisnewbie.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>
+ * JFR event of a webpage that is loaded, either by the WebView of the browser
+ * (when its document is captured as a string), or by the WebFetcher. The
+ * duration covers the capture or the fetch.
+ * </p>
+ * <p>
+ * It's disabled by default, see "jfr/indexing.jfc".
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+@Name("com.curtisnewbie.PageLoad")
+@Label("Page Load")
+@Description("Webpage loaded by the browser or fetched by the WebFetcher")
+@Category({ "Indexing Web Browser", "Fetch" })
+@Enabled(false)
+@StackTrace(false)
+public class PageLoadEvent extends Event {
+
+    /** Page loaded by the WebView of the browser */
+    public static final String SOURCE_BROWSER = "browser";
+
+    /** Page fetched by the WebFetcher */
+    public static final String SOURCE_FETCH = "fetch";
+
+    @Label("URL")
+    private String url;
+
+    @Label("Source")
+    @Description("browser or fetch")
+    private String source;
+
+    @Label("Status Code")
+    @Description("HTTP status code, or -1 if it's loaded by the browser")
+    private int statusCode;
+
+    @Label("Content Length")
+    @Description("Number of characters of the content")
+    private int contentLength;
+
+    @Label("Bytes Read")
+    @Description("Bytes read from the network (before decompression), or -1 if it's loaded by the browser")
+    @DataAmount
+    private long bytesRead;
+
+    /**
+     * Set the fields and commit the event, it should only be called when
+     * {@link #shouldCommit()} is true
+     *
+     * @param url           url of the page
+     * @param source        {@link #SOURCE_BROWSER} or {@link #SOURCE_FETCH}
+     * @param statusCode    HTTP status code, or -1
+     * @param contentLength number of characters of the content
+     * @param bytesRead     bytes read from the network, or -1
+     */
+    public void commit(String url, String source, int statusCode, int contentLength, long bytesRead) {
+        this.url = url;
+        this.source = source;
+        this.statusCode = statusCode;
+        this.contentLength = contentLength;
+        this.bytesRead = bytesRead;
+        commit();
+    }
+}
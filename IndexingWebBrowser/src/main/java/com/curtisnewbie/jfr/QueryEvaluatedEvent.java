@@ -0,0 +1,62 @@
+package com.curtisnewbie.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>
+ * JFR event of a query (or subquery) that is evaluated against the web index
+ * of head or body. The duration of a query includes those of its subqueries.
+ * </p>
+ * <p>
+ * It's disabled by default, see "jfr/indexing.jfc".
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+@Name("com.curtisnewbie.QueryEvaluated")
+@Label("Query Evaluated")
+@Description("Query or subquery evaluated against the web index of head or body")
+@Category({ "Indexing Web Browser", "Query" })
+@Enabled(false)
+@StackTrace(false)
+public class QueryEvaluatedEvent extends Event {
+
+    @Label("Query")
+    @Description("Type of the query and the word or the subqueries, e.g., AND([apple],[or(b,c)])")
+    private String query;
+
+    @Label("Section")
+    @Description("head or body")
+    private String section;
+
+    @Label("Results")
+    @Description("Number of WebDoc that match")
+    private int results;
+
+    @Label("Index Documents")
+    @Description("Number of WebDoc in the web index")
+    private int indexDocs;
+
+    /**
+     * Set the fields and commit the event, it should only be called when
+     * {@link #shouldCommit()} is true
+     *
+     * @param query     description of the query
+     * @param section   "head" or "body"
+     * @param results   number of WebDoc that match
+     * @param indexDocs number of WebDoc in the web index
+     */
+    public void commit(String query, String section, int results, int indexDocs) {
+        this.query = query;
+        this.section = section;
+        this.results = results;
+        this.indexDocs = indexDocs;
+        commit();
+    }
+}
@@ -0,0 +1,55 @@
+package com.curtisnewbie.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>
+ * JFR event of a query that is parsed by the QueryBuilder. The subqueries are
+ * parsed lazily (when they are evaluated), so each of them has its own event.
+ * </p>
+ * <p>
+ * It's disabled by default, see "jfr/indexing.jfc".
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+@Name("com.curtisnewbie.QueryParsed")
+@Label("Query Parsed")
+@Description("Query or subquery parsed by the QueryBuilder")
+@Category({ "Indexing Web Browser", "Query" })
+@Enabled(false)
+@StackTrace(false)
+public class QueryParsedEvent extends Event {
+
+    @Label("Query")
+    private String query;
+
+    @Label("Form")
+    @Description("infix or prefix")
+    private String form;
+
+    @Label("Query Type")
+    @Description("Type of the top-level Query, or null if it's ill-formed")
+    private String queryType;
+
+    /**
+     * Set the fields and commit the event, it should only be called when
+     * {@link #shouldCommit()} is true
+     *
+     * @param query     the query
+     * @param form      "infix" or "prefix"
+     * @param queryType simple name of the class of the Query, or {@code NULL}
+     */
+    public void commit(String query, String form, String queryType) {
+        this.query = query;
+        this.form = form;
+        this.queryType = queryType;
+        commit();
+    }
+}
@@ -0,0 +1,18 @@
+package com.curtisnewbie.metrics;
+
+/**
+ * Management interface of the queues of the Crawler
+ *
+ * @author Yongjie Zhuang
+ */
+public interface CrawlerMXBean {
+
+    /** @return number of urls queued in the frontier */
+    int getQueuedUrls();
+
+    /** @return number of urls being fetched */
+    int getInFlightFetches();
+
+    /** @return number of parsed pages waiting to be indexed */
+    int getParsedPagesQueued();
+}
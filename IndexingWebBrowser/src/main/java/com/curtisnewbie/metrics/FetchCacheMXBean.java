@@ -0,0 +1,18 @@
+package com.curtisnewbie.metrics;
+
+/**
+ * Management interface of the FetchCache
+ *
+ * @author Yongjie Zhuang
+ */
+public interface FetchCacheMXBean {
+
+    /** @return number of conditional fetches answered with "304 Not Modified" */
+    long getNotModified();
+
+    /** @return number of conditional fetches of which the webpage was modified */
+    long getModified();
+
+    /** @return bytes not downloaded thanks to the "304 Not Modified" responses */
+    long getBytesSaved();
+}
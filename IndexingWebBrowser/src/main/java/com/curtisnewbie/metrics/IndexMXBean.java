@@ -0,0 +1,45 @@
+package com.curtisnewbie.metrics;
+
+/**
+ * Management interface of the IndexingEngine, i.e., the size of the indices and
+ * the rate of the ingestion
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see JmxMetrics#register(com.curtisnewbie.webBrowserModel.IndexingEngine)
+ */
+public interface IndexMXBean {
+
+    /** @return number of WebDoc indexed */
+    int getDocuments();
+
+    /** @return number of unique words in the head index */
+    int getHeadTerms();
+
+    /** @return number of unique words in the body index */
+    int getBodyTerms();
+
+    /** @return number of (word, WebDoc) pairs in the head and body indices */
+    long getPostings();
+
+    /** @return estimated heap used by the WebDoc and the indices in bytes */
+    long getEstimatedHeapBytes();
+
+    /** @return memory budget in bytes, or Long.MAX_VALUE if it's unlimited */
+    long getMemoryBudgetBytes();
+
+    /** @return number of WebDoc evicted */
+    long getEvicted();
+
+    /** @return number of near-duplicates not indexed */
+    long getDuplicates();
+
+    /** @return number of WebDoc indexed or updated since the start */
+    long getDocsIndexed();
+
+    /** @return WebDoc indexed or updated per second in the last minute */
+    double getIngestDocsPerSecond();
+
+    /** @return number of standing queries */
+    int getStandingQueries();
+}
@@ -0,0 +1,243 @@
+package com.curtisnewbie.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.curtisnewbie.crawler.Crawler;
+import com.curtisnewbie.fetch.FetchCache;
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+
+/**
+ * <p>
+ * Registers the metrics as MXBeans in the platform MBeanServer, so that they can
+ * be read by JConsole, VisualVM, or any JMX client, e.g.,
+ * "com.curtisnewbie:type=Index" and
+ * "com.curtisnewbie:type=QueryLatency,queryType=AND".
+ * </p>
+ * <p>
+ * The attributes are computed when they are read, nothing is sampled in the
+ * background. Registering a component again replaces the previous MXBean, and
+ * a failure to register is only printed, the metrics are not essential.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+public final class JmxMetrics {
+
+    /** Domain of the ObjectName */
+    public static final String DOMAIN = "com.curtisnewbie";
+
+    private JmxMetrics() {
+    }
+
+    /**
+     * Register the metrics of the size of the indices, the ingestion and the
+     * latencies of each type of queries
+     *
+     * @param engine IndexingEngine
+     */
+    public static void register(IndexingEngine engine) {
+        register(new IndexMetrics(engine), "type=Index");
+        for (Map.Entry<String, LatencyHistogram> e : engine.getQueryLatencies().entrySet())
+            register(new QueryLatencyMetrics(e.getValue()), "type=QueryLatency,queryType=" + e.getKey());
+    }
+
+    /**
+     * Register the metrics of the revalidations of the FetchCache
+     *
+     * @param fetchCache supplier of the current FetchCache, as it may be replaced
+     */
+    public static void register(Supplier<FetchCache> fetchCache) {
+        register(new FetchCacheMetrics(fetchCache), "type=FetchCache");
+    }
+
+    /**
+     * Register the metrics of the queues of the Crawler
+     *
+     * @param crawler Crawler
+     */
+    public static void register(Crawler crawler) {
+        register(new CrawlerMetrics(crawler), "type=Crawler");
+    }
+
+    private static void register(Object mxBean, String properties) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+            server.registerMBean(mxBean, name);
+        } catch (JMException | SecurityException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static final class IndexMetrics implements IndexMXBean {
+
+        private final IndexingEngine engine;
+
+        private IndexMetrics(IndexingEngine engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public int getDocuments() {
+            return engine.getNumOfDocs();
+        }
+
+        @Override
+        public int getHeadTerms() {
+            return engine.getNumOfHeadWords();
+        }
+
+        @Override
+        public int getBodyTerms() {
+            return engine.getNumOfBodyWords();
+        }
+
+        @Override
+        public long getPostings() {
+            return engine.getNumOfPostings();
+        }
+
+        @Override
+        public long getEstimatedHeapBytes() {
+            return engine.getMemoryStats().getUsedBytes();
+        }
+
+        @Override
+        public long getMemoryBudgetBytes() {
+            return engine.getMemoryBudget();
+        }
+
+        @Override
+        public long getEvicted() {
+            return engine.getMemoryStats().getNumOfEvicted();
+        }
+
+        @Override
+        public long getDuplicates() {
+            return engine.getMemoryStats().getNumOfDuplicates();
+        }
+
+        @Override
+        public long getDocsIndexed() {
+            return engine.getIngestRate().getTotal();
+        }
+
+        @Override
+        public double getIngestDocsPerSecond() {
+            return engine.getIngestRate().getRatePerSecond();
+        }
+
+        @Override
+        public int getStandingQueries() {
+            return engine.getStandingQueries().size();
+        }
+    }
+
+    private static final class QueryLatencyMetrics implements QueryLatencyMXBean {
+
+        private final LatencyHistogram histogram;
+
+        private QueryLatencyMetrics(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        @Override
+        public double getMeanMicros() {
+            return histogram.getMean() / 1000.0;
+        }
+
+        @Override
+        public long getMaxMicros() {
+            return toMicros(histogram.getMax());
+        }
+
+        @Override
+        public long getP50Micros() {
+            return toMicros(histogram.getValueAtPercentile(50));
+        }
+
+        @Override
+        public long getP90Micros() {
+            return toMicros(histogram.getValueAtPercentile(90));
+        }
+
+        @Override
+        public long getP99Micros() {
+            return toMicros(histogram.getValueAtPercentile(99));
+        }
+
+        @Override
+        public long getP999Micros() {
+            return toMicros(histogram.getValueAtPercentile(99.9));
+        }
+    }
+
+    private static final class FetchCacheMetrics implements FetchCacheMXBean {
+
+        private final Supplier<FetchCache> fetchCache;
+
+        private FetchCacheMetrics(Supplier<FetchCache> fetchCache) {
+            this.fetchCache = fetchCache;
+        }
+
+        @Override
+        public long getNotModified() {
+            FetchCache cache = fetchCache.get();
+            return cache == null ? 0 : cache.getNumOfNotModified();
+        }
+
+        @Override
+        public long getModified() {
+            FetchCache cache = fetchCache.get();
+            return cache == null ? 0 : cache.getNumOfModified();
+        }
+
+        @Override
+        public long getBytesSaved() {
+            FetchCache cache = fetchCache.get();
+            return cache == null ? 0 : cache.getBytesSaved();
+        }
+    }
+
+    private static final class CrawlerMetrics implements CrawlerMXBean {
+
+        private final Crawler crawler;
+
+        private CrawlerMetrics(Crawler crawler) {
+            this.crawler = crawler;
+        }
+
+        @Override
+        public int getQueuedUrls() {
+            return crawler.getNumOfQueuedUrls();
+        }
+
+        @Override
+        public int getInFlightFetches() {
+            return crawler.getNumOfInFlight();
+        }
+
+        @Override
+        public int getParsedPagesQueued() {
+            return crawler.getNumOfParsedQueued();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.curtisnewbie.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Histogram of latencies with a fixed relative precision (HDR-style), the
+ * values are counted in log-linear buckets: each power of two is split into
+ * {@link #SUB_BUCKETS} linear sub-buckets, so a percentile is reported with an
+ * error of at most about 3%, whatever the magnitude of the values, and the
+ * memory used is constant.
+ * </p>
+ * <p>
+ * It's lock-free, the values can be recorded concurrently, and the percentiles
+ * are computed from the counts at the time they are read.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+public class LatencyHistogram {
+
+    /** Bits of the linear sub-buckets in each power of two */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /** Number of linear sub-buckets in each power of two */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets that cover all the non-negative long values */
+    private static final int NUM_OF_BUCKETS = (63 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(NUM_OF_BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Record a latency
+     *
+     * @param nanos latency in nanoseconds, a negative one is recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Get the number of latencies recorded
+     *
+     * @return number of latencies
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the mean of the latencies
+     *
+     * @return mean in nanoseconds, or 0 if nothing is recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Get the max latency
+     *
+     * @return max in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the latency at the percentile, i.e., the highest value that is
+     * equivalent (in the same bucket) to the value at the percentile
+     *
+     * @param percentile between 0 and 100, e.g., 99.9
+     * @return latency in nanoseconds, or 0 if nothing is recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[NUM_OF_BUCKETS];
+        for (int i = 0; i < NUM_OF_BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < NUM_OF_BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return Math.min(highestValueOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Get the bucket of the value, the values below 2 * SUB_BUCKETS have their own
+     * buckets, the others share a bucket with the values that only differ in the
+     * bits below the top (SUB_BUCKET_BITS + 1) bits
+     */
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Get the highest value in the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
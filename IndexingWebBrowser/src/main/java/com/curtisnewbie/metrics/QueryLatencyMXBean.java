@@ -0,0 +1,32 @@
+package com.curtisnewbie.metrics;
+
+/**
+ * Management interface of the latencies of a type of queries
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see LatencyHistogram
+ */
+public interface QueryLatencyMXBean {
+
+    /** @return number of queries */
+    long getCount();
+
+    /** @return mean latency in microseconds */
+    double getMeanMicros();
+
+    /** @return max latency in microseconds */
+    long getMaxMicros();
+
+    /** @return median latency in microseconds */
+    long getP50Micros();
+
+    /** @return 90th percentile of the latencies in microseconds */
+    long getP90Micros();
+
+    /** @return 99th percentile of the latencies in microseconds */
+    long getP99Micros();
+
+    /** @return 99.9th percentile of the latencies in microseconds */
+    long getP999Micros();
+}
@@ -0,0 +1,74 @@
+package com.curtisnewbie.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate of the events over a sliding window of the last minute, the events are
+ * counted in one-second slots.
+ *
+ * @author Yongjie Zhuang
+ */
+public class RateMeter {
+
+    /** Length of the window in seconds */
+    public static final int WINDOW_SECONDS = 60;
+
+    private final long startNanos;
+    private final long[] slotSeconds;
+    private final long[] slotCounts;
+    private long total;
+
+    public RateMeter() {
+        this.startNanos = System.nanoTime();
+        this.slotSeconds = new long[WINDOW_SECONDS];
+        this.slotCounts = new long[WINDOW_SECONDS];
+    }
+
+    /**
+     * Record the events
+     *
+     * @param n number of events
+     */
+    public synchronized void mark(long n) {
+        long second = currentSecond();
+        int slot = (int) (second % WINDOW_SECONDS);
+        if (slotSeconds[slot] != second) {
+            slotSeconds[slot] = second;
+            slotCounts[slot] = 0;
+        }
+        slotCounts[slot] += n;
+        total += n;
+    }
+
+    /**
+     * Get the number of events recorded in total
+     *
+     * @return number of events
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the rate of the events in the last minute, or since it's created if
+     * it's less than a minute
+     *
+     * @return events per second
+     */
+    public synchronized double getRatePerSecond() {
+        long second = currentSecond();
+        long events = 0;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            if (second - slotSeconds[i] < WINDOW_SECONDS)
+                events += slotCounts[i];
+        }
+        double window = Math.min(WINDOW_SECONDS,
+                Math.max(1, (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1)));
+        return events / window;
+    }
+
+    private long currentSecond() {
+        // seconds are counted from 1, so that an empty slot (0) is never in the window
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos) + 1;
+    }
+}
@@ -0,0 +1,163 @@
+package com.curtisnewbie.querylog;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the records of a query log written by {@link QueryLogWriter}. A record
+ * that is only partially written (e.g., the application was killed while
+ * writing it) is treated as the end of the log.
+ *
+ * @author Yongjie Zhuang
+ */
+public class QueryLogReader implements Closeable {
+
+    /** Length of the magic number and the version */
+    private static final int HEADER_LENGTH = 5;
+
+    private final DataInputStream in;
+    private final CountingInputStream counter;
+
+    /** Number of bytes of the header and the records that are completely read */
+    private long position;
+
+    /**
+     * Open the query log
+     *
+     * @param file query log
+     * @throws IOException if it fails to open the file, or it's not a query log
+     */
+    public QueryLogReader(Path file) throws IOException {
+        this.counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        this.in = new DataInputStream(counter);
+        try {
+            if (in.readInt() != QueryLogWriter.MAGIC)
+                throw new IOException("Not a query log: " + file);
+            int version = in.readUnsignedByte();
+            if (version != QueryLogWriter.VERSION)
+                throw new IOException("Unsupported version of query log: " + version);
+            position = counter.count;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read all the records of the query log
+     *
+     * @param file query log
+     * @return a List of QueryLogRecord in the order they were appended
+     * @throws IOException if it fails to read the file, or it's not a query log
+     */
+    public static List<QueryLogRecord> readAll(Path file) throws IOException {
+        List<QueryLogRecord> records = new ArrayList<>();
+        try (QueryLogReader reader = new QueryLogReader(file)) {
+            QueryLogRecord record;
+            while ((record = reader.read()) != null)
+                records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Read the next record
+     *
+     * @return QueryLogRecord, or {@code NULL} at the end of the log
+     * @throws IOException if it fails to read the file
+     */
+    public QueryLogRecord read() throws IOException {
+        int flags = in.read();
+        if (flags < 0)
+            return null;
+        try {
+            long timestamp = readVarLong();
+            long latencyNanos = readVarLong();
+            int numOfHeadResults = (int) readVarLong();
+            int numOfBodyResults = (int) readVarLong();
+            byte[] query = new byte[(int) readVarLong()];
+            in.readFully(query);
+            position = counter.count;
+            return new QueryLogRecord(new String(query, StandardCharsets.UTF_8),
+                    (flags & QueryLogWriter.FLAG_INFIX) != 0, timestamp, latencyNanos, numOfHeadResults,
+                    numOfBodyResults);
+        } catch (EOFException e) {
+            // partially written record
+            return null;
+        }
+    }
+
+    /**
+     * Get the length of the header and the complete records of the query log,
+     * i.e., where the next record should be appended. It's less than the size
+     * of the file if the last record is only partially written.
+     *
+     * @param file query log
+     * @return length of the complete part, or 0 if even the header is only
+     *         partially written
+     * @throws IOException if it fails to read the file, or it's not a query log
+     */
+    static long completeLength(Path file) throws IOException {
+        if (Files.size(file) < HEADER_LENGTH)
+            return 0;
+        try (QueryLogReader reader = new QueryLogReader(file)) {
+            while (reader.read() != null)
+                ;
+            return reader.position;
+        }
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * InputStream that counts the number of bytes read from it
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                count += n;
+            return n;
+        }
+    }
+}
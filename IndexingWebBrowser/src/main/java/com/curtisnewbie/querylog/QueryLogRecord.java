@@ -0,0 +1,99 @@
+package com.curtisnewbie.querylog;
+
+/**
+ * A query in the query log, with its latency and the number of results
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see QueryLogWriter
+ * @see QueryLogReader
+ */
+public final class QueryLogRecord {
+
+    private final String query;
+    private final boolean isInfix;
+    private final long timestamp;
+    private final long latencyNanos;
+    private final int numOfHeadResults;
+    private final int numOfBodyResults;
+
+    /**
+     * Instantiate QueryLogRecord
+     *
+     * @param query            the query, or the command "/all"
+     * @param isInfix          whether it's an infix query
+     * @param timestamp        when it's submitted, in milliseconds since epoch
+     * @param latencyNanos     time taken to evaluate it
+     * @param numOfHeadResults number of results in head
+     * @param numOfBodyResults number of results in body
+     */
+    public QueryLogRecord(String query, boolean isInfix, long timestamp, long latencyNanos, int numOfHeadResults,
+            int numOfBodyResults) {
+        this.query = query;
+        this.isInfix = isInfix;
+        this.timestamp = timestamp;
+        this.latencyNanos = latencyNanos;
+        this.numOfHeadResults = numOfHeadResults;
+        this.numOfBodyResults = numOfBodyResults;
+    }
+
+    /**
+     * Get the query
+     *
+     * @return the query, or the command "/all"
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Check whether it's an infix query
+     *
+     * @return whether it's an infix query
+     */
+    public boolean isInfix() {
+        return isInfix;
+    }
+
+    /**
+     * Get the time when it's submitted
+     *
+     * @return milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the time taken to evaluate it
+     *
+     * @return latency in nanoseconds
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Get the number of results in head
+     *
+     * @return number of results, or -1 if it failed
+     */
+    public int getNumOfHeadResults() {
+        return numOfHeadResults;
+    }
+
+    /**
+     * Get the number of results in body
+     *
+     * @return number of results, or -1 if it failed
+     */
+    public int getNumOfBodyResults() {
+        return numOfBodyResults;
+    }
+
+    @Override
+    public String toString() {
+        return (isInfix ? "" : "p:") + query + " (head: " + numOfHeadResults + ", body: " + numOfBodyResults
+                + ", " + latencyNanos / 1000 + " us)";
+    }
+}
@@ -0,0 +1,204 @@
+package com.curtisnewbie.querylog;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.curtisnewbie.metrics.LatencyHistogram;
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+import com.curtisnewbie.webBrowserModel.SearchResult;
+
+/**
+ * <p>
+ * Replays a query log against an index, and compares the latencies and the
+ * numbers of results with those recorded in the log, so a regression (slower
+ * queries) or a drift (different results) between two builds is caught with
+ * the real mix of the queries.
+ * </p>
+ * <p>
+ * The index is built from the urls (or the local files with a prefix of
+ * "file:") given in the arguments, and the html files in a directory. It
+ * should contain the same webpages as the index that the queries were
+ * recorded against, otherwise the numbers of results are not comparable. With
+ * "--out", the replayed latencies and results are written as a new query log,
+ * which can be the baseline of the next build.
+ * </p>
+ *
+ * <pre>
+ * Usage: QueryLogReplayer --log [file] [--threads n] [--out file] [--urls file] [--dir dir] [url...]
+ * E.g.,  QueryLogReplayer --log queries.qlog --threads 4 --dir /tmp/corpus --out replayed.qlog
+ * </pre>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see QueryLogWriter
+ */
+public class QueryLogReplayer {
+
+    /** Max number of drifted queries printed */
+    private static final int MAX_DRIFTS_SHOWN = 20;
+
+    private final IndexingEngine engine;
+    private final int threads;
+
+    /**
+     * Instantiate QueryLogReplayer
+     *
+     * @param engine  IndexingEngine that the queries are replayed against
+     * @param threads number of threads that replay the queries concurrently
+     */
+    public QueryLogReplayer(IndexingEngine engine, int threads) {
+        if (threads <= 0)
+            throw new IllegalArgumentException("Number of threads should be positive");
+        this.engine = engine;
+        this.threads = threads;
+    }
+
+    /**
+     * Replay the queries
+     *
+     * @param records the recorded queries
+     * @return the replayed queries in the same order, with the latencies and the
+     *         numbers of results of this replay, the numbers of results are -1 if
+     *         the query failed
+     * @throws InterruptedException if it's interrupted
+     */
+    public List<QueryLogRecord> replay(List<QueryLogRecord> records) throws InterruptedException {
+        QueryLogRecord[] replayed = new QueryLogRecord[records.size()];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int w = 0; w < threads; w++) {
+            workers.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < replayed.length)
+                    replayed[i] = replay(records.get(i));
+            });
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            workers.shutdownNow();
+        }
+        return List.of(replayed);
+    }
+
+    private QueryLogRecord replay(QueryLogRecord record) {
+        int head = -1;
+        int body = -1;
+        long start = System.nanoTime();
+        try {
+            SearchResult result = engine.search(record.getQuery(), record.isInfix());
+            if (result != null) {
+                head = result.getHeadResults() == null ? 0 : result.getHeadResults().size();
+                body = result.getBodyResults() == null ? 0 : result.getBodyResults().size();
+            }
+        } catch (RuntimeException e) {
+            // ill-formed query
+        }
+        long latency = System.nanoTime() - start;
+        return new QueryLogRecord(record.getQuery(), record.isInfix(), record.getTimestamp(), latency, head, body);
+    }
+
+    /**
+     * Compare the replayed queries with the recorded ones, the latencies are
+     * summarised and the queries of which the numbers of results differ are
+     * printed
+     *
+     * @param recorded the recorded queries
+     * @param replayed the replayed queries, in the same order
+     * @param out      where the comparison is printed
+     * @return number of the queries of which the numbers of results differ
+     */
+    public static int compare(List<QueryLogRecord> recorded, List<QueryLogRecord> replayed, PrintStream out) {
+        LatencyHistogram recordedLatencies = new LatencyHistogram();
+        LatencyHistogram replayedLatencies = new LatencyHistogram();
+        int drifts = 0;
+        for (int i = 0; i < recorded.size(); i++) {
+            QueryLogRecord before = recorded.get(i);
+            QueryLogRecord after = replayed.get(i);
+            recordedLatencies.record(before.getLatencyNanos());
+            replayedLatencies.record(after.getLatencyNanos());
+            if (before.getNumOfHeadResults() != after.getNumOfHeadResults()
+                    || before.getNumOfBodyResults() != after.getNumOfBodyResults()) {
+                if (++drifts <= MAX_DRIFTS_SHOWN)
+                    out.printf("Drift: %s%s  head %d -> %d, body %d -> %d%n", before.isInfix() ? "" : "p:",
+                            before.getQuery(), before.getNumOfHeadResults(), after.getNumOfHeadResults(),
+                            before.getNumOfBodyResults(), after.getNumOfBodyResults());
+            }
+        }
+        out.println("queries: " + recorded.size() + ", drifted: " + drifts);
+        out.println("recorded " + describe(recordedLatencies));
+        out.println("replayed " + describe(replayedLatencies));
+        return drifts;
+    }
+
+    private static String describe(LatencyHistogram latencies) {
+        return String.format(Locale.ROOT, "latency mean: %.3f ms, p50: %.3f ms, p99: %.3f ms, max: %.3f ms",
+                latencies.getMean() / 1e6, latencies.getValueAtPercentile(50) / 1e6,
+                latencies.getValueAtPercentile(99) / 1e6, latencies.getMax() / 1e6);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String log = null;
+        String outFile = null;
+        int threads = 1;
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--log") && i + 1 < args.length) {
+                log = args[++i];
+            } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--out") && i + 1 < args.length) {
+                outFile = args[++i];
+            } else if (args[i].equals("--urls") && i + 1 < args.length) {
+                urls.addAll(Files.readAllLines(Paths.get(args[++i]), StandardCharsets.UTF_8));
+            } else if (args[i].equals("--dir") && i + 1 < args.length) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(args[++i]), "*.{html,htm}")) {
+                    for (Path file : files)
+                        urls.add("file:" + file);
+                }
+            } else {
+                urls.add(args[i]);
+            }
+        }
+        if (log == null) {
+            System.err.println("Usage: QueryLogReplayer --log [file] [--threads n] [--out file] [--urls file] "
+                    + "[--dir dir] [url...]");
+            System.exit(1);
+        }
+
+        IndexingEngine engine = new IndexingEngine();
+        for (String url : urls) {
+            if (url.isBlank())
+                continue;
+            try {
+                engine.index(url.trim(), null);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Failed to index " + url + ": " + e.getMessage());
+            }
+        }
+        List<QueryLogRecord> recorded = QueryLogReader.readAll(Paths.get(log));
+        System.out.println("documents: " + engine.getNumOfDocs() + ", threads: " + threads);
+        List<QueryLogRecord> replayed = new QueryLogReplayer(engine, threads).replay(recorded);
+        compare(recorded, replayed, System.out);
+        if (outFile != null) {
+            Files.deleteIfExists(Paths.get(outFile));
+            try (QueryLogWriter writer = new QueryLogWriter(Paths.get(outFile))) {
+                for (QueryLogRecord record : replayed)
+                    writer.append(record);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.curtisnewbie.querylog;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Appends the queries to a binary query log, so that the real mix of the
+ * queries can be replayed later by {@link QueryLogReplayer}.
+ * </p>
+ * <p>
+ * The file starts with the magic number "QLOG" and a version byte, then each
+ * record is: a flags byte (bit 0 is set for an infix query), the timestamp, the
+ * latency in nanoseconds, the numbers of results in head and in body, all
+ * variable-length integers (7 bits per byte), and the query as the length and
+ * the bytes in UTF-8. A typical record takes about 20 bytes plus the query.
+ * </p>
+ * <p>
+ * It's thread-safe, and each record is flushed once it's appended, so the log
+ * is complete up to the last query even if the application is killed. When an
+ * existing log is reopened, its header is validated, and a record that was
+ * only partially written is truncated, so the appended records are not read
+ * from a wrong offset.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see QueryLogReader
+ */
+public class QueryLogWriter implements Closeable {
+
+    /** "QLOG" */
+    static final int MAGIC = 0x514C4F47;
+
+    static final int VERSION = 1;
+
+    static final int FLAG_INFIX = 1;
+
+    private final DataOutputStream out;
+
+    /**
+     * Open the query log, the records are appended if it already exists
+     *
+     * @param file query log
+     * @throws IOException if it fails to open the file, or the existing file is
+     *                     not a query log (of this version)
+     */
+    public QueryLogWriter(Path file) throws IOException {
+        boolean isNew = true;
+        if (Files.exists(file)) {
+            long size = Files.size(file);
+            long complete = QueryLogReader.completeLength(file);
+            if (complete < size) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(complete);
+                }
+            }
+            isNew = complete == 0;
+        }
+        OutputStream os = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.out = new DataOutputStream(new BufferedOutputStream(os));
+        if (isNew) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.flush();
+        }
+    }
+
+    /**
+     * Append a query
+     *
+     * @param record QueryLogRecord
+     * @throws IOException if it fails to write the record
+     */
+    public synchronized void append(QueryLogRecord record) throws IOException {
+        byte[] query = record.getQuery().getBytes(StandardCharsets.UTF_8);
+        out.writeByte(record.isInfix() ? FLAG_INFIX : 0);
+        writeVarLong(record.getTimestamp());
+        writeVarLong(record.getLatencyNanos());
+        writeVarLong(record.getNumOfHeadResults());
+        writeVarLong(record.getNumOfBodyResults());
+        writeVarLong(query.length);
+        out.write(query);
+        out.flush();
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,436 @@
+package com.curtisnewbie.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.curtisnewbie.util.VirtualThreads;
+import com.curtisnewbie.webBrowserModel.FieldStats;
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+import com.curtisnewbie.webBrowserModel.MemoryStats;
+import com.curtisnewbie.webBrowserModel.QueryProfile;
+import com.curtisnewbie.webBrowserModel.SearchOptions;
+import com.curtisnewbie.webBrowserModel.SearchResult;
+import com.curtisnewbie.webBrowserModel.TermStats;
+import com.curtisnewbie.webBrowserModel.WebDoc;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>
+ * An embedded HTTP server that exposes the IndexingEngine to other local tools.
+ * Each request is handled in its own (virtual, if available) thread, and the
+ * responses are JSON written through Jackson's streaming generator, so the
+ * results are never buffered as a whole.
+ * </p>
+ *
+ * <pre>
+ * GET /search?q=[query]&form=[infix|prefix]   evaluate the query (infix by default)
+ *     &type=[web|local]&sinceHours=[n]&minWords=[n]&host=[host]
+ *     &sort=[url|words|time|length]&order=[asc|desc]&limit=[n]
+ *                                             filter and sort the results (optional)
+ * GET /explain?q=[query]&form=[infix|prefix]  profile of each node of the query tree
+ * GET /doc?url=[url]                          words in head and body of the WebDoc
+ * GET /stats                                  statistics of the indices
+ * GET /terms?n=[n]                            df/ttf statistics of head and body, with the n heaviest words
+ * </pre>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see IndexingEngine
+ * @see VirtualThreads
+ */
+public class SearchServer {
+
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    /** Default number of the heaviest words of /terms */
+    private static final int DEF_TOP_TERMS = 10;
+
+    private final IndexingEngine engine;
+    private final JsonFactory jsonFactory;
+    private HttpServer httpServer;
+    private ExecutorService executor;
+
+    public SearchServer(IndexingEngine engine) {
+        this.engine = engine;
+        this.jsonFactory = new JsonFactory();
+    }
+
+    /**
+     * Start the server on localhost
+     *
+     * @param port port, or 0 for an ephemeral port
+     * @throws IOException when the server cannot be bound to the port
+     */
+    public void start(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        httpServer.createContext("/search", wrap(this::search));
+        httpServer.createContext("/explain", wrap(this::explain));
+        httpServer.createContext("/doc", wrap(this::doc));
+        httpServer.createContext("/stats", wrap(this::stats));
+        httpServer.createContext("/terms", wrap(this::terms));
+        executor = VirtualThreads.newThreadPerTaskExecutor("search-server");
+        httpServer.setExecutor(executor);
+        httpServer.start();
+    }
+
+    /**
+     * Stop the server, the requests that are being handled are given at most one
+     * second to complete.
+     */
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(1);
+            executor.shutdown();
+            httpServer = null;
+        }
+    }
+
+    /**
+     * Get the port that this server is bound to
+     *
+     * @return port
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Handle /search?q=[query]&form=[infix|prefix]
+     */
+    private void search(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQueryString(exchange);
+        String query = params.get("q");
+        boolean isInfix = !"prefix".equalsIgnoreCase(params.get("form"));
+        if (query == null || query.isBlank()) {
+            sendError(exchange, 400, "Missing parameter 'q'");
+            return;
+        }
+        SearchOptions options;
+        try {
+            options = parseOptions(params);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, "Invalid option: " + e.getMessage());
+            return;
+        }
+        long start = System.nanoTime();
+        SearchResult result = engine.search(query, isInfix, options);
+        long tookMicros = (System.nanoTime() - start) / 1000;
+        if (result == null) {
+            sendError(exchange, 400, "Ill-formed query");
+            return;
+        }
+        try (JsonGenerator gen = startJson(exchange, 200)) {
+            gen.writeStartObject();
+            gen.writeStringField("query", query);
+            gen.writeStringField("form", isInfix ? "infix" : "prefix");
+            gen.writeNumberField("tookMicros", tookMicros);
+            writeResults(gen, "head", result.getHeadResults());
+            writeResults(gen, "body", result.getBodyResults());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Parse the filters and the order of the results
+     *
+     * @throws IllegalArgumentException when an option is invalid
+     */
+    private static SearchOptions parseOptions(Map<String, String> params) throws IllegalArgumentException {
+        SearchOptions options = new SearchOptions();
+        String type = params.get("type");
+        if (type != null) {
+            if (type.equalsIgnoreCase("web"))
+                options.setFileType(WebDoc.FileType.WEB_URL);
+            else if (type.equalsIgnoreCase("local"))
+                options.setFileType(WebDoc.FileType.LOCAL_WEB_DOC);
+            else
+                throw new IllegalArgumentException("type=" + type);
+        }
+        if (params.get("sinceHours") != null)
+            options.setIndexedAfter(System.currentTimeMillis()
+                    - TimeUnit.HOURS.toMillis(Long.parseLong(params.get("sinceHours"))));
+        if (params.get("minWords") != null)
+            options.setMinWords(Integer.parseInt(params.get("minWords")));
+        options.setHost(params.get("host"));
+        String sort = params.get("sort");
+        if (sort != null) {
+            switch (sort.toLowerCase()) {
+            case "url":
+                options.setSortBy(SearchOptions.SortBy.URL);
+                break;
+            case "words":
+                options.setSortBy(SearchOptions.SortBy.NUM_OF_WORDS);
+                break;
+            case "time":
+                options.setSortBy(SearchOptions.SortBy.INDEXED_TIME);
+                break;
+            case "length":
+                options.setSortBy(SearchOptions.SortBy.CONTENT_LENGTH);
+                break;
+            default:
+                throw new IllegalArgumentException("sort=" + sort);
+            }
+        }
+        options.setDescending("desc".equalsIgnoreCase(params.get("order")));
+        if (params.get("limit") != null)
+            options.setLimit(Integer.parseInt(params.get("limit")));
+        return options;
+    }
+
+    /**
+     * Handle /explain?q=[query]&form=[infix|prefix]
+     */
+    private void explain(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQueryString(exchange);
+        String query = params.get("q");
+        boolean isInfix = !"prefix".equalsIgnoreCase(params.get("form"));
+        if (query == null || query.isBlank()) {
+            sendError(exchange, 400, "Missing parameter 'q'");
+            return;
+        }
+        QueryProfile profile = engine.explain(query, isInfix);
+        if (profile == null) {
+            sendError(exchange, 400, "Ill-formed query");
+            return;
+        }
+        try (JsonGenerator gen = startJson(exchange, 200)) {
+            gen.writeStartObject();
+            gen.writeStringField("query", query);
+            gen.writeStringField("form", isInfix ? "infix" : "prefix");
+            gen.writeFieldName("profile");
+            writeProfile(gen, profile);
+            gen.writeEndObject();
+        }
+    }
+
+    private void writeProfile(JsonGenerator gen, QueryProfile profile) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("description", profile.getDescription());
+        gen.writeNumberField("timeNanos", profile.getTimeNanos());
+        gen.writeNumberField("allocatedBytes", profile.getAllocatedBytes());
+        gen.writeNumberField("input", profile.getInputSize());
+        gen.writeNumberField("output", profile.getOutputSize());
+        gen.writeArrayFieldStart("children");
+        for (QueryProfile child : profile.getChildren()) {
+            writeProfile(gen, child);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Handle /doc?url=[url]
+     */
+    private void doc(HttpExchange exchange) throws IOException {
+        String url = parseQueryString(exchange).get("url");
+        WebDoc doc = url == null ? null : engine.getWebDoc(url);
+        if (doc == null) {
+            sendError(exchange, 404, "Document not found");
+            return;
+        }
+        try (JsonGenerator gen = startJson(exchange, 200)) {
+            gen.writeStartObject();
+            gen.writeStringField("url", doc.getUrlString());
+            gen.writeStringField("fileType", doc.getFileType().name());
+            gen.writeNumberField("numOfWords", doc.getNumOfWords());
+            writeStrings(gen, "headWords", doc.getHeadWords());
+            writeStrings(gen, "bodyWords", doc.getBodyWords());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Handle /stats
+     */
+    private void stats(HttpExchange exchange) throws IOException {
+        Runtime runtime = Runtime.getRuntime();
+        MemoryStats memory = engine.getMemoryStats();
+        try (JsonGenerator gen = startJson(exchange, 200)) {
+            gen.writeStartObject();
+            gen.writeNumberField("documents", engine.getNumOfDocs());
+            gen.writeNumberField("headWords", engine.getNumOfHeadWords());
+            gen.writeNumberField("bodyWords", engine.getNumOfBodyWords());
+            gen.writeNumberField("heapUsedBytes", runtime.totalMemory() - runtime.freeMemory());
+            gen.writeBooleanField("virtualThreads", VirtualThreads.isAvailable());
+            gen.writeObjectFieldStart("memory");
+            gen.writeNumberField("budgetBytes", memory.getBudgetBytes());
+            gen.writeNumberField("usedBytes", memory.getUsedBytes());
+            gen.writeNumberField("docBytes", memory.getDocBytes());
+            gen.writeNumberField("postingsBytes", memory.getPostingsBytes());
+            gen.writeNumberField("termBytes", memory.getTermBytes());
+            gen.writeNumberField("evicted", memory.getNumOfEvicted());
+            gen.writeNumberField("duplicates", memory.getNumOfDuplicates());
+            gen.writeNumberField("duplicateBytesSaved", memory.getDuplicateBytesSaved());
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Handle /terms?n=[n]
+     */
+    private void terms(HttpExchange exchange) throws IOException {
+        String n = parseQueryString(exchange).get("n");
+        int topN;
+        try {
+            topN = n == null ? DEF_TOP_TERMS : Integer.parseInt(n);
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "Invalid parameter 'n'");
+            return;
+        }
+        List<FieldStats> fields = engine.getFieldStats(topN);
+        try (JsonGenerator gen = startJson(exchange, 200)) {
+            gen.writeStartObject();
+            for (FieldStats field : fields) {
+                gen.writeObjectFieldStart(field.getField());
+                gen.writeNumberField("documents", field.getNumOfDocs());
+                gen.writeNumberField("terms", field.getNumOfTerms());
+                gen.writeNumberField("sumDocFreq", field.getSumDocFreq());
+                gen.writeNumberField("sumTotalTermFreq", field.getSumTotalTermFreq());
+                gen.writeNumberField("avgDocLength", field.getAvgDocLength());
+                gen.writeArrayFieldStart("topTerms");
+                for (TermStats term : field.getTopTerms()) {
+                    gen.writeStartObject();
+                    gen.writeStringField("word", term.getWord());
+                    gen.writeNumberField("df", term.getDocFreq());
+                    gen.writeNumberField("ttf", term.getTotalTermFreq());
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+                gen.writeArrayFieldStart("postingsLengthHistogram");
+                for (long count : field.getPostingsLengthHistogram()) {
+                    gen.writeNumber(count);
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    private void writeResults(JsonGenerator gen, String name, Collection<WebDoc> docs) throws IOException {
+        gen.writeObjectFieldStart(name);
+        gen.writeNumberField("count", docs.size());
+        gen.writeArrayFieldStart("results");
+        for (WebDoc doc : docs) {
+            gen.writeString(doc.getUrlString());
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private void writeStrings(JsonGenerator gen, String name, Collection<String> strings) throws IOException {
+        gen.writeArrayFieldStart(name);
+        for (String s : strings) {
+            gen.writeString(s);
+        }
+        gen.writeEndArray();
+    }
+
+    /**
+     * Send the response headers (with chunked encoding) and create a
+     * JsonGenerator that streams into the response body, closing the generator
+     * also closes the exchange.
+     */
+    private JsonGenerator startJson(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, 0);
+        OutputStream body = exchange.getResponseBody();
+        return jsonFactory.createGenerator(body, JsonEncoding.UTF8);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        try (JsonGenerator gen = startJson(exchange, status)) {
+            gen.writeStartObject();
+            gen.writeStringField("error", message);
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Parse the query string of the request uri into a map, the names and values
+     * are decoded.
+     *
+     * @throws BadRequestException when a name or value is not well encoded, e.g.,
+     *                             a malformed '%' escape
+     */
+    private static Map<String, String> parseQueryString(HttpExchange exchange) throws BadRequestException {
+        Map<String, String> params = new HashMap<>();
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery == null)
+            return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0)
+                continue;
+            try {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Malformed query string: " + e.getMessage());
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Wrap the handler, so that only GET is allowed, and the exchange is always
+     * closed even if the handler fails. An error is only sent if the response
+     * headers are not yet sent, else the (partial) response is just closed.
+     */
+    private HttpHandler wrap(HttpHandler handler) {
+        return exchange -> {
+            try {
+                if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                    sendError(exchange, 405, "Method not allowed");
+                } else {
+                    handler.handle(exchange);
+                }
+            } catch (BadRequestException e) {
+                if (!isResponseStarted(exchange))
+                    sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                if (!isResponseStarted(exchange))
+                    sendError(exchange, 500, String.valueOf(e.getMessage()));
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    /**
+     * Check whether the response headers are sent, the response code is -1 until
+     * then
+     */
+    private static boolean isResponseStarted(HttpExchange exchange) {
+        return exchange.getResponseCode() != -1;
+    }
+
+    /**
+     * Thrown when the request is malformed, it's answered with 400 rather than
+     * 500
+     */
+    private static class BadRequestException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+}
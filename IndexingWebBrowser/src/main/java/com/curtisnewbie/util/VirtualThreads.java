@@ -0,0 +1,65 @@
+package com.curtisnewbie.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Factory of the executors that run each task in its own thread. On JDK 21 or
+ * later, each task runs in a new virtual thread. This program is compiled for
+ * Java 11, so the virtual threads are looked up reflectively, and on an older
+ * JDK it falls back to a cached pool of (daemon) platform threads.
+ * </p>
+ * 
+ * @author Yongjie Zhuang
+ */
+public class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Check whether virtual threads are available in current JDK
+     * 
+     * @return whether virtual threads are available
+     */
+    public static boolean isAvailable() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * Create an executor that runs each task in its own thread, which is a virtual
+     * thread if it's available.
+     * 
+     * @param name name of the (platform) threads, it's only used when virtual
+     *             threads are not available
+     * @return an executor that runs each task in its own thread
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String name) {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                e.printStackTrace();
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static Method findVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
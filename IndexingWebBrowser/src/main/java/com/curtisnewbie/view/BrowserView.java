@@ -2,6 +2,7 @@ package com.curtisnewbie.view;
 
 import java.util.List;
 
+import javafx.beans.value.ChangeListener;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.control.Menu;
@@ -123,6 +124,31 @@ public class BrowserView extends BorderPane {
         queryPane.getQueryControlPanel().getPrefixTf().setOnAction(handler);
     }
 
+    /**
+     * Add ChangeListeners for the text of the infix and prefix query textfields.
+     * These listeners are notified on every keystroke, they are used for the
+     * search-as-you-type mode.
+     * 
+     * @param infixListener  ChangeListener for the infix query textfield
+     * @param prefixListener ChangeListener for the prefix query textfield
+     */
+    public void addIncrementalQueryListeners(ChangeListener<String> infixListener,
+            ChangeListener<String> prefixListener) {
+        var controlPanel = queryPane.getQueryControlPanel();
+        controlPanel.getInfixTf().textProperty().addListener(infixListener);
+        controlPanel.getPrefixTf().textProperty().addListener(prefixListener);
+    }
+
+    /**
+     * Add ChangeListener for the query results. It's notified when a result (url
+     * String) is selected in the QueryResultPanel.
+     * 
+     * @param listener ChangeListener for the selected url String
+     */
+    public void addQueryResultSelectionListener(ChangeListener<String> listener) {
+        queryPane.getQueryResultPanel().addSelectionListener(listener);
+    }
+
     /**
      * Add EventHandler for creating new tab.
      * 
@@ -40,7 +40,8 @@ public class MenuBtn extends Menu {
         this.observableItems = this.getItems();
         MenuItem toDisplayPane = new MenuItem("DisplayPane");
         MenuItem toQueryPane = new MenuItem("QueryPane");
-        this.observableItems.addAll(toDisplayPane, toQueryPane);
+        MenuItem crawlHistory = new MenuItem("Crawl From History");
+        this.observableItems.addAll(toDisplayPane, toQueryPane, crawlHistory);
     }
 
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.curtisnewbie.view;
 
 import javafx.geometry.Insets;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
@@ -35,8 +36,12 @@ public class QueryControlPanel extends VBox {
     private TextField infixTf;
     private TextField prefixTf;
 
+    /** Whether the query is evaluated while the user is typing */
+    private CheckBox incrementalCb;
+
     private final String INFIX_LABEL_STR = "Infix Query: ";
     private final String PREFIX_LABEL_STR = "Prefix Query: ";
+    private final String INCREMENTAL_STR = "Search as you type";
     private final String PANEL_TITLE = "Query Control Panel: ";
 
     public QueryControlPanel() {
@@ -47,6 +52,8 @@ public class QueryControlPanel extends VBox {
         prefixLabel = new Label(PREFIX_LABEL_STR);
         infixTf = new TextField();
         prefixTf = new TextField();
+        incrementalCb = new CheckBox(INCREMENTAL_STR);
+        VBox.setMargin(incrementalCb, new Insets(MARGIN_TOP, MARGIN_RIGHT, MARGIN_BOTTOM, MARGIN_LEFT));
 
         HBox boxTop = new HBox(infixLabel, infixTf);
         boxTop.setSpacing(HBOX_SPACING);
@@ -58,7 +65,7 @@ public class QueryControlPanel extends VBox {
         HBox.setHgrow(prefixTf, Priority.ALWAYS);
         VBox.setMargin(boxBottom, new Insets(MARGIN_TOP, MARGIN_RIGHT, MARGIN_BOTTOM, MARGIN_LEFT));
 
-        this.getChildren().addAll(panelLabel, boxTop, boxBottom);
+        this.getChildren().addAll(panelLabel, boxTop, boxBottom, incrementalCb);
         this.setPadding(new Insets(PANEL_PADDING_TOP, PANEL_PADDING_RIGHT, PANEL_PADDING_BOTTOM, PANEL_PADDING_LEFT));
     }
 
@@ -80,4 +87,13 @@ public class QueryControlPanel extends VBox {
         return prefixTf;
     }
 
+    /**
+     * Get CheckBox for enabling the search-as-you-type mode
+     * 
+     * @return CheckBox for enabling the search-as-you-type mode
+     */
+    public CheckBox getIncrementalCb() {
+        return incrementalCb;
+    }
+
 }
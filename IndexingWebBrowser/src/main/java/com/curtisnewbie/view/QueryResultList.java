@@ -0,0 +1,112 @@
+package com.curtisnewbie.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.beans.value.ChangeListener;
+import javafx.collections.FXCollections;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.Pagination;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+/**
+ * <p>
+ * A VBox that displays a list of query results (url Strings) along with the
+ * number of results. The results are displayed in a ListView, which only
+ * creates cells for the rows that are visible in the viewport, so the cost of
+ * rendering is bounded by the size of the viewport rather than the number of
+ * results.
+ * </p>
+ * <p>
+ * The results are further split into pages of {@link #PAGE_SIZE}, the ListView
+ * only holds the results of the current page, and it's the content of each page
+ * of the Pagination control.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ */
+public class QueryResultList extends VBox {
+
+    /** Max number of results displayed in one page */
+    public static final int PAGE_SIZE = 500;
+
+    private final int VBOX_SPACING = 5;
+
+    private final String title;
+    private Label titleLabel;
+    private ListView<String> listView;
+    private Pagination pagination;
+
+    /** All the results, it's a plain List of url Strings, not nodes */
+    private List<String> results;
+
+    /**
+     * Instantiate QueryResultList
+     *
+     * @param title title of this list, the number of results is appended to it
+     */
+    public QueryResultList(String title) {
+        this.title = title;
+        this.results = new ArrayList<>();
+        titleLabel = new Label();
+        listView = new ListView<>();
+        pagination = new Pagination(1, 0);
+        pagination.setMaxPageIndicatorCount(5);
+        // the same ListView is reused for every page
+        pagination.setPageFactory(this::showPage);
+
+        this.setSpacing(VBOX_SPACING);
+        this.getChildren().addAll(titleLabel, pagination);
+        VBox.setVgrow(pagination, Priority.ALWAYS);
+        setResults(results);
+    }
+
+    /**
+     * Replace the results displayed in this list, and go back to the first page.
+     *
+     * @param results List of url Strings
+     */
+    public void setResults(List<String> results) {
+        this.results = results;
+        int numOfPages = Math.max(1, (results.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        titleLabel.setText(title + results.size() + (results.size() == 1 ? " result" : " results"));
+        pagination.setPageCount(numOfPages);
+        if (pagination.getCurrentPageIndex() != 0)
+            pagination.setCurrentPageIndex(0); // the page factory shows the first page
+        else
+            showPage(0);
+    }
+
+    /**
+     * Get the number of results
+     *
+     * @return number of results
+     */
+    public int getNumOfResults() {
+        return results.size();
+    }
+
+    /**
+     * Add ChangeListener that is notified when a result (url String) is selected.
+     *
+     * @param listener ChangeListener for the selected url String
+     */
+    public void addSelectionListener(ChangeListener<String> listener) {
+        listView.getSelectionModel().selectedItemProperty().addListener(listener);
+    }
+
+    /**
+     * Fill the ListView with the results of the page
+     *
+     * @return the ListView
+     */
+    private ListView<String> showPage(int pageIndex) {
+        int from = Math.min(pageIndex * PAGE_SIZE, results.size());
+        int to = Math.min(from + PAGE_SIZE, results.size());
+        listView.setItems(FXCollections.observableList(results.subList(from, to)));
+        listView.scrollTo(0);
+        return listView;
+    }
+}
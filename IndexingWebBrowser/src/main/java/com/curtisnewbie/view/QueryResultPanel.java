@@ -1,18 +1,11 @@
 package com.curtisnewbie.view;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import javafx.application.Platform;
-import javafx.collections.ObservableList;
+import javafx.beans.value.ChangeListener;
 import javafx.geometry.Insets;
-import javafx.scene.Node;
-import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.control.ScrollPane;
-import javafx.scene.control.ScrollPane.ScrollBarPolicy;
 import javafx.scene.layout.ColumnConstraints;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.RowConstraints;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
@@ -20,7 +13,9 @@ import javafx.scene.text.Font;
 /**
  * A GridPane used to display the results of query (Head and Body sections in
  * the HTML). The results consists a list of url Strings, and each url string is
- * in a clickable Button.
+ * a selectable row in a virtualised and paged QueryResultList.
+ * 
+ * @see QueryResultList
  */
 public class QueryResultPanel extends GridPane {
 
@@ -37,43 +32,26 @@ public class QueryResultPanel extends GridPane {
     private final int PANEL_PADDING_RIGHT = 5;
 
     private Label panelLabel;
-    private Label headLabel;
-    private Label bodyLabel;
 
     /** Display Head results */
-    private VBox hdResVBox;
+    private QueryResultList hdResList;
 
     /** Display Body results */
-    private VBox bdResVBox;
+    private QueryResultList bdResList;
 
     public QueryResultPanel() {
         panelLabel = new Label(PANEL_TITLE);
         panelLabel.setFont(new Font(PANEL_TITLE_FONT));
-        headLabel = new Label(HEAD_LABEL_STR);
-        bodyLabel = new Label(BODY_LABEL_STR);
-        hdResVBox = new VBox();
-        bdResVBox = new VBox();
+        hdResList = new QueryResultList(HEAD_LABEL_STR);
+        bdResList = new QueryResultList(BODY_LABEL_STR);
 
-        // create and add two VBox to seperate the results for Head and Body
+        // create and add two lists to seperate the results for Head and Body
         var topBox = new VBox();
         topBox.setSpacing(VBOX_SPACING);
-        ScrollPane topBoxSP = new ScrollPane(hdResVBox);
-        topBoxSP.setStyle("-fx-background-color: transparent; -fx-control-inner-background: transparent;");
-        topBoxSP.setFitToHeight(true);
-        topBoxSP.setFitToWidth(true);
-        topBoxSP.setVbarPolicy(ScrollBarPolicy.AS_NEEDED);
-        topBox.getChildren().addAll(panelLabel, headLabel, topBoxSP);
+        topBox.getChildren().addAll(panelLabel, hdResList);
+        VBox.setVgrow(hdResList, Priority.ALWAYS);
         this.add(topBox, 0, 0);
-
-        var bottomBox = new VBox();
-        bottomBox.setSpacing(VBOX_SPACING);
-        ScrollPane bottomBoxSP = new ScrollPane(bdResVBox);
-        bottomBoxSP.setStyle("-fx-background-color: transparent; -fx-control-inner-background: transparent;");
-        bottomBoxSP.setFitToHeight(true);
-        bottomBoxSP.setFitToWidth(true);
-        bottomBoxSP.setVbarPolicy(ScrollBarPolicy.AS_NEEDED);
-        bottomBox.getChildren().addAll(bodyLabel, bottomBoxSP);
-        this.add(bottomBox, 0, 1);
+        this.add(bdResList, 0, 1);
 
         // set constraints for rows and columns
         RowConstraints row1 = new RowConstraints();
@@ -88,22 +66,32 @@ public class QueryResultPanel extends GridPane {
     }
 
     /**
-     * Get Vbox for displaying head result
+     * Get the list for displaying head result
      * 
-     * @return Vbox for displaying head result
+     * @return list for displaying head result
      */
-    public VBox getHdResVBox() {
-        return hdResVBox;
+    public QueryResultList getHdResList() {
+        return hdResList;
     }
 
     /**
-     * Get Vbox for displaying body result
+     * Get the list for displaying body result
      * 
-     * @return Vbox for displaying body result
+     * @return list for displaying body result
      */
+    public QueryResultList getBdResList() {
+        return bdResList;
+    }
 
-    public VBox getBdResVBox() {
-        return bdResVBox;
+    /**
+     * Add ChangeListener that is notified when a result (url String) in either
+     * list is selected.
+     * 
+     * @param listener ChangeListener for the selected url String
+     */
+    public void addSelectionListener(ChangeListener<String> listener) {
+        hdResList.addSelectionListener(listener);
+        bdResList.addSelectionListener(listener);
     }
 
-}
\ No newline at end of file
+}
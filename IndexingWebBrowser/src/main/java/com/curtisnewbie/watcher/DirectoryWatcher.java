@@ -0,0 +1,509 @@
+package com.curtisnewbie.watcher;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+import com.curtisnewbie.webBrowserModel.WebDoc;
+
+/**
+ * <p>
+ * Watcher of the local directories, it keeps the html files (*.html and *.htm)
+ * in them (and their subdirectories) indexed as they are created, modified and
+ * deleted, so a large tree of local webpages is tracked continuously without
+ * being rescanned.
+ * </p>
+ * <p>
+ * A directory is scanned once when it's watched, and the files are indexed
+ * with a prefix of "file:". After that, the events of the {@link WatchService}
+ * are collected by a background thread and coalesced by path, a batch is
+ * applied when no event is received for a quiet period, or when the oldest
+ * event of the batch is older than the max delay, so a burst of events (e.g.,
+ * an editor saving a file in several writes, or a directory being copied) is
+ * applied once. When the batch is applied, a file is re-indexed only if its
+ * last modified time has changed since it was indexed, a file or directory that
+ * no longer exists is deleted from the index, and a directory that is created
+ * (or of which the events are lost) is scanned.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see IndexingEngine#update(WebDoc)
+ * @see IndexingEngine#delete(String)
+ */
+public class DirectoryWatcher implements Closeable {
+
+    /** Default quiet period before a batch is applied, in milliseconds */
+    public static final long DEF_QUIET_MILLIS = 300;
+
+    /** Default max delay of an event before its batch is applied, in milliseconds */
+    public static final long DEF_MAX_DELAY_MILLIS = 3000;
+
+    private final IndexingEngine engine;
+    private final WatchService watchService;
+    private final long quietMillis;
+    private final long maxDelayMillis;
+
+    /** Directory of each registered WatchKey */
+    private final Map<WatchKey, Path> watchedDirs;
+
+    /**
+     * Last modified time of each file that is indexed, by its absolute path. The
+     * paths are sorted as strings, so the files under a directory are found by
+     * the range of "dir/" (a sibling like "dir-2" or "dir.html" sorts between
+     * "dir" and "dir/", but never inside the range). It's guarded by itself.
+     */
+    private final NavigableMap<String, FileTime> indexedFiles;
+
+    private final AtomicLong numOfEvents;
+    private final AtomicLong numOfBatches;
+    private final AtomicLong numOfIndexed;
+    private final AtomicLong numOfDeleted;
+    private final AtomicLong numOfFailed;
+
+    private volatile Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Instantiate DirectoryWatcher with the default quiet period and max delay
+     *
+     * @param engine IndexingEngine that indexes the files
+     * @throws IOException if the WatchService can't be created
+     */
+    public DirectoryWatcher(IndexingEngine engine) throws IOException {
+        this(engine, DEF_QUIET_MILLIS, DEF_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Instantiate DirectoryWatcher
+     *
+     * @param engine         IndexingEngine that indexes the files
+     * @param quietMillis    a batch is applied when no event is received for
+     *                       this period
+     * @param maxDelayMillis a batch is applied when its oldest event is older
+     *                       than this, even if the events keep coming
+     * @throws IOException if the WatchService can't be created
+     */
+    public DirectoryWatcher(IndexingEngine engine, long quietMillis, long maxDelayMillis) throws IOException {
+        if (quietMillis < 0 || maxDelayMillis < quietMillis)
+            throw new IllegalArgumentException("Max delay should not be less than the quiet period");
+        this.engine = engine;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.quietMillis = quietMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.watchedDirs = new ConcurrentHashMap<>();
+        this.indexedFiles = new TreeMap<>();
+        this.numOfEvents = new AtomicLong();
+        this.numOfBatches = new AtomicLong();
+        this.numOfIndexed = new AtomicLong();
+        this.numOfDeleted = new AtomicLong();
+        this.numOfFailed = new AtomicLong();
+    }
+
+    /**
+     * Watch the directory and its subdirectories, the html files in them are
+     * indexed before it returns
+     *
+     * @param dir directory
+     * @throws IOException if it's not a directory, or it can't be watched
+     */
+    public void watch(Path dir) throws IOException {
+        Path absDir = dir.toAbsolutePath().normalize();
+        if (!Files.isDirectory(absDir))
+            throw new IOException("Not a directory: " + dir);
+        register(absDir);
+        scan(absDir);
+    }
+
+    /**
+     * Start the background thread that applies the events, it does nothing if
+     * it's already started
+     */
+    public void start() {
+        start(Collections.emptyList());
+    }
+
+    /**
+     * Start the background thread that applies the events, the directories are
+     * watched by the thread before that, so the caller is not blocked by their
+     * initial scan. It does nothing if it's already started.
+     *
+     * @param dirs directories to watch, one that can't be watched is reported
+     *             and skipped
+     * @see #watch(Path)
+     */
+    public synchronized void start(List<Path> dirs) {
+        if (thread != null || closed)
+            return;
+        List<Path> initialDirs = new ArrayList<>(dirs);
+        thread = new Thread(() -> {
+            for (Path dir : initialDirs) {
+                if (closed)
+                    return;
+                try {
+                    watch(dir);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            run();
+        }, "directory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop watching, the events that are not yet applied are discarded
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+        Thread t = thread;
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        // paths changed in the current batch, in the order of the first event
+        Set<Path> batch = new LinkedHashSet<>();
+        long firstEvent = 0;
+        long lastEvent = 0;
+        try {
+            while (!closed) {
+                WatchKey key;
+                if (batch.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long now = System.nanoTime();
+                    long due = Math.min(lastEvent + TimeUnit.MILLISECONDS.toNanos(quietMillis),
+                            firstEvent + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis));
+                    key = due > now ? watchService.poll(due - now, TimeUnit.NANOSECONDS) : null;
+                }
+                if (key != null) {
+                    long now = System.nanoTime();
+                    if (batch.isEmpty())
+                        firstEvent = now;
+                    lastEvent = now;
+                    collect(key, batch);
+                    // drain the events that are already queued
+                    while ((key = watchService.poll()) != null)
+                        collect(key, batch);
+                    continue;
+                }
+                apply(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    /**
+     * Add the paths of the events of the key into the batch
+     */
+    private void collect(WatchKey key, Set<Path> batch) {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            numOfEvents.incrementAndGet();
+            if (dir == null)
+                continue;
+            if (event.kind() == OVERFLOW) {
+                // the events are lost, the directory is scanned
+                batch.add(dir);
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            batch.add(path);
+        }
+        if (!key.reset()) {
+            // the directory is deleted or no longer accessible
+            watchedDirs.remove(key);
+            if (dir != null)
+                batch.add(dir);
+        }
+    }
+
+    /**
+     * Apply a batch of changed paths to the index
+     */
+    private void apply(Set<Path> batch) {
+        numOfBatches.incrementAndGet();
+        for (Path path : batch) {
+            if (Files.isDirectory(path))
+                scan(path);
+            else if (Files.isRegularFile(path))
+                indexIfModified(path);
+            else
+                deleteUnder(path);
+        }
+    }
+
+    /**
+     * Register the directory and its subdirectories with the WatchService
+     */
+    private void register(Path dir) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path d, BasicFileAttributes attrs) throws IOException {
+                watchedDirs.put(d.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), d);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Index the html files under the directory that are new or modified, and
+     * delete those that no longer exist
+     */
+    private void scan(Path dir) {
+        List<Path> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile())
+                        files.add(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (NoSuchFileException e) {
+            // deleted in the meantime
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        for (Path file : files)
+            indexIfModified(file);
+        for (Path file : indexedUnder(dir)) {
+            if (!Files.exists(file))
+                delete(file);
+        }
+    }
+
+    /**
+     * Index the html file if it's never indexed, or it's modified since it was
+     * indexed
+     */
+    private void indexIfModified(Path file) {
+        if (!isHtml(file))
+            return;
+        FileTime modified;
+        try {
+            modified = Files.getLastModifiedTime(file);
+        } catch (NoSuchFileException e) {
+            delete(file);
+            return;
+        } catch (IOException e) {
+            numOfFailed.incrementAndGet();
+            return;
+        }
+        FileTime indexed;
+        synchronized (indexedFiles) {
+            indexed = indexedFiles.get(file.toString());
+        }
+        if (modified.equals(indexed))
+            return;
+
+        WebDoc doc;
+        try {
+            doc = new WebDoc(urlOf(file));
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            delete(file);
+            return;
+        } catch (IOException | IllegalArgumentException e) {
+            numOfFailed.incrementAndGet();
+            e.printStackTrace();
+            return;
+        }
+        if (indexed == null)
+            engine.index(doc);
+        else
+            engine.update(doc);
+        synchronized (indexedFiles) {
+            indexedFiles.put(file.toString(), modified);
+        }
+        numOfIndexed.incrementAndGet();
+    }
+
+    /**
+     * Delete the file, or all the files under the directory, that no longer
+     * exist
+     */
+    private void deleteUnder(Path path) {
+        for (Path file : indexedUnder(path))
+            delete(file);
+    }
+
+    private void delete(Path file) {
+        boolean wasIndexed;
+        synchronized (indexedFiles) {
+            wasIndexed = indexedFiles.remove(file.toString()) != null;
+        }
+        if (wasIndexed) {
+            engine.delete(urlOf(file));
+            numOfDeleted.incrementAndGet();
+        }
+    }
+
+    /**
+     * Get the indexed files that are the path itself or under it
+     */
+    private List<Path> indexedUnder(Path path) {
+        String p = path.toString();
+        String dirPrefix = p.endsWith(File.separator) ? p : p + File.separator;
+        // the strings starting with "dir/" sort before "dir0" ('/' + 1)
+        String dirEnd = dirPrefix.substring(0, dirPrefix.length() - 1) + (char) (File.separatorChar + 1);
+        List<Path> files = new ArrayList<>();
+        synchronized (indexedFiles) {
+            if (indexedFiles.containsKey(p))
+                files.add(path);
+            for (String file : indexedFiles.subMap(dirPrefix, true, dirEnd, false).keySet())
+                files.add(Paths.get(file));
+        }
+        return files;
+    }
+
+    /**
+     * Get the url of the local file, it's indexed with this url
+     *
+     * @param file html file
+     * @return url with a prefix of "file:"
+     */
+    public static String urlOf(Path file) {
+        return "file:" + file.toAbsolutePath().normalize();
+    }
+
+    private static boolean isHtml(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".html") || name.endsWith(".htm");
+    }
+
+    /**
+     * Get the number of directories that are watched, including the
+     * subdirectories
+     *
+     * @return number of directories
+     */
+    public int getNumOfWatchedDirs() {
+        return watchedDirs.size();
+    }
+
+    /**
+     * Get the number of html files that are indexed and tracked
+     *
+     * @return number of files
+     */
+    public int getNumOfFiles() {
+        synchronized (indexedFiles) {
+            return indexedFiles.size();
+        }
+    }
+
+    /**
+     * Get the number of events received from the WatchService
+     *
+     * @return number of events
+     */
+    public long getNumOfEvents() {
+        return numOfEvents.get();
+    }
+
+    /**
+     * Get the number of batches applied, each one has coalesced one or more
+     * events
+     *
+     * @return number of batches
+     */
+    public long getNumOfBatches() {
+        return numOfBatches.get();
+    }
+
+    /**
+     * Get the number of times that a file is indexed or re-indexed
+     *
+     * @return number of files indexed
+     */
+    public long getNumOfIndexed() {
+        return numOfIndexed.get();
+    }
+
+    /**
+     * Get the number of files deleted from the index
+     *
+     * @return number of files deleted
+     */
+    public long getNumOfDeleted() {
+        return numOfDeleted.get();
+    }
+
+    /**
+     * Get the number of files that failed to be read
+     *
+     * @return number of failures
+     */
+    public long getNumOfFailed() {
+        return numOfFailed.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Watching " + getNumOfWatchedDirs() + " directories, " + getNumOfFiles() + " files, events: "
+                + getNumOfEvents() + ", batches: " + getNumOfBatches() + ", indexed: " + getNumOfIndexed()
+                + ", deleted: " + getNumOfDeleted() + ", failed: " + getNumOfFailed();
+    }
+}
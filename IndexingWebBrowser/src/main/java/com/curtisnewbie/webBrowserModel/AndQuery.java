@@ -1,6 +1,7 @@
 package com.curtisnewbie.webBrowserModel;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -31,6 +32,15 @@ public class AndQuery implements Query {
 		this.subQueryCollection = subQuery;
 	}
 
+	/**
+	 * Get the subqueries (in prefix form) of this AndQuery
+	 *
+	 * @return the subqueries (in prefix form) of this AndQuery
+	 */
+	Set<String> getSubQueries() {
+		return subQueryCollection;
+	}
+
 	/**
 	 * <p>
 	 * It is part of the recursion that the matches() method will call the
@@ -43,19 +53,20 @@ public class AndQuery implements Query {
 	 * Since this is an AndQuery, it finds and combine the common parts of each
 	 * subquery.
 	 * </p>
-	 * 
+	 * <p>
+	 * The subqueries may be evaluated in parallel, see {@link QueryEvaluator}. The
+	 * words dropped by the analyzer of the WebIndex (e.g., the stopwords of its
+	 * field) are ignored, rather than matching nothing.
+	 * </p>
+	 *
 	 * @return a Set<WebDoc> that is found based on the query and the given
 	 *         WebIndex.
 	 * @param wind the WebIndex that is used to search through based on the query.
 	 * @Override
 	 */
 	public Set<WebDoc> matches(WebIndex wind) {
-		List<Set<WebDoc>> queryResults = new ArrayList<>();
 		// Get the results of all the sub-queries
-		for (String eachQuery : subQueryCollection) {
-			Query subQuery = QueryBuilder.parse(eachQuery);
-			queryResults.add(subQuery.matches(wind));
-		}
+		List<Set<WebDoc>> queryResults = QueryEvaluator.evaluateAll(subQueriesFor(wind), wind);
 
 		/*
 		 * Retain all the common elements for the sub-queries that are not NotQuery, and
@@ -74,6 +85,19 @@ public class AndQuery implements Query {
 		return finalQueryResult;
 	}
 
+	/**
+	 * Get the subqueries without the words that are dropped by the analyzer of the
+	 * WebIndex, unless all of them are dropped
+	 */
+	private Collection<String> subQueriesFor(WebIndex wind) {
+		List<String> result = new ArrayList<>(subQueryCollection.size());
+		for (String subQuery : subQueryCollection) {
+			if (!QueryBuilder.isWord(subQuery) || !wind.analyzeWord(subQuery).isEmpty())
+				result.add(subQuery);
+		}
+		return result.size() == subQueryCollection.size() || result.isEmpty() ? subQueryCollection : result;
+	}
+
 	/**
 	 * <p>
 	 * This method returns a String indicating the type of the query and its
@@ -1,5 +1,6 @@
 package com.curtisnewbie.webBrowserModel;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -24,9 +25,21 @@ public class AtomicQuery implements Query {
 		query = s;
 	}
 
+	/**
+	 * Get the word that is searched
+	 *
+	 * @return the word that is searched
+	 */
+	String getWord() {
+		return query;
+	}
+
 	/**
 	 * This method searches through the given WebIndex based on the query to find
-	 * all the matched results.
+	 * all the matched results. The word is analyzed with the analyzer of the
+	 * WebIndex first, so it matches the words as they are indexed. If it's split
+	 * into more than one word (e.g., the bigrams of a Chinese word), the WebDoc
+	 * must contain all of them.
 	 * 
 	 * @return a Set of WebDoc that is found based on the query and the given
 	 *         WebIndex.
@@ -35,7 +48,17 @@ public class AtomicQuery implements Query {
 	 */
 	@Override
 	public Set<WebDoc> matches(WebIndex wind) {
-		return wind.getMatches(query);
+		List<String> terms = wind.analyzeWord(query);
+		if (terms.isEmpty())
+			return null;
+		Set<WebDoc> result = wind.getMatches(terms.get(0));
+		for (int i = 1; i < terms.size() && result != null; i++) {
+			Set<WebDoc> next = wind.getMatches(terms.get(i));
+			if (next == null)
+				return null;
+			result.retainAll(next);
+		}
+		return result == null || result.isEmpty() ? null : result;
 	}
 
 	/**
@@ -0,0 +1,404 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * Table of the (canonical) urls of the indexed WebDoc, it maps each url to a
+ * doc id. More than one url can be mapped to the same doc id, e.g., the urls of
+ * the near-duplicates that are collapsed into the indexed WebDoc.
+ * </p>
+ * <p>
+ * The urls are kept sorted and front-coded in blocks of {@link #BLOCK_SIZE}:
+ * the first url of each block is stored as it is (in UTF-8), and each of the
+ * others is stored as the length of the prefix it shares with the previous url
+ * and the rest of its bytes. As the urls of the same site share long prefixes,
+ * it takes a fraction of the memory of a map of Strings. A url is looked up by
+ * a binary search on the first urls of the blocks, and a scan of one block.
+ * </p>
+ * <p>
+ * The urls added are kept in a small sorted buffer, which is merged into the
+ * blocks when it's large enough. The urls removed are only marked, and they
+ * are purged in the next merge, so are the urls of the doc ids that are freed.
+ * A freed doc id is not reused until it's purged.
+ * </p>
+ * <p>
+ * It's not thread-safe, it's guarded by the lock of the IndexingEngine.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see UrlCanonicalizer
+ */
+public class DocTable {
+
+	/** Number of urls in each front-coded block */
+	static final int BLOCK_SIZE = 16;
+
+	/** Min number of urls in the buffer before it's merged into the blocks */
+	static final int MIN_BUFFER_SIZE = 256;
+
+	/** Order of the code points, which is the order of the UTF-8 bytes */
+	private static final Comparator<String> CODE_POINT_ORDER = (a, b) -> {
+		int i = 0, j = 0;
+		while (i < a.length() && j < b.length()) {
+			int ca = a.codePointAt(i);
+			int cb = b.codePointAt(j);
+			if (ca != cb)
+				return Integer.compare(ca, cb);
+			i += Character.charCount(ca);
+			j += Character.charCount(cb);
+		}
+		return Integer.compare(a.length() - i, b.length() - j);
+	};
+
+	/** The front-coded blocks */
+	private byte[] data;
+
+	/** Offset of each block in data */
+	private int[] blockOffsets;
+
+	/** Doc id of each url in the blocks (by their sorted positions) */
+	private int[] ids;
+
+	/** Number of urls in the blocks */
+	private int numOfUrls;
+
+	/** Positions of the urls removed from the blocks */
+	private final BitSet removed;
+	private int numOfRemoved;
+
+	/** The urls added since the last merge */
+	private final TreeMap<String, Integer> buffer;
+	private long bufferBytes;
+
+	/** Doc ids freed since the last merge */
+	private final BitSet freedIds;
+	private int numOfFreed;
+
+	/** Doc ids that can be reused */
+	private final Deque<Integer> reusableIds;
+	private int nextId;
+
+	public DocTable() {
+		this.data = new byte[0];
+		this.blockOffsets = new int[0];
+		this.ids = new int[0];
+		this.removed = new BitSet();
+		this.buffer = new TreeMap<>(CODE_POINT_ORDER);
+		this.freedIds = new BitSet();
+		this.reusableIds = new ArrayDeque<>();
+	}
+
+	/**
+	 * Get the doc id of the url
+	 *
+	 * @param url canonical url
+	 * @return doc id, or -1 if the url is not in the table
+	 */
+	public int get(String url) {
+		Integer id = buffer.get(url);
+		if (id == null) {
+			int pos = find(url.getBytes(StandardCharsets.UTF_8));
+			if (pos < 0 || removed.get(pos))
+				return -1;
+			id = ids[pos];
+		}
+		return freedIds.get(id) ? -1 : id;
+	}
+
+	/**
+	 * Assign a new doc id to the url
+	 *
+	 * @param url canonical url
+	 * @return the doc id
+	 */
+	public int add(String url) {
+		int id = reusableIds.isEmpty() ? nextId++ : reusableIds.poll();
+		put(url, id);
+		return id;
+	}
+
+	/**
+	 * Map the url to the doc id that is already assigned (to another url)
+	 *
+	 * @param url canonical url
+	 * @param id  doc id
+	 */
+	public void alias(String url, int id) {
+		put(url, id);
+	}
+
+	/**
+	 * Remove the url, the doc id is not freed
+	 *
+	 * @param url canonical url
+	 * @return whether the url was in the table
+	 */
+	public boolean remove(String url) {
+		Integer id = buffer.remove(url);
+		if (id != null) {
+			bufferBytes -= bufferEntryBytes(url);
+			return !freedIds.get(id);
+		}
+		int pos = find(url.getBytes(StandardCharsets.UTF_8));
+		if (pos < 0 || removed.get(pos))
+			return false;
+		removed.set(pos);
+		numOfRemoved++;
+		mergeIfNeeded();
+		return !freedIds.get(ids[pos]);
+	}
+
+	/**
+	 * Free the doc id, all the urls mapped to it are removed
+	 *
+	 * @param id doc id
+	 */
+	public void free(int id) {
+		if (id < 0 || id >= nextId || freedIds.get(id))
+			return;
+		freedIds.set(id);
+		numOfFreed++;
+		mergeIfNeeded();
+	}
+
+	/**
+	 * Get the upper bound (exclusive) of the doc ids assigned
+	 *
+	 * @return upper bound of the doc ids
+	 */
+	public int getMaxId() {
+		return nextId;
+	}
+
+	/**
+	 * Get the estimated size of the table
+	 *
+	 * @return size in bytes
+	 */
+	public long getBytes() {
+		return MemoryEstimator.arrayBytes(data.length, 1) + MemoryEstimator.arrayBytes(blockOffsets.length, 4)
+				+ MemoryEstimator.arrayBytes(ids.length, 4) + bufferBytes
+				+ (long) reusableIds.size() * (MemoryEstimator.REFERENCE + 16);
+	}
+
+	private void put(String url, int id) {
+		remove(url);
+		buffer.put(url, id);
+		bufferBytes += bufferEntryBytes(url);
+		mergeIfNeeded();
+	}
+
+	private static long bufferEntryBytes(String url) {
+		return MemoryEstimator.TREE_ENTRY + 16 + MemoryEstimator.stringBytes(url);
+	}
+
+	/**
+	 * Find the position of the url in the blocks
+	 *
+	 * @return the position, or -1 if it's not found
+	 */
+	private int find(byte[] key) {
+		int numOfBlocks = blockOffsets.length;
+		if (numOfBlocks == 0)
+			return -1;
+		// the last block whose first url is not greater than the key
+		int lo = 0, hi = numOfBlocks - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			int offset = blockOffsets[mid];
+			int len = readVInt(offset);
+			if (compare(data, offset + vIntSize(len), len, key) <= 0)
+				lo = mid;
+			else
+				hi = mid - 1;
+		}
+
+		byte[] curr = new byte[64];
+		int currLen = 0;
+		int offset = blockOffsets[lo];
+		int end = Math.min(numOfUrls, (lo + 1) * BLOCK_SIZE);
+		for (int pos = lo * BLOCK_SIZE; pos < end; pos++) {
+			int shared = 0;
+			if (pos % BLOCK_SIZE != 0) {
+				shared = readVInt(offset);
+				offset += vIntSize(shared);
+			}
+			int suffixLen = readVInt(offset);
+			offset += vIntSize(suffixLen);
+			currLen = shared + suffixLen;
+			if (currLen > curr.length)
+				curr = Arrays.copyOf(curr, Math.max(currLen, curr.length * 2));
+			System.arraycopy(data, offset, curr, shared, suffixLen);
+			offset += suffixLen;
+			int cmp = compare(curr, 0, currLen, key);
+			if (cmp == 0)
+				return pos;
+			if (cmp > 0)
+				break;
+		}
+		return -1;
+	}
+
+	private void mergeIfNeeded() {
+		int threshold = Math.max(MIN_BUFFER_SIZE, numOfUrls / 8);
+		if (buffer.size() >= threshold || numOfRemoved >= threshold || numOfFreed >= threshold)
+			merge();
+	}
+
+	/**
+	 * Merge the buffer into the blocks, and purge the urls removed and those of
+	 * the freed doc ids
+	 */
+	private void merge() {
+		Builder builder = new Builder(data.length + (int) Math.min(Integer.MAX_VALUE / 2, bufferBytes));
+		Iterator<Map.Entry<String, Integer>> bufferIt = buffer.entrySet().iterator();
+		Map.Entry<String, Integer> bufferEntry = bufferIt.hasNext() ? bufferIt.next() : null;
+
+		byte[] curr = new byte[64];
+		int offset = 0;
+		for (int pos = 0; pos < numOfUrls; pos++) {
+			int shared = 0;
+			if (pos % BLOCK_SIZE != 0) {
+				shared = readVInt(offset);
+				offset += vIntSize(shared);
+			}
+			int suffixLen = readVInt(offset);
+			offset += vIntSize(suffixLen);
+			if (shared + suffixLen > curr.length)
+				curr = Arrays.copyOf(curr, Math.max(shared + suffixLen, curr.length * 2));
+			System.arraycopy(data, offset, curr, shared, suffixLen);
+			offset += suffixLen;
+			if (removed.get(pos) || freedIds.get(ids[pos]))
+				continue;
+
+			byte[] key = Arrays.copyOf(curr, shared + suffixLen);
+			while (bufferEntry != null) {
+				byte[] bufferKey = bufferEntry.getKey().getBytes(StandardCharsets.UTF_8);
+				if (compare(key, 0, key.length, bufferKey) < 0)
+					break;
+				if (!freedIds.get(bufferEntry.getValue()))
+					builder.add(bufferKey, bufferEntry.getValue());
+				bufferEntry = bufferIt.hasNext() ? bufferIt.next() : null;
+			}
+			builder.add(key, ids[pos]);
+		}
+		for (; bufferEntry != null; bufferEntry = bufferIt.hasNext() ? bufferIt.next() : null) {
+			if (!freedIds.get(bufferEntry.getValue()))
+				builder.add(bufferEntry.getKey().getBytes(StandardCharsets.UTF_8), bufferEntry.getValue());
+		}
+
+		this.data = Arrays.copyOf(builder.data, builder.length);
+		this.blockOffsets = Arrays.copyOf(builder.blockOffsets, (builder.numOfUrls + BLOCK_SIZE - 1) / BLOCK_SIZE);
+		this.ids = Arrays.copyOf(builder.ids, builder.numOfUrls);
+		this.numOfUrls = builder.numOfUrls;
+		removed.clear();
+		numOfRemoved = 0;
+		buffer.clear();
+		bufferBytes = 0;
+		for (int id = freedIds.nextSetBit(0); id >= 0; id = freedIds.nextSetBit(id + 1))
+			reusableIds.add(id);
+		freedIds.clear();
+		numOfFreed = 0;
+	}
+
+	private int readVInt(int offset) {
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			byte b = data[offset++];
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+	}
+
+	private static int vIntSize(int value) {
+		int size = 1;
+		while ((value >>>= 7) != 0)
+			size++;
+		return size;
+	}
+
+	/**
+	 * Compare the bytes (unsigned) with the key
+	 */
+	private static int compare(byte[] bytes, int offset, int len, byte[] key) {
+		int n = Math.min(len, key.length);
+		for (int i = 0; i < n; i++) {
+			int cmp = Integer.compare(bytes[offset + i] & 0xFF, key[i] & 0xFF);
+			if (cmp != 0)
+				return cmp;
+		}
+		return Integer.compare(len, key.length);
+	}
+
+	/**
+	 * Builder of the front-coded blocks, the urls must be added in order
+	 */
+	private static class Builder {
+
+		byte[] data;
+		int length;
+		int[] blockOffsets = new int[16];
+		int[] ids = new int[16 * BLOCK_SIZE];
+		int numOfUrls;
+		byte[] prev = new byte[0];
+
+		Builder(int capacity) {
+			this.data = new byte[Math.max(64, capacity)];
+		}
+
+		void add(byte[] key, int id) {
+			if (numOfUrls % BLOCK_SIZE == 0) {
+				int block = numOfUrls / BLOCK_SIZE;
+				if (block == blockOffsets.length)
+					blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+				blockOffsets[block] = length;
+				writeVInt(key.length);
+				write(key, 0, key.length);
+			} else {
+				int shared = 0;
+				int n = Math.min(prev.length, key.length);
+				while (shared < n && prev[shared] == key[shared])
+					shared++;
+				writeVInt(shared);
+				writeVInt(key.length - shared);
+				write(key, shared, key.length - shared);
+			}
+			if (numOfUrls == ids.length)
+				ids = Arrays.copyOf(ids, numOfUrls * 2);
+			ids[numOfUrls++] = id;
+			prev = key;
+		}
+
+		private void writeVInt(int value) {
+			while ((value & ~0x7F) != 0) {
+				ensureCapacity(1);
+				data[length++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			ensureCapacity(1);
+			data[length++] = (byte) value;
+		}
+
+		private void write(byte[] bytes, int offset, int len) {
+			ensureCapacity(len);
+			System.arraycopy(bytes, offset, data, length, len);
+			length += len;
+		}
+
+		private void ensureCapacity(int extra) {
+			if (length + extra > data.length)
+				data = Arrays.copyOf(data, Math.max(length + extra, data.length * 2));
+		}
+	}
+}
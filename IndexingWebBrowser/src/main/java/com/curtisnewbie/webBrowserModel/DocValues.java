@@ -0,0 +1,294 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>
+ * Columnar store of the per-document metadata, each column is a primitive
+ * array indexed by the doc id (see {@link DocTable}), so the results can be
+ * filtered and sorted without dereferencing the WebDoc, or any of the objects
+ * it references.
+ * </p>
+ * <p>
+ * The columns are: number of words, the time when it's indexed (i.e., when it
+ * was fetched or read), content length, file type and host id. The hosts are
+ * kept in a dictionary, a host is removed from it once none of its WebDoc is
+ * indexed, and a local web document has no host (-1).
+ * </p>
+ * <p>
+ * It's not thread-safe, it's guarded by the lock of the IndexingEngine.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see SearchOptions
+ */
+public class DocValues {
+
+	/** Value of the file type column when there is no WebDoc of the doc id */
+	static final byte NO_DOC = -1;
+
+	private static final WebDoc.FileType[] FILE_TYPES = WebDoc.FileType.values();
+
+	private int[] numOfWords;
+	private long[] indexedTimes;
+	private int[] contentLengths;
+	private byte[] fileTypes;
+	private int[] hostIds;
+
+	/** Host id of each host, and the host of each host id */
+	private final Map<String, Integer> hostIdsMap;
+	private final List<String> hosts;
+
+	/** Number of doc ids of each host id */
+	private int[] hostRefs;
+
+	/** Host ids that are no longer used */
+	private final Deque<Integer> reusableHostIds;
+
+	public DocValues() {
+		this.numOfWords = new int[0];
+		this.indexedTimes = new long[0];
+		this.contentLengths = new int[0];
+		this.fileTypes = new byte[0];
+		this.hostIds = new int[0];
+		this.hostIdsMap = new HashMap<>();
+		this.hosts = new ArrayList<>();
+		this.hostRefs = new int[0];
+		this.reusableHostIds = new ArrayDeque<>();
+	}
+
+	/**
+	 * Set the values of the doc id
+	 *
+	 * @param id          doc id
+	 * @param doc         WebDoc
+	 * @param indexedTime time when it's indexed in milliseconds since epoch
+	 */
+	public void set(int id, WebDoc doc, long indexedTime) {
+		ensureCapacity(id + 1);
+		releaseHost(hostIds[id]);
+		numOfWords[id] = doc.getNumOfWords();
+		indexedTimes[id] = indexedTime;
+		contentLengths[id] = doc.getContent() == null ? 0 : doc.getContent().length();
+		fileTypes[id] = (byte) doc.getFileType().ordinal();
+		hostIds[id] = hostIdOf(doc);
+	}
+
+	/**
+	 * Clear the values of the doc id, e.g., when the WebDoc is deleted
+	 *
+	 * @param id doc id
+	 */
+	public void clear(int id) {
+		if (id < fileTypes.length) {
+			releaseHost(hostIds[id]);
+			numOfWords[id] = 0;
+			indexedTimes[id] = 0;
+			contentLengths[id] = 0;
+			fileTypes[id] = NO_DOC;
+			hostIds[id] = -1;
+		}
+	}
+
+	/**
+	 * Check whether the doc id has values
+	 *
+	 * @param id doc id
+	 * @return whether the doc id has values
+	 */
+	public boolean has(int id) {
+		return id >= 0 && id < fileTypes.length && fileTypes[id] != NO_DOC;
+	}
+
+	/**
+	 * Get number of words (unique) of the doc id
+	 *
+	 * @param id doc id
+	 * @return number of words
+	 */
+	public int getNumOfWords(int id) {
+		return numOfWords[id];
+	}
+
+	/**
+	 * Get the time when the doc id is indexed
+	 *
+	 * @param id doc id
+	 * @return milliseconds since epoch
+	 */
+	public long getIndexedTime(int id) {
+		return indexedTimes[id];
+	}
+
+	/**
+	 * Get the length of the original content of the doc id
+	 *
+	 * @param id doc id
+	 * @return number of characters
+	 */
+	public int getContentLength(int id) {
+		return contentLengths[id];
+	}
+
+	/**
+	 * Get the FileType of the doc id
+	 *
+	 * @param id doc id
+	 * @return FileType, or {@code NULL} if the doc id has no values
+	 */
+	public WebDoc.FileType getFileType(int id) {
+		return has(id) ? FILE_TYPES[fileTypes[id]] : null;
+	}
+
+	/**
+	 * Get the host id of the doc id
+	 *
+	 * @param id doc id
+	 * @return host id, or -1 if it has no host
+	 */
+	public int getHostId(int id) {
+		return hostIds[id];
+	}
+
+	/**
+	 * Get the host id of the host
+	 *
+	 * @param host host (lower case)
+	 * @return host id, or -1 if no WebDoc of the host has been indexed
+	 */
+	public int getHostId(String host) {
+		Integer hostId = hostIdsMap.get(host.toLowerCase(Locale.ROOT));
+		return hostId == null ? -1 : hostId;
+	}
+
+	/**
+	 * Get the host of the host id
+	 *
+	 * @param hostId host id
+	 * @return host, or {@code NULL} if it's -1
+	 */
+	public String getHost(int hostId) {
+		return hostId < 0 ? null : hosts.get(hostId);
+	}
+
+	/**
+	 * Check whether the doc id matches the filters of the options
+	 *
+	 * @param id      doc id
+	 * @param options SearchOptions
+	 * @param hostId  host id of the host filter, it's ignored if the options don't
+	 *                filter by host
+	 * @return whether it matches
+	 */
+	boolean matches(int id, SearchOptions options, int hostId) {
+		if (!has(id))
+			return false;
+		if (options.getFileType() != null && fileTypes[id] != options.getFileType().ordinal())
+			return false;
+		if (indexedTimes[id] < options.getIndexedAfter())
+			return false;
+		if (numOfWords[id] < options.getMinWords())
+			return false;
+		return options.getHost() == null || hostIds[id] == hostId;
+	}
+
+	/**
+	 * Get the value of the column to sort by
+	 *
+	 * @param id     doc id
+	 * @param sortBy column
+	 * @return value of the column
+	 */
+	long sortKey(int id, SearchOptions.SortBy sortBy) {
+		switch (sortBy) {
+		case NUM_OF_WORDS:
+			return numOfWords[id];
+		case INDEXED_TIME:
+			return indexedTimes[id];
+		case CONTENT_LENGTH:
+			return contentLengths[id];
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Get the estimated size of the columns
+	 *
+	 * @return size in bytes
+	 */
+	public long getBytes() {
+		int capacity = fileTypes.length;
+		long bytes = MemoryEstimator.arrayBytes(capacity, 4) * 3 + MemoryEstimator.arrayBytes(capacity, 8)
+				+ MemoryEstimator.arrayBytes(capacity, 1);
+		bytes += MemoryEstimator.arrayBytes(hostRefs.length, 4)
+				+ (long) hosts.size() * MemoryEstimator.REFERENCE
+				+ (long) reusableHostIds.size() * (MemoryEstimator.REFERENCE + 16);
+		for (String host : hostIdsMap.keySet())
+			bytes += MemoryEstimator.HASH_ENTRY + 16 + MemoryEstimator.stringBytes(host);
+		return bytes;
+	}
+
+	private int hostIdOf(WebDoc doc) {
+		if (doc.getFileType() != WebDoc.FileType.WEB_URL)
+			return -1;
+		String host;
+		try {
+			host = new URI(doc.getUrlString()).getHost();
+		} catch (Exception e) {
+			return -1;
+		}
+		if (host == null)
+			return -1;
+		host = host.toLowerCase(Locale.ROOT);
+		Integer hostId = hostIdsMap.get(host);
+		if (hostId == null) {
+			if (reusableHostIds.isEmpty()) {
+				hostId = hosts.size();
+				hosts.add(host);
+				if (hostId == hostRefs.length)
+					hostRefs = Arrays.copyOf(hostRefs, Math.max(16, hostId * 2));
+			} else {
+				hostId = reusableHostIds.poll();
+				hosts.set(hostId, host);
+			}
+			hostIdsMap.put(host, hostId);
+		}
+		hostRefs[hostId]++;
+		return hostId;
+	}
+
+	/**
+	 * Release the host id of a doc id, the host is removed once it has no doc id
+	 */
+	private void releaseHost(int hostId) {
+		if (hostId >= 0 && --hostRefs[hostId] == 0) {
+			hostIdsMap.remove(hosts.get(hostId));
+			hosts.set(hostId, null);
+			reusableHostIds.add(hostId);
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		int oldCapacity = fileTypes.length;
+		if (capacity <= oldCapacity)
+			return;
+		int newCapacity = Math.max(capacity, Math.max(16, oldCapacity + (oldCapacity >> 1)));
+		numOfWords = Arrays.copyOf(numOfWords, newCapacity);
+		indexedTimes = Arrays.copyOf(indexedTimes, newCapacity);
+		contentLengths = Arrays.copyOf(contentLengths, newCapacity);
+		fileTypes = Arrays.copyOf(fileTypes, newCapacity);
+		hostIds = Arrays.copyOf(hostIds, newCapacity);
+		Arrays.fill(fileTypes, oldCapacity, newCapacity, NO_DOC);
+		Arrays.fill(hostIds, oldCapacity, newCapacity, -1);
+	}
+}
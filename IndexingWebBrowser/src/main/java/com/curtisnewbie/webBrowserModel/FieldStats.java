@@ -0,0 +1,147 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>
+ * Collection-level statistics of a field (head or body) of the live WebDoc,
+ * for planning and ranking the queries, and for sizing the memory: the number
+ * of WebDoc and of unique words, the sums of the document frequencies (i.e.,
+ * the number of postings) and of the total term frequencies (i.e., the number
+ * of words including the duplicate ones), the average length of the field in
+ * words, the heaviest words (with the longest postings), and a histogram of
+ * the lengths of the postings.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see IndexingEngine#getFieldStats(int)
+ */
+public final class FieldStats {
+
+	private final String field;
+	private final int numOfDocs;
+	private final int numOfTerms;
+	private final long sumDocFreq;
+	private final long sumTotalTermFreq;
+	private final List<TermStats> topTerms;
+	private final long[] postingsLengthHistogram;
+
+	FieldStats(String field, WebIndex wind, int topN) {
+		this.field = field;
+		this.numOfDocs = wind.getNumOfDocs();
+		this.numOfTerms = wind.getNumOfLiveTerms();
+		this.sumDocFreq = wind.getSumDocFreq();
+		this.sumTotalTermFreq = wind.getSumTotalTermFreq();
+		this.topTerms = Collections.unmodifiableList(wind.getTopTerms(topN));
+		this.postingsLengthHistogram = wind.getPostingsLengthHistogram();
+	}
+
+	/**
+	 * Get the name of the field
+	 *
+	 * @return "head" or "body"
+	 */
+	public String getField() {
+		return field;
+	}
+
+	/**
+	 * Get the number of live WebDoc
+	 *
+	 * @return number of WebDoc
+	 */
+	public int getNumOfDocs() {
+		return numOfDocs;
+	}
+
+	/**
+	 * Get the number of unique words in the live WebDoc
+	 *
+	 * @return number of words
+	 */
+	public int getNumOfTerms() {
+		return numOfTerms;
+	}
+
+	/**
+	 * Get the sum of the document frequencies of the words, i.e., the number of
+	 * live postings
+	 *
+	 * @return sum of the document frequencies
+	 */
+	public long getSumDocFreq() {
+		return sumDocFreq;
+	}
+
+	/**
+	 * Get the sum of the total term frequencies of the words, i.e., the number of
+	 * words in the field of all the live WebDoc, including the duplicate words
+	 *
+	 * @return sum of the total term frequencies
+	 */
+	public long getSumTotalTermFreq() {
+		return sumTotalTermFreq;
+	}
+
+	/**
+	 * Get the average length of the field
+	 *
+	 * @return average number of words, including the duplicate words
+	 */
+	public double getAvgDocLength() {
+		return numOfDocs == 0 ? 0 : (double) sumTotalTermFreq / numOfDocs;
+	}
+
+	/**
+	 * Get the heaviest words, by their document frequencies
+	 *
+	 * @return a List of TermStats, in descending order of the document frequency
+	 */
+	public List<TermStats> getTopTerms() {
+		return topTerms;
+	}
+
+	/**
+	 * Get the histogram of the lengths of the postings
+	 *
+	 * @return number of words of which the document frequency is in [2^i, 2^(i +
+	 *         1)) for each i
+	 * @see WebIndex#getPostingsLengthHistogram()
+	 */
+	public long[] getPostingsLengthHistogram() {
+		return postingsLengthHistogram.clone();
+	}
+
+	/**
+	 * Get the statistics in a few lines, e.g.,
+	 *
+	 * <pre>
+	 * [body] docs: 2, terms: 4, postings: 5, words: 6, avg length: 3.0
+	 *   top terms: apple (df: 2, ttf: 3), banana (df: 1, ttf: 1)
+	 *   postings lengths: [1,2): 3, [2,4): 1
+	 * </pre>
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('[').append(field).append("] docs: ").append(numOfDocs).append(", terms: ").append(numOfTerms)
+				.append(", postings: ").append(sumDocFreq).append(", words: ").append(sumTotalTermFreq)
+				.append(String.format(Locale.ROOT, ", avg length: %.1f", getAvgDocLength()));
+		sb.append("\n  top terms: ");
+		for (int i = 0; i < topTerms.size(); i++)
+			sb.append(i == 0 ? "" : ", ").append(topTerms.get(i));
+		sb.append("\n  postings lengths: ");
+		boolean first = true;
+		for (int i = 0; i < postingsLengthHistogram.length; i++) {
+			if (postingsLengthHistogram[i] == 0)
+				continue;
+			sb.append(first ? "" : ", ").append('[').append(1L << i).append(',').append(1L << (i + 1)).append("): ")
+					.append(postingsLengthHistogram[i]);
+			first = false;
+		}
+		return sb.toString();
+	}
+}
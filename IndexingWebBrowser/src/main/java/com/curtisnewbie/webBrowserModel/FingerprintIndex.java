@@ -0,0 +1,162 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Index of the SimHash fingerprints of the indexed WebDoc, for looking up the
+ * near-duplicate of a fingerprint, i.e., a fingerprint within the given
+ * Hamming distance.
+ * </p>
+ * <p>
+ * The 64 bits are split into (maxDistance + 1) blocks. If two fingerprints
+ * differ in at most maxDistance bits, at least one of the blocks is identical
+ * (pigeonhole principle), so each block is used as a key, and only the
+ * fingerprints sharing a block with the given one are compared, rather than
+ * all of them.
+ * </p>
+ * <p>
+ * It's not thread-safe, it's guarded by the lock of the IndexingEngine.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see SimHash
+ */
+public class FingerprintIndex {
+
+	/** Max Hamming distance supported, so that each block has at least 4 bits */
+	public static final int MAX_DISTANCE = 15;
+
+	/** Size of each entry in the map of a block (key, list and its element) */
+	private static final int BLOCK_ENTRY_BYTES = MemoryEstimator.HASH_ENTRY + 16 + 24 + MemoryEstimator.REFERENCE;
+
+	private final int maxDistance;
+
+	/** Offset of each block, and the end of the last one */
+	private final int[] blockOffsets;
+
+	/** For each block: block value -> the urls of the fingerprints */
+	private final List<Map<Long, List<String>>> blocks;
+
+	/** Fingerprint of each url */
+	private final Map<String, Long> fingerprints;
+
+	/**
+	 * Instantiate FingerprintIndex
+	 *
+	 * @param maxDistance max Hamming distance of the near-duplicates
+	 * @throws IllegalArgumentException when the distance is not between 0 and
+	 *                                  {@link #MAX_DISTANCE}
+	 */
+	public FingerprintIndex(int maxDistance) throws IllegalArgumentException {
+		if (maxDistance < 0 || maxDistance > MAX_DISTANCE)
+			throw new IllegalArgumentException("Hamming distance should be between 0 and " + MAX_DISTANCE);
+		this.maxDistance = maxDistance;
+		int numOfBlocks = maxDistance + 1;
+		this.blockOffsets = new int[numOfBlocks + 1];
+		for (int i = 0; i <= numOfBlocks; i++)
+			blockOffsets[i] = i * 64 / numOfBlocks;
+		this.blocks = new ArrayList<>(numOfBlocks);
+		for (int i = 0; i < numOfBlocks; i++)
+			blocks.add(new HashMap<>());
+		this.fingerprints = new HashMap<>();
+	}
+
+	/**
+	 * Add the fingerprint of the url, the previous one of the url (if any) is
+	 * replaced.
+	 *
+	 * @param url         URL String
+	 * @param fingerprint SimHash fingerprint
+	 */
+	public void add(String url, long fingerprint) {
+		remove(url);
+		fingerprints.put(url, fingerprint);
+		for (int i = 0; i < blocks.size(); i++)
+			blocks.get(i).computeIfAbsent(block(fingerprint, i), k -> new ArrayList<>(1)).add(url);
+	}
+
+	/**
+	 * Remove the fingerprint of the url
+	 *
+	 * @param url URL String
+	 * @return whether the url had a fingerprint
+	 */
+	public boolean remove(String url) {
+		Long fingerprint = fingerprints.remove(url);
+		if (fingerprint == null)
+			return false;
+		for (int i = 0; i < blocks.size(); i++) {
+			Long key = block(fingerprint, i);
+			List<String> urls = blocks.get(i).get(key);
+			urls.remove(url);
+			if (urls.isEmpty())
+				blocks.get(i).remove(key);
+		}
+		return true;
+	}
+
+	/**
+	 * Find the url whose fingerprint is the nearest to the given one, within the
+	 * max Hamming distance
+	 *
+	 * @param fingerprint SimHash fingerprint
+	 * @return url of the near-duplicate, or {@code NULL} if there is none
+	 */
+	public String findNearDuplicate(long fingerprint) {
+		String nearest = null;
+		int nearestDistance = maxDistance + 1;
+		for (int i = 0; i < blocks.size() && nearestDistance > 0; i++) {
+			List<String> urls = blocks.get(i).get(block(fingerprint, i));
+			if (urls == null)
+				continue;
+			for (String url : urls) {
+				int distance = SimHash.distance(fingerprint, fingerprints.get(url));
+				if (distance < nearestDistance) {
+					nearest = url;
+					nearestDistance = distance;
+				}
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Get the max Hamming distance of the near-duplicates
+	 *
+	 * @return max Hamming distance
+	 */
+	public int getMaxDistance() {
+		return maxDistance;
+	}
+
+	/**
+	 * Get number of fingerprints
+	 *
+	 * @return number of fingerprints
+	 */
+	public int size() {
+		return fingerprints.size();
+	}
+
+	/**
+	 * Get the estimated size of the index, excluding the urls (which are owned by
+	 * the WebDoc)
+	 *
+	 * @return size in bytes
+	 */
+	public long getBytes() {
+		return (long) fingerprints.size()
+				* (MemoryEstimator.HASH_ENTRY + 16 + (long) blocks.size() * BLOCK_ENTRY_BYTES);
+	}
+
+	private long block(long fingerprint, int i) {
+		int from = blockOffsets[i];
+		int width = blockOffsets[i + 1] - from;
+		return width == 64 ? fingerprint : (fingerprint >>> from) & ((1L << width) - 1);
+	}
+}
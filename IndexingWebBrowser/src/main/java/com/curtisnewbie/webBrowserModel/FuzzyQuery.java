@@ -0,0 +1,86 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Set;
+
+/**
+ * This class is used to handle the FuzzyQuery, e.g., lern~ or lern~1, which
+ * matches all the words within the given Levenshtein distance (number of
+ * edits) of the word. Like AtomicQuery, it's the 'end' of the recursion.
+ * 
+ * @author Yongjie Zhuang
+ *
+ * @see TermDictionary#fuzzyMatches(String, int)
+ */
+public class FuzzyQuery implements Query {
+
+	/**
+	 * Default max number of edits, when it's not specified (e.g., lern~)
+	 */
+	public static final int DEFAULT_MAX_EDITS = 2;
+
+	/**
+	 * Upper limit of the number of edits, as the number of matching words grows
+	 * quickly with it.
+	 */
+	public static final int MAX_EDITS_LIMIT = 2;
+
+	/**
+	 * The word that is searched
+	 */
+	private String word;
+
+	/**
+	 * Max Levenshtein distance
+	 */
+	private int maxEdits;
+
+	/**
+	 * Instantiate FuzzyQuery
+	 * 
+	 * @param word     the word that is searched
+	 * @param maxEdits max number of edits, it's limited to
+	 *                 {@link #MAX_EDITS_LIMIT}
+	 */
+	public FuzzyQuery(String word, int maxEdits) {
+		this.word = word;
+		this.maxEdits = Math.max(0, Math.min(maxEdits, MAX_EDITS_LIMIT));
+	}
+
+	/**
+	 * Get the word that is searched
+	 *
+	 * @return the word that is searched
+	 */
+	String getWord() {
+		return word;
+	}
+
+	/**
+	 * This method searches through the given WebIndex to find all the WebDoc that
+	 * contain a word within the Levenshtein distance of the word.
+	 * 
+	 * @return a Set of WebDoc that is found based on the query and the given
+	 *         WebIndex, or {@code NULL} if nothing matches.
+	 * @param wind the WebIndex that is being searched based on the query.
+	 */
+	@Override
+	public Set<WebDoc> matches(WebIndex wind) {
+		return wind.getFuzzyMatches(word, maxEdits);
+	}
+
+	/**
+	 * <p>
+	 * This method returns a String that indicates the type of the query, the word
+	 * and the max number of edits.
+	 * </p>
+	 * <p>
+	 * E.g., lern~1 -> FUZZY:[lern~1]
+	 * </p>
+	 * 
+	 * @return a string that indicates the type of this query as well as the word
+	 */
+	@Override
+	public String toString() {
+		return "FUZZY:[" + word + "~" + maxEdits + "]";
+	}
+}
@@ -0,0 +1,970 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.curtisnewbie.metrics.LatencyHistogram;
+import com.curtisnewbie.metrics.RateMeter;
+
+/**
+ * <p>
+ * The indexing and searching engine of this program. It owns the web indices
+ * for the head and body sections, and the WebDoc that have been indexed. It
+ * doesn't depend on JavaFX, so it's shared by the BrowserController and the
+ * headless launcher.
+ * </p>
+ * <p>
+ * It's thread-safe, the indices are guarded by a read-write lock, so queries
+ * can be evaluated concurrently while the indexing is exclusive. A WebDoc is
+ * always parsed before the lock is acquired.
+ * </p>
+ * <p>
+ * The memory used by the WebDoc and the indices is accounted (see
+ * {@link MemoryEstimator}). When a memory budget is set and it's exceeded, the
+ * least recently accessed WebDoc are evicted, i.e., they are dropped from the
+ * indices as if they were deleted.
+ * </p>
+ * <p>
+ * The near-duplicates of the indexed WebDoc (e.g., print views, mirrors, or the
+ * same page with tracking parameters) are detected by their SimHash
+ * fingerprints (see {@link FingerprintIndex}), and they are skipped or collapsed
+ * into the WebDoc that is already indexed, rather than being indexed again.
+ * </p>
+ * <p>
+ * The urls are canonicalized (see {@link UrlCanonicalizer}) before they are
+ * looked up or indexed, so the different spellings of the same url are only
+ * indexed once, and they are kept in a front-coded {@link DocTable}. The
+ * metadata of each WebDoc is kept in the columns of {@link DocValues}, so the
+ * results can be filtered and sorted without touching the WebDoc.
+ * </p>
+ * <p>
+ * Each WebDoc that is newly indexed (or updated) is matched against the
+ * {@link StandingQueries} after the lock is released.
+ * </p>
+ * 
+ * @author Yongjie Zhuang
+ * 
+ * @see WebIndexForHead
+ * @see WebIndexForBody
+ */
+public class IndexingEngine {
+
+	/** Special command for showing all WebDoc */
+	public static final String ALL_COMMAND = "/all";
+
+	/** Prefix of the query that is explained rather than only evaluated */
+	public static final String EXPLAIN_COMMAND = "/explain ";
+
+	/**
+	 * Types of the queries that the latencies are recorded for, i.e., the
+	 * top-level Query, or "ALL" for {@link #ALL_COMMAND}
+	 */
+	public static final List<String> QUERY_TYPES = List.of("ALL", "ATOMIC", "AND", "OR", "NOT", "PREFIX",
+			"WILDCARD", "FUZZY");
+
+	/**
+	 * What to do with the WebDoc that is a near-duplicate of an indexed one
+	 */
+	public enum DuplicateMode {
+		/** The near-duplicates are indexed as any other WebDoc */
+		OFF,
+		/** The near-duplicates are not indexed */
+		SKIP,
+		/**
+		 * The near-duplicates are not indexed, but their urls are remembered as the
+		 * aliases of the indexed ones, so they are not fetched and parsed again
+		 */
+		COLLAPSE
+	}
+
+	/** Default max Hamming distance of the fingerprints of near-duplicates */
+	public static final int DEF_NEAR_DUPLICATE_DISTANCE = 3;
+
+	/**
+	 * Default min number of words of a WebDoc to be fingerprinted, the
+	 * fingerprints of the short webpages are not reliable
+	 */
+	public static final int DEF_MIN_WORDS_TO_FINGERPRINT = 32;
+
+	private final WebIndexForHead headIndex;
+	private final WebIndexForBody bodyIndex;
+
+	/**
+	 * Doc ids of the canonical urls of the indexed WebDoc and the collapsed
+	 * near-duplicates, it's guarded by the lock
+	 */
+	private final DocTable docTable;
+
+	/**
+	 * The indexed WebDoc of each doc id, or {@code NULL} if it's deleted, it's
+	 * guarded by the lock
+	 */
+	private final List<WebDoc> docsById;
+
+	/** Number of WebDoc indexed, it's guarded by the lock */
+	private int numOfDocs;
+
+	/** Metadata of the WebDoc by doc id, it's guarded by the lock */
+	private final DocValues docValues;
+
+	/** Queries matched against each WebDoc that is indexed */
+	private final StandingQueries standingQueries;
+
+	/** Latencies of the queries by their types, see {@link #QUERY_TYPES} */
+	private final Map<String, LatencyHistogram> queryLatencies;
+
+	/** Rate of the WebDoc indexed (or updated) */
+	private final RateMeter ingestRate;
+
+	/** Lock that guards the indices and the WebDoc */
+	private final ReadWriteLock lock;
+
+	/**
+	 * Ratio of the budget that the memory usage is brought down to when the
+	 * budget is exceeded, so the eviction doesn't happen for every WebDoc indexed.
+	 */
+	public static final double EVICTION_TARGET_RATIO = 0.9;
+
+	/** Size of each entry in docsById and lastAccess */
+	private static final int DOC_ENTRY_BYTES = MemoryEstimator.REFERENCE + MemoryEstimator.HASH_ENTRY + 16;
+
+	/** Memory budget in bytes, it's unlimited by default */
+	private volatile long memoryBudget = Long.MAX_VALUE;
+
+	/** Size of all the indexed WebDoc, it's guarded by the lock */
+	private long docBytes;
+
+	/** Number of WebDoc evicted, it's guarded by the lock */
+	private long numOfEvicted;
+
+	/** The logical time of the last access of each url */
+	private final Map<String, Long> lastAccess;
+	private final AtomicLong accessClock;
+
+	private volatile DuplicateMode duplicateMode = DuplicateMode.COLLAPSE;
+	private volatile int minWordsToFingerprint = DEF_MIN_WORDS_TO_FINGERPRINT;
+
+	/**
+	 * Fingerprints of the indexed WebDoc, it's {@code NULL} when the detection is
+	 * off, it's guarded by the lock
+	 */
+	private FingerprintIndex fingerprintIndex;
+
+	/** Number of near-duplicates not indexed, it's guarded by the lock */
+	private long numOfDuplicates;
+
+	/** Estimated size of the near-duplicates not indexed, it's guarded by the lock */
+	private long duplicateBytesSaved;
+
+	public IndexingEngine() {
+		this.headIndex = new WebIndexForHead();
+		this.bodyIndex = new WebIndexForBody();
+		this.docTable = new DocTable();
+		this.docsById = new ArrayList<>();
+		this.docValues = new DocValues();
+		this.standingQueries = new StandingQueries();
+		Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+		for (String type : QUERY_TYPES)
+			latencies.put(type, new LatencyHistogram());
+		this.queryLatencies = Collections.unmodifiableMap(latencies);
+		this.ingestRate = new RateMeter();
+		this.lock = new ReentrantReadWriteLock();
+		this.lastAccess = new ConcurrentHashMap<>();
+		this.accessClock = new AtomicLong();
+		this.fingerprintIndex = new FingerprintIndex(DEF_NEAR_DUPLICATE_DISTANCE);
+	}
+
+	/**
+	 * Index the webpage of the url, if the url has never been indexed, and it's
+	 * not a near-duplicate of an indexed one.
+	 * 
+	 * @param url     URL String, the WebDoc is created with its canonical form
+	 * @param content Actual content (html/js code) of this webpage. if it's
+	 *                {@code Null}, a {@code new WebDoc} will be constructed by
+	 *                making connection to the URL, else it will be constructed by
+	 *                parsing the given content string.
+	 * @return the created WebDoc, or the one that was already indexed for this url
+	 *         (or of which the webpage is a near-duplicate)
+	 * @throws IOException              when it's unable to connect to the url or
+	 *                                  read the local file
+	 * @throws IllegalArgumentException when the format of the url is incorrect
+	 */
+	public WebDoc index(String url, String content) throws IOException, IllegalArgumentException {
+		String canonicalUrl = UrlCanonicalizer.canonicalize(url);
+		WebDoc existing = getWebDoc(canonicalUrl, false);
+		if (existing != null)
+			return existing;
+
+		return index(content == null ? new WebDoc(canonicalUrl) : new WebDoc(canonicalUrl, content));
+	}
+
+	/**
+	 * Index the WebDoc that is already parsed, if its url has never been indexed,
+	 * and it's not a near-duplicate of an indexed one. If its url is not
+	 * canonical, the WebDoc is parsed again with the canonical url.
+	 *
+	 * @param doc WebDoc
+	 * @return the given WebDoc, or the one that was already indexed for its url
+	 *         (or of which the given one is a near-duplicate)
+	 */
+	public WebDoc index(WebDoc doc) {
+		doc = withCanonicalUrl(doc);
+		// the fingerprint is computed before the lock is acquired, like the parsing
+		WebDoc indexed = addIfAbsent(doc, fingerprintOf(doc));
+		if (indexed == doc) {
+			ingestRate.mark(1);
+			standingQueries.percolate(doc);
+		}
+		return indexed;
+	}
+
+	/**
+	 * Index the WebDoc with the write lock held, unless its url is indexed or it's
+	 * a near-duplicate
+	 */
+	private WebDoc addIfAbsent(WebDoc doc, Long fingerprint) {
+		lock.writeLock().lock();
+		try {
+			WebDoc existing = resolve(doc.getUrlString());
+			if (existing != null)
+				return existing;
+			if (fingerprintIndex != null) {
+				if (fingerprint == null)
+					fingerprint = fingerprintOf(doc);
+				String original = fingerprint == null ? null : fingerprintIndex.findNearDuplicate(fingerprint);
+				if (original != null) {
+					numOfDuplicates++;
+					duplicateBytesSaved += indexedBytes(doc);
+					int originalId = docTable.get(original);
+					if (duplicateMode == DuplicateMode.COLLAPSE)
+						docTable.alias(doc.getUrlString(), originalId);
+					touch(original);
+					return docsById.get(originalId);
+				}
+				if (fingerprint != null)
+					fingerprintIndex.add(doc.getUrlString(), fingerprint);
+			}
+			addDoc(doc);
+			headIndex.add(doc);
+			bodyIndex.add(doc);
+			docBytes += MemoryEstimator.webDocBytes(doc);
+			touch(doc.getUrlString());
+			evictIfNeeded(doc.getUrlString());
+			return doc;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Index the WebDoc, and replace the one that was previously indexed for the
+	 * same url (if any), e.g., when the webpage is re-fetched and it's modified.
+	 * The previous one is only tombstoned, so the indices are not rebuilt. It's
+	 * indexed even if it's a near-duplicate of another indexed WebDoc.
+	 *
+	 * @param doc WebDoc
+	 * @return the WebDoc that is replaced, or {@code NULL} if the url was never
+	 *         indexed
+	 * @see WebIndex#update(String, WebDoc)
+	 */
+	public WebDoc update(WebDoc doc) {
+		doc = withCanonicalUrl(doc);
+		WebDoc prev;
+		lock.writeLock().lock();
+		try {
+			int id = docTable.get(doc.getUrlString());
+			prev = id < 0 ? null : docsById.get(id);
+			if (prev != null && !prev.getUrlString().equals(doc.getUrlString())) {
+				// it's no longer collapsed into the near-duplicate
+				docTable.remove(doc.getUrlString());
+				prev = null;
+			}
+			if (prev != null)
+				setDoc(id, doc);
+			else
+				addDoc(doc);
+			headIndex.update(doc.getUrlString(), doc);
+			bodyIndex.update(doc.getUrlString(), doc);
+			if (fingerprintIndex != null) {
+				Long fingerprint = fingerprintOf(doc);
+				if (fingerprint != null)
+					fingerprintIndex.add(doc.getUrlString(), fingerprint);
+				else
+					fingerprintIndex.remove(doc.getUrlString());
+			}
+			if (prev != null)
+				docBytes -= MemoryEstimator.webDocBytes(prev);
+			docBytes += MemoryEstimator.webDocBytes(doc);
+			touch(doc.getUrlString());
+			evictIfNeeded(doc.getUrlString());
+		} finally {
+			lock.writeLock().unlock();
+		}
+		ingestRate.mark(1);
+		standingQueries.percolate(doc);
+		return prev;
+	}
+
+	/**
+	 * Delete the WebDoc of the url from the indices, e.g., when the webpage no
+	 * longer exists. The near-duplicates collapsed into it are forgotten as well.
+	 *
+	 * @param url URL String
+	 * @return the WebDoc that is deleted, or {@code NULL} if the url was never
+	 *         indexed
+	 * @see WebIndex#delete(String)
+	 */
+	public WebDoc delete(String url) {
+		String canonicalUrl = UrlCanonicalizer.canonicalize(url);
+		lock.writeLock().lock();
+		try {
+			int id = docTable.get(canonicalUrl);
+			WebDoc prev = id < 0 ? null : docsById.get(id);
+			if (prev == null)
+				return null;
+			if (!prev.getUrlString().equals(canonicalUrl)) {
+				// only the url collapsed into the WebDoc is forgotten
+				docTable.remove(canonicalUrl);
+				return null;
+			}
+			removeDoc(id, prev);
+			return prev;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Purge the deleted and replaced WebDoc from the indices, it's otherwise done
+	 * lazily when enough WebDoc are deleted.
+	 *
+	 * @see WebIndex#compact()
+	 */
+	public void compact() {
+		lock.writeLock().lock();
+		try {
+			headIndex.compact();
+			bodyIndex.compact();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * <p>
+	 * Evaluate the query against the head and body indices. Other than the infix
+	 * and prefix queries, the special command {@link #ALL_COMMAND} returns all
+	 * the WebDoc (as head results).
+	 * </p>
+	 * 
+	 * @param query   an infix or prefix query
+	 * @param isInfix whether it's an infix query
+	 * @return the results, or {@code NULL} if the query is ill-formed
+	 * @see QueryBuilder
+	 */
+	public SearchResult search(String query, boolean isInfix) {
+		return search(query, isInfix, null);
+	}
+
+	/**
+	 * Evaluate the query, and filter and sort the results by the options. The
+	 * options are evaluated against the {@link DocValues} of the results.
+	 * 
+	 * @param query   an infix or prefix query
+	 * @param isInfix whether it's an infix query
+	 * @param options SearchOptions, or {@code NULL} for the default options
+	 * @return the results, or {@code NULL} if the query is ill-formed
+	 * @see #search(String, boolean)
+	 */
+	public SearchResult search(String query, boolean isInfix, SearchOptions options) {
+		long start = System.nanoTime();
+		if (options != null && options.isDefault())
+			options = null;
+		if (query.trim().equalsIgnoreCase(ALL_COMMAND)) {
+			SearchResult result;
+			if (options == null) {
+				result = new SearchResult(new ArrayList<>(getAllWebDocs()), null);
+			} else {
+				lock.readLock().lock();
+				try {
+					result = new SearchResult(applyOptions(allLiveDocIds(), options), null);
+				} finally {
+					lock.readLock().unlock();
+				}
+			}
+			queryLatencies.get("ALL").record(System.nanoTime() - start);
+			return result;
+		}
+
+		Query parsedQuery;
+		try {
+			parsedQuery = isInfix ? QueryBuilder.parseInfixForm(query) : QueryBuilder.parse(query);
+		} catch (IndexOutOfBoundsException e) {
+			return null;
+		}
+		if (parsedQuery == null)
+			return null;
+
+		SearchResult result;
+		lock.readLock().lock();
+		try {
+			Set<WebDoc> headResults = QueryProfile.evaluate(parsedQuery, headIndex);
+			Set<WebDoc> bodyResults = QueryProfile.evaluate(parsedQuery, bodyIndex);
+			if (options == null)
+				result = new SearchResult(headResults, bodyResults);
+			else
+				result = new SearchResult(applyOptions(docIdsOf(headResults), options),
+						applyOptions(docIdsOf(bodyResults), options));
+		} finally {
+			lock.readLock().unlock();
+		}
+		queryLatencies.get(queryTypeOf(parsedQuery)).record(System.nanoTime() - start);
+		if (memoryBudget != Long.MAX_VALUE) {
+			// the access is only tracked when it's needed for the eviction
+			for (WebDoc doc : result.getHeadResults())
+				touch(doc.getUrlString());
+			for (WebDoc doc : result.getBodyResults())
+				touch(doc.getUrlString());
+		}
+		return result;
+	}
+
+	/**
+	 * Get the type of the top-level Query, see {@link #QUERY_TYPES}
+	 */
+	private static String queryTypeOf(Query query) {
+		if (query instanceof AndQuery)
+			return "AND";
+		else if (query instanceof OrQuery)
+			return "OR";
+		else if (query instanceof NotQuery)
+			return "NOT";
+		else if (query instanceof PrefixQuery)
+			return "PREFIX";
+		else if (query instanceof WildcardQuery)
+			return "WILDCARD";
+		else if (query instanceof FuzzyQuery)
+			return "FUZZY";
+		else
+			return "ATOMIC";
+	}
+
+	/**
+	 * Get the latencies of the queries (including the parsing) by their types, the
+	 * ill-formed ones are not recorded
+	 *
+	 * @return LatencyHistogram of each type in {@link #QUERY_TYPES}
+	 */
+	public Map<String, LatencyHistogram> getQueryLatencies() {
+		return queryLatencies;
+	}
+
+	/**
+	 * Get the rate of the WebDoc that are indexed or updated, the near-duplicates
+	 * and the urls that were already indexed are not counted
+	 *
+	 * @return RateMeter
+	 */
+	public RateMeter getIngestRate() {
+		return ingestRate;
+	}
+
+	/**
+	 * Get the number of (word, WebDoc) pairs in the indices of head and body
+	 *
+	 * @return number of postings
+	 */
+	public long getNumOfPostings() {
+		lock.readLock().lock();
+		try {
+			return headIndex.getNumOfPostings() + bodyIndex.getNumOfPostings();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the term and document frequency statistics of the head and the body of
+	 * the indexed WebDoc, e.g., the average length of the body, or the heaviest
+	 * words in head
+	 *
+	 * @param topN number of the heaviest words in each field
+	 * @return FieldStats of head and of body
+	 */
+	public List<FieldStats> getFieldStats(int topN) {
+		lock.readLock().lock();
+		try {
+			return List.of(new FieldStats("head", headIndex, topN), new FieldStats("body", bodyIndex, topN));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Evaluate the query with profiling, each node of the query tree (against the
+	 * head and body indices respectively) records its wall time, allocations and
+	 * cardinalities, so that the subquery dominating a slow query can be found.
+	 * It's slower than {@link #search(String, boolean)}, as the subqueries are
+	 * evaluated sequentially.
+	 *
+	 * @param query   an infix or prefix query
+	 * @param isInfix whether it's an infix query
+	 * @return the profile of the query, of which the children are the profiles of
+	 *         the head and the body, or {@code NULL} if the query is ill-formed
+	 * @see QueryProfile
+	 */
+	public QueryProfile explain(String query, boolean isInfix) {
+		Query parsedQuery;
+		try {
+			parsedQuery = isInfix ? QueryBuilder.parseInfixForm(query) : QueryBuilder.parse(query);
+		} catch (IndexOutOfBoundsException e) {
+			return null;
+		}
+		if (parsedQuery == null)
+			return null;
+
+		QueryProfile profile = new QueryProfile(query.trim());
+		lock.readLock().lock();
+		try {
+			profile.add(QueryProfile.profile("HEAD", parsedQuery, headIndex));
+			profile.add(QueryProfile.profile("BODY", parsedQuery, bodyIndex));
+		} finally {
+			lock.readLock().unlock();
+		}
+		return profile;
+	}
+
+	/**
+	 * Get the doc ids of all the WebDoc that are indexed, in the order of their
+	 * urls. It must be called with the read lock held
+	 */
+	private int[] allLiveDocIds() {
+		List<WebDoc> docs = new ArrayList<>(numOfDocs);
+		for (WebDoc doc : docsById) {
+			if (doc != null)
+				docs.add(doc);
+		}
+		docs.sort(null);
+		return docIdsOf(docs);
+	}
+
+	/**
+	 * Get the doc ids of the WebDoc (it can be {@code NULL}), in the same order. It
+	 * must be called with the read lock held
+	 */
+	private static int[] docIdsOf(Collection<WebDoc> docs) {
+		if (docs == null)
+			return new int[0];
+		int[] ids = new int[docs.size()];
+		Iterator<WebDoc> it = docs.iterator();
+		for (int i = 0; i < ids.length; i++)
+			ids[i] = it.next().docId;
+		return ids;
+	}
+
+	/**
+	 * Filter and sort the doc ids (in the order of their urls) by the options,
+	 * only the WebDoc of the doc ids that are kept are looked up. It must be
+	 * called with the read lock held
+	 */
+	private List<WebDoc> applyOptions(int[] ids, SearchOptions options) {
+		int hostId = options.getHost() == null ? -1 : docValues.getHostId(options.getHost());
+		int numOfMatched = 0;
+		for (int id : ids) {
+			if (docValues.matches(id, options, hostId))
+				ids[numOfMatched++] = id;
+		}
+		long[] keys = new long[numOfMatched];
+		Integer[] order = new Integer[numOfMatched];
+		for (int i = 0; i < numOfMatched; i++) {
+			keys[i] = options.getSortBy() == SearchOptions.SortBy.URL ? i
+					: docValues.sortKey(ids[i], options.getSortBy());
+			order[i] = i;
+		}
+		// the positions break the ties, as the ids are in the order of their urls
+		Comparator<Integer> comparator = Comparator.comparingLong(i -> keys[i]);
+		if (options.isDescending())
+			comparator = comparator.reversed();
+		Arrays.sort(order, comparator.thenComparingInt(i -> i));
+
+		int size = Math.min(numOfMatched, options.getLimit());
+		List<WebDoc> docs = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			docs.add(docsById.get(ids[order[i]]));
+		return docs;
+	}
+
+	/**
+	 * Set the memory budget of the WebDoc and the indices, the least recently
+	 * accessed WebDoc are evicted if it's exceeded.
+	 * 
+	 * @param bytes budget in bytes, or {@code Long.MAX_VALUE} for unlimited
+	 * @throws IllegalArgumentException when the budget is not positive
+	 */
+	public void setMemoryBudget(long bytes) throws IllegalArgumentException {
+		if (bytes <= 0)
+			throw new IllegalArgumentException("Memory budget should be positive");
+		lock.writeLock().lock();
+		try {
+			memoryBudget = bytes;
+			evictIfNeeded(null);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the standing queries, they are matched against each WebDoc that is
+	 * indexed or updated from now on
+	 *
+	 * @return StandingQueries
+	 */
+	public StandingQueries getStandingQueries() {
+		return standingQueries;
+	}
+
+	/**
+	 * Get the memory budget
+	 * 
+	 * @return budget in bytes, or {@code Long.MAX_VALUE} if it's unlimited
+	 */
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	/**
+	 * Get the estimated memory usage of the WebDoc and the indices
+	 * 
+	 * @return MemoryStats
+	 */
+	public MemoryStats getMemoryStats() {
+		lock.readLock().lock();
+		try {
+			return createMemoryStats();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private MemoryStats createMemoryStats() {
+		long fingerprintBytes = fingerprintIndex == null ? 0 : fingerprintIndex.getBytes();
+		return new MemoryStats(memoryBudget,
+				docBytes + (long) numOfDocs * DOC_ENTRY_BYTES + docTable.getBytes() + docValues.getBytes()
+						+ fingerprintBytes,
+				headIndex.getPostingsBytes() + bodyIndex.getPostingsBytes(),
+				headIndex.getTermBytes() + bodyIndex.getTermBytes(), numOfDocs, numOfEvicted,
+				numOfDuplicates, duplicateBytesSaved);
+	}
+
+	/**
+	 * Record the access of the url
+	 */
+	private void touch(String url) {
+		lastAccess.put(url, accessClock.incrementAndGet());
+	}
+
+	/**
+	 * Evict the least recently accessed WebDoc until the memory usage is below
+	 * {@link #EVICTION_TARGET_RATIO} of the budget, if the budget is exceeded. It
+	 * must be called with the write lock held.
+	 * 
+	 * @param keptUrl url that is never evicted (the one just indexed), it can be
+	 *                {@code NULL}
+	 */
+	private void evictIfNeeded(String keptUrl) {
+		long budget = memoryBudget;
+		if (budget == Long.MAX_VALUE || createMemoryStats().getUsedBytes() <= budget)
+			return;
+		long target = (long) (budget * EVICTION_TARGET_RATIO);
+
+		List<Map.Entry<String, Long>> entries = new ArrayList<>(lastAccess.entrySet());
+		entries.sort(Comparator.comparingLong(Map.Entry::getValue));
+		int i = 0;
+		while (i < entries.size()) {
+			// evict in batches, as the postings are only purged by the compaction
+			long used = createMemoryStats().getUsedBytes();
+			if (used <= target)
+				break;
+			long toFree = used - target;
+			long freed = 0;
+			for (; i < entries.size() && freed < toFree; i++) {
+				String url = entries.get(i).getKey();
+				if (url.equals(keptUrl))
+					continue;
+				int id = docTable.get(url);
+				WebDoc doc = id < 0 ? null : docsById.get(id);
+				if (doc == null || !doc.getUrlString().equals(url)) {
+					// touched after it's deleted
+					lastAccess.remove(url);
+					continue;
+				}
+				removeDoc(id, doc);
+				freed += indexedBytes(doc);
+				numOfEvicted++;
+			}
+			headIndex.compact();
+			bodyIndex.compact();
+		}
+	}
+
+	/**
+	 * Add the WebDoc with a new doc id, it must be called with the write lock held
+	 */
+	private void addDoc(WebDoc doc) {
+		int id = docTable.add(doc.getUrlString());
+		while (docsById.size() <= id)
+			docsById.add(null);
+		setDoc(id, doc);
+		numOfDocs++;
+	}
+
+	/**
+	 * Set the WebDoc of the doc id and its DocValues, it must be called with the
+	 * write lock held
+	 */
+	private void setDoc(int id, WebDoc doc) {
+		WebDoc prev = docsById.set(id, doc);
+		if (prev != null)
+			prev.docId = -1;
+		doc.docId = id;
+		docValues.set(id, doc, System.currentTimeMillis());
+	}
+
+	/**
+	 * Remove the WebDoc from the indices, the urls collapsed into it are removed
+	 * as well. It must be called with the write lock held
+	 */
+	private void removeDoc(int id, WebDoc doc) {
+		String url = doc.getUrlString();
+		docsById.set(id, null);
+		doc.docId = -1;
+		docValues.clear(id);
+		docTable.free(id);
+		numOfDocs--;
+		headIndex.delete(url);
+		bodyIndex.delete(url);
+		lastAccess.remove(url);
+		if (fingerprintIndex != null)
+			fingerprintIndex.remove(url);
+		docBytes -= MemoryEstimator.webDocBytes(doc);
+	}
+
+	/**
+	 * Get the WebDoc with the canonical url, it's parsed again if the url is not
+	 * canonical
+	 */
+	private static WebDoc withCanonicalUrl(WebDoc doc) {
+		String canonicalUrl = UrlCanonicalizer.canonicalize(doc.getUrlString());
+		return canonicalUrl.equals(doc.getUrlString()) ? doc : new WebDoc(canonicalUrl, doc.getContent());
+	}
+
+	/**
+	 * Estimated size of the WebDoc once it's indexed, including its postings
+	 */
+	private static long indexedBytes(WebDoc doc) {
+		return MemoryEstimator.webDocBytes(doc) + DOC_ENTRY_BYTES
+				+ (long) doc.getNumOfWords() * MemoryEstimator.TREE_ENTRY;
+	}
+
+	/**
+	 * Set how the near-duplicates are detected and handled, the fingerprints of
+	 * the indexed WebDoc are recomputed. The WebDoc that are already indexed are
+	 * kept even if they are near-duplicates of each other, and so are the urls
+	 * already collapsed.
+	 * 
+	 * @param mode                  what to do with the near-duplicates
+	 * @param maxDistance           max Hamming distance of the fingerprints of
+	 *                              near-duplicates
+	 * @param minWordsToFingerprint min number of words of a WebDoc to be
+	 *                              fingerprinted
+	 * @throws IllegalArgumentException when the distance is not between 0 and
+	 *                                  {@link FingerprintIndex#MAX_DISTANCE}
+	 */
+	public void setNearDuplicateDetection(DuplicateMode mode, int maxDistance, int minWordsToFingerprint)
+			throws IllegalArgumentException {
+		FingerprintIndex newIndex = mode == DuplicateMode.OFF ? null : new FingerprintIndex(maxDistance);
+		lock.writeLock().lock();
+		try {
+			this.duplicateMode = mode;
+			this.minWordsToFingerprint = minWordsToFingerprint;
+			this.fingerprintIndex = newIndex;
+			if (newIndex != null) {
+				for (WebDoc doc : docsById) {
+					Long fingerprint = doc == null ? null : fingerprintOf(doc);
+					if (fingerprint != null)
+						newIndex.add(doc.getUrlString(), fingerprint);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Get what is done with the near-duplicates
+	 * 
+	 * @return DuplicateMode
+	 */
+	public DuplicateMode getDuplicateMode() {
+		return duplicateMode;
+	}
+
+	/**
+	 * Get the url of the indexed WebDoc that the url is collapsed into
+	 * 
+	 * @param url URL String
+	 * @return url of the indexed WebDoc, or {@code NULL} if the url is not a
+	 *         collapsed near-duplicate
+	 */
+	public String getDuplicateOf(String url) {
+		String canonicalUrl = UrlCanonicalizer.canonicalize(url);
+		WebDoc doc = getWebDoc(canonicalUrl, false);
+		return doc == null || doc.getUrlString().equals(canonicalUrl) ? null : doc.getUrlString();
+	}
+
+	/**
+	 * Compute the fingerprint of the WebDoc
+	 * 
+	 * @return the fingerprint, or {@code NULL} if the detection is off or the
+	 *         WebDoc is too short to be fingerprinted
+	 */
+	private Long fingerprintOf(WebDoc doc) {
+		if (duplicateMode == DuplicateMode.OFF || doc.getNumOfWords() < minWordsToFingerprint)
+			return null;
+		return SimHash.fingerprint(doc);
+	}
+
+	/**
+	 * Get the indexed WebDoc of the canonical url, or the one that the url is
+	 * collapsed into. It must be called with the lock held
+	 */
+	private WebDoc resolve(String canonicalUrl) {
+		int id = docTable.get(canonicalUrl);
+		return id < 0 ? null : docsById.get(id);
+	}
+
+	/**
+	 * Get the WebDoc of the canonical url with the read lock
+	 */
+	private WebDoc getWebDoc(String canonicalUrl, boolean isAccess) {
+		WebDoc doc;
+		lock.readLock().lock();
+		try {
+			doc = resolve(canonicalUrl);
+		} finally {
+			lock.readLock().unlock();
+		}
+		if (isAccess && doc != null && memoryBudget != Long.MAX_VALUE)
+			touch(doc.getUrlString());
+		return doc;
+	}
+
+	/**
+	 * Check whether the url has been indexed, or it's collapsed into an indexed one
+	 * 
+	 * @param url URL String
+	 * @return whether the url has been indexed
+	 */
+	public boolean contains(String url) {
+		return getWebDoc(UrlCanonicalizer.canonicalize(url), false) != null;
+	}
+
+	/**
+	 * Get the WebDoc of the url, or the one that the url is collapsed into
+	 * 
+	 * @param url URL String
+	 * @return the WebDoc, or {@code NULL} if the url has never been indexed
+	 */
+	public WebDoc getWebDoc(String url) {
+		return getWebDoc(UrlCanonicalizer.canonicalize(url), true);
+	}
+
+	/**
+	 * Get all the WebDoc that have been indexed
+	 * 
+	 * @return a copy of all the WebDoc
+	 */
+	public Collection<WebDoc> getAllWebDocs() {
+		lock.readLock().lock();
+		try {
+			List<WebDoc> docs = new ArrayList<>(numOfDocs);
+			for (WebDoc doc : docsById) {
+				if (doc != null)
+					docs.add(doc);
+			}
+			return docs;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get number of WebDoc that have been indexed
+	 * 
+	 * @return number of WebDoc
+	 */
+	public int getNumOfDocs() {
+		lock.readLock().lock();
+		try {
+			return numOfDocs;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get number of words (unique) in the head index
+	 *
+	 * @return number of words in the head index
+	 */
+	public int getNumOfHeadWords() {
+		lock.readLock().lock();
+		try {
+			return headIndex.getNumOfWords();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get number of words (unique) in the body index
+	 *
+	 * @return number of words in the body index
+	 */
+	public int getNumOfBodyWords() {
+		lock.readLock().lock();
+		try {
+			return bodyIndex.getNumOfWords();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get a string that provide the overall summary of the indices
+	 * 
+	 * @return a string of the overall summary of the indices
+	 */
+	@Override
+	public String toString() {
+		lock.readLock().lock();
+		try {
+			return "Head: " + headIndex + ", Body: " + bodyIndex;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+}
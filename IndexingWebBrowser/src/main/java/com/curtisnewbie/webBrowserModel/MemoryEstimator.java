@@ -0,0 +1,111 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Set;
+
+/**
+ * <p>
+ * Estimates the retained sizes (in bytes) of the objects in the model layer.
+ * The sizes are those of a 64-bit JVM with compressed oops (the default for
+ * heaps smaller than 32 GB): 12-byte object headers, 16-byte array headers,
+ * 4-byte references and 8-byte alignment. Strings are assumed to be compact
+ * (Latin-1) unless they contain other characters.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see IndexingEngine#getMemoryStats()
+ */
+public final class MemoryEstimator {
+
+	static final int OBJECT_HEADER = 12;
+	static final int ARRAY_HEADER = 16;
+	static final int REFERENCE = 4;
+
+	/** String object (header, value, hash, coder, hashIsZero) */
+	static final int STRING_SHELL = 24;
+
+	/** TreeMap.Entry (header, key, value, left, right, parent, color) */
+	static final int TREE_ENTRY = 40;
+
+	/** TreeSet and its backing TreeMap */
+	static final int TREE_SET = 16 + 48;
+
+	/**
+	 * HashMap.Node (header, hash, key, value, next) and its amortised slot in the
+	 * table (load factor 0.75)
+	 */
+	static final int HASH_ENTRY = 32 + 6;
+
+	/** WebDoc object (header, 7 references, docId, numOfWords and lengths) */
+	static final int WEB_DOC_SHELL = 56;
+
+	private MemoryEstimator() {
+	}
+
+	/**
+	 * Round the size up to the 8-byte alignment
+	 *
+	 * @param bytes size
+	 * @return aligned size
+	 */
+	static long align(long bytes) {
+		return (bytes + 7) & ~7L;
+	}
+
+	/**
+	 * Size of a String, including its backing array
+	 *
+	 * @param s String
+	 * @return size in bytes
+	 */
+	static long stringBytes(String s) {
+		if (s == null)
+			return 0;
+		int bytesPerChar = 1;
+		for (int i = 0; i < s.length(); i++) {
+			if (s.charAt(i) > 0xFF) {
+				bytesPerChar = 2;
+				break;
+			}
+		}
+		return STRING_SHELL + align(ARRAY_HEADER + (long) s.length() * bytesPerChar);
+	}
+
+	/**
+	 * Size of an array
+	 *
+	 * @param length      length of the array
+	 * @param elementSize size of each element
+	 * @return size in bytes
+	 */
+	static long arrayBytes(int length, int elementSize) {
+		return align(ARRAY_HEADER + (long) length * elementSize);
+	}
+
+	/**
+	 * Size of a set of words (a TreeSet of Strings)
+	 *
+	 * @param words words
+	 * @return size in bytes
+	 */
+	static long wordSetBytes(Set<String> words) {
+		long bytes = TREE_SET;
+		for (String word : words) {
+			bytes += TREE_ENTRY + stringBytes(word);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Size of a WebDoc, which includes its url, content, words and their
+	 * frequencies
+	 *
+	 * @param doc WebDoc
+	 * @return size in bytes
+	 */
+	public static long webDocBytes(WebDoc doc) {
+		return WEB_DOC_SHELL + stringBytes(doc.getUrlString()) + stringBytes(doc.getContent())
+				+ wordSetBytes(doc.headWordSet()) + wordSetBytes(doc.bodyWordSet())
+				+ arrayBytes(doc.headTermFreqs().length, 4) + arrayBytes(doc.bodyTermFreqs().length, 4);
+	}
+}
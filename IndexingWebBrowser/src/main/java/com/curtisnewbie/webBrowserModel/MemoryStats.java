@@ -0,0 +1,125 @@
+package com.curtisnewbie.webBrowserModel;
+
+/**
+ * Snapshot of the estimated memory usage of the IndexingEngine
+ * 
+ * @author Yongjie Zhuang
+ * 
+ * @see IndexingEngine#getMemoryStats()
+ * @see MemoryEstimator
+ */
+public class MemoryStats {
+
+	private final long budgetBytes;
+	private final long docBytes;
+	private final long postingsBytes;
+	private final long termBytes;
+	private final int numOfDocs;
+	private final long numOfEvicted;
+	private final long numOfDuplicates;
+	private final long duplicateBytesSaved;
+
+	public MemoryStats(long budgetBytes, long docBytes, long postingsBytes, long termBytes, int numOfDocs,
+			long numOfEvicted, long numOfDuplicates, long duplicateBytesSaved) {
+		this.budgetBytes = budgetBytes;
+		this.docBytes = docBytes;
+		this.postingsBytes = postingsBytes;
+		this.termBytes = termBytes;
+		this.numOfDocs = numOfDocs;
+		this.numOfEvicted = numOfEvicted;
+		this.numOfDuplicates = numOfDuplicates;
+		this.duplicateBytesSaved = duplicateBytesSaved;
+	}
+
+	/**
+	 * Get the memory budget
+	 * 
+	 * @return budget in bytes, or {@code Long.MAX_VALUE} if it's unlimited
+	 */
+	public long getBudgetBytes() {
+		return budgetBytes;
+	}
+
+	/**
+	 * Get the total size of the model layer
+	 * 
+	 * @return size in bytes
+	 */
+	public long getUsedBytes() {
+		return docBytes + postingsBytes + termBytes;
+	}
+
+	/**
+	 * Get the size of the WebDoc (urls, contents and words)
+	 * 
+	 * @return size in bytes
+	 */
+	public long getDocBytes() {
+		return docBytes;
+	}
+
+	/**
+	 * Get the size of the postings in the head and body indices
+	 * 
+	 * @return size in bytes
+	 */
+	public long getPostingsBytes() {
+		return postingsBytes;
+	}
+
+	/**
+	 * Get the size of the words in the head and body indices
+	 * 
+	 * @return size in bytes
+	 */
+	public long getTermBytes() {
+		return termBytes;
+	}
+
+	/**
+	 * Get number of WebDoc that are indexed
+	 * 
+	 * @return number of WebDoc
+	 */
+	public int getNumOfDocs() {
+		return numOfDocs;
+	}
+
+	/**
+	 * Get number of WebDoc that have been evicted to stay within the budget
+	 * 
+	 * @return number of WebDoc evicted
+	 */
+	public long getNumOfEvicted() {
+		return numOfEvicted;
+	}
+
+	/**
+	 * Get number of near-duplicates that were not indexed
+	 * 
+	 * @return number of near-duplicates
+	 */
+	public long getNumOfDuplicates() {
+		return numOfDuplicates;
+	}
+
+	/**
+	 * Get the estimated size that the near-duplicates would have taken if they
+	 * were indexed
+	 * 
+	 * @return size in bytes
+	 */
+	public long getDuplicateBytesSaved() {
+		return duplicateBytesSaved;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"Memory: %d KB used (docs %d KB, postings %d KB, terms %d KB) of %s, %d docs, %d evicted, "
+						+ "%d near-duplicates (%d KB saved)",
+				getUsedBytes() / 1024, docBytes / 1024, postingsBytes / 1024, termBytes / 1024,
+				budgetBytes == Long.MAX_VALUE ? "unlimited" : (budgetBytes / 1024) + " KB", numOfDocs, numOfEvicted,
+				numOfDuplicates, duplicateBytesSaved / 1024);
+	}
+}
@@ -1,13 +1,11 @@
 package com.curtisnewbie.webBrowserModel;
 
-import java.util.Collection;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
 /**
- * This class is used to handle the prefix NotQuery, e.g., not(banana).
- * Theoretically, NotQuery is the 'end' of the recursion.
+ * This class is used to handle the prefix NotQuery, e.g., not(banana). Its
+ * subquery is parsed by QueryBuilder.parse(), so it can also be a nested query,
+ * e.g., not(or(apple,learn*)).
  * 
  * @author Yongjie Zhuang
  *
@@ -28,6 +26,15 @@ public class NotQuery implements Query {
 		query = s;
 	}
 
+	/**
+	 * Get the subquery (in prefix form) of this NotQuery
+	 *
+	 * @return the subquery (in prefix form) of this NotQuery
+	 */
+	String getSubQuery() {
+		return query;
+	}
+
 	/**
 	 * This method searches through the given WebIndex based on the query to find
 	 * all the matched results. It returns a set that contains all the results
@@ -41,20 +48,12 @@ public class NotQuery implements Query {
 	@Override
 	public Set<WebDoc> matches(WebIndex wind) {
 		Set<WebDoc> resultOfNotQuery;
-		Map<String, Set<WebDoc>> webDocsMapCopy;
-		webDocsMapCopy = wind.getWebDocsMap();
-
-		Collection<Set<WebDoc>> allValues = webDocsMapCopy.values();
-		Set<WebDoc> allWebDoc = new TreeSet<>();
 
-		// get all the webdocs
-		for (Set<WebDoc> set : allValues) {
-			for (WebDoc doc : set) {
-				allWebDoc.add(doc);
-			}
-		}
-		// get the webdocs of not query
-		resultOfNotQuery = webDocsMapCopy.get(query);
+		// get all the (live) webdocs
+		Set<WebDoc> allWebDoc = wind.getLiveDocs();
+		// get the webdocs of not query, the subquery can be a simple word or a nested
+		// query (e.g., learn* or and(a,b))
+		resultOfNotQuery = QueryProfile.evaluate(QueryBuilder.parse(query), wind);
 
 		// remove the webdocs of not query
 		if (resultOfNotQuery == null) {
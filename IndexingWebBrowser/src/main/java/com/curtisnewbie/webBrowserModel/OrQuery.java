@@ -1,6 +1,5 @@
 package com.curtisnewbie.webBrowserModel;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -32,6 +31,15 @@ public class OrQuery implements Query {
 		this.subQueryCollection = subQuery;
 	}
 
+	/**
+	 * Get the subqueries (in prefix form) of this OrQuery
+	 *
+	 * @return the subqueries (in prefix form) of this OrQuery
+	 */
+	Set<String> getSubQueries() {
+		return subQueryCollection;
+	}
+
 	/**
 	 * It is part of the recursion that the matches() method will call the
 	 * QueryBuilder.parse() to parse the sub-query of this AndQuery object, and then
@@ -39,7 +47,8 @@ public class OrQuery implements Query {
 	 * 
 	 * This method searches through the given WebIndex based on the query to find
 	 * all the matched results. The OrQuery object finds the matched results of all
-	 * the sub-query and puts them together.
+	 * the sub-query and puts them together. The subqueries may be evaluated in
+	 * parallel, see {@link QueryEvaluator}.
 	 * 
 	 * @return a Set<WebDoc> that is found based on the query and the given
 	 *         WebIndex.
@@ -48,12 +57,8 @@ public class OrQuery implements Query {
 	 */
 	@Override
 	public Set<WebDoc> matches(WebIndex wind) {
-		List<Set<WebDoc>> subqueriesResults = new ArrayList<>();
 		// Get the results of all the sub-queries
-		for (String eachQuery : subQueryCollection) {
-			Query subQuery = QueryBuilder.parse(eachQuery);
-			subqueriesResults.add(subQuery.matches(wind));
-		}
+		List<Set<WebDoc>> subqueriesResults = QueryEvaluator.evaluateAll(subQueryCollection, wind);
 		Set<WebDoc> finalSubQueryResult = new TreeSet<>();
 		for (Set<WebDoc> eachSet : subqueriesResults) {
 			if (eachSet != null) {
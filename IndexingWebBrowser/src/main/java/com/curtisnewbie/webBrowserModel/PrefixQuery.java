@@ -0,0 +1,67 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Set;
+
+/**
+ * This class is used to handle the PrefixQuery, e.g., learn*, which matches all
+ * the words starting with "learn". Like AtomicQuery, it's the 'end' of the
+ * recursion.
+ * 
+ * @author Yongjie Zhuang
+ *
+ * @see TermDictionary#prefixMatches(String)
+ */
+public class PrefixQuery implements Query {
+
+	/**
+	 * The prefix of the words that are searched (without the trailing '*').
+	 */
+	private String prefix;
+
+	/**
+	 * Instantiate PrefixQuery
+	 * 
+	 * @param prefix the prefix of the words (without the trailing '*')
+	 */
+	public PrefixQuery(String prefix) {
+		this.prefix = prefix;
+	}
+
+	/**
+	 * Get the prefix of the words (without the trailing '*')
+	 *
+	 * @return the prefix of the words (without the trailing '*')
+	 */
+	String getPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * This method searches through the given WebIndex to find all the WebDoc that
+	 * contain a word starting with the prefix.
+	 * 
+	 * @return a Set of WebDoc that is found based on the query and the given
+	 *         WebIndex, or {@code NULL} if nothing matches.
+	 * @param wind the WebIndex that is being searched based on the query.
+	 */
+	@Override
+	public Set<WebDoc> matches(WebIndex wind) {
+		return wind.getPrefixMatches(prefix);
+	}
+
+	/**
+	 * <p>
+	 * This method returns a String that indicates the type of the query and the
+	 * prefix that is searched.
+	 * </p>
+	 * <p>
+	 * E.g., learn* -> PREFIX:[learn]
+	 * </p>
+	 * 
+	 * @return a string that indicates the type of this query as well as the prefix
+	 */
+	@Override
+	public String toString() {
+		return "PREFIX:[" + prefix + "]";
+	}
+}
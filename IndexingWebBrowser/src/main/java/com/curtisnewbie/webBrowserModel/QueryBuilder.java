@@ -3,10 +3,21 @@ package com.curtisnewbie.webBrowserModel;
 import java.util.Stack;
 import java.util.TreeSet;
 
+import com.curtisnewbie.analysis.Analyzers;
+import com.curtisnewbie.jfr.QueryParsedEvent;
+
 /**
  * It is a builder class that is responsible for building the objects of Query
- * (AndQuery, OrQuery, NotQuery, AtomicQuery). It can deal with both the prefix
- * form query and the infix form query.
+ * (AndQuery, OrQuery, NotQuery, AtomicQuery, PrefixQuery, WildcardQuery and
+ * FuzzyQuery). It can deal with both the prefix form query and the infix form
+ * query.
+ * <p>
+ * The words of an AndQuery or OrQuery that are dropped by the analyzers of all
+ * the fields (the stopwords, see {@link Analyzers#isStopword(String)}) are
+ * removed, e.g., "the and apple" is the same as "apple". The remaining words
+ * are analyzed by the WebIndex that is searched, see
+ * {@link WebIndex#analyzeWord(String)}.
+ * </p>
  * 
  * @author Yongjie Zhuang
  *
@@ -34,30 +45,74 @@ public class QueryBuilder {
 	 * @return a Query object
 	 */
 	public static Query parse(String q) {
+		QueryParsedEvent event = new QueryParsedEvent();
+		event.begin();
+		Query resultQuery = parsePrefixForm(q);
+		commit(event, q, "prefix", resultQuery);
+		return resultQuery;
+	}
+
+	/**
+	 * Parse the prefix form query, see {@link #parse(String)}
+	 */
+	private static Query parsePrefixForm(String q) {
 		String wholeQuery = q.toLowerCase();
 		wholeQuery = wholeQuery.replaceAll("\\s", "");
 		int len = wholeQuery.length();
 		Query resultQuery;
 
-		if (wholeQuery.startsWith("and") && len > 3 && !Character.isLetterOrDigit(wholeQuery.charAt(3))) {
+		if (wholeQuery.startsWith("and") && len > 3 && wholeQuery.charAt(3) == '(') {
 			// "and(" starting from 4
 			String subQueryInBracket = wholeQuery.substring(4, wholeQuery.length() - 1);
-			resultQuery = new AndQuery(parsePrefixSubQuery(subQueryInBracket));
-		} else if (wholeQuery.startsWith("not") && len > 3 && !Character.isLetterOrDigit(wholeQuery.charAt(3))) {
+			resultQuery = new AndQuery(removeStopwords(parsePrefixSubQuery(subQueryInBracket)));
+		} else if (wholeQuery.startsWith("not") && len > 3 && wholeQuery.charAt(3) == '(') {
 			// "not(" starting from 4
 			String notQuery = wholeQuery.substring(4, wholeQuery.length() - 1);
 			resultQuery = new NotQuery(notQuery);
-		} else if (wholeQuery.startsWith("or") && len > 2 && !Character.isLetterOrDigit(wholeQuery.charAt(2))) {
+		} else if (wholeQuery.startsWith("or") && len > 2 && wholeQuery.charAt(2) == '(') {
 			// "or(" starting from 3
 			String subQueryInBracket = wholeQuery.substring(3, wholeQuery.length() - 1);
-			resultQuery = new OrQuery(parsePrefixSubQuery(subQueryInBracket));
+			resultQuery = new OrQuery(removeStopwords(parsePrefixSubQuery(subQueryInBracket)));
 		} else {
-			resultQuery = new AtomicQuery(wholeQuery); // an atomic query (a simple word that will be searched. E.g,.
+			resultQuery = parseTermQuery(wholeQuery); // a query of a simple word that will be searched. E.g,.
 														// "apple", which doesn't start with any operator)
 		}
 		return resultQuery;
 	}
 
+	/**
+	 * <p>
+	 * This method is a helper method to support the {@link #parse(String)} method.
+	 * It creates the Query for a single word, which can be:
+	 * </p>
+	 * <ul>
+	 * <li>a PrefixQuery, e.g., "learn*"</li>
+	 * <li>a WildcardQuery, e.g., "l?arn*" or "*ing"</li>
+	 * <li>a FuzzyQuery, e.g., "lern~" or "lern~1"</li>
+	 * <li>an AtomicQuery, e.g., "learn"</li>
+	 * </ul>
+	 *
+	 * @param word a simple word, that may contain '*', '?' or '~'
+	 * @return a Query object
+	 */
+	private static Query parseTermQuery(String word) {
+		int tilde = word.lastIndexOf('~');
+		if (tilde > 0 && word.indexOf('*') < 0 && word.indexOf('?') < 0) {
+			String edits = word.substring(tilde + 1);
+			if (edits.isEmpty())
+				return new FuzzyQuery(word.substring(0, tilde), FuzzyQuery.DEFAULT_MAX_EDITS);
+			else if (edits.matches("\\d"))
+				return new FuzzyQuery(word.substring(0, tilde), Integer.parseInt(edits));
+		}
+		int star = word.indexOf('*');
+		if (star >= 0 || word.indexOf('?') >= 0) {
+			if (star == word.length() - 1 && star > 0 && word.indexOf('?') < 0)
+				return new PrefixQuery(word.substring(0, star));
+			return new WildcardQuery(word);
+		}
+		return new AtomicQuery(word);
+	}
+
 	/**
 	 * <p>
 	 * This method is a helper method to support the {@link #parse(String)} method.
@@ -95,6 +150,49 @@ public class QueryBuilder {
 		return subQuery;
 	}
 
+	/**
+	 * Remove the subqueries that are stopwords, unless all of them are, in which
+	 * case the query matches nothing.
+	 * 
+	 * @param subQueries subqueries of an AndQuery or OrQuery
+	 * @return the subqueries without the stopwords
+	 */
+	private static TreeSet<String> removeStopwords(TreeSet<String> subQueries) {
+		TreeSet<String> result = null;
+		for (String subQuery : subQueries) {
+			if (isWord(subQuery) && Analyzers.isStopword(subQuery)) {
+				if (result == null)
+					result = new TreeSet<>(subQueries);
+				result.remove(subQuery);
+			}
+		}
+		return result == null || result.isEmpty() ? subQueries : result;
+	}
+
+	/**
+	 * Check whether the (prefix form) subquery is a simple word, rather than a
+	 * nested query, or a prefix, wildcard or fuzzy word
+	 * 
+	 * @param q subquery
+	 * @return whether it's a simple word
+	 */
+	static boolean isWord(String q) {
+		for (int i = 0; i < q.length(); i++) {
+			switch (q.charAt(i)) {
+			case '(':
+			case ')':
+			case ',':
+			case '*':
+			case '?':
+			case '~':
+				return false;
+			default:
+				break;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * <p>
 	 * This method parse the infix form query into prefix form query, and returns an
@@ -110,12 +208,20 @@ public class QueryBuilder {
 	 * @return a Query object if successful, else {@code NULL}.
 	 */
 	public static Query parseInfixForm(String q) {
+		QueryParsedEvent event = new QueryParsedEvent();
+		event.begin();
 		String prefixQuery = convertToPrefix(q);
-		if (prefixQuery == null) {
-			return null;
-		} else {
-			return parse(prefixQuery);
-		}
+		Query resultQuery = prefixQuery == null ? null : parsePrefixForm(prefixQuery);
+		commit(event, q, "infix", resultQuery);
+		return resultQuery;
+	}
+
+	/**
+	 * Commit the JFR event of the parsing, if it's enabled
+	 */
+	private static void commit(QueryParsedEvent event, String q, String form, Query resultQuery) {
+		if (event.shouldCommit())
+			event.commit(q, form, resultQuery == null ? null : resultQuery.getClass().getSimpleName());
 	}
 
 	/**
@@ -162,7 +268,7 @@ public class QueryBuilder {
 		if (!query.contains(" ") && !query.equals("and") && !query.equals("or") && !query.equals("not")) {
 			// AtomicQuery
 			return query;
-		} else if (query.matches("(not\\s?\\(.+\\))|(not\\s[A-Z-a-z]*)")) {
+		} else if (query.matches("(not\\s?\\(.+\\))|(not\\s[^\\s()]*)")) {
 			// NotQuery e.g., "not( ..nested subqueries... )" or "not apple".
 			return convertNotInfixString(query.substring(3));
 		} else {
@@ -0,0 +1,243 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <p>
+ * This class is responsible for evaluating the subqueries of the AndQuery and
+ * OrQuery. By default, the subqueries are evaluated one by one in the calling
+ * thread. When the parallel mode is enabled, and the estimated cost of
+ * evaluating the subqueries is above the cost threshold, each subquery is
+ * forked onto a {@code ForkJoinPool}.
+ * </p>
+ * <p>
+ * The results are always returned in the same order as the given subqueries,
+ * so the combination of them (done by AndQuery or OrQuery) is deterministic
+ * regardless of the mode.
+ * </p>
+ * <p>
+ * When the query is profiled (see {@link QueryProfile}), the subqueries are
+ * always evaluated sequentially.
+ * </p>
+ * <p>
+ * The evaluation is cancelled when the calling thread is interrupted, the
+ * forked subqueries check the interrupt status of the calling thread (rather
+ * than the worker threads), so the cancellation also works in parallel mode.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see AndQuery
+ * @see OrQuery
+ */
+public class QueryEvaluator {
+
+	/**
+	 * Default cost threshold, below which the subqueries are always evaluated
+	 * sequentially.
+	 */
+	public static final long DEFAULT_COST_THRESHOLD = 10_000;
+
+	/**
+	 * Pool used to evaluate subqueries in parallel, it's {@code NULL} when the
+	 * parallel mode is disabled.
+	 */
+	private static volatile ForkJoinPool pool;
+
+	/**
+	 * Estimated cost above which the subqueries are evaluated in parallel.
+	 */
+	private static volatile long costThreshold = DEFAULT_COST_THRESHOLD;
+
+	/**
+	 * Thread that evaluates the whole query, it's set in the worker threads while
+	 * they evaluate the forked subqueries of it.
+	 */
+	private static final ThreadLocal<Thread> CALLER = new ThreadLocal<>();
+
+	private QueryEvaluator() {
+	}
+
+	/**
+	 * Enable the parallel mode with the given level of parallelism. If the parallel
+	 * mode is already enabled, the previous pool is replaced, it's shut down once
+	 * the evaluations that are running in it are finished, and the evaluations
+	 * that are about to use it fall back to the sequential mode.
+	 *
+	 * @param parallelism number of worker threads, it should be greater than 1.
+	 * @throws IllegalArgumentException when the parallelism is less than 2
+	 */
+	public static synchronized void enableParallelism(int parallelism) throws IllegalArgumentException {
+		if (parallelism < 2)
+			throw new IllegalArgumentException("Parallelism should be greater than 1, use disableParallelism() instead");
+		ForkJoinPool prev = pool;
+		pool = new ForkJoinPool(parallelism);
+		if (prev != null)
+			prev.shutdown();
+	}
+
+	/**
+	 * Disable the parallel mode, all the subqueries will then be evaluated
+	 * sequentially in the calling thread. The evaluations that are running in the
+	 * pool are not affected.
+	 */
+	public static synchronized void disableParallelism() {
+		ForkJoinPool prev = pool;
+		pool = null;
+		if (prev != null)
+			prev.shutdown();
+	}
+
+	/**
+	 * Check whether the parallel mode is enabled.
+	 *
+	 * @return whether the parallel mode is enabled
+	 */
+	public static boolean isParallel() {
+		return pool != null;
+	}
+
+	/**
+	 * Set the cost threshold, above which the subqueries are evaluated in parallel.
+	 *
+	 * @param threshold estimated cost (number of subqueries multiplied by the
+	 *                  number of WebDoc in the index)
+	 */
+	public static void setCostThreshold(long threshold) {
+		costThreshold = threshold;
+	}
+
+	/**
+	 * Get the cost threshold
+	 *
+	 * @return cost threshold
+	 */
+	public static long getCostThreshold() {
+		return costThreshold;
+	}
+
+	/**
+	 * Parse and evaluate each of the given subqueries against the WebIndex. The
+	 * results are in the same order as the iteration order of the given subqueries,
+	 * and a result can be {@code NULL} if nothing matches.
+	 *
+	 * @param subQueries collection of subqueries (not yet parsed)
+	 * @param wind       the WebIndex that is used to search through
+	 * @return a List of results for each subquery
+	 * @throws CancellationException when the calling thread is interrupted, i.e.,
+	 *                               the evaluation is cancelled
+	 */
+	static List<Set<WebDoc>> evaluateAll(Collection<String> subQueries, WebIndex wind) {
+		ForkJoinPool currPool = pool;
+		if (currPool == null || subQueries.size() < 2 || QueryProfile.isProfiling()
+				|| estimateCost(subQueries, wind) < costThreshold)
+			return evaluateSequentially(subQueries, wind);
+
+		checkCancelled();
+		Thread caller = CALLER.get();
+		List<SubQueryTask> tasks = new ArrayList<>(subQueries.size());
+		for (String eachQuery : subQueries) {
+			tasks.add(new SubQueryTask(eachQuery, wind, caller == null ? Thread.currentThread() : caller));
+		}
+		if (ForkJoinTask.getPool() == currPool) {
+			// nested subqueries, already running in the pool
+			ForkJoinTask.invokeAll(tasks);
+		} else {
+			try {
+				currPool.invoke(new RecursiveTask<Void>() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					protected Void compute() {
+						invokeAll(tasks);
+						return null;
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				// the pool is replaced or disabled in the meantime
+				return evaluateSequentially(subQueries, wind);
+			} catch (CancellationException e) {
+				// cancelled by a worker thread, the interrupt status is cleared
+				Thread.interrupted();
+				throw e;
+			}
+		}
+		List<Set<WebDoc>> results = new ArrayList<>(subQueries.size());
+		for (SubQueryTask task : tasks) {
+			results.add(task.join());
+		}
+		return results;
+	}
+
+	private static List<Set<WebDoc>> evaluateSequentially(Collection<String> subQueries, WebIndex wind) {
+		List<Set<WebDoc>> results = new ArrayList<>(subQueries.size());
+		for (String eachQuery : subQueries) {
+			checkCancelled();
+			results.add(QueryProfile.evaluate(QueryBuilder.parse(eachQuery), wind));
+		}
+		return results;
+	}
+
+	/**
+	 * Check whether the evaluation is cancelled, i.e., the calling thread is
+	 * interrupted. The interrupt status is cleared, unless it's checked in a worker
+	 * thread on behalf of the calling thread.
+	 *
+	 * @throws CancellationException when the evaluation is cancelled
+	 */
+	private static void checkCancelled() throws CancellationException {
+		Thread caller = CALLER.get();
+		if (caller == null ? Thread.interrupted() : caller.isInterrupted())
+			throw new CancellationException("Query evaluation is cancelled");
+	}
+
+	/**
+	 * Estimate the cost of evaluating the subqueries, it's simply the number of
+	 * subqueries multiplied by the number of WebDoc in the index.
+	 */
+	private static long estimateCost(Collection<String> subQueries, WebIndex wind) {
+		return (long) subQueries.size() * wind.getNumOfDocs();
+	}
+
+	/**
+	 * Task that parses and evaluates a single subquery
+	 */
+	private static class SubQueryTask extends RecursiveTask<Set<WebDoc>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String query;
+		private final WebIndex wind;
+		private final Thread caller;
+
+		SubQueryTask(String query, WebIndex wind, Thread caller) {
+			this.query = query;
+			this.wind = wind;
+			this.caller = caller;
+		}
+
+		@Override
+		protected Set<WebDoc> compute() {
+			// a worker may run the task while it's joining another one
+			Thread prev = CALLER.get();
+			CALLER.set(caller);
+			try {
+				checkCancelled();
+				return QueryProfile.evaluate(QueryBuilder.parse(query), wind);
+			} finally {
+				if (prev == null)
+					CALLER.remove();
+				else
+					CALLER.set(prev);
+			}
+		}
+	}
+}
@@ -0,0 +1,269 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.curtisnewbie.jfr.QueryEvaluatedEvent;
+
+/**
+ * <p>
+ * Profile of a node of the query tree that is evaluated, it records the wall
+ * time, the bytes allocated (by the evaluating thread) and the input and output
+ * cardinalities of the node, and the profiles of its subqueries. The time and
+ * the allocations of a node include those of its subqueries.
+ * </p>
+ * <p>
+ * The input of a word (AtomicQuery, PrefixQuery, WildcardQuery or FuzzyQuery)
+ * is the number of (word, WebDoc) pairs read from the index, the input of an
+ * AndQuery or OrQuery is the sum of the outputs of its subqueries, and the
+ * input of a NotQuery is the number of live WebDoc plus the output of its
+ * subquery. The output is the number of WebDoc that match.
+ * </p>
+ * <p>
+ * A query is profiled when it's evaluated through
+ * {@link #profile(String, Query, WebIndex)}, the subqueries are then evaluated
+ * sequentially in the calling thread, so that the time and allocations are
+ * attributed to each node.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see IndexingEngine#explain(String, boolean)
+ */
+public class QueryProfile {
+
+	/** Profile of the node being evaluated by the current thread */
+	private static final ThreadLocal<QueryProfile> CURRENT = new ThreadLocal<>();
+
+	/** Used to measure the allocations, it's {@code NULL} if it's not supported */
+	private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+	private final String description;
+	private final List<QueryProfile> children;
+	private long timeNanos;
+	private long allocatedBytes = -1;
+	private long inputSize;
+	private int outputSize;
+
+	/**
+	 * Instantiate QueryProfile
+	 *
+	 * @param description description of the node, e.g., "ATOMIC:[apple]"
+	 */
+	public QueryProfile(String description) {
+		this.description = description;
+		this.children = new ArrayList<>();
+	}
+
+	/**
+	 * Evaluate the query against the WebIndex, and profile it and all of its
+	 * subqueries
+	 *
+	 * @param label label prepended to the description of the query, e.g., "HEAD"
+	 * @param query Query
+	 * @param wind  WebIndex
+	 * @return the profile, the results of the query are not kept
+	 */
+	public static QueryProfile profile(String label, Query query, WebIndex wind) {
+		QueryProfile parent = CURRENT.get();
+		QueryProfile holder = new QueryProfile(label);
+		CURRENT.set(holder);
+		try {
+			evaluate(label + " " + query, query, wind);
+		} finally {
+			CURRENT.set(parent);
+		}
+		return holder.children.get(0);
+	}
+
+	/**
+	 * Add the profile as a child, its time, allocations and cardinalities are
+	 * added to this one, e.g., for the profiles of the head and the body
+	 *
+	 * @param child QueryProfile
+	 */
+	void add(QueryProfile child) {
+		children.add(child);
+		timeNanos += child.timeNanos;
+		if (child.allocatedBytes >= 0)
+			allocatedBytes = Math.max(allocatedBytes, 0) + child.allocatedBytes;
+		inputSize += child.inputSize;
+		outputSize += child.outputSize;
+	}
+
+	/**
+	 * Check whether a query is being profiled by the calling thread
+	 *
+	 * @return whether it's profiling
+	 */
+	static boolean isProfiling() {
+		return CURRENT.get() != null;
+	}
+
+	/**
+	 * Evaluate the query against the WebIndex, it's profiled as a child of the
+	 * current node if a query is being profiled by the calling thread. A
+	 * {@link QueryEvaluatedEvent} is recorded if it's enabled in JFR.
+	 *
+	 * @param query Query
+	 * @param wind  WebIndex
+	 * @return the results of the query
+	 */
+	static Set<WebDoc> evaluate(Query query, WebIndex wind) {
+		QueryEvaluatedEvent event = new QueryEvaluatedEvent();
+		event.begin();
+		Set<WebDoc> result = CURRENT.get() == null ? query.matches(wind) : evaluate(query.toString(), query, wind);
+		if (event.shouldCommit())
+			event.commit(query.toString(), wind instanceof WebIndexForHead ? "head" : "body",
+					result == null ? 0 : result.size(), wind.getNumOfDocs());
+		return result;
+	}
+
+	private static Set<WebDoc> evaluate(String description, Query query, WebIndex wind) {
+		QueryProfile parent = CURRENT.get();
+		QueryProfile node = new QueryProfile(description);
+		parent.children.add(node);
+		CURRENT.set(node);
+		long allocatedBefore = allocatedBytes();
+		long start = System.nanoTime();
+		Set<WebDoc> result;
+		try {
+			result = query.matches(wind);
+		} finally {
+			node.timeNanos = System.nanoTime() - start;
+			long allocatedAfter = allocatedBytes();
+			if (allocatedBefore >= 0 && allocatedAfter >= 0)
+				node.allocatedBytes = allocatedAfter - allocatedBefore;
+			CURRENT.set(parent);
+		}
+		// the result of a subquery may be modified by its parent, so it's counted now
+		node.outputSize = result == null ? 0 : result.size();
+		if (query instanceof NotQuery)
+			node.inputSize += wind.getNumOfDocs();
+		for (QueryProfile child : node.children)
+			node.inputSize += child.outputSize;
+		return result;
+	}
+
+	/**
+	 * Add the number of (word, WebDoc) pairs read from the index to the node being
+	 * profiled, it does nothing if nothing is profiled.
+	 *
+	 * @param size number of pairs
+	 */
+	static void recordInput(int size) {
+		QueryProfile node = CURRENT.get();
+		if (node != null)
+			node.inputSize += size;
+	}
+
+	private static long allocatedBytes() {
+		return ALLOCATION_BEAN == null ? -1 : ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+				if (allocationBean.isThreadAllocatedMemorySupported()) {
+					allocationBean.setThreadAllocatedMemoryEnabled(true);
+					return allocationBean;
+				}
+			}
+		} catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+			// not a HotSpot JVM, the allocations are not measured
+		}
+		return null;
+	}
+
+	/**
+	 * Get the description of the node, i.e., the type of the query and the word
+	 * or the subqueries
+	 *
+	 * @return description
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Get the profiles of the subqueries, in the order of evaluation
+	 *
+	 * @return a List of QueryProfile
+	 */
+	public List<QueryProfile> getChildren() {
+		return Collections.unmodifiableList(children);
+	}
+
+	/**
+	 * Get the wall time of the evaluation, including the subqueries
+	 *
+	 * @return time in nanoseconds
+	 */
+	public long getTimeNanos() {
+		return timeNanos;
+	}
+
+	/**
+	 * Get the bytes allocated by the evaluation, including the subqueries
+	 *
+	 * @return bytes, or -1 if it's not supported by the JVM
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Get the input cardinality
+	 *
+	 * @return input cardinality
+	 */
+	public long getInputSize() {
+		return inputSize;
+	}
+
+	/**
+	 * Get the output cardinality, i.e., number of WebDoc that match
+	 *
+	 * @return output cardinality
+	 */
+	public int getOutputSize() {
+		return outputSize;
+	}
+
+	/**
+	 * Get the tree of the profiles, one node per line, the subqueries are
+	 * indented, e.g.,
+	 *
+	 * <pre>
+	 * HEAD AND([apple],[or(b,c)])  time=0.120 ms, alloc=2.1 KB, in=7, out=1
+	 *   ATOMIC:[apple]  time=0.010 ms, alloc=0.3 KB, in=5, out=5
+	 *   OR([b],[c])  time=0.080 ms, alloc=1.2 KB, in=2, out=2
+	 * </pre>
+	 *
+	 * @return tree of the profiles
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		appendTo(sb, 0);
+		return sb.toString();
+	}
+
+	private void appendTo(StringBuilder sb, int depth) {
+		for (int i = 0; i < depth; i++)
+			sb.append("  ");
+		sb.append(description).append("  time=").append(String.format(Locale.ROOT, "%.3f ms", timeNanos / 1e6));
+		if (allocatedBytes >= 0)
+			sb.append(", alloc=").append(String.format(Locale.ROOT, "%.1f KB", allocatedBytes / 1024.0));
+		sb.append(", in=").append(inputSize).append(", out=").append(outputSize).append('\n');
+		for (QueryProfile child : children)
+			child.appendTo(sb, depth + 1);
+	}
+}
@@ -0,0 +1,168 @@
+package com.curtisnewbie.webBrowserModel;
+
+/**
+ * <p>
+ * Filters and order of the results of a query, they are evaluated against the
+ * {@link DocValues} rather than the WebDoc. By default, nothing is filtered out,
+ * and the results are sorted by their urls.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see IndexingEngine#search(String, boolean, SearchOptions)
+ */
+public class SearchOptions {
+
+	/**
+	 * Column that the results are sorted by
+	 */
+	public enum SortBy {
+		URL, NUM_OF_WORDS, INDEXED_TIME, CONTENT_LENGTH
+	}
+
+	private WebDoc.FileType fileType;
+	private long indexedAfter = Long.MIN_VALUE;
+	private int minWords;
+	private String host;
+	private SortBy sortBy = SortBy.URL;
+	private boolean descending;
+	private int limit = Integer.MAX_VALUE;
+
+	/**
+	 * Check whether these are the default options, i.e., nothing is filtered out,
+	 * and the results are sorted by their urls
+	 *
+	 * @return whether these are the default options
+	 */
+	public boolean isDefault() {
+		return fileType == null && indexedAfter == Long.MIN_VALUE && minWords <= 0 && host == null
+				&& sortBy == SortBy.URL && !descending && limit == Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Get the FileType of the results
+	 *
+	 * @return FileType, or {@code NULL} for any
+	 */
+	public WebDoc.FileType getFileType() {
+		return fileType;
+	}
+
+	/**
+	 * Only the results of the FileType, e.g., only the local files
+	 *
+	 * @param fileType FileType, or {@code NULL} for any
+	 */
+	public void setFileType(WebDoc.FileType fileType) {
+		this.fileType = fileType;
+	}
+
+	/**
+	 * Get the min time when the results are indexed
+	 *
+	 * @return milliseconds since epoch
+	 */
+	public long getIndexedAfter() {
+		return indexedAfter;
+	}
+
+	/**
+	 * Only the results indexed at or after the time, e.g., those indexed in the
+	 * last day
+	 *
+	 * @param indexedAfter milliseconds since epoch
+	 */
+	public void setIndexedAfter(long indexedAfter) {
+		this.indexedAfter = indexedAfter;
+	}
+
+	/**
+	 * Get the min number of words of the results
+	 *
+	 * @return min number of words
+	 */
+	public int getMinWords() {
+		return minWords;
+	}
+
+	/**
+	 * Only the results with at least the number of words
+	 *
+	 * @param minWords min number of words
+	 */
+	public void setMinWords(int minWords) {
+		this.minWords = minWords;
+	}
+
+	/**
+	 * Get the host of the results
+	 *
+	 * @return host, or {@code NULL} for any
+	 */
+	public String getHost() {
+		return host;
+	}
+
+	/**
+	 * Only the results of the host
+	 *
+	 * @param host host, or {@code NULL} for any
+	 */
+	public void setHost(String host) {
+		this.host = host;
+	}
+
+	/**
+	 * Get the column that the results are sorted by
+	 *
+	 * @return SortBy
+	 */
+	public SortBy getSortBy() {
+		return sortBy;
+	}
+
+	/**
+	 * Sort the results by the column, the ties are broken by the urls
+	 *
+	 * @param sortBy SortBy
+	 */
+	public void setSortBy(SortBy sortBy) {
+		this.sortBy = sortBy;
+	}
+
+	/**
+	 * Check whether the results are in descending order
+	 *
+	 * @return whether it's descending
+	 */
+	public boolean isDescending() {
+		return descending;
+	}
+
+	/**
+	 * Sort the results in descending order
+	 *
+	 * @param descending whether it's descending
+	 */
+	public void setDescending(boolean descending) {
+		this.descending = descending;
+	}
+
+	/**
+	 * Get the max number of results (in each of head and body)
+	 *
+	 * @return max number of results
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Keep at most the number of results (in each of head and body)
+	 *
+	 * @param limit max number of results
+	 */
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+}
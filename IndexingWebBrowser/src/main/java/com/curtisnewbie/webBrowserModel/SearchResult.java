@@ -0,0 +1,47 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * The results of a query, it consists of the WebDoc found in the head and the
+ * body sections respectively.
+ * 
+ * @author Yongjie Zhuang
+ * 
+ * @see IndexingEngine#search(String, boolean)
+ */
+public class SearchResult {
+
+	private final Collection<WebDoc> headResults;
+	private final Collection<WebDoc> bodyResults;
+
+	/**
+	 * Instantiate SearchResult
+	 * 
+	 * @param headResults WebDoc found in the head section, it can be {@code NULL}
+	 * @param bodyResults WebDoc found in the body section, it can be {@code NULL}
+	 */
+	public SearchResult(Collection<WebDoc> headResults, Collection<WebDoc> bodyResults) {
+		this.headResults = headResults == null ? Collections.emptySet() : headResults;
+		this.bodyResults = bodyResults == null ? Collections.emptySet() : bodyResults;
+	}
+
+	/**
+	 * Get the WebDoc found in the head section
+	 * 
+	 * @return a Collection of WebDoc, it's never {@code NULL}
+	 */
+	public Collection<WebDoc> getHeadResults() {
+		return headResults;
+	}
+
+	/**
+	 * Get the WebDoc found in the body section
+	 * 
+	 * @return a Collection of WebDoc, it's never {@code NULL}
+	 */
+	public Collection<WebDoc> getBodyResults() {
+		return bodyResults;
+	}
+}
@@ -0,0 +1,95 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Set;
+
+/**
+ * <p>
+ * SimHash fingerprint of a WebDoc, computed from the words that the WebDoc has
+ * extracted. Each word is hashed into 64 bits, and each bit of the fingerprint
+ * is set if the (weighted) majority of the words have that bit set. Similar
+ * webpages thus have fingerprints that differ in only a few bits, e.g., a print
+ * view of a page usually has a Hamming distance of 0 to 3 to the page itself.
+ * </p>
+ * <p>
+ * The words in head are weighted more than the words in body, as the titles of
+ * the near-duplicate pages are almost always the same.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see FingerprintIndex
+ */
+public final class SimHash {
+
+	/** Weight of each word in head */
+	static final int HEAD_WEIGHT = 2;
+
+	/** Weight of each word in body */
+	static final int BODY_WEIGHT = 1;
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private SimHash() {
+	}
+
+	/**
+	 * Compute the fingerprint of the WebDoc
+	 *
+	 * @param doc WebDoc
+	 * @return 64-bit fingerprint
+	 */
+	public static long fingerprint(WebDoc doc) {
+		int[] weights = new int[64];
+		addWords(weights, doc.getHeadWords(), HEAD_WEIGHT);
+		addWords(weights, doc.getBodyWords(), BODY_WEIGHT);
+		long fingerprint = 0;
+		for (int i = 0; i < 64; i++) {
+			if (weights[i] > 0)
+				fingerprint |= 1L << i;
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Get the Hamming distance between the two fingerprints, i.e., the number of
+	 * bits that are different
+	 *
+	 * @param a fingerprint
+	 * @param b fingerprint
+	 * @return Hamming distance between 0 and 64
+	 */
+	public static int distance(long a, long b) {
+		return Long.bitCount(a ^ b);
+	}
+
+	private static void addWords(int[] weights, Set<String> words, int weight) {
+		for (String word : words) {
+			long hash = hash(word);
+			for (int i = 0; i < 64; i++) {
+				if ((hash & (1L << i)) != 0)
+					weights[i] += weight;
+				else
+					weights[i] -= weight;
+			}
+		}
+	}
+
+	/**
+	 * 64-bit hash of the word, FNV-1a followed by the finalizer of MurmurHash3,
+	 * so that the bits are evenly distributed even for short words
+	 */
+	static long hash(String word) {
+		long h = FNV_OFFSET_BASIS;
+		for (int i = 0; i < word.length(); i++) {
+			h ^= word.charAt(i);
+			h *= FNV_PRIME;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
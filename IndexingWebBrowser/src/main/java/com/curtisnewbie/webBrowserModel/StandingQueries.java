@@ -0,0 +1,411 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.curtisnewbie.analysis.Analyzers;
+
+/**
+ * <p>
+ * Standing queries, i.e., the queries that are registered once, and then
+ * matched against each WebDoc that is newly indexed (a percolator). The matches
+ * are pushed to the listener of the query.
+ * </p>
+ * <p>
+ * The queries themselves are indexed by the words (or the prefixes of the
+ * words) that a WebDoc must contain to match them, e.g., "apple and banana" is
+ * indexed by "apple" (one of the words is enough), and "or(pear,plum*)" by
+ * "pear" and the prefix "plum". For each WebDoc, only the queries found by its
+ * words are checked, so the cost of a WebDoc doesn't depend on the number of
+ * the registered queries. The queries that can match a WebDoc without any
+ * particular word, e.g., "not(apple)", "*ing" or the fuzzy queries, are checked
+ * against every WebDoc. The words are analyzed with the analyzers of the
+ * fields, so they are looked up as they are indexed.
+ * </p>
+ * <p>
+ * A candidate query is checked by evaluating it against the web indices that
+ * only contain the WebDoc. It's thread-safe, and the listeners are called
+ * without holding any lock.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see IndexingEngine#getStandingQueries()
+ */
+public class StandingQueries {
+
+	/**
+	 * Listener of the matches of a standing query
+	 */
+	public interface MatchListener {
+
+		/**
+		 * Called when a newly indexed WebDoc matches the standing query
+		 *
+		 * @param query  the standing query
+		 * @param doc    WebDoc that matches
+		 * @param inHead whether it matches the words in head
+		 * @param inBody whether it matches the words in body
+		 */
+		void onMatch(StandingQuery query, WebDoc doc, boolean inHead, boolean inBody);
+	}
+
+	/**
+	 * A registered standing query
+	 */
+	public static final class StandingQuery {
+
+		private final int id;
+		private final String query;
+		private final Query parsedQuery;
+		private final MatchListener listener;
+		private final Set<String> words;
+		private final Set<String> prefixes;
+
+		private StandingQuery(int id, String query, Query parsedQuery, MatchListener listener, Keys keys) {
+			this.id = id;
+			this.query = query;
+			this.parsedQuery = parsedQuery;
+			this.listener = listener;
+			this.words = keys == null ? null : keys.words;
+			this.prefixes = keys == null ? null : keys.prefixes;
+		}
+
+		/**
+		 * Get the id of the standing query
+		 *
+		 * @return id
+		 */
+		public int getId() {
+			return id;
+		}
+
+		/**
+		 * Get the query as it's registered
+		 *
+		 * @return query
+		 */
+		public String getQuery() {
+			return query;
+		}
+
+		@Override
+		public String toString() {
+			return query;
+		}
+	}
+
+	/**
+	 * Words and prefixes of which a WebDoc must contain at least one to match a
+	 * query
+	 */
+	private static final class Keys {
+		private final Set<String> words = new HashSet<>();
+		private final Set<String> prefixes = new HashSet<>();
+
+		private int size() {
+			return words.size() + prefixes.size();
+		}
+	}
+
+	/** Standing queries by the words */
+	private final Map<String, List<StandingQuery>> queriesByWord;
+
+	/** Standing queries by the prefixes of the words */
+	private final Map<String, List<StandingQuery>> queriesByPrefix;
+
+	/** Length of the longest prefix in queriesByPrefix */
+	private int maxPrefixLength;
+
+	/** Standing queries that are checked against every WebDoc */
+	private final Set<StandingQuery> unindexedQueries;
+
+	/** All the standing queries by id */
+	private final Map<Integer, StandingQuery> queries;
+
+	private int nextId;
+
+	/** Number of the candidate queries checked */
+	private final AtomicLong numOfChecks;
+
+	/** Number of the matches */
+	private final AtomicLong numOfMatches;
+
+	private final ReadWriteLock lock;
+
+	public StandingQueries() {
+		this.queriesByWord = new HashMap<>();
+		this.queriesByPrefix = new HashMap<>();
+		this.unindexedQueries = new LinkedHashSet<>();
+		this.queries = new HashMap<>();
+		this.numOfChecks = new AtomicLong();
+		this.numOfMatches = new AtomicLong();
+		this.lock = new ReentrantReadWriteLock();
+	}
+
+	/**
+	 * Register a standing query
+	 *
+	 * @param query    an infix or prefix query
+	 * @param isInfix  whether it's an infix query
+	 * @param listener listener of the matches
+	 * @return the registered StandingQuery
+	 * @throws IllegalArgumentException if the query is ill-formed
+	 */
+	public StandingQuery register(String query, boolean isInfix, MatchListener listener)
+			throws IllegalArgumentException {
+		if (query == null || query.trim().isEmpty() || listener == null)
+			throw new IllegalArgumentException("Query and listener must not be null or empty");
+		Query parsedQuery;
+		Keys keys;
+		try {
+			parsedQuery = isInfix ? QueryBuilder.parseInfixForm(query) : QueryBuilder.parse(query);
+			keys = parsedQuery == null ? null : keysOf(parsedQuery);
+		} catch (IndexOutOfBoundsException e) {
+			parsedQuery = null;
+			keys = null;
+		}
+		if (parsedQuery == null)
+			throw new IllegalArgumentException("Ill-formed query: " + query);
+
+		lock.writeLock().lock();
+		try {
+			StandingQuery standingQuery = new StandingQuery(nextId++, query, parsedQuery, listener, keys);
+			queries.put(standingQuery.id, standingQuery);
+			if (keys == null) {
+				unindexedQueries.add(standingQuery);
+			} else {
+				for (String word : keys.words)
+					queriesByWord.computeIfAbsent(word, k -> new ArrayList<>(1)).add(standingQuery);
+				for (String prefix : keys.prefixes) {
+					queriesByPrefix.computeIfAbsent(prefix, k -> new ArrayList<>(1)).add(standingQuery);
+					maxPrefixLength = Math.max(maxPrefixLength, prefix.length());
+				}
+			}
+			return standingQuery;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Unregister the standing query
+	 *
+	 * @param id id of the standing query
+	 * @return whether it was registered
+	 */
+	public boolean unregister(int id) {
+		lock.writeLock().lock();
+		try {
+			StandingQuery standingQuery = queries.remove(id);
+			if (standingQuery == null)
+				return false;
+			if (standingQuery.words == null) {
+				unindexedQueries.remove(standingQuery);
+			} else {
+				removeFrom(queriesByWord, standingQuery.words, standingQuery);
+				removeFrom(queriesByPrefix, standingQuery.prefixes, standingQuery);
+			}
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private static void removeFrom(Map<String, List<StandingQuery>> map, Set<String> keys,
+			StandingQuery standingQuery) {
+		for (String key : keys) {
+			List<StandingQuery> list = map.get(key);
+			list.remove(standingQuery);
+			if (list.isEmpty())
+				map.remove(key);
+		}
+	}
+
+	/**
+	 * Get all the registered standing queries
+	 *
+	 * @return a List of StandingQuery in the order of registration
+	 */
+	public List<StandingQuery> getAll() {
+		lock.readLock().lock();
+		try {
+			List<StandingQuery> all = new ArrayList<>(queries.values());
+			all.sort((a, b) -> Integer.compare(a.id, b.id));
+			return all;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the number of the registered standing queries
+	 *
+	 * @return number of standing queries
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return queries.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Get the number of the candidate queries that have been checked against the
+	 * WebDoc
+	 *
+	 * @return number of checks
+	 */
+	public long getNumOfChecks() {
+		return numOfChecks.get();
+	}
+
+	/**
+	 * Get the number of the matches pushed to the listeners
+	 *
+	 * @return number of matches
+	 */
+	public long getNumOfMatches() {
+		return numOfMatches.get();
+	}
+
+	/**
+	 * Match the WebDoc against the standing queries, the listener of each query
+	 * that matches is called in the caller thread.
+	 *
+	 * @param doc WebDoc that is newly indexed
+	 * @return number of the standing queries that match
+	 */
+	public int percolate(WebDoc doc) {
+		Collection<StandingQuery> candidates = candidatesOf(doc);
+		if (candidates.isEmpty())
+			return 0;
+		numOfChecks.addAndGet(candidates.size());
+
+		// indices that only contain the WebDoc
+		WebIndex headIndex = new WebIndexForHead();
+		WebIndex bodyIndex = new WebIndexForBody();
+		headIndex.add(doc);
+		bodyIndex.add(doc);
+		int matched = 0;
+		for (StandingQuery candidate : candidates) {
+			boolean inHead = matches(candidate.parsedQuery, headIndex);
+			boolean inBody = matches(candidate.parsedQuery, bodyIndex);
+			if (!inHead && !inBody)
+				continue;
+			matched++;
+			numOfMatches.incrementAndGet();
+			try {
+				candidate.listener.onMatch(candidate, doc, inHead, inBody);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+		return matched;
+	}
+
+	private static boolean matches(Query query, WebIndex index) {
+		Set<WebDoc> result = query.matches(index);
+		return result != null && !result.isEmpty();
+	}
+
+	/**
+	 * Find the standing queries that may match the WebDoc by its words
+	 */
+	private Collection<StandingQuery> candidatesOf(WebDoc doc) {
+		lock.readLock().lock();
+		try {
+			if (queries.isEmpty())
+				return List.of();
+			Set<StandingQuery> candidates = new LinkedHashSet<>(unindexedQueries);
+			addCandidates(candidates, doc.getHeadWords());
+			addCandidates(candidates, doc.getBodyWords());
+			return candidates;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void addCandidates(Set<StandingQuery> candidates, Set<String> words) {
+		for (String word : words) {
+			List<StandingQuery> list = queriesByWord.get(word);
+			if (list != null)
+				candidates.addAll(list);
+			if (queriesByPrefix.isEmpty())
+				continue;
+			for (int len = Math.min(word.length(), maxPrefixLength); len > 0; len--) {
+				list = queriesByPrefix.get(word.substring(0, len));
+				if (list != null)
+					candidates.addAll(list);
+			}
+		}
+	}
+
+	/**
+	 * Get the words and prefixes of which a WebDoc must contain at least one to
+	 * match the query
+	 *
+	 * @param query Query
+	 * @return Keys, or {@code NULL} if the query may match a WebDoc without any
+	 *         particular word
+	 */
+	private static Keys keysOf(Query query) {
+		Keys keys;
+		if (query instanceof AtomicQuery) {
+			String word = ((AtomicQuery) query).getWord();
+			keys = new Keys();
+			// a WebDoc must contain all the words that it's analyzed into, one is enough
+			addFirst(keys.words, Analyzers.getHead().analyzeWord(word));
+			addFirst(keys.words, Analyzers.getBody().analyzeWord(word));
+		} else if (query instanceof PrefixQuery) {
+			keys = new Keys();
+			keys.prefixes.add(((PrefixQuery) query).getPrefix());
+		} else if (query instanceof WildcardQuery) {
+			String pattern = ((WildcardQuery) query).getPattern();
+			int end = 0;
+			while (end < pattern.length() && pattern.charAt(end) != '*' && pattern.charAt(end) != '?')
+				end++;
+			if (end == 0)
+				return null;
+			keys = new Keys();
+			keys.prefixes.add(pattern.substring(0, end));
+		} else if (query instanceof AndQuery) {
+			// any of the subqueries is enough, the most selective one is picked
+			keys = null;
+			for (String subQuery : ((AndQuery) query).getSubQueries()) {
+				Keys subKeys = keysOf(QueryBuilder.parse(subQuery));
+				if (subKeys != null && (keys == null || subKeys.size() < keys.size()))
+					keys = subKeys;
+			}
+		} else if (query instanceof OrQuery) {
+			keys = new Keys();
+			for (String subQuery : ((OrQuery) query).getSubQueries()) {
+				Keys subKeys = keysOf(QueryBuilder.parse(subQuery));
+				if (subKeys == null)
+					return null;
+				keys.words.addAll(subKeys.words);
+				keys.prefixes.addAll(subKeys.prefixes);
+			}
+		} else {
+			// NotQuery and FuzzyQuery
+			keys = null;
+		}
+		return keys;
+	}
+
+	private static void addFirst(Set<String> words, List<String> terms) {
+		if (!terms.isEmpty())
+			words.add(terms.get(0));
+	}
+}
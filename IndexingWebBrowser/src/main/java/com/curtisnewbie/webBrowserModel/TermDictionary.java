@@ -0,0 +1,348 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * A sorted dictionary of the terms (words) in a WebIndex. It's a trie where the
+ * children of each node are kept sorted by their labels, so the terms are
+ * always enumerated in alphabetical order and the shared prefixes are only
+ * stored once.
+ * </p>
+ * <p>
+ * It's used alongside the postings (the map in WebIndex) to find the terms that
+ * match a prefix ({@code learn*}), a wildcard pattern ({@code l?arn*}) or that
+ * are within a Levenshtein distance of a term ({@code learn~1}). Each of these
+ * lookups walks the trie together with an automaton, and a branch is abandoned
+ * as soon as the automaton can no longer accept any term under it. The cost
+ * therefore depends on how early the branches are ruled out: a pattern that
+ * starts with literal characters ({@code learn*}, {@code l?arn*}) only visits
+ * the subtree under them, whereas a leading wildcard ({@code *ing},
+ * {@code ?earn}) can't rule out any branch near the root, and its cost is
+ * proportional to the size of the vocabulary.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see WebIndex
+ * @see PrefixQuery
+ * @see WildcardQuery
+ * @see FuzzyQuery
+ */
+public class TermDictionary {
+
+	private static final char[] NO_LABELS = new char[0];
+	private static final Node[] NO_CHILDREN = new Node[0];
+
+	/**
+	 * A node in the trie, the labels and children are sorted and of the same
+	 * length.
+	 */
+	private static class Node {
+		char[] labels = NO_LABELS;
+		Node[] children = NO_CHILDREN;
+		boolean isTerm;
+
+		Node child(char c) {
+			int i = Arrays.binarySearch(labels, c);
+			return i >= 0 ? children[i] : null;
+		}
+
+		Node addChild(char c) {
+			int i = Arrays.binarySearch(labels, c);
+			if (i >= 0)
+				return children[i];
+			int ins = -(i + 1);
+			char[] newLabels = new char[labels.length + 1];
+			Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(labels, 0, newLabels, 0, ins);
+			System.arraycopy(children, 0, newChildren, 0, ins);
+			System.arraycopy(labels, ins, newLabels, ins + 1, labels.length - ins);
+			System.arraycopy(children, ins, newChildren, ins + 1, children.length - ins);
+			Node node = new Node();
+			newLabels[ins] = c;
+			newChildren[ins] = node;
+			labels = newLabels;
+			children = newChildren;
+			return node;
+		}
+
+		void removeChild(char c) {
+			int i = Arrays.binarySearch(labels, c);
+			if (i < 0)
+				return;
+			if (labels.length == 1) {
+				labels = NO_LABELS;
+				children = NO_CHILDREN;
+				return;
+			}
+			char[] newLabels = new char[labels.length - 1];
+			Node[] newChildren = new Node[children.length - 1];
+			System.arraycopy(labels, 0, newLabels, 0, i);
+			System.arraycopy(children, 0, newChildren, 0, i);
+			System.arraycopy(labels, i + 1, newLabels, i, labels.length - i - 1);
+			System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+			labels = newLabels;
+			children = newChildren;
+		}
+	}
+
+	private final Node root = new Node();
+
+	/** Number of terms in this dictionary */
+	private int size;
+
+	/** Size of a Node (header, labels, children and isTerm) */
+	private static final int NODE_BYTES = 24;
+
+	/** Retained size of this dictionary, i.e., all its nodes and their arrays */
+	private long bytes = nodeBytes(0);
+
+	/**
+	 * Size of a Node with the given number of children, the empty arrays are
+	 * shared, so they are not counted.
+	 */
+	private static long nodeBytes(int numOfChildren) {
+		if (numOfChildren == 0)
+			return NODE_BYTES;
+		return NODE_BYTES + MemoryEstimator.arrayBytes(numOfChildren, 2)
+				+ MemoryEstimator.arrayBytes(numOfChildren, MemoryEstimator.REFERENCE);
+	}
+
+	/**
+	 * Add a term into this dictionary.
+	 *
+	 * @param term a term
+	 * @return whether the term is newly added
+	 */
+	public boolean add(String term) {
+		Node node = root;
+		for (int i = 0; i < term.length(); i++) {
+			int numOfChildren = node.labels.length;
+			Node child = node.addChild(term.charAt(i));
+			if (node.labels.length != numOfChildren) {
+				// a new child is created and the arrays are grown
+				bytes += nodeBytes(numOfChildren + 1) - nodeBytes(numOfChildren) + nodeBytes(0);
+			}
+			node = child;
+		}
+		if (node.isTerm)
+			return false;
+		node.isTerm = true;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Remove a term from this dictionary, the nodes that no longer lead to any term
+	 * are removed as well.
+	 *
+	 * @param term a term
+	 * @return whether the term was in this dictionary
+	 */
+	public boolean remove(String term) {
+		Node[] path = new Node[term.length() + 1];
+		path[0] = root;
+		for (int i = 0; i < term.length(); i++) {
+			path[i + 1] = path[i].child(term.charAt(i));
+			if (path[i + 1] == null)
+				return false;
+		}
+		Node last = path[term.length()];
+		if (!last.isTerm)
+			return false;
+		last.isTerm = false;
+		size--;
+		// prune the branch bottom-up
+		for (int i = term.length(); i > 0; i--) {
+			Node node = path[i];
+			if (node.isTerm || node.labels.length > 0)
+				break;
+			int numOfChildren = path[i - 1].labels.length;
+			path[i - 1].removeChild(term.charAt(i - 1));
+			bytes -= nodeBytes(0) + nodeBytes(numOfChildren) - nodeBytes(numOfChildren - 1);
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether the term is in this dictionary.
+	 *
+	 * @param term a term
+	 * @return whether the term is in this dictionary
+	 */
+	public boolean contains(String term) {
+		Node node = root;
+		for (int i = 0; i < term.length() && node != null; i++) {
+			node = node.child(term.charAt(i));
+		}
+		return node != null && node.isTerm;
+	}
+
+	/**
+	 * Get the number of terms in this dictionary
+	 *
+	 * @return number of terms
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the retained size of this dictionary
+	 *
+	 * @return size in bytes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Find all the terms that start with the given prefix.
+	 *
+	 * @param prefix prefix of the terms
+	 * @return a sorted List of matching terms, it's empty if nothing matches.
+	 */
+	public List<String> prefixMatches(String prefix) {
+		List<String> result = new ArrayList<>();
+		Node node = root;
+		for (int i = 0; i < prefix.length() && node != null; i++) {
+			node = node.child(prefix.charAt(i));
+		}
+		if (node != null)
+			collect(node, new StringBuilder(prefix), result);
+		return result;
+	}
+
+	/**
+	 * Find all the terms that match the wildcard pattern, where '?' matches exactly
+	 * one character and '*' matches any number of characters (including none). A
+	 * pattern that starts with '?' or '*' walks the whole trie.
+	 *
+	 * @param pattern wildcard pattern
+	 * @return a sorted List of matching terms, it's empty if nothing matches.
+	 */
+	public List<String> wildcardMatches(String pattern) {
+		List<String> result = new ArrayList<>();
+		boolean[] states = new boolean[pattern.length() + 1];
+		states[0] = true;
+		closeOverStars(pattern, states);
+		wildcardWalk(root, pattern, states, new StringBuilder(), result);
+		return result;
+	}
+
+	/**
+	 * Find all the terms whose Levenshtein distance to the given term is no greater
+	 * than maxEdits.
+	 *
+	 * @param term     a term
+	 * @param maxEdits max number of edits (insertion, deletion or substitution)
+	 * @return a sorted List of matching terms, it's empty if nothing matches.
+	 */
+	public List<String> fuzzyMatches(String term, int maxEdits) {
+		List<String> result = new ArrayList<>();
+		int[] firstRow = new int[term.length() + 1];
+		for (int i = 0; i < firstRow.length; i++) {
+			firstRow[i] = i;
+		}
+		if (root.isTerm && firstRow[term.length()] <= maxEdits)
+			result.add("");
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < root.labels.length; i++) {
+			sb.append(root.labels[i]);
+			fuzzyWalk(root.children[i], root.labels[i], term, maxEdits, firstRow, sb, result);
+			sb.setLength(sb.length() - 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Collect all the terms under the node in alphabetical order
+	 */
+	private void collect(Node node, StringBuilder sb, List<String> result) {
+		if (node.isTerm)
+			result.add(sb.toString());
+		for (int i = 0; i < node.labels.length; i++) {
+			sb.append(node.labels[i]);
+			collect(node.children[i], sb, result);
+			sb.setLength(sb.length() - 1);
+		}
+	}
+
+	/**
+	 * Walk the trie while simulating the NFA of the wildcard pattern. The
+	 * {@code states[i]} means that the first i chars of the pattern have been
+	 * matched.
+	 */
+	private void wildcardWalk(Node node, String pattern, boolean[] states, StringBuilder sb, List<String> result) {
+		int len = pattern.length();
+		if (node.isTerm && states[len])
+			result.add(sb.toString());
+		for (int i = 0; i < node.labels.length; i++) {
+			char c = node.labels[i];
+			boolean[] next = new boolean[len + 1];
+			boolean alive = false;
+			for (int p = 0; p < len; p++) {
+				if (!states[p])
+					continue;
+				char pc = pattern.charAt(p);
+				if (pc == '*') {
+					next[p] = true;
+					alive = true;
+				} else if (pc == '?' || pc == c) {
+					next[p + 1] = true;
+					alive = true;
+				}
+			}
+			if (!alive)
+				continue;
+			closeOverStars(pattern, next);
+			sb.append(c);
+			wildcardWalk(node.children[i], pattern, next, sb, result);
+			sb.setLength(sb.length() - 1);
+		}
+	}
+
+	/**
+	 * '*' can match nothing, so a state before a '*' also implies the state after
+	 * it.
+	 */
+	private static void closeOverStars(String pattern, boolean[] states) {
+		for (int p = 0; p < pattern.length(); p++) {
+			if (states[p] && pattern.charAt(p) == '*')
+				states[p + 1] = true;
+		}
+	}
+
+	/**
+	 * Walk the trie while computing the rows of the Levenshtein distance matrix,
+	 * the row is effectively the state of a Levenshtein automaton for the term.
+	 */
+	private void fuzzyWalk(Node node, char c, String term, int maxEdits, int[] prevRow, StringBuilder sb,
+			List<String> result) {
+		int cols = term.length() + 1;
+		int[] row = new int[cols];
+		row[0] = prevRow[0] + 1;
+		int min = row[0];
+		for (int i = 1; i < cols; i++) {
+			int insert = row[i - 1] + 1;
+			int delete = prevRow[i] + 1;
+			int replace = prevRow[i - 1] + (term.charAt(i - 1) == c ? 0 : 1);
+			row[i] = Math.min(insert, Math.min(delete, replace));
+			if (row[i] < min)
+				min = row[i];
+		}
+		if (node.isTerm && row[cols - 1] <= maxEdits)
+			result.add(sb.toString());
+		// no term under this node can be within the distance
+		if (min > maxEdits)
+			return;
+		for (int i = 0; i < node.labels.length; i++) {
+			sb.append(node.labels[i]);
+			fuzzyWalk(node.children[i], node.labels[i], term, maxEdits, row, sb, result);
+			sb.setLength(sb.length() - 1);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.curtisnewbie.webBrowserModel;
+
+/**
+ * <p>
+ * Statistics of a word in the live WebDoc of a web index: the document
+ * frequency (df), i.e., the number of WebDoc that contain it, which is the
+ * length of its postings, and the total term frequency (ttf), i.e., the number
+ * of its occurrences in these WebDoc.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see WebIndex#getTopTerms(int)
+ */
+public final class TermStats {
+
+	private final String word;
+	private final int docFreq;
+	private final long totalTermFreq;
+
+	TermStats(String word, int docFreq, long totalTermFreq) {
+		this.word = word;
+		this.docFreq = docFreq;
+		this.totalTermFreq = totalTermFreq;
+	}
+
+	/**
+	 * Get the word
+	 *
+	 * @return word
+	 */
+	public String getWord() {
+		return word;
+	}
+
+	/**
+	 * Get the number of WebDoc that contain the word
+	 *
+	 * @return document frequency
+	 */
+	public int getDocFreq() {
+		return docFreq;
+	}
+
+	/**
+	 * Get the number of occurrences of the word in all the WebDoc
+	 *
+	 * @return total term frequency
+	 */
+	public long getTotalTermFreq() {
+		return totalTermFreq;
+	}
+
+	@Override
+	public String toString() {
+		return word + " (df: " + docFreq + ", ttf: " + totalTermFreq + ")";
+	}
+}
@@ -0,0 +1,125 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * Canonicalizes the urls, so that the different spellings of the same webpage
+ * are indexed only once, e.g., "http://x", "http://x/", "HTTP://X/#top" and
+ * "http://x/?utm_source=feed" are all "http://x/".
+ * </p>
+ * <p>
+ * For web URLs: the scheme and the host are lower-cased, the default port, the
+ * fragment, the dot segments and the tracking parameters in query are removed,
+ * an empty path becomes "/", and the percent-encodings are normalised (the
+ * unreserved characters are decoded, the others are in upper case). Local
+ * files (with a prefix of "file:") and the strings that are not valid URIs are
+ * only trimmed.
+ * </p>
+ *
+ * @author Yongjie Zhuang
+ *
+ * @see DocTable
+ */
+public final class UrlCanonicalizer {
+
+	private static final Pattern WEB_URL_PATTERN = Pattern.compile("https?://", Pattern.CASE_INSENSITIVE);
+
+	/** Query parameters that only track the visitors, besides "utm_*" */
+	private static final Set<String> TRACKING_PARAMS = Set.of("gclid", "dclid", "fbclid", "msclkid", "yclid",
+			"igshid", "mc_cid", "mc_eid", "_ga");
+
+	private UrlCanonicalizer() {
+	}
+
+	/**
+	 * Canonicalize the url
+	 *
+	 * @param url web URL or local file with a prefix of "file:"
+	 * @return the canonical url
+	 */
+	public static String canonicalize(String url) {
+		String trimmed = url.trim();
+		if (!WEB_URL_PATTERN.matcher(trimmed).lookingAt())
+			return trimmed;
+		URI uri;
+		try {
+			uri = new URI(trimmed).normalize();
+		} catch (URISyntaxException e) {
+			int fragment = trimmed.indexOf('#');
+			return fragment >= 0 ? trimmed.substring(0, fragment) : trimmed;
+		}
+		String host = uri.getHost();
+		if (host == null)
+			return trimmed;
+
+		String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+		StringBuilder sb = new StringBuilder(trimmed.length()).append(scheme).append("://");
+		if (uri.getRawUserInfo() != null)
+			sb.append(uri.getRawUserInfo()).append('@');
+		sb.append(host.toLowerCase(Locale.ROOT));
+		int port = uri.getPort();
+		if (port != -1 && !(port == 80 && scheme.equals("http")) && !(port == 443 && scheme.equals("https")))
+			sb.append(':').append(port);
+
+		String path = uri.getRawPath();
+		sb.append(path == null || path.isEmpty() ? "/" : normalizeEscapes(path));
+		String query = uri.getRawQuery();
+		if (query != null)
+			appendQuery(sb, query);
+		return sb.toString();
+	}
+
+	/**
+	 * Append the query parameters that are not for tracking
+	 */
+	private static void appendQuery(StringBuilder sb, String query) {
+		boolean first = true;
+		for (String param : query.split("&")) {
+			if (param.isEmpty())
+				continue;
+			int eq = param.indexOf('=');
+			String name = (eq >= 0 ? param.substring(0, eq) : param).toLowerCase(Locale.ROOT);
+			if (name.startsWith("utm_") || TRACKING_PARAMS.contains(name))
+				continue;
+			sb.append(first ? '?' : '&').append(normalizeEscapes(param));
+			first = false;
+		}
+	}
+
+	/**
+	 * Decode the percent-encoded unreserved characters, and upper-case the hex
+	 * digits of the others
+	 */
+	private static String normalizeEscapes(String s) {
+		if (s.indexOf('%') < 0)
+			return s;
+		StringBuilder sb = new StringBuilder(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			int hi, lo;
+			if (c == '%' && i + 2 < s.length() && (hi = Character.digit(s.charAt(i + 1), 16)) >= 0
+					&& (lo = Character.digit(s.charAt(i + 2), 16)) >= 0) {
+				char decoded = (char) (hi << 4 | lo);
+				if (isUnreserved(decoded))
+					sb.append(decoded);
+				else
+					sb.append('%').append(Character.toUpperCase(s.charAt(i + 1)))
+							.append(Character.toUpperCase(s.charAt(i + 2)));
+				i += 2;
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static boolean isUnreserved(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '.'
+				|| c == '_' || c == '~';
+	}
+}
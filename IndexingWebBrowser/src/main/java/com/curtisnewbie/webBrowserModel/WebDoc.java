@@ -2,10 +2,21 @@ package com.curtisnewbie.webBrowserModel;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.regex.*;
 import java.io.*;
 
+import com.curtisnewbie.analysis.Analyzer;
+import com.curtisnewbie.analysis.Analyzers;
+import com.curtisnewbie.fetch.FetchResult;
+import com.curtisnewbie.fetch.WebFetcher;
+import com.curtisnewbie.jfr.DocumentParsedEvent;
+
 /**
  * A Web Document (a local or online web page)
  * <P>
@@ -30,6 +41,9 @@ public class WebDoc implements Comparable<WebDoc> {
 		WEB_URL, LOCAL_WEB_DOC
 	}
 
+	/** Pattern of the links that are web URLs */
+	private static final Pattern WEB_LINK_PATTERN = Pattern.compile("https?://", Pattern.CASE_INSENSITIVE);
+
 	/**
 	 * Type of the file: web URL; local web document; or the entry with incorrect
 	 * format.
@@ -49,38 +63,43 @@ public class WebDoc implements Comparable<WebDoc> {
 	private String content;
 
 	/**
-	 * The collection of words in HTML Head, excluding HTML and JS tags, numbers and
-	 * duplicate words.
+	 * The collection of words in HTML Head, excluding HTML and JS tags and
+	 * duplicate words, as extracted by the analyzer of the head.
 	 */
 	private TreeSet<String> headWords;
 
 	/**
-	 * The collection of words in HTML Body, excluding HTML and JS tags, numbers and
-	 * duplicate words.
+	 * The collection of words in HTML Body, excluding HTML and JS tags and
+	 * duplicate words, as extracted by the analyzer of the body.
 	 */
 	private TreeSet<String> bodyWords;
 
+	/**
+	 * Number of occurrences of each head word, in the order of headWords.
+	 */
+	private int[] headTermFreqs;
+
+	/**
+	 * Number of occurrences of each body word, in the order of bodyWords.
+	 */
+	private int[] bodyTermFreqs;
+
+	/**
+	 * The number of words in head and in body, including the duplicate words.
+	 */
+	private int headLength;
+	private int bodyLength;
+
 	/**
 	 * The number of words, excluding the duplicate words.
 	 */
 	private int numOfWords;
 
 	/**
-	 * <p>
-	 * Webpage being parsed into this Document object.<br>
-	 * </p>
-	 * --------------------------------------------------
-	 * <p>
-	 * Should consider whether I should keep this document, as words are already
-	 * extracted. I may keep it for more advanced functionalities in the future.
-	 * </p>
-	 * <p>
-	 * --------------------------------------------------
-	 * </p>
-	 * 
-	 * @see Document
+	 * The doc id assigned by the IndexingEngine that indexes it, or -1 if it's not
+	 * indexed. It's guarded by the lock of the IndexingEngine.
 	 */
-	private Document document;
+	int docId = -1;
 
 	/**
 	 * Construct A WebDoc by making connection to the given url and extracting the
@@ -98,23 +117,28 @@ public class WebDoc implements Comparable<WebDoc> {
 	public WebDoc(String url) throws IOException, IllegalArgumentException, FileNotFoundException {
 		this.urlString = url;
 		this.fileType = checkFileType(url);
+		Document document = null;
+		DocumentParsedEvent event = new DocumentParsedEvent();
 
 		// identify FileType, if neither matched, exceptions thrown
 		if (fileType == FileType.WEB_URL) {
-			// GET request to url, and parse it into a document
-			this.document = Jsoup.connect(url).get();
-			this.content = document.wholeText();
+			// GET request to url (with timeouts and size limit), and parse it into a document
+			FetchResult result = WebFetcher.getDefault().fetch(url);
+			if (!result.isOk())
+				throw new IOException("HTTP status " + result.getStatusCode() + " when fetching " + url);
+			this.content = result.getBody();
+			event.begin();
+			document = Jsoup.parse(content, result.getUrl());
 		} else if (fileType == FileType.LOCAL_WEB_DOC) {
 			this.content = readLocalFile(url);
-			this.document = Jsoup.parse(content);
+			event.begin();
+			document = Jsoup.parse(content, url);
 		}
 
-		// get body and head, and extract words in it
-		String bodyTxt = document.body().text();
-		String headTxt = document.head().text();
-		this.bodyWords = extractWords(bodyTxt);
-		this.headWords = extractWords(headTxt);
-		this.numOfWords = bodyWords.size() + headWords.size();
+		// get body and head, and extract words in it, the parsed document is not kept,
+		// as it's much larger than the content
+		setWords(document.head().text(), document.body().text());
+		commit(event);
 	}
 
 	/**
@@ -134,13 +158,37 @@ public class WebDoc implements Comparable<WebDoc> {
 		this.fileType = checkFileType(url);
 		// load the given content (html text) regardless the fileType
 		this.content = content;
-		this.document = Jsoup.parse(content);
+		DocumentParsedEvent event = new DocumentParsedEvent();
+		event.begin();
+		Document document = Jsoup.parse(content, url);
 
 		// get body and head, and extract words in it
-		String bodyTxt = document.body().text();
-		String headTxt = document.head().text();
-		this.bodyWords = extractWords(bodyTxt);
-		this.headWords = extractWords(headTxt);
+		setWords(document.head().text(), document.body().text());
+		commit(event);
+	}
+
+	/**
+	 * Commit the JFR event of the parsing, if it's enabled
+	 */
+	private void commit(DocumentParsedEvent event) {
+		if (event.shouldCommit())
+			event.commit(urlString, fileType.name(), content == null ? 0 : content.length(), headWords.size(),
+					bodyWords.size());
+	}
+
+	/**
+	 * Extract the words and their frequencies from the texts of head and body,
+	 * with the analyzer of each field (see {@link Analyzers})
+	 */
+	private void setWords(String headTxt, String bodyTxt) {
+		List<String> headTokens = Analyzers.getHead().analyze(headTxt);
+		List<String> bodyTokens = Analyzers.getBody().analyze(bodyTxt);
+		this.headWords = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		this.bodyWords = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+		this.headTermFreqs = collectWords(headTokens, headWords);
+		this.bodyTermFreqs = collectWords(bodyTokens, bodyWords);
+		this.headLength = headTokens.size();
+		this.bodyLength = bodyTokens.size();
 		this.numOfWords = bodyWords.size() + headWords.size();
 	}
 
@@ -148,18 +196,42 @@ public class WebDoc implements Comparable<WebDoc> {
 	 * Extracts the words from the a string, and return an object of TreeSet that
 	 * contains all the words.
 	 * 
+	 * @param text     text of the head or the body
+	 * @param analyzer the analyzer of the field
 	 * @return a TreeSet of all the words.
 	 */
-	private TreeSet<String> extractWords(String text) {
+	static TreeSet<String> extractWords(String text, Analyzer analyzer) {
 		TreeSet<String> result = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-		Pattern wordFilterPattern = Pattern.compile("[a-zA-Z]+");
-		Matcher wordFilterMatcher = wordFilterPattern.matcher(text);
-		while (wordFilterMatcher.find()) {
-			result.add(wordFilterMatcher.group(0).toLowerCase());
-		}
+		collectWords(analyzer.analyze(text), result);
 		return result;
 	}
 
+	/**
+	 * Add the unique words into the set, the tokens are sorted, so the duplicate
+	 * words are adjacent and counted in one pass.
+	 * 
+	 * @param tokens words, including the duplicate ones, they are sorted in place
+	 * @param words  an empty set of words ordered by
+	 *               {@code String.CASE_INSENSITIVE_ORDER}
+	 * @return number of occurrences of each word, in the order of the set
+	 */
+	private static int[] collectWords(List<String> tokens, TreeSet<String> words) {
+		tokens.sort(String.CASE_INSENSITIVE_ORDER);
+		int[] freqs = new int[tokens.size()];
+		int numOfWords = 0;
+		String prev = null;
+		for (String token : tokens) {
+			if (prev != null && String.CASE_INSENSITIVE_ORDER.compare(prev, token) == 0) {
+				freqs[numOfWords - 1]++;
+			} else {
+				words.add(token);
+				freqs[numOfWords++] = 1;
+				prev = token;
+			}
+		}
+		return numOfWords == freqs.length ? freqs : Arrays.copyOf(freqs, numOfWords);
+	}
+
 	/**
 	 * Read the content from the local HTML file (the url should have a prefix of
 	 * "file:"). The content can be empty. This method only runs once.
@@ -260,6 +332,60 @@ public class WebDoc implements Comparable<WebDoc> {
 		return tempTreeSet;
 	}
 
+	/**
+	 * Get the head words without copying them, they must not be modified.
+	 * 
+	 * @return head words
+	 */
+	Set<String> headWordSet() {
+		return headWords;
+	}
+
+	/**
+	 * Get the body words without copying them, they must not be modified.
+	 * 
+	 * @return body words
+	 */
+	Set<String> bodyWordSet() {
+		return bodyWords;
+	}
+
+	/**
+	 * Get the number of occurrences of each head word, they must not be modified.
+	 * 
+	 * @return frequencies in the order of {@link #getHeadWords()}
+	 */
+	int[] headTermFreqs() {
+		return headTermFreqs;
+	}
+
+	/**
+	 * Get the number of occurrences of each body word, they must not be modified.
+	 * 
+	 * @return frequencies in the order of {@link #getBodyWords()}
+	 */
+	int[] bodyTermFreqs() {
+		return bodyTermFreqs;
+	}
+
+	/**
+	 * Get the number of words in head, including the duplicate words.
+	 * 
+	 * @return length of head in words
+	 */
+	public int getHeadLength() {
+		return headLength;
+	}
+
+	/**
+	 * Get the number of words in body, including the duplicate words.
+	 * 
+	 * @return length of body in words
+	 */
+	public int getBodyLength() {
+		return bodyLength;
+	}
+
 	/**
 	 * <p>
 	 * Get the original urlString.
@@ -277,6 +403,31 @@ public class WebDoc implements Comparable<WebDoc> {
 		return urlString;
 	}
 
+	/**
+	 * <p>
+	 * Get the links (in the order of appearance) in this webpage. The links are
+	 * resolved against the url of this webpage, only the web URLs (with a prefix of
+	 * "http:" or "https:") are returned, and the fragments are removed.
+	 * </p>
+	 * <p>
+	 * The content is parsed again, as the parsed document is not kept.
+	 * </p>
+	 * 
+	 * @return a List of unique absolute web URLs
+	 */
+	public List<String> getLinks() {
+		Set<String> links = new LinkedHashSet<>();
+		for (Element anchor : Jsoup.parse(content, urlString).select("a[href]")) {
+			String link = anchor.absUrl("href");
+			int fragment = link.indexOf('#');
+			if (fragment >= 0)
+				link = link.substring(0, fragment);
+			if (WEB_LINK_PATTERN.matcher(link).lookingAt())
+				links.add(link);
+		}
+		return new ArrayList<>(links);
+	}
+
 	/**
 	 * Get the number of words (unique).
 	 * 
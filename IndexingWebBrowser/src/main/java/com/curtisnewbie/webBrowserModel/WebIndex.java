@@ -1,13 +1,29 @@
 package com.curtisnewbie.webBrowserModel;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.TreeSet;
 
+import com.curtisnewbie.analysis.Analyzer;
+
 /**
  * It is a web index that contains a number of WebDoc. It can check the web
  * documents stored and see which one contains a particular word.
+ * <p>
+ * Each WebDoc added is assigned a doc id. When a WebDoc is deleted or replaced,
+ * only its doc id is marked in a bitset (tombstone), the WebDoc is filtered out
+ * of the results, and it's purged from the postings lazily when enough WebDoc
+ * are deleted (see {@link #compact()}).
+ * </p>
  * 
  * @see WebDoc
  * @see WebIndexForBody
@@ -23,21 +39,115 @@ public abstract class WebIndex {
 	protected Map<String, Set<WebDoc>> webDocsMap;
 
 	/**
-	 * Number of WebDoc in this web index.
+	 * Sorted dictionary of the words (the keys of webDocsMap), it's used for the
+	 * prefix, wildcard and fuzzy lookups. Subclasses must add every new key of
+	 * webDocsMap into it.
+	 */
+	protected TermDictionary termDictionary;
+
+	/**
+	 * Number of (live) WebDoc in this web index.
 	 */
 	protected int numOfDocs;
 
+	/**
+	 * WebDoc of each doc id, the ids are assigned in the order of addition.
+	 */
+	protected List<WebDoc> docsById;
+
+	/**
+	 * Doc id of each WebDoc, they are compared by identity, as a WebDoc that is
+	 * replaced equals (has the same url as) the one replacing it.
+	 */
+	protected Map<WebDoc, Integer> docIds;
+
+	/**
+	 * Doc id of the live WebDoc of each url.
+	 */
+	protected Map<String, Integer> liveDocIds;
+
+	/**
+	 * Tombstones, the bit of a doc id is set when the WebDoc is deleted or
+	 * replaced.
+	 */
+	protected BitSet deletedDocs;
+
+	/**
+	 * Number of tombstones, i.e., the WebDoc deleted but not yet purged.
+	 */
+	protected int numOfDeleted;
+
+	/**
+	 * Min number of tombstones before the index is compacted.
+	 */
+	public static final int MIN_DELETED_TO_COMPACT = 64;
+
+	/**
+	 * Min ratio of the tombstones to all the doc ids before the index is
+	 * compacted.
+	 */
+	public static final double MIN_DELETED_RATIO_TO_COMPACT = 0.25;
+
 	/**
 	 * Number of words read from these WebDoc.
 	 */
 	protected int numOfWords;
 
+	/**
+	 * Number of (word, WebDoc) pairs in the Sets of WebDoc, including those of the
+	 * deleted WebDoc that are not yet purged.
+	 */
+	protected long numOfPostings;
+
+	/**
+	 * Size of the Strings of the words (the keys of webDocsMap).
+	 */
+	protected long wordBytes;
+
+	/**
+	 * Size of the bookkeeping of each doc id (in docsById, docIds and liveDocIds).
+	 */
+	private static final int DOC_ID_BYTES = MemoryEstimator.REFERENCE + 12 + 16 + MemoryEstimator.HASH_ENTRY;
+
+	/**
+	 * Document frequency (df) and total term frequency (ttf) of a word in the live
+	 * WebDoc.
+	 */
+	private static final class TermFreqs {
+		private int docFreq;
+		private long totalTermFreq;
+	}
+
+	/**
+	 * Size of the TermFreqs of each word (in termFreqs).
+	 */
+	private static final int TERM_FREQS_BYTES = MemoryEstimator.HASH_ENTRY + 24;
+
+	/**
+	 * TermFreqs of each word in the live WebDoc, they are updated when a WebDoc is
+	 * added or deleted, rather than when the index is compacted.
+	 */
+	private final Map<String, TermFreqs> termFreqs;
+
+	/**
+	 * Sums of the df and the ttf of the words in the live WebDoc.
+	 */
+	private long sumDocFreq;
+	private long sumTotalTermFreq;
+
 	/**
 	 * Initialise the webDocs. Assign 0 to numOfDocs and numOfWord.
 	 */
 	public WebIndex() {
 		webDocsMap = new HashMap<>();
+		termDictionary = new TermDictionary();
+		docsById = new ArrayList<>();
+		docIds = new IdentityHashMap<>();
+		liveDocIds = new HashMap<>();
+		deletedDocs = new BitSet();
+		termFreqs = new HashMap<>();
 		this.numOfDocs = 0;
+		this.numOfDeleted = 0;
 		this.numOfWords = 0;
 	}
 
@@ -45,12 +155,226 @@ public abstract class WebIndex {
 	 * Add an object of WebDoc into the index and increment numOfDocs by one.
 	 * WebIndex internally uses a map for searching WebDoc based on the given words,
 	 * and this WebDoc is added in a way such that the words in this WebDoc becomes
-	 * the keys, and this WebDoc becomes the value.
+	 * the keys, and this WebDoc becomes the value. If a WebDoc of the same url is
+	 * already in the index, it's replaced.
+	 * <p>
+	 * Subclasses must call {@link #registerDoc(WebDoc)} before adding the words,
+	 * and add each word through {@link #addPosting(String, WebDoc, int)}.
+	 * </p>
 	 * 
 	 * @param doc An object of WebDoc
 	 */
 	public abstract void add(WebDoc doc);
 
+	/**
+	 * Get the words of the WebDoc that are indexed by this web index, i.e., those
+	 * of its field (head or body).
+	 *
+	 * @param doc An object of WebDoc
+	 * @return words, in the order of {@link #termFreqsOf(WebDoc)}
+	 */
+	protected abstract Set<String> wordsOf(WebDoc doc);
+
+	/**
+	 * Get the number of occurrences of each word returned by
+	 * {@link #wordsOf(WebDoc)}.
+	 *
+	 * @param doc An object of WebDoc
+	 * @return frequencies, in the order of the words
+	 */
+	protected abstract int[] termFreqsOf(WebDoc doc);
+
+	/**
+	 * Get the analyzer of the field that is indexed by this web index, it's the
+	 * one that the words of the WebDoc were extracted with.
+	 *
+	 * @return Analyzer
+	 */
+	public abstract Analyzer getAnalyzer();
+
+	/**
+	 * Analyze a word of a query with the analyzer of the field, so it can be
+	 * looked up in this index, e.g., "indexing" -> "index" if the words are
+	 * stemmed, or "東京都" -> "東京", "京都".
+	 *
+	 * @param wd a word of a query
+	 * @return the words as they are indexed, it's empty if the word is dropped by
+	 *         the analyzer, e.g., a stopword
+	 */
+	public List<String> analyzeWord(String wd) {
+		return getAnalyzer().analyzeWord(wd);
+	}
+
+	/**
+	 * Delete the WebDoc of the url. It's only marked as deleted, it no longer
+	 * appears in the results, and it's purged when the index is compacted.
+	 *
+	 * @param url url of the WebDoc
+	 * @return whether a WebDoc is deleted
+	 */
+	public boolean delete(String url) {
+		Integer id = liveDocIds.remove(url);
+		if (id == null)
+			return false;
+		markDeleted(id);
+		compactIfNeeded();
+		return true;
+	}
+
+	/**
+	 * Replace the WebDoc of the url with the given one, only the words of the new
+	 * WebDoc are indexed, the whole index is not rebuilt.
+	 *
+	 * @param url url of the WebDoc that is replaced
+	 * @param doc the new WebDoc
+	 */
+	public void update(String url, WebDoc doc) {
+		delete(url);
+		add(doc);
+	}
+
+	/**
+	 * Assign a doc id to the WebDoc that is being added, the WebDoc of the same url
+	 * (if any) is marked as deleted.
+	 *
+	 * @param doc An object of WebDoc
+	 */
+	protected void registerDoc(WebDoc doc) {
+		Integer prevId = liveDocIds.get(doc.getUrlString());
+		if (prevId != null)
+			markDeleted(prevId);
+		compactIfNeeded();
+		int id = docsById.size();
+		docsById.add(doc);
+		docIds.put(doc, id);
+		liveDocIds.put(doc.getUrlString(), id);
+		numOfDocs++;
+	}
+
+	/**
+	 * Associate the word with the WebDoc, the (tombstoned) WebDoc of the same url
+	 * in the Set of WebDoc is replaced.
+	 *
+	 * @param word     word in the WebDoc
+	 * @param doc      An object of WebDoc
+	 * @param termFreq number of occurrences of the word in the WebDoc
+	 */
+	protected void addPosting(String word, WebDoc doc, int termFreq) {
+		TermFreqs freqs = termFreqs.get(word);
+		if (freqs == null) {
+			freqs = new TermFreqs();
+			termFreqs.put(word, freqs);
+		}
+		freqs.docFreq++;
+		freqs.totalTermFreq += termFreq;
+		sumDocFreq++;
+		sumTotalTermFreq += termFreq;
+
+		Set<WebDoc> newSet = new TreeSet<WebDoc>();
+		newSet.add(doc);
+		Set<WebDoc> temp = webDocsMap.putIfAbsent(word, newSet);
+		if (temp == null) {
+			termDictionary.add(word);
+			wordBytes += MemoryEstimator.stringBytes(word);
+			numOfPostings++;
+		} else if (temp.add(doc)) {
+			// If the key is already associated with a set, add the doc to this set
+			numOfPostings++;
+		} else {
+			temp.remove(doc);
+			temp.add(doc);
+		}
+	}
+
+	private void markDeleted(int id) {
+		deletedDocs.set(id);
+		numOfDeleted++;
+		numOfDocs--;
+		WebDoc doc = docsById.get(id);
+		int[] freqs = termFreqsOf(doc);
+		int i = 0;
+		for (String word : wordsOf(doc)) {
+			TermFreqs wordFreqs = termFreqs.get(word);
+			int termFreq = freqs[i++];
+			sumDocFreq--;
+			sumTotalTermFreq -= termFreq;
+			if (--wordFreqs.docFreq == 0)
+				termFreqs.remove(word);
+			else
+				wordFreqs.totalTermFreq -= termFreq;
+		}
+	}
+
+	/**
+	 * Check whether the WebDoc is deleted (or replaced), it's a lookup of the
+	 * bitset, and it's skipped entirely when there is no tombstone.
+	 *
+	 * @param doc An object of WebDoc in the index
+	 * @return whether the WebDoc is deleted
+	 */
+	protected boolean isDeleted(WebDoc doc) {
+		if (numOfDeleted == 0)
+			return false;
+		Integer id = docIds.get(doc);
+		return id == null || deletedDocs.get(id);
+	}
+
+	private void compactIfNeeded() {
+		if (numOfDeleted >= MIN_DELETED_TO_COMPACT
+				&& numOfDeleted >= docsById.size() * MIN_DELETED_RATIO_TO_COMPACT)
+			compact();
+	}
+
+	/**
+	 * Purge the deleted WebDoc from the index, the words that no longer associate
+	 * with any WebDoc are removed, and the doc ids are reassigned. It's done
+	 * automatically once the tombstones reach {@link #MIN_DELETED_TO_COMPACT} and
+	 * {@link #MIN_DELETED_RATIO_TO_COMPACT}.
+	 */
+	public void compact() {
+		if (numOfDeleted == 0)
+			return;
+		Iterator<Map.Entry<String, Set<WebDoc>>> it = webDocsMap.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<String, Set<WebDoc>> entry = it.next();
+			int sizeBefore = entry.getValue().size();
+			entry.getValue().removeIf(this::isDeleted);
+			numOfPostings -= sizeBefore - entry.getValue().size();
+			if (entry.getValue().isEmpty()) {
+				termDictionary.remove(entry.getKey());
+				wordBytes -= MemoryEstimator.stringBytes(entry.getKey());
+				it.remove();
+			}
+		}
+		List<WebDoc> liveDocs = new ArrayList<>(numOfDocs);
+		for (int id = deletedDocs.nextClearBit(0); id < docsById.size(); id = deletedDocs.nextClearBit(id + 1)) {
+			liveDocs.add(docsById.get(id));
+		}
+		docsById = liveDocs;
+		docIds.clear();
+		liveDocIds.clear();
+		for (int id = 0; id < liveDocs.size(); id++) {
+			docIds.put(liveDocs.get(id), id);
+			liveDocIds.put(liveDocs.get(id).getUrlString(), id);
+		}
+		deletedDocs.clear();
+		numOfDeleted = 0;
+		numOfWords = webDocsMap.size();
+	}
+
+	/**
+	 * Get all the live (not deleted) WebDoc in this index.
+	 *
+	 * @return a Set<WebDoc> of all the live WebDoc
+	 */
+	public Set<WebDoc> getLiveDocs() {
+		Set<WebDoc> result = new TreeSet<>();
+		for (int id = deletedDocs.nextClearBit(0); id < docsById.size(); id = deletedDocs.nextClearBit(id + 1)) {
+			result.add(docsById.get(id));
+		}
+		return result;
+	}
+
 	/**
 	 * This method searches through the web index and finds the results that match
 	 * the given String. It returns a deep copy of the result as a Set<WebDoc>.
@@ -62,16 +386,93 @@ public abstract class WebIndex {
 		Set<WebDoc> deepCopySet = new TreeSet<>();
 		Set<WebDoc> resultSet = webDocsMap.get(wd);
 		if (resultSet != null) {
-			deepCopySet.addAll(resultSet);
-			return deepCopySet;
+			QueryProfile.recordInput(resultSet.size());
+			addLiveDocs(deepCopySet, resultSet);
+			return deepCopySet.isEmpty() ? null : deepCopySet;
 		} else {
 			return null;
 		}
 	}
 
+	/**
+	 * This method finds the results that match any of the words starting with the
+	 * given prefix.
+	 *
+	 * @param prefix prefix of the words
+	 * @return a Set<WebDoc> that matches the prefix, or {@code NULL} if nothing
+	 *         matches.
+	 * @see TermDictionary#prefixMatches(String)
+	 */
+	public Set<WebDoc> getPrefixMatches(String prefix) {
+		return getMatches(termDictionary.prefixMatches(prefix));
+	}
+
+	/**
+	 * This method finds the results that match any of the words matching the
+	 * wildcard pattern ('?' for exactly one character, '*' for any number of
+	 * characters).
+	 *
+	 * @param pattern wildcard pattern
+	 * @return a Set<WebDoc> that matches the pattern, or {@code NULL} if nothing
+	 *         matches.
+	 * @see TermDictionary#wildcardMatches(String)
+	 */
+	public Set<WebDoc> getWildcardMatches(String pattern) {
+		return getMatches(termDictionary.wildcardMatches(pattern));
+	}
+
+	/**
+	 * This method finds the results that match any of the words within the given
+	 * Levenshtein distance of the given word.
+	 *
+	 * @param wd       the word that is searched
+	 * @param maxEdits max Levenshtein distance
+	 * @return a Set<WebDoc> that matches the word, or {@code NULL} if nothing
+	 *         matches.
+	 * @see TermDictionary#fuzzyMatches(String, int)
+	 */
+	public Set<WebDoc> getFuzzyMatches(String wd, int maxEdits) {
+		return getMatches(termDictionary.fuzzyMatches(wd, maxEdits));
+	}
+
+	/**
+	 * Get the union of the results of the given words
+	 *
+	 * @param words words that are in this index
+	 * @return a Set<WebDoc>, or {@code NULL} if nothing matches.
+	 */
+	private Set<WebDoc> getMatches(List<String> words) {
+		if (words.isEmpty())
+			return null;
+		Set<WebDoc> result = new TreeSet<>();
+		for (String wd : words) {
+			Set<WebDoc> resultSet = webDocsMap.get(wd);
+			if (resultSet != null) {
+				QueryProfile.recordInput(resultSet.size());
+				addLiveDocs(result, resultSet);
+			}
+		}
+		return result.isEmpty() ? null : result;
+	}
+
+	/**
+	 * Add the WebDoc that are not deleted into the result
+	 */
+	private void addLiveDocs(Set<WebDoc> result, Set<WebDoc> docs) {
+		if (numOfDeleted == 0) {
+			result.addAll(docs);
+			return;
+		}
+		for (WebDoc doc : docs) {
+			if (!isDeleted(doc))
+				result.add(doc);
+		}
+	}
+
 	/**
 	 * This method returns a deep copy of webDocsMap(A HashMap) that contains all
-	 * the keys and values stored in this webIndex.
+	 * the keys and values stored in this webIndex. Note that the values may contain
+	 * the deleted WebDoc that are not yet purged.
 	 * 
 	 * @return a Hashmap contains all the keys and values stored in this webIndex.
 	 */
@@ -81,6 +482,174 @@ public abstract class WebIndex {
 		return deepCopySet;
 	}
 
+	/**
+	 * Get the number of WebDoc in this web index.
+	 *
+	 * @return number of WebDoc
+	 */
+	public int getNumOfDocs() {
+		return numOfDocs;
+	}
+
+	/**
+	 * Get the size of the postings, i.e., the entries in the Sets of WebDoc and the
+	 * bookkeeping of the doc ids. The WebDoc themselves are not included.
+	 *
+	 * @return size in bytes
+	 */
+	public long getPostingsBytes() {
+		return numOfPostings * MemoryEstimator.TREE_ENTRY + (long) docsById.size() * DOC_ID_BYTES
+				+ (deletedDocs.size() >> 3);
+	}
+
+	/**
+	 * Get the size of the words, i.e., the entries of webDocsMap (with their empty
+	 * Sets of WebDoc) and the TermDictionary.
+	 *
+	 * @return size in bytes
+	 */
+	public long getTermBytes() {
+		return (long) webDocsMap.size() * (MemoryEstimator.HASH_ENTRY + MemoryEstimator.TREE_SET) + wordBytes
+				+ termDictionary.getBytes() + (long) termFreqs.size() * TERM_FREQS_BYTES;
+	}
+
+	/**
+	 * Get the number of (word, WebDoc) pairs in the Sets of WebDoc, including those
+	 * of the deleted WebDoc that are not yet purged.
+	 *
+	 * @return number of postings
+	 */
+	public long getNumOfPostings() {
+		return numOfPostings;
+	}
+
+	/**
+	 * Get the number of deleted WebDoc that are not yet purged.
+	 *
+	 * @return number of tombstones
+	 */
+	public int getNumOfDeleted() {
+		return numOfDeleted;
+	}
+
+	/**
+	 * Get the number of words (unique) in this web index, the words of the deleted
+	 * WebDoc are counted until the index is compacted.
+	 *
+	 * @return number of words
+	 */
+	public int getNumOfWords() {
+		return numOfWords;
+	}
+
+	/**
+	 * Get the number of live WebDoc that contain the word.
+	 *
+	 * @param wd word
+	 * @return document frequency, or 0 if it's not in this index
+	 */
+	public int getDocFreq(String wd) {
+		TermFreqs freqs = termFreqs.get(wd);
+		return freqs == null ? 0 : freqs.docFreq;
+	}
+
+	/**
+	 * Get the number of occurrences of the word in the live WebDoc.
+	 *
+	 * @param wd word
+	 * @return total term frequency, or 0 if it's not in this index
+	 */
+	public long getTotalTermFreq(String wd) {
+		TermFreqs freqs = termFreqs.get(wd);
+		return freqs == null ? 0 : freqs.totalTermFreq;
+	}
+
+	/**
+	 * Get the number of unique words in the live WebDoc, unlike
+	 * {@link #getNumOfWords()}, the words of the deleted WebDoc are never counted.
+	 *
+	 * @return number of words
+	 */
+	public int getNumOfLiveTerms() {
+		return termFreqs.size();
+	}
+
+	/**
+	 * Get the sum of the document frequencies of the words, i.e., the number of
+	 * postings of the live WebDoc.
+	 *
+	 * @return sum of the document frequencies
+	 */
+	public long getSumDocFreq() {
+		return sumDocFreq;
+	}
+
+	/**
+	 * Get the sum of the total term frequencies of the words, i.e., the number of
+	 * words in the live WebDoc, including the duplicate words.
+	 *
+	 * @return sum of the total term frequencies
+	 */
+	public long getSumTotalTermFreq() {
+		return sumTotalTermFreq;
+	}
+
+	/**
+	 * Get the average number of words in a live WebDoc, including the duplicate
+	 * words.
+	 *
+	 * @return average length
+	 */
+	public double getAvgDocLength() {
+		return numOfDocs == 0 ? 0 : (double) sumTotalTermFreq / numOfDocs;
+	}
+
+	/**
+	 * Get the heaviest words, i.e., those with the greatest document frequencies
+	 * (the longest postings), the ties are broken by the total term frequencies.
+	 *
+	 * @param n max number of words
+	 * @return a List of TermStats, in descending order
+	 */
+	public List<TermStats> getTopTerms(int n) {
+		if (n <= 0)
+			return new ArrayList<>();
+		Comparator<TermStats> order = Comparator.comparingInt(TermStats::getDocFreq)
+				.thenComparingLong(TermStats::getTotalTermFreq)
+				.thenComparing(TermStats::getWord, Comparator.reverseOrder());
+		PriorityQueue<TermStats> heap = new PriorityQueue<>(Math.min(n, termFreqs.size()) + 1, order);
+		for (Map.Entry<String, TermFreqs> e : termFreqs.entrySet()) {
+			TermFreqs freqs = e.getValue();
+			TermStats lightest = heap.peek();
+			if (heap.size() < n || lightest.getDocFreq() <= freqs.docFreq) {
+				heap.add(new TermStats(e.getKey(), freqs.docFreq, freqs.totalTermFreq));
+				if (heap.size() > n)
+					heap.poll();
+			}
+		}
+		List<TermStats> top = new ArrayList<>(heap);
+		top.sort(order.reversed());
+		return top;
+	}
+
+	/**
+	 * Get the histogram of the lengths of the postings (the document frequencies
+	 * of the words) in power-of-two buckets.
+	 *
+	 * @return the number of words of which the document frequency is in [2^i, 2^(i
+	 *         + 1)) at index i, up to the longest postings
+	 */
+	public long[] getPostingsLengthHistogram() {
+		long[] histogram = new long[Integer.SIZE];
+		int length = 0;
+		for (TermFreqs freqs : termFreqs.values()) {
+			int bucket = 31 - Integer.numberOfLeadingZeros(freqs.docFreq);
+			histogram[bucket]++;
+			length = Math.max(length, bucket + 1);
+		}
+		return Arrays.copyOf(histogram, length);
+	}
+
 	/**
 	 * Get a string that provide the overall summary of this WebIndex
 	 * 
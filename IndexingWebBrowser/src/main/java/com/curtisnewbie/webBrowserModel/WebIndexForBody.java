@@ -1,7 +1,10 @@
 package com.curtisnewbie.webBrowserModel;
 
 import java.util.Set;
-import java.util.TreeSet;
+
+import com.curtisnewbie.analysis.Analyzer;
+import com.curtisnewbie.analysis.Analyzers;
+import com.curtisnewbie.jfr.IndexAddEvent;
 
 /**
  * Subclass of WebIndex that implements the add(WebDoc doc) method exclusively
@@ -15,20 +18,31 @@ import java.util.TreeSet;
 public class WebIndexForBody extends WebIndex {
     @Override
     public void add(WebDoc doc) {
-        Set<String> tempWordSet;
-        tempWordSet = doc.getBodyWords();
-        if (!tempWordSet.isEmpty()) {
-            for (String word : tempWordSet) {
-                Set<WebDoc> newSet = new TreeSet<WebDoc>();
-                newSet.add(doc);
-                Set<WebDoc> temp = webDocsMap.putIfAbsent(word, newSet);
-                if (temp != null) {
-                    // If the key is already associated with a set, add the doc to this set
-                    temp.add(doc);
-                }
-            }
+        IndexAddEvent event = new IndexAddEvent();
+        event.begin();
+        registerDoc(doc);
+        int[] freqs = doc.bodyTermFreqs();
+        int i = 0;
+        for (String word : doc.bodyWordSet()) {
+            addPosting(word, doc, freqs[i++]);
         }
-        numOfDocs++;
         numOfWords = webDocsMap.size();
+        if (event.shouldCommit())
+            event.commit(doc.getUrlString(), "body", freqs.length, numOfWords, numOfDocs);
+    }
+
+    @Override
+    protected Set<String> wordsOf(WebDoc doc) {
+        return doc.bodyWordSet();
+    }
+
+    @Override
+    protected int[] termFreqsOf(WebDoc doc) {
+        return doc.bodyTermFreqs();
+    }
+
+    @Override
+    public Analyzer getAnalyzer() {
+        return Analyzers.getBody();
     }
 }
\ No newline at end of file
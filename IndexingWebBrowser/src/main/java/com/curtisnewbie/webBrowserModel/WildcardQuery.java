@@ -0,0 +1,68 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Set;
+
+/**
+ * This class is used to handle the WildcardQuery, e.g., l?arn*, where '?'
+ * matches exactly one character and '*' matches any number of characters. Like
+ * AtomicQuery, it's the 'end' of the recursion.
+ * 
+ * @author Yongjie Zhuang
+ *
+ * @see TermDictionary#wildcardMatches(String)
+ */
+public class WildcardQuery implements Query {
+
+	/**
+	 * The wildcard pattern
+	 */
+	private String pattern;
+
+	/**
+	 * Instantiate WildcardQuery
+	 * 
+	 * @param pattern the wildcard pattern
+	 */
+	public WildcardQuery(String pattern) {
+		this.pattern = pattern;
+	}
+
+	/**
+	 * Get the wildcard pattern
+	 *
+	 * @return the wildcard pattern
+	 */
+	String getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * This method searches through the given WebIndex to find all the WebDoc that
+	 * contain a word matching the pattern.
+	 * 
+	 * @return a Set of WebDoc that is found based on the query and the given
+	 *         WebIndex, or {@code NULL} if nothing matches.
+	 * @param wind the WebIndex that is being searched based on the query.
+	 */
+	@Override
+	public Set<WebDoc> matches(WebIndex wind) {
+		return wind.getWildcardMatches(pattern);
+	}
+
+	/**
+	 * <p>
+	 * This method returns a String that indicates the type of the query and the
+	 * pattern that is searched.
+	 * </p>
+	 * <p>
+	 * E.g., l?arn* -> WILDCARD:[l?arn*]
+	 * </p>
+	 * 
+	 * @return a string that indicates the type of this query as well as the
+	 *         pattern
+	 */
+	@Override
+	public String toString() {
+		return "WILDCARD:[" + pattern + "]";
+	}
+}
@@ -0,0 +1,127 @@
+package com.curtisnewbie.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+import com.curtisnewbie.webBrowserModel.SearchResult;
+import com.curtisnewbie.webBrowserModel.WebDoc;
+
+/** Test cases for Analyzer, the filters and the analyzers of the fields */
+public class AnalyzerTest {
+
+    @After
+    public void resetAnalyzers() {
+        Analyzers.reset();
+    }
+
+    @Test
+    public void porterStemmerShouldStripTheSuffixes() {
+        PorterStemFilter stemmer = new PorterStemFilter();
+        String[][] cases = { { "caresses", "caress" }, { "ponies", "poni" }, { "cats", "cat" },
+                { "agreed", "agre" }, { "motoring", "motor" }, { "hopping", "hop" }, { "falling", "fall" },
+                { "filing", "file" }, { "sized", "size" }, { "happy", "happi" }, { "relational", "relat" },
+                { "generalizations", "gener" }, { "index", "index" }, { "indexes", "index" },
+                { "indexing", "index" }, { "indexed", "index" }, { "is", "is" } };
+        for (String[] c : cases)
+            assertEquals(c[0], c[1], stemmer.filter(c[0]));
+    }
+
+    @Test
+    public void englishAnalyzerShouldDropStopwordsAndStem() {
+        assertEquals(List.of("index", "index", "web", "page"),
+                Analyzer.ENGLISH.analyze("The Indexing of the indexed web-pages"));
+        assertEquals(List.of("the", "indexing", "of", "the", "indexed", "web", "pages"),
+                Analyzer.SIMPLE.analyze("The Indexing of the indexed web-pages"));
+        assertEquals("index", Analyzer.ENGLISH.analyzeTerm("Indexes"));
+        assertNull(Analyzer.ENGLISH.analyzeTerm("the"));
+    }
+
+    @Test
+    public void unicodeTokenizerShouldKeepLettersAndDigitsOfAnyScript() {
+        UnicodeTokenizer tokenizer = new UnicodeTokenizer();
+        assertEquals(List.of("Café", "au", "lait", "2020", "Москва", "naïve"),
+                tokenizer.tokenize("Café-au-lait (2020), Москва; nai\u0308ve!"));
+        // bigrams of Chinese and Japanese, a single character is kept
+        assertEquals(List.of("東京", "京都", "in", "日"), tokenizer.tokenize("東京都 in 日"));
+        assertEquals(List.of("ab", "東京", "cd"), tokenizer.tokenize("ab東京cd"));
+        assertEquals(List.of("apple", "pie"), tokenizer.tokenize("apple pie"));
+        assertEquals(List.of(), tokenizer.tokenize(" ,.; "));
+    }
+
+    @Test
+    public void nonEnglishWordsShouldBeSearchable() throws IOException {
+        IndexingEngine engine = new IndexingEngine();
+        engine.index("http://a", "<html><head><title>Café</title></head><body>東京都の天気 2020</body></html>");
+        engine.index("http://b", "<html><head><title>京都</title></head><body>Москва</body></html>");
+
+        assertEquals(1, size(engine.search("café", true).getHeadResults()));
+        assertEquals(1, size(engine.search("москва", true).getBodyResults()));
+        assertEquals(1, size(engine.search("2020", true).getBodyResults()));
+        // "東京都" is matched by all of its bigrams
+        assertEquals(1, size(engine.search("東京都", true).getBodyResults()));
+        assertEquals(0, size(engine.search("東京大学", true).getBodyResults()));
+        SearchResult result = engine.search("京都", true);
+        assertEquals(1, size(result.getHeadResults()));
+        assertEquals(1, size(result.getBodyResults()));
+    }
+
+    @Test
+    public void specShouldBeParsed() {
+        assertEquals(Analyzer.ENGLISH.getSpec(), Analyzer.of(" English ").getSpec());
+        assertEquals("letter,lowercase,porter", Analyzer.of("letter, lowercase, porter").getSpec());
+        assertEquals("Apples", Analyzer.of("letter").analyzeTerm("Apples"));
+        assertInvalid("lowercase,letter");
+        assertInvalid("letter,snowball");
+        assertInvalid("");
+    }
+
+    private static void assertInvalid(String spec) {
+        try {
+            Analyzer.of(spec);
+            throw new AssertionError("Accepted " + spec);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void queriesShouldBeAnalyzedLikeTheField() throws IOException {
+        Analyzers.setHead(Analyzer.SIMPLE);
+        Analyzers.setBody(Analyzer.ENGLISH);
+        assertFalse(Analyzers.isStopword("the"));
+
+        IndexingEngine engine = new IndexingEngine();
+        engine.index("http://a", "<html><head><title>the indexes</title></head>"
+                + "<body>The webpages are indexed for searching</body></html>");
+        engine.index("http://b", "<html><head><title>cats</title></head><body>the cat and the dog</body></html>");
+
+        SearchResult result = engine.search("indexing and the", true);
+        assertEquals(0, size(result.getHeadResults()));
+        assertEquals(1, size(result.getBodyResults()));
+        // stemmed in body, not in head
+        result = engine.search("cat", true);
+        assertEquals(0, size(result.getHeadResults()));
+        assertEquals(1, size(result.getBodyResults()));
+        // "the" is a stopword in body, but not in head
+        result = engine.search("the", true);
+        assertEquals(1, size(result.getHeadResults()));
+        assertEquals(0, size(result.getBodyResults()));
+
+        Analyzers.setHead(Analyzer.ENGLISH);
+        assertTrue(Analyzers.isStopword("the"));
+    }
+
+    private static int size(Collection<WebDoc> results) {
+        return results == null ? 0 : results.size();
+    }
+}
@@ -0,0 +1,146 @@
+package com.curtisnewbie.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Random;
+import java.util.Set;
+
+import com.curtisnewbie.metrics.LatencyHistogram;
+import com.curtisnewbie.webBrowserModel.Query;
+import com.curtisnewbie.webBrowserModel.QueryBuilder;
+import com.curtisnewbie.webBrowserModel.WebDoc;
+import com.curtisnewbie.webBrowserModel.WebIndexForBody;
+import com.curtisnewbie.webBrowserModel.WebIndexForHead;
+
+/**
+ * <p>
+ * End-to-end benchmark over a {@link SyntheticCorpus}: the pages are parsed
+ * into WebDoc and added into the WebIndexForHead and WebIndexForBody, then a
+ * mixed workload of infix queries (single words, and, or, not, nested, prefix,
+ * wildcard and fuzzy queries over Zipfian words) is parsed by the QueryBuilder
+ * and evaluated against both indices, in the calling thread.
+ * </p>
+ * <p>
+ * It reports the docs/sec, the queries/sec, the p50 and p99 latencies of the
+ * queries, and the peak heap of each phase (the sum of the peak usages of the
+ * heap pools, an upper bound), and the heap retained by the indices after a GC.
+ * The first tenth of the queries warm up the JIT and are not reported.
+ * </p>
+ *
+ * <pre>
+ * Usage: EndToEndBenchmark [numOfDocs] [numOfQueries] [vocabulary]
+ * E.g.,  mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.curtisnewbie.benchmark.EndToEndBenchmark -Dexec.args="20000 50000"
+ * </pre>
+ *
+ * @see SyntheticCorpus
+ */
+public class EndToEndBenchmark {
+
+    public static void main(String[] args) {
+        int numOfDocs = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int numOfQueries = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int vocabulary = args.length > 2 ? Integer.parseInt(args[2]) : 50_000;
+        SyntheticCorpus corpus = new SyntheticCorpus(numOfDocs).setVocabulary(vocabulary);
+
+        // the pages are generated up front, so that only the parsing and the indexing are measured
+        String[] pages = new String[numOfDocs];
+        for (int i = 0; i < numOfDocs; i++)
+            pages[i] = corpus.page(i);
+
+        WebIndexForHead head = new WebIndexForHead();
+        WebIndexForBody body = new WebIndexForBody();
+        resetPeakHeap();
+        long start = System.nanoTime();
+        for (int i = 0; i < numOfDocs; i++) {
+            WebDoc doc = new WebDoc(corpus.url(i), pages[i]);
+            head.add(doc);
+            body.add(doc);
+        }
+        long indexingNanos = System.nanoTime() - start;
+        long indexingPeak = peakHeap();
+        pages = null;
+        System.gc();
+        long retained = usedHeap();
+
+        System.out.printf("docs: %d, vocabulary: %d, head words: %d, body words: %d%n", numOfDocs, vocabulary,
+                head.getNumOfWords(), body.getNumOfWords());
+        System.out.printf("indexing: %.1f docs/sec, peak heap: %.1f MB, retained heap: %.1f MB%n",
+                numOfDocs / (indexingNanos / 1e9), indexingPeak / 1e6, retained / 1e6);
+
+        String[] queries = createQueries(corpus, numOfQueries);
+        int warmup = numOfQueries / 10;
+        LatencyHistogram latencies = new LatencyHistogram();
+        long results = 0;
+        resetPeakHeap();
+        long measuredNanos = 0;
+        for (int i = 0; i < numOfQueries; i++) {
+            long t = System.nanoTime();
+            Query query = QueryBuilder.parseInfixForm(queries[i]);
+            Set<WebDoc> inHead = query.matches(head);
+            Set<WebDoc> inBody = query.matches(body);
+            long elapsed = System.nanoTime() - t;
+            results += (inHead == null ? 0 : inHead.size()) + (inBody == null ? 0 : inBody.size());
+            if (i >= warmup) {
+                latencies.record(elapsed);
+                measuredNanos += elapsed;
+            }
+        }
+        long queryingPeak = peakHeap();
+
+        System.out.printf("queries: %d (+%d warm-up), mean results: %.1f%n", latencies.getCount(), warmup,
+                (double) results / numOfQueries);
+        System.out.printf("querying: %.1f queries/sec, p50: %.3f ms, p99: %.3f ms, max: %.3f ms, peak heap: %.1f MB%n",
+                latencies.getCount() / (measuredNanos / 1e9), latencies.getValueAtPercentile(50) / 1e6,
+                latencies.getValueAtPercentile(99) / 1e6, latencies.getMax() / 1e6, queryingPeak / 1e6);
+    }
+
+    /**
+     * Create the mixed workload, most of the queries are single words or simple
+     * conjunctions, like those typed by the users
+     */
+    private static String[] createQueries(SyntheticCorpus corpus, int n) {
+        Random random = new Random(7);
+        String[] queries = new String[n];
+        for (int i = 0; i < n; i++) {
+            String a = corpus.randomWord(random);
+            String b = corpus.randomWord(random);
+            int kind = random.nextInt(100);
+            if (kind < 35)
+                queries[i] = a;
+            else if (kind < 55)
+                queries[i] = a + " and " + b;
+            else if (kind < 70)
+                queries[i] = a + " or " + b;
+            else if (kind < 75)
+                queries[i] = a + " and not " + b;
+            else if (kind < 80)
+                queries[i] = "(" + a + " or " + b + ") and " + corpus.randomWord(random);
+            else if (kind < 90)
+                queries[i] = a.substring(0, 2) + "*";
+            else if (kind < 95)
+                queries[i] = a.charAt(0) + "?" + a.substring(2) + "*";
+            else
+                queries[i] = a + "~1";
+        }
+        return queries;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP)
+                pool.resetPeakUsage();
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP)
+                peak += pool.getPeakUsage().getUsed();
+        return peak;
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
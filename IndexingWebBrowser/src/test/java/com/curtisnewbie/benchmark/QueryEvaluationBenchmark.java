@@ -0,0 +1,98 @@
+package com.curtisnewbie.benchmark;
+
+import static com.curtisnewbie.benchmark.SyntheticCorpus.word;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.curtisnewbie.webBrowserModel.Query;
+import com.curtisnewbie.webBrowserModel.QueryBuilder;
+import com.curtisnewbie.webBrowserModel.QueryEvaluator;
+import com.curtisnewbie.webBrowserModel.WebDoc;
+import com.curtisnewbie.webBrowserModel.WebIndexForBody;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares sequential and parallel evaluation of nested boolean queries with 1,
+ * 4 and 16 threads. Run it from the IDE or with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.curtisnewbie.benchmark.QueryEvaluationBenchmark
+ * </pre>
+ *
+ * @see QueryEvaluator
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryEvaluationBenchmark {
+
+    private static final int VOCABULARY = 2_000;
+    private static final int WORDS_PER_DOC = 300;
+
+    /** 1 means the sequential evaluation */
+    @Param({ "1", "4", "16" })
+    public int threads;
+
+    @Param({ "5000" })
+    public int numOfDocs;
+
+    private WebIndexForBody index;
+    private Query query;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index = new WebIndexForBody();
+        for (int i = 0; i < numOfDocs; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int j = 0; j < WORDS_PER_DOC; j++) {
+                body.append(word(random.nextInt(VOCABULARY))).append(' ');
+            }
+            index.add(new WebDoc("http://bench/" + i, "<html><head></head><body>" + body + "</body></html>"));
+        }
+        query = QueryBuilder.parse("or(and(" + word(1) + "," + word(2) + "),and(" + word(3) + ",not(" + word(4)
+                + ")),or(" + word(5) + "," + word(6) + "),and(or(" + word(7) + "," + word(8) + ")," + word(9) + "))");
+
+        if (threads > 1) {
+            QueryEvaluator.enableParallelism(threads);
+            QueryEvaluator.setCostThreshold(0);
+        } else {
+            QueryEvaluator.disableParallelism();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        QueryEvaluator.disableParallelism();
+        QueryEvaluator.setCostThreshold(QueryEvaluator.DEFAULT_COST_THRESHOLD);
+    }
+
+    @Benchmark
+    public Set<WebDoc> nestedQuery() {
+        return query.matches(index);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QueryEvaluationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.curtisnewbie.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.curtisnewbie.server.SearchServer;
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+
+/**
+ * <p>
+ * Local load test for the SearchServer, it reports the QPS and the latency
+ * percentiles. Unless a base url is given, it starts a SearchServer over a
+ * synthetic index on an ephemeral port.
+ * </p>
+ *
+ * <pre>
+ * Usage: SearchLoadGenerator [concurrency] [requests] [baseUrl]
+ * E.g.,  SearchLoadGenerator 32 20000 http://localhost:8080
+ * </pre>
+ *
+ * @see SearchServer
+ */
+public class SearchLoadGenerator {
+
+    private static final String[] QUERIES = { "waa and wab", "wac or wad", "not wae", "waf and (wag or wah)",
+            "wa*", "wab~1" };
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int numOfRequests = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        String baseUrl = args.length > 2 ? args[2] : null;
+
+        SearchServer server = null;
+        if (baseUrl == null) {
+            server = new SearchServer(createEngine(2_000));
+            server.start(0);
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(concurrency)).build();
+        long[] latencies = new long[numOfRequests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        final String base = baseUrl;
+
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            workers.execute(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < numOfRequests) {
+                    String q = URLEncoder.encode(QUERIES[i % QUERIES.length], StandardCharsets.UTF_8);
+                    HttpRequest req = HttpRequest.newBuilder(URI.create(base + "/search?q=" + q)).build();
+                    long t = System.nanoTime();
+                    try {
+                        HttpResponse<Void> resp = client.send(req, HttpResponse.BodyHandlers.discarding());
+                        if (resp.statusCode() != 200)
+                            errors.incrementAndGet();
+                    } catch (IOException | InterruptedException e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - t;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("requests: %d, concurrency: %d, errors: %d%n", numOfRequests, concurrency, errors.get());
+        System.out.printf("QPS: %.1f%n", numOfRequests / (elapsed / 1e9));
+        System.out.printf("latency p50: %.3f ms, p99: %.3f ms, max: %.3f ms%n", percentile(latencies, 0.50),
+                percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+
+        if (server != null)
+            server.stop();
+        System.exit(0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static IndexingEngine createEngine(int numOfDocs) throws IOException {
+        Random random = new Random(42);
+        IndexingEngine engine = new IndexingEngine();
+        for (int i = 0; i < numOfDocs; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int j = 0; j < 200; j++) {
+                body.append("wa").append((char) ('a' + random.nextInt(26))).append(' ');
+                body.append("w").append(Integer.toString(random.nextInt(5000), 26).replaceAll("[0-9]", "z"))
+                        .append(' ');
+            }
+            engine.index("http://load/" + i, "<html><head><title>page</title></head><body>" + body + "</body></html>");
+        }
+        return engine;
+    }
+}
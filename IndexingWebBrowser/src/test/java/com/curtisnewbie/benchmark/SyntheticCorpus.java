@@ -0,0 +1,273 @@
+package com.curtisnewbie.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <p>
+ * Generator of synthetic HTML pages, the words are drawn from a vocabulary with
+ * a Zipfian distribution (the word of rank r is drawn with a probability
+ * proportional to 1 / r^s), so a few words are in most pages and most words are
+ * rare, like in natural text. Each page has a title of {@code headWords} words,
+ * a body of {@code bodyWords} words, and {@code linksPerPage} links to the
+ * other pages, the targets of the links are Zipfian as well, so a few pages are
+ * linked by most pages.
+ * </p>
+ * <p>
+ * A page only depends on the settings and its number, so the same corpus is
+ * generated on every run, and any page can be generated without the others.
+ * The words only contain letters other than 'n' and 'o', so that they are
+ * never mistaken for the operators "and", "or" and "not" of the infix queries.
+ * </p>
+ *
+ * <pre>
+ * Usage: SyntheticCorpus [numOfPages] [dir]
+ * E.g.,  SyntheticCorpus 1000 /tmp/corpus
+ * </pre>
+ *
+ * @see EndToEndBenchmark
+ */
+public class SyntheticCorpus {
+
+    /** Letters of the words */
+    private static final String ALPHABET = "abcdefghijklmpqrstuvwxyz";
+
+    /** Prefix of the urls of the pages */
+    public static final String URL_PREFIX = "http://synthetic.test/page/";
+
+    private final int numOfPages;
+    private int vocabulary = 50_000;
+    private double zipfExponent = 1.0;
+    private int headWords = 8;
+    private int bodyWords = 400;
+    private int linksPerPage = 10;
+    private long seed = 42;
+
+    /** Cumulative probabilities of the ranks of the words and of the pages */
+    private double[] wordCdf;
+    private double[] pageCdf;
+
+    /**
+     * Instantiate SyntheticCorpus with the default settings
+     *
+     * @param numOfPages number of pages
+     */
+    public SyntheticCorpus(int numOfPages) {
+        if (numOfPages <= 0)
+            throw new IllegalArgumentException("Number of pages should be positive");
+        this.numOfPages = numOfPages;
+    }
+
+    /**
+     * Set the number of unique words, 50,000 by default
+     *
+     * @param vocabulary number of unique words
+     * @return this
+     */
+    public SyntheticCorpus setVocabulary(int vocabulary) {
+        if (vocabulary <= 0)
+            throw new IllegalArgumentException("Vocabulary should be positive");
+        this.vocabulary = vocabulary;
+        this.wordCdf = null;
+        return this;
+    }
+
+    /**
+     * Set the exponent s of the Zipfian distribution, 1.0 by default, the greater
+     * it is, the more skewed the distribution is
+     *
+     * @param zipfExponent exponent
+     * @return this
+     */
+    public SyntheticCorpus setZipfExponent(double zipfExponent) {
+        if (zipfExponent < 0)
+            throw new IllegalArgumentException("Exponent should not be negative");
+        this.zipfExponent = zipfExponent;
+        this.wordCdf = null;
+        this.pageCdf = null;
+        return this;
+    }
+
+    /**
+     * Set the number of words in the title, 8 by default
+     *
+     * @param headWords number of words
+     * @return this
+     */
+    public SyntheticCorpus setHeadWords(int headWords) {
+        this.headWords = Math.max(0, headWords);
+        return this;
+    }
+
+    /**
+     * Set the number of words in the body (excluding the texts of the links), 400
+     * by default
+     *
+     * @param bodyWords number of words
+     * @return this
+     */
+    public SyntheticCorpus setBodyWords(int bodyWords) {
+        this.bodyWords = Math.max(0, bodyWords);
+        return this;
+    }
+
+    /**
+     * Set the number of links in each page, 10 by default
+     *
+     * @param linksPerPage number of links
+     * @return this
+     */
+    public SyntheticCorpus setLinksPerPage(int linksPerPage) {
+        this.linksPerPage = Math.max(0, linksPerPage);
+        return this;
+    }
+
+    /**
+     * Set the seed, 42 by default
+     *
+     * @param seed seed
+     * @return this
+     */
+    public SyntheticCorpus setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Get the number of pages
+     *
+     * @return number of pages
+     */
+    public int getNumOfPages() {
+        return numOfPages;
+    }
+
+    /**
+     * Get the url of the page
+     *
+     * @param i number of the page
+     * @return url
+     */
+    public String url(int i) {
+        return URL_PREFIX + i;
+    }
+
+    /**
+     * Generate the page
+     *
+     * @param i number of the page, from 0 to numOfPages - 1
+     * @return HTML of the page
+     */
+    public String page(int i) {
+        Random random = new Random(seed * 31 + i);
+        StringBuilder sb = new StringBuilder(64 + (headWords + bodyWords) * 8 + linksPerPage * 64);
+        sb.append("<html><head><title>");
+        appendWords(sb, random, headWords);
+        sb.append("</title></head><body>\n<p>");
+        int linkEvery = linksPerPage == 0 ? Integer.MAX_VALUE : Math.max(1, bodyWords / linksPerPage);
+        int links = 0;
+        for (int j = 0; j < bodyWords; j++) {
+            if (j > 0 && j % 60 == 0)
+                sb.append("</p>\n<p>");
+            sb.append(randomWord(random)).append(' ');
+            if (links < linksPerPage && j % linkEvery == linkEvery - 1) {
+                appendLink(sb, random);
+                links++;
+            }
+        }
+        for (; links < linksPerPage; links++)
+            appendLink(sb, random);
+        sb.append("</p>\n</body></html>");
+        return sb.toString();
+    }
+
+    /**
+     * Draw a word from the vocabulary, e.g., for the queries over the corpus
+     *
+     * @param random Random
+     * @return word
+     */
+    public String randomWord(Random random) {
+        if (wordCdf == null)
+            wordCdf = cdf(vocabulary, zipfExponent);
+        return word(sample(wordCdf, random));
+    }
+
+    /**
+     * Get the word of the rank, rank 0 is the most frequent one
+     *
+     * @param rank rank of the word
+     * @return a word of at least three letters
+     */
+    public static String word(int rank) {
+        int base = ALPHABET.length();
+        int n = rank + base * base;
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append(ALPHABET.charAt(n % base));
+            n /= base;
+        } while (n > 0);
+        return sb.toString();
+    }
+
+    /**
+     * Write the pages into the directory, one file per page ("page-[i].html"),
+     * they can be browsed or indexed with a prefix of "file:"
+     *
+     * @param dir directory, it's created if it doesn't exist
+     * @throws IOException if it fails to write a file
+     */
+    public void writeTo(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        for (int i = 0; i < numOfPages; i++)
+            Files.write(dir.resolve("page-" + i + ".html"), page(i).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void appendWords(StringBuilder sb, Random random, int n) {
+        for (int j = 0; j < n; j++) {
+            if (j > 0)
+                sb.append(' ');
+            sb.append(randomWord(random));
+        }
+    }
+
+    private void appendLink(StringBuilder sb, Random random) {
+        if (pageCdf == null)
+            pageCdf = cdf(numOfPages, zipfExponent);
+        sb.append("<a href=\"").append(url(sample(pageCdf, random))).append("\">").append(randomWord(random))
+                .append("</a> ");
+    }
+
+    /**
+     * Cumulative probabilities of the ranks from 0 to n - 1, the rank r has a
+     * weight of 1 / (r + 1)^s
+     */
+    private static double[] cdf(int n, double s) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int r = 0; r < n; r++) {
+            sum += 1 / Math.pow(r + 1, s);
+            cdf[r] = sum;
+        }
+        for (int r = 0; r < n; r++)
+            cdf[r] /= sum;
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, Random random) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(cdf.length - 1, i >= 0 ? i : -i - 1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int numOfPages = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        Path dir = Paths.get(args.length > 1 ? args[1] : "synthetic-corpus");
+        new SyntheticCorpus(numOfPages).writeTo(dir);
+        System.out.println("Wrote " + numOfPages + " pages into " + dir.toAbsolutePath());
+    }
+}
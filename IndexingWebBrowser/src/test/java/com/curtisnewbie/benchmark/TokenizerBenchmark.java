@@ -0,0 +1,90 @@
+package com.curtisnewbie.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.curtisnewbie.analysis.LetterTokenizer;
+import com.curtisnewbie.analysis.Tokenizer;
+import com.curtisnewbie.analysis.UnicodeTokenizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the UnicodeTokenizer with the LetterTokenizer (ASCII letters only)
+ * over texts of about 16 KB: ASCII-only English, mixed (English with accented,
+ * Cyrillic and Chinese words) and CJK-heavy (mostly Chinese and Japanese). Run
+ * it from the IDE or with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.curtisnewbie.benchmark.TokenizerBenchmark
+ * </pre>
+ *
+ * @see UnicodeTokenizer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    private static final int TEXT_LENGTH = 16 * 1024;
+
+    private static final String[] ENGLISH = { "the", "index", "of", "webpages", "is", "searched", "with",
+            "queries", "and", "results", "2020", "Browser", "Java" };
+    private static final String[] OTHERS = { "café", "naïve", "Москва", "поиск", "Straße", "東京都", "検索エンジン",
+            "北京大学" };
+    private static final String[] CJK = { "東京都の天気", "検索エンジン", "北京大学", "索引", "网页", "查询结果", "日本語" };
+
+    @Param({ "ascii", "mixed", "cjk" })
+    public String input;
+
+    @Param({ "unicode", "letter" })
+    public String tokenizerName;
+
+    private Tokenizer tokenizer;
+    private String text;
+
+    @Setup
+    public void setup() {
+        tokenizer = tokenizerName.equals("unicode") ? new UnicodeTokenizer() : new LetterTokenizer();
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(TEXT_LENGTH + 32);
+        while (sb.length() < TEXT_LENGTH) {
+            int r = random.nextInt(100);
+            String word;
+            if (input.equals("ascii"))
+                word = ENGLISH[random.nextInt(ENGLISH.length)];
+            else if (input.equals("mixed"))
+                word = r < 80 ? ENGLISH[random.nextInt(ENGLISH.length)] : OTHERS[random.nextInt(OTHERS.length)];
+            else
+                word = r < 85 ? CJK[random.nextInt(CJK.length)] : ENGLISH[random.nextInt(ENGLISH.length)];
+            sb.append(word).append(r % 10 == 0 ? ", " : " ");
+        }
+        text = sb.toString();
+    }
+
+    @Benchmark
+    public List<String> tokenize() {
+        return tokenizer.tokenize(text);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenizerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.curtisnewbie.crawler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+
+import com.curtisnewbie.fetch.WebFetcher;
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+import com.curtisnewbie.webBrowserModel.SearchResult;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CrawlerTest {
+
+    /** Number of pages in the synthetic site, page i links to page 2i+1 and 2i+2 */
+    private static final int NUM_OF_PAGES = 1000;
+
+    private HttpServer server;
+    private String baseUrl;
+    private WebFetcher fetcher;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/page/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            int i = Integer.parseInt(path.substring("/page/".length()));
+            String html = "<html><head><title>page" + i + "</title></head><body>"
+                    + "<a href=\"/page/" + (2 * i + 1) + "\">left</a>" + "<a href=\"" + (2 * i + 2) + "#top\">right</a>"
+                    + "<a href=\"/page/" + i + "\">self</a>" + "<a href=\"http://elsewhere.invalid/\">away</a>"
+                    + "</body></html>";
+            byte[] body = html.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            exchange.sendResponseHeaders(i < NUM_OF_PAGES ? 200 : 404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        fetcher = new WebFetcher(Duration.ofSeconds(5), Duration.ofSeconds(5), WebFetcher.DEF_MAX_BODY_BYTES, 16);
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private CrawlPolicy createPolicy(int maxDepth, int maxPages, long hostDelayMillis) {
+        CrawlPolicy policy = new CrawlPolicy();
+        policy.setMaxDepth(maxDepth);
+        policy.setMaxPages(maxPages);
+        policy.setHostDelayMillis(hostDelayMillis);
+        policy.setMaxConcurrentFetches(16);
+        policy.setQueueCapacity(8);
+        return policy;
+    }
+
+    @Test
+    public void pagesWithinDepthShouldBeIndexed() throws InterruptedException {
+        IndexingEngine engine = new IndexingEngine();
+        CrawlStats stats = new Crawler(engine, fetcher, createPolicy(3, 1000, 0))
+                .crawl(Arrays.asList(baseUrl + "/page/0"));
+        // 1 + 2 + 4 + 8 pages, the links to other hosts and the duplicates are not followed
+        Assert.assertEquals(15, stats.getNumOfFetched());
+        Assert.assertEquals(15, stats.getNumOfIndexed());
+        Assert.assertEquals(0, stats.getNumOfFailed());
+        Assert.assertTrue(engine.contains(baseUrl + "/page/14"));
+        SearchResult result = engine.search("page14", true);
+        Assert.assertEquals(1, result.getHeadResults().size());
+    }
+
+    @Test
+    public void pageBudgetShouldBeRespected() throws InterruptedException {
+        IndexingEngine engine = new IndexingEngine();
+        CrawlStats stats = new Crawler(engine, fetcher, createPolicy(20, 300, 0))
+                .crawl(Arrays.asList(baseUrl + "/page/0"));
+        Assert.assertEquals(300, stats.getNumOfFetched() + stats.getNumOfFailed());
+        Assert.assertEquals(stats.getNumOfFetched(), engine.getNumOfDocs());
+        System.out.println("Crawled the synthetic site: " + stats);
+    }
+
+    @Test
+    public void requestsToSameHostShouldBeDelayed() throws InterruptedException {
+        CrawlStats stats = new Crawler(new IndexingEngine(), fetcher, createPolicy(1, 1000, 100))
+                .crawl(Arrays.asList(baseUrl + "/page/0"));
+        Assert.assertEquals(3, stats.getNumOfFetched());
+        Assert.assertTrue("Three requests to the same host should take at least 200ms",
+                stats.getElapsedMillis() >= 200);
+    }
+}
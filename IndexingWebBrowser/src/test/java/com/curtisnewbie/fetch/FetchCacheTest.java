@@ -0,0 +1,82 @@
+package com.curtisnewbie.fetch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FetchCacheTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final byte[] PAGE = "<html><body>apple banana</body></html>".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private String url;
+    private AtomicInteger numOfFullResponses;
+    private Path cacheFile;
+
+    @Before
+    public void startServer() throws IOException {
+        numOfFullResponses = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/page", exchange -> {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            numOfFullResponses.incrementAndGet();
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            exchange.sendResponseHeaders(200, PAGE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(PAGE);
+            }
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/page";
+        cacheFile = Files.createTempFile("fetch-cache", ".json");
+        Files.delete(cacheFile);
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.stop(0);
+        Files.deleteIfExists(cacheFile);
+    }
+
+    @Test
+    public void unmodifiedPageShouldNotBeDownloadedAgain() throws IOException {
+        FetchCache cache = new FetchCache(WebFetcher.getDefault(), cacheFile);
+        Assert.assertEquals(200, cache.fetch(url).getStatusCode());
+        Assert.assertTrue(cache.hasValidators(url));
+
+        FetchResult result = cache.fetch(url);
+        Assert.assertEquals(304, result.getStatusCode());
+        Assert.assertEquals(1, numOfFullResponses.get());
+        Assert.assertEquals(1, cache.getNumOfNotModified());
+        Assert.assertEquals(PAGE.length, cache.getBytesSaved());
+    }
+
+    @Test
+    public void validatorsShouldBePersisted() throws IOException {
+        FetchCache cache = new FetchCache(WebFetcher.getDefault(), cacheFile);
+        cache.fetch(url);
+        cache.save();
+
+        FetchCache reloaded = new FetchCache(WebFetcher.getDefault(), cacheFile);
+        reloaded.load();
+        Assert.assertTrue(reloaded.hasValidators(url));
+        Assert.assertEquals(304, reloaded.fetch(url).getStatusCode());
+        Assert.assertEquals(PAGE.length, reloaded.getBytesSaved());
+    }
+}
@@ -0,0 +1,168 @@
+package com.curtisnewbie.fetch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import com.curtisnewbie.webBrowserModel.WebDoc;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WebFetcherTest {
+
+    private static final String PAGE = "<html><head><title>Local Page</title></head><body>apple banana</body></html>";
+    private static final String SJIS_PAGE = "<html><head><meta charset=\"Shift_JIS\"><title>東京</title></head>"
+            + "<body>検索エンジン</body></html>";
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/page", exchange -> send(exchange, PAGE.getBytes(StandardCharsets.UTF_8), null));
+        server.createContext("/gzip", exchange -> send(exchange, gzip(PAGE), "gzip"));
+        server.createContext("/big", exchange -> send(exchange, new byte[64 * 1024], null));
+        server.createContext("/sjis", exchange -> {
+            // the charset is only declared in the meta tag
+            byte[] body = SJIS_PAGE.getBytes(Charset.forName("Shift_JIS"));
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/stalled", exchange -> {
+            // half of the body is sent, and then the server stops sending
+            exchange.sendResponseHeaders(200, 2048);
+            OutputStream out = exchange.getResponseBody();
+            out.write(new byte[1024]);
+            out.flush();
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                // stopped
+            }
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    private static void send(HttpExchange exchange, byte[] body, String encoding) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        if (encoding != null)
+            exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(String s) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(s.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private WebFetcher createFetcher(long maxBodyBytes) {
+        return new WebFetcher(Duration.ofSeconds(5), Duration.ofSeconds(5), maxBodyBytes, 4);
+    }
+
+    @Test
+    public void pageShouldBeFetched() throws IOException {
+        FetchResult result = createFetcher(WebFetcher.DEF_MAX_BODY_BYTES).fetch(baseUrl + "/page");
+        Assert.assertTrue(result.isOk());
+        Assert.assertEquals(PAGE, result.getBody());
+    }
+
+    @Test
+    public void gzipBodyShouldBeDecompressed() throws IOException {
+        FetchResult result = createFetcher(WebFetcher.DEF_MAX_BODY_BYTES).fetch(baseUrl + "/gzip");
+        Assert.assertEquals(PAGE, result.getBody());
+        Assert.assertTrue("Compressed bytes should be counted", result.getBytesReceived() > 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void bodyExceedingMaxSizeShouldBeRejected() throws IOException {
+        createFetcher(1024).fetch(baseUrl + "/big");
+    }
+
+    @Test
+    public void charsetShouldBeDetectedFromMetaTag() throws IOException {
+        FetchResult result = createFetcher(WebFetcher.DEF_MAX_BODY_BYTES).fetch(baseUrl + "/sjis");
+        Assert.assertEquals(SJIS_PAGE, result.getBody());
+    }
+
+    @Test
+    public void stalledBodyShouldTimeOut() throws IOException {
+        WebFetcher fetcher = new WebFetcher(Duration.ofSeconds(5), Duration.ofSeconds(1), WebFetcher.DEF_MAX_BODY_BYTES,
+                1);
+        long start = System.nanoTime();
+        try {
+            fetcher.fetch(baseUrl + "/stalled");
+            Assert.fail("Stalled body should not be read");
+        } catch (IOException e) {
+            // expected
+        }
+        Assert.assertTrue(Duration.ofNanos(System.nanoTime() - start).getSeconds() < 10);
+        // the permit of the host is released
+        Assert.assertTrue(fetcher.fetch(baseUrl + "/page").isOk());
+    }
+
+    @Test
+    public void statusCodeShouldBeReported() throws IOException {
+        FetchResult result = createFetcher(WebFetcher.DEF_MAX_BODY_BYTES).fetch(baseUrl + "/missing");
+        Assert.assertFalse(result.isOk());
+        Assert.assertEquals(404, result.getStatusCode());
+    }
+
+    @Test
+    public void urlsShouldBeFetchedInParallel() {
+        WebFetcher fetcher = createFetcher(WebFetcher.DEF_MAX_BODY_BYTES);
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            urls.add(baseUrl + (i % 2 == 0 ? "/page" : "/gzip") + "?n=" + i);
+        }
+        List<CompletableFuture<FetchResult>> futures = fetcher.fetchAll(urls);
+        Assert.assertEquals(urls.size(), futures.size());
+        for (CompletableFuture<FetchResult> f : futures) {
+            Assert.assertEquals(PAGE, f.join().getBody());
+        }
+    }
+
+    @Test
+    public void webDocShouldBeCreatedFromFetchedPage() throws IOException {
+        WebDoc doc = new WebDoc(baseUrl + "/page");
+        Assert.assertTrue(doc.getHeadWords().contains("local"));
+        Assert.assertTrue(doc.getBodyWords().contains("banana"));
+    }
+}
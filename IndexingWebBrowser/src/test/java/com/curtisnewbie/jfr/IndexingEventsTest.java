@@ -0,0 +1,72 @@
+package com.curtisnewbie.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/** Test cases for the JFR events and the settings in jfr/indexing.jfc */
+public class IndexingEventsTest {
+
+    @Test
+    public void eventsShouldBeDisabledByDefault() {
+        FlightRecorder.register(IndexAddEvent.class);
+        assertTrue(EventType.getEventType(IndexAddEvent.class).getName().startsWith("com.curtisnewbie."));
+        assertFalse(EventType.getEventType(IndexAddEvent.class).isEnabled());
+    }
+
+    @Test
+    public void eventsShouldBeRecordedWithTheSettings() throws IOException, ParseException {
+        Configuration configuration;
+        try (Reader reader = new InputStreamReader(getClass().getResourceAsStream("/jfr/indexing.jfc"),
+                StandardCharsets.UTF_8)) {
+            configuration = Configuration.create(reader);
+        }
+        Path file = Files.createTempFile("indexing", ".jfr");
+        try (Recording recording = new Recording(configuration)) {
+            recording.start();
+            IndexingEngine engine = new IndexingEngine();
+            engine.index("http://a", "<html><head><title>fruit</title></head><body>apple banana</body></html>");
+            engine.search("apple and not pear", true);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        RecordedEvent indexAdd = null;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            counts.merge(event.getEventType().getName(), 1, Integer::sum);
+            if (event.getEventType().getName().equals("com.curtisnewbie.IndexAdd")
+                    && event.getString("section").equals("body"))
+                indexAdd = event;
+        }
+        Files.delete(file);
+        assertEquals(1, (int) counts.get("com.curtisnewbie.DocumentParsed"));
+        assertEquals(2, (int) counts.get("com.curtisnewbie.IndexAdd"));
+        assertTrue(counts.get("com.curtisnewbie.QueryParsed") >= 1);
+        // head and body, each with AND, ATOMIC, NOT and the ATOMIC in NOT
+        assertEquals(8, (int) counts.get("com.curtisnewbie.QueryEvaluated"));
+        assertEquals("http://a/", indexAdd.getString("url"));
+        assertEquals(2, indexAdd.getInt("wordsAdded"));
+    }
+}
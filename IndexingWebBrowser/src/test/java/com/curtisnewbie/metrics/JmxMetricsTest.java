@@ -0,0 +1,61 @@
+package com.curtisnewbie.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+
+/** Test cases for LatencyHistogram and the MXBeans registered by JmxMetrics */
+public class JmxMetricsTest {
+
+    @Test
+    public void percentilesShouldBeWithinThePrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++)
+            histogram.record(i * 1000);
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        double[] percentiles = { 50, 90, 99, 99.9 };
+        for (double p : percentiles) {
+            double expected = p * 1000 * 1000;
+            double actual = histogram.getValueAtPercentile(p);
+            assertTrue(p + ": " + actual, actual >= expected && actual <= expected * 1.04);
+        }
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void attributesShouldBeReadFromTheEngine() throws IOException, JMException {
+        IndexingEngine engine = new IndexingEngine();
+        engine.index("http://a", "<html><head><title>fruit</title></head><body>apple banana</body></html>");
+        engine.index("http://b", "<html><head><title>animal</title></head><body>cat dog apple</body></html>");
+        engine.search("apple and banana", true);
+        engine.search("apple", true);
+        JmxMetrics.register(engine);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName index = new ObjectName(JmxMetrics.DOMAIN + ":type=Index");
+        assertEquals(2, server.getAttribute(index, "Documents"));
+        assertEquals(2L, server.getAttribute(index, "DocsIndexed"));
+        assertEquals(4, server.getAttribute(index, "BodyTerms"));
+        assertTrue((Long) server.getAttribute(index, "EstimatedHeapBytes") > 0);
+        ObjectName and = new ObjectName(JmxMetrics.DOMAIN + ":type=QueryLatency,queryType=AND");
+        assertEquals(1L, server.getAttribute(and, "Count"));
+        ObjectName atomic = new ObjectName(JmxMetrics.DOMAIN + ":type=QueryLatency,queryType=ATOMIC");
+        assertEquals(1L, server.getAttribute(atomic, "Count"));
+
+        // registering again replaces the MXBeans
+        JmxMetrics.register(new IndexingEngine());
+        assertEquals(0, server.getAttribute(index, "Documents"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.curtisnewbie.querylog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+
+/** Test cases for QueryLogWriter, QueryLogReader and QueryLogReplayer */
+public class QueryLogTest {
+
+    @Test
+    public void recordsShouldBeReadAsTheyAreAppended() throws IOException {
+        Path file = Files.createTempFile("queries", ".qlog");
+        Files.delete(file);
+        try {
+            try (QueryLogWriter writer = new QueryLogWriter(file)) {
+                writer.append(new QueryLogRecord("apple and banana", true, 1_600_000_000_000L, 123_456, 1, 2));
+            }
+            // appended to the existing log
+            try (QueryLogWriter writer = new QueryLogWriter(file)) {
+                writer.append(new QueryLogRecord("or(café,pear)", false, 1_600_000_000_001L, 7, 0, -1));
+            }
+            List<QueryLogRecord> records = QueryLogReader.readAll(file);
+            assertEquals(2, records.size());
+            assertEquals("apple and banana", records.get(0).getQuery());
+            assertTrue(records.get(0).isInfix());
+            assertEquals(1_600_000_000_000L, records.get(0).getTimestamp());
+            assertEquals(123_456, records.get(0).getLatencyNanos());
+            assertEquals(2, records.get(0).getNumOfBodyResults());
+            assertEquals("or(café,pear)", records.get(1).getQuery());
+            assertFalse(records.get(1).isInfix());
+            assertEquals(-1, records.get(1).getNumOfBodyResults());
+
+            // a partially written record is the end of the log
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+            assertEquals(1, QueryLogReader.readAll(file).size());
+
+            // the partial record is truncated before appending
+            try (QueryLogWriter writer = new QueryLogWriter(file)) {
+                writer.append(new QueryLogRecord("cherry", true, 1_600_000_000_002L, 9, 3, 4));
+            }
+            records = QueryLogReader.readAll(file);
+            assertEquals(2, records.size());
+            assertEquals("cherry", records.get(1).getQuery());
+            assertEquals(4, records.get(1).getNumOfBodyResults());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void fileThatIsNotQueryLogShouldNotBeAppended() throws IOException {
+        Path file = Files.createTempFile("notes", ".txt");
+        try {
+            Files.write(file, "not a query log".getBytes(StandardCharsets.UTF_8));
+            try {
+                new QueryLogWriter(file).close();
+                fail("Appended to a file that is not a query log");
+            } catch (IOException e) {
+                // expected
+            }
+            assertEquals("not a query log", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void replayShouldReportTheDrifts() throws IOException, InterruptedException {
+        IndexingEngine engine = new IndexingEngine();
+        engine.index("http://a", "<html><head><title>fruit</title></head><body>apple banana</body></html>");
+        engine.index("http://b", "<html><head><title>animal</title></head><body>cat dog apple</body></html>");
+        List<QueryLogRecord> recorded = List.of(new QueryLogRecord("apple", true, 0, 1000, 0, 2),
+                new QueryLogRecord("and(apple,cat)", false, 0, 1000, 0, 1),
+                new QueryLogRecord("banana", true, 0, 1000, 0, 5));
+
+        List<QueryLogRecord> replayed = new QueryLogReplayer(engine, 2).replay(recorded);
+        assertEquals(3, replayed.size());
+        assertEquals(2, replayed.get(0).getNumOfBodyResults());
+        assertEquals(1, replayed.get(1).getNumOfBodyResults());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, QueryLogReplayer.compare(recorded, replayed, new PrintStream(out, true, "UTF-8")));
+        assertTrue(out.toString("UTF-8").contains("Drift: banana  head 0 -> 0, body 5 -> 1"));
+    }
+}
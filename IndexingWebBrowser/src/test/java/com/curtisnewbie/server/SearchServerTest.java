@@ -0,0 +1,108 @@
+package com.curtisnewbie.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Test cases for SearchServer */
+public class SearchServerTest {
+
+    private SearchServer server;
+    private HttpClient client;
+
+    @Before
+    public void setup() throws IOException {
+        IndexingEngine engine = new IndexingEngine();
+        engine.index("http://a", "<html><head><title>fruit</title></head><body>apple banana</body></html>");
+        engine.index("http://b", "<html><head><title>animal</title></head><body>cat dog apple</body></html>");
+        server = new SearchServer(engine);
+        server.start(0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + pathAndQuery))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Send the request line as it is, the HttpClient rejects a malformed uri
+     * before sending it
+     */
+    private int rawStatus(String pathAndQuery) throws IOException {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + pathAndQuery + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            // e.g., "HTTP/1.1 400 Bad Request"
+            return Integer.parseInt(in.readLine().split(" ")[1]);
+        }
+    }
+
+    private static String encode(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void searchShouldReturnResults() throws IOException, InterruptedException {
+        HttpResponse<String> resp = get("/search?q=" + encode("apple and not cat"));
+        assertEquals(200, resp.statusCode());
+        assertTrue(resp.body(), resp.body().contains("\"body\":{\"count\":1,\"results\":[\"http://a/\"]}"));
+
+        resp = get("/search?form=prefix&q=" + encode("or(fruit,anim*)"));
+        assertEquals(200, resp.statusCode());
+        assertTrue(resp.body(), resp.body().contains("\"head\":{\"count\":2"));
+
+        resp = get("/search?q=apple&sort=words&order=desc&limit=1");
+        assertEquals(200, resp.statusCode());
+        assertTrue(resp.body(), resp.body().contains("\"body\":{\"count\":1,\"results\":[\"http://b/\"]}"));
+    }
+
+    @Test
+    public void badRequestsShouldBeRejected() throws IOException, InterruptedException {
+        assertEquals(400, get("/search").statusCode());
+        assertEquals(400, get("/search?q=apple&sort=color").statusCode());
+        assertEquals(400, get("/search?form=prefix&q=" + encode("and(")).statusCode());
+        assertEquals(404, get("/doc?url=" + encode("http://c")).statusCode());
+        // malformed escapes in the query string
+        assertEquals(400, rawStatus("/search?q=%zz"));
+        assertEquals(400, rawStatus("/doc?url=%E"));
+    }
+
+    @Test
+    public void docAndStatsShouldBeServed() throws IOException, InterruptedException {
+        HttpResponse<String> resp = get("/doc?url=" + encode("http://a"));
+        assertEquals(200, resp.statusCode());
+        assertTrue(resp.body(), resp.body().contains("\"bodyWords\":[\"apple\",\"banana\"]"));
+
+        resp = get("/stats");
+        assertEquals(200, resp.statusCode());
+        assertTrue(resp.body(), resp.body().contains("\"documents\":2"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.curtisnewbie.watcher;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.curtisnewbie.webBrowserModel.IndexingEngine;
+
+public class DirectoryWatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 20_000;
+
+    private Path root;
+    private IndexingEngine engine;
+    private DirectoryWatcher watcher;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("watcher");
+        engine = new IndexingEngine();
+        watcher = new DirectoryWatcher(engine, 100, 1000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        watcher.close();
+        delete(root);
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void changedFilesShouldBeReindexed() throws Exception {
+        write(root.resolve("a.html"), "apple");
+        write(root.resolve("notes.txt"), "apple");
+        watcher.watch(root);
+        watcher.start();
+        assertEquals(1, engine.getNumOfDocs());
+        assertEquals(1, bodyResults("apple"));
+
+        // modified
+        Path a = root.resolve("a.html");
+        write(a, "banana");
+        Files.setLastModifiedTime(a, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        await(() -> bodyResults("banana") == 1);
+        assertEquals(0, bodyResults("apple"));
+
+        // created in a new subdirectory
+        Path sub = Files.createDirectory(root.resolve("sub"));
+        write(sub.resolve("b.htm"), "cherry");
+        await(() -> bodyResults("cherry") == 1);
+        assertEquals(2, engine.getNumOfDocs());
+
+        // deleted with its directory
+        Files.delete(sub.resolve("b.htm"));
+        Files.delete(sub);
+        await(() -> engine.getNumOfDocs() == 1);
+        assertEquals(0, bodyResults("cherry"));
+        assertEquals(0, watcher.getNumOfFailed());
+    }
+
+    @Test
+    public void deletedDirectoryShouldNotAffectSiblings() throws Exception {
+        // "news-2020" and "news.html" sort between "news" and "news/"
+        Path news = Files.createDirectory(root.resolve("news"));
+        write(news.resolve("a.html"), "apple");
+        Path sibling = Files.createDirectory(root.resolve("news-2020"));
+        write(sibling.resolve("b.html"), "banana");
+        write(root.resolve("news.html"), "cherry");
+        watcher.watch(root);
+        watcher.start();
+        assertEquals(3, engine.getNumOfDocs());
+
+        // moved out, only the event of the directory is received
+        Path moved = Files.createTempDirectory("moved");
+        try {
+            Files.move(news, moved.resolve("news"));
+            await(() -> engine.getNumOfDocs() == 2);
+            assertEquals(0, bodyResults("apple"));
+            assertEquals(1, bodyResults("banana"));
+            assertEquals(1, bodyResults("cherry"));
+        } finally {
+            delete(moved);
+        }
+    }
+
+    @Test
+    public void directoriesShouldBeScannedInWatcherThread() throws Exception {
+        write(root.resolve("a.html"), "apple");
+        Path missing = root.resolve("missing");
+        watcher.start(Arrays.asList(missing, root));
+        await(() -> bodyResults("apple") == 1);
+
+        write(root.resolve("b.html"), "banana");
+        await(() -> bodyResults("banana") == 1);
+        assertEquals(2, watcher.getNumOfFiles());
+    }
+
+    @Test
+    public void burstOfWritesShouldBeCoalesced() throws Exception {
+        watcher.watch(root);
+        watcher.start();
+        Path file = root.resolve("burst.html");
+        for (int i = 0; i < 20; i++)
+            write(file, "burst" + i);
+        await(() -> bodyResults("burst" + 19) == 1);
+        assertEquals(1, engine.getNumOfDocs());
+        assertTrue(watcher.toString(), watcher.getNumOfIndexed() < 20);
+        assertTrue(watcher.toString(), watcher.getNumOfBatches() < watcher.getNumOfEvents());
+    }
+
+    private int bodyResults(String query) {
+        return engine.search(query, true).getBodyResults().size();
+    }
+
+    private static void write(Path file, String word) throws IOException {
+        Files.write(file, ("<html><head><title>page</title></head><body>" + word + "</body></html>")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline)
+                throw new AssertionError("Timed out");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.Assert;
+import org.junit.Assume;
+
+/**
+ * <p>
+ * Measures the bytes allocated per operation by the calling thread, through
+ * {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}, and fails
+ * the test when an operation allocates more than its budget.
+ * </p>
+ * <p>
+ * The operation is warmed up first, so it's measured after the JIT has
+ * compiled it (and possibly eliminated some allocations), and the lowest of a
+ * few rounds is taken, so the noise of the JVM (e.g., the allocations of the
+ * compiler threads are not counted, but the TLAB refills are) doesn't fail the
+ * test. The tests are skipped on a JVM that can't measure the allocations.
+ * </p>
+ */
+public final class AllocationBudget {
+
+	private static final int WARMUP_ITERATIONS = 2_000;
+	private static final int ROUNDS = 5;
+	private static final int ITERATIONS_PER_ROUND = 200;
+
+	private AllocationBudget() {
+	}
+
+	/**
+	 * Measure the bytes allocated per operation
+	 * 
+	 * @param operation operation
+	 * @return bytes per operation
+	 */
+	public static long measure(Runnable operation) {
+		com.sun.management.ThreadMXBean bean = allocationBean();
+		Assume.assumeTrue("Allocations are not measured by this JVM", bean != null);
+		long threadId = Thread.currentThread().getId();
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+			operation.run();
+		long min = Long.MAX_VALUE;
+		for (int r = 0; r < ROUNDS; r++) {
+			long before = bean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < ITERATIONS_PER_ROUND; i++)
+				operation.run();
+			long after = bean.getThreadAllocatedBytes(threadId);
+			min = Math.min(min, (after - before) / ITERATIONS_PER_ROUND);
+		}
+		return min;
+	}
+
+	/**
+	 * Assert that the operation allocates at most the budget
+	 * 
+	 * @param name        name of the operation, in the message of the failure
+	 * @param budgetBytes max bytes per operation
+	 * @param operation   operation
+	 */
+	public static void assertWithin(String name, long budgetBytes, Runnable operation) {
+		long bytes = measure(operation);
+		Assert.assertTrue(name + " allocated " + bytes + " bytes per operation, the budget is " + budgetBytes,
+				bytes <= budgetBytes);
+	}
+
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean))
+			return null;
+		com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+		if (!allocationBean.isThreadAllocatedMemorySupported())
+			return null;
+		allocationBean.setThreadAllocatedMemoryEnabled(true);
+		return allocationBean;
+	}
+}
@@ -0,0 +1,81 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.curtisnewbie.analysis.Analyzer;
+import com.curtisnewbie.benchmark.SyntheticCorpus;
+
+/**
+ * Allocation budgets of the hot paths, a test fails when a change makes the
+ * operation allocate more than its budget. The budgets are about twice the
+ * bytes allocated when they were set, so they only catch regressions, e.g., a
+ * Pattern compiled per call, or the results copied once more.
+ * 
+ * @see AllocationBudget
+ */
+public class AllocationBudgetTest {
+
+	private static final int NUM_OF_DOCS = 200;
+
+	private static String text;
+	private static WebDoc[] docs;
+	private static WebIndexForBody index;
+
+	@BeforeClass
+	public static void setup() {
+		Random random = new Random(42);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++)
+			sb.append(SyntheticCorpus.word(random.nextInt(50))).append(' ');
+		text = sb.toString();
+
+		docs = new WebDoc[NUM_OF_DOCS];
+		index = new WebIndexForBody();
+		for (int i = 0; i < NUM_OF_DOCS; i++) {
+			StringBuilder body = new StringBuilder();
+			for (int j = 0; j < 50; j++)
+				body.append(SyntheticCorpus.word(random.nextInt(200))).append(' ');
+			docs[i] = new WebDoc("http://alloc/" + i, "<html><body>" + body + "</body></html>");
+			index.add(docs[i]);
+		}
+	}
+
+	@Test
+	public void extractWordsShouldStayWithinBudget() {
+		// about 40 unique words out of 100
+		AllocationBudget.assertWithin("WebDoc.extractWords", 14_000, () -> WebDoc.extractWords(text, Analyzer.STANDARD));
+	}
+
+	@Test
+	public void addShouldStayWithinBudget() {
+		// 16 WebDoc of 50 words into an empty index
+		AllocationBudget.assertWithin("WebIndex.add", 300_000, () -> {
+			WebIndexForBody wind = new WebIndexForBody();
+			for (int i = 0; i < 16; i++)
+				wind.add(docs[i]);
+		});
+	}
+
+	@Test
+	public void parseShouldStayWithinBudget() {
+		AllocationBudget.assertWithin("QueryBuilder.parse", 2_500,
+				() -> QueryBuilder.parse("and(wa,or(wb,not(wc)))"));
+		AllocationBudget.assertWithin("QueryBuilder.parseInfixForm", 24_000,
+				() -> QueryBuilder.parseInfixForm("wa and (wb or not wc)"));
+	}
+
+	@Test
+	public void matchesShouldStayWithinBudget() {
+		Query atomic = QueryBuilder.parse("wa");
+		Query and = QueryBuilder.parse("and(wa,wb)");
+		Query nested = QueryBuilder.parse("and(wa,or(wb,not(wc)))");
+		Query prefix = QueryBuilder.parse("wa*");
+		AllocationBudget.assertWithin("AtomicQuery.matches", 4_000, () -> atomic.matches(index));
+		AllocationBudget.assertWithin("AndQuery.matches", 12_000, () -> and.matches(index));
+		AllocationBudget.assertWithin("nested AndQuery.matches", 50_000, () -> nested.matches(index));
+		AllocationBudget.assertWithin("PrefixQuery.matches", 16_000, () -> prefix.matches(index));
+	}
+}
@@ -0,0 +1,64 @@
+package com.curtisnewbie.webBrowserModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Test cases for DocTable */
+public class DocTableTest {
+
+	@Test
+	public void lookupShouldMatchHashMapAcrossMerges() {
+		Random random = new Random(11);
+		DocTable table = new DocTable();
+		Map<String, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 20000; i++) {
+			String url = "https://example.com/articles/" + random.nextInt(5000) + (random.nextBoolean() ? "/é" : "");
+			int op = random.nextInt(10);
+			if (op < 6) {
+				if (!expected.containsKey(url))
+					expected.put(url, table.add(url));
+			} else if (op < 8) {
+				assertEquals(expected.remove(url) != null, table.remove(url));
+			} else if (!expected.isEmpty() && expected.containsKey(url)) {
+				// free the doc id with all the urls of it
+				int id = expected.get(url);
+				table.free(id);
+				expected.values().removeIf(v -> v == id);
+			}
+		}
+		for (int i = 0; i < 5000; i++) {
+			String url = "https://example.com/articles/" + i;
+			assertEquals((int) expected.getOrDefault(url, -1), table.get(url));
+			assertEquals((int) expected.getOrDefault(url + "/é", -1), table.get(url + "/é"));
+		}
+	}
+
+	@Test
+	public void aliasesShouldBeFreedWithTheirDocId() {
+		DocTable table = new DocTable();
+		int id = table.add("http://x/");
+		table.alias("http://x/print", id);
+		assertEquals(id, table.get("http://x/print"));
+		table.free(id);
+		assertEquals(-1, table.get("http://x/"));
+		assertEquals(-1, table.get("http://x/print"));
+	}
+
+	@Test
+	public void frontCodedUrlsShouldTakeLessMemoryThanStrings() {
+		DocTable table = new DocTable();
+		long stringBytes = 0;
+		for (int i = 0; i < 10000; i++) {
+			String url = "https://en.wikipedia.org/wiki/Article_" + i;
+			table.add(url);
+			stringBytes += MemoryEstimator.stringBytes(url);
+		}
+		assertTrue(table.getBytes() < stringBytes / 2);
+	}
+}
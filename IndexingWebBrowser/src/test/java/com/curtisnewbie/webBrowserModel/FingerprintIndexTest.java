@@ -0,0 +1,50 @@
+package com.curtisnewbie.webBrowserModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Test cases for FingerprintIndex */
+public class FingerprintIndexTest {
+
+	@Test
+	public void lookupShouldMatchBruteForce() {
+		Random random = new Random(7);
+		int maxDistance = 3;
+		FingerprintIndex index = new FingerprintIndex(maxDistance);
+		long[] fingerprints = new long[2000];
+		for (int i = 0; i < fingerprints.length; i++) {
+			fingerprints[i] = random.nextLong();
+			index.add("url" + i, fingerprints[i]);
+		}
+		for (int q = 0; q < 1000; q++) {
+			// flip a few bits of a random fingerprint
+			long query = fingerprints[random.nextInt(fingerprints.length)];
+			for (int f = random.nextInt(6); f > 0; f--)
+				query ^= 1L << random.nextInt(64);
+			int expected = Integer.MAX_VALUE;
+			for (long fingerprint : fingerprints)
+				expected = Math.min(expected, SimHash.distance(query, fingerprint));
+			String found = index.findNearDuplicate(query);
+			if (expected > maxDistance) {
+				assertNull(found);
+			} else {
+				int i = Integer.parseInt(found.substring("url".length()));
+				assertEquals(expected, SimHash.distance(query, fingerprints[i]));
+			}
+		}
+	}
+
+	@Test
+	public void removedFingerprintShouldNotBeFound() {
+		FingerprintIndex index = new FingerprintIndex(0);
+		index.add("http://a", 42L);
+		assertEquals("http://a", index.findNearDuplicate(42L));
+		index.remove("http://a");
+		assertNull(index.findNearDuplicate(42L));
+		assertEquals(0, index.size());
+	}
+}
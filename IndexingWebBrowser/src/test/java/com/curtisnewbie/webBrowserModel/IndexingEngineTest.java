@@ -0,0 +1,186 @@
+package com.curtisnewbie.webBrowserModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/** Test cases for IndexingEngine */
+public class IndexingEngineTest {
+
+    private IndexingEngine createEngine() throws IOException {
+        IndexingEngine engine = new IndexingEngine();
+        engine.index("http://a", "<html><head><title>fruit</title></head><body>apple banana</body></html>");
+        engine.index("http://b", "<html><head><title>animal</title></head><body>cat dog apple</body></html>");
+        return engine;
+    }
+
+    @Test
+    public void searchShouldMatchHeadAndBody() throws IOException {
+        IndexingEngine engine = createEngine();
+        SearchResult result = engine.search("apple and not fruit", true);
+        assertEquals(0, result.getHeadResults().size());
+        assertEquals(2, result.getBodyResults().size());
+        result = engine.search("or(fruit,animal)", false);
+        assertEquals(2, result.getHeadResults().size());
+        assertEquals(0, result.getBodyResults().size());
+        assertEquals(2, engine.search(IndexingEngine.ALL_COMMAND, true).getHeadResults().size());
+    }
+
+    @Test
+    public void explainShouldProfileEachNodeOfTheQueryTree() throws IOException {
+        IndexingEngine engine = createEngine();
+        QueryProfile profile = engine.explain("apple and (banana or pear)", true);
+        assertEquals(2, profile.getChildren().size());
+        QueryProfile body = profile.getChildren().get(1);
+        assertTrue(body.getDescription().startsWith("BODY AND("));
+        assertEquals(1, body.getOutputSize());
+        assertEquals(3, body.getInputSize());
+
+        QueryProfile apple = body.getChildren().get(0);
+        assertEquals("ATOMIC:[apple]", apple.getDescription());
+        assertEquals(2, apple.getInputSize());
+        assertEquals(2, apple.getOutputSize());
+        QueryProfile or = body.getChildren().get(1);
+        assertEquals(2, or.getChildren().size());
+        assertEquals(1, or.getOutputSize());
+        assertTrue(body.getTimeNanos() >= or.getTimeNanos());
+        assertNull(engine.explain("apple and", true));
+    }
+
+    @Test
+    public void indexedUrlShouldNotBeIndexedTwice() throws IOException {
+        IndexingEngine engine = createEngine();
+        WebDoc doc = engine.getWebDoc("http://a");
+        assertSame(doc, engine.index("http://a", "<html><body>pear</body></html>"));
+        assertEquals(2, engine.getNumOfDocs());
+    }
+
+    @Test
+    public void updatedDocShouldReplaceThePreviousOne() throws IOException {
+        IndexingEngine engine = createEngine();
+        WebDoc prev = engine.getWebDoc("http://a");
+        // the urls are canonicalized, so the WebDoc is not parsed again
+        WebDoc doc = new WebDoc("http://a/", "<html><body>pear</body></html>");
+        assertSame(prev, engine.update(doc));
+        assertSame(doc, engine.getWebDoc("http://a"));
+        assertEquals(2, engine.getNumOfDocs());
+        assertEquals(1, engine.search("pear", true).getBodyResults().size());
+        assertEquals(1, engine.search("apple", true).getBodyResults().size());
+    }
+
+    @Test
+    public void spellingsOfTheSameUrlShouldBeIndexedOnce() throws IOException {
+        IndexingEngine engine = createEngine();
+        WebDoc doc = engine.getWebDoc("http://a");
+        assertEquals("http://a/", doc.getUrlString());
+        assertSame(doc, engine.index("HTTP://A/#top", "<html><body>pear</body></html>"));
+        assertSame(doc, engine.index("http://a/?utm_source=feed", "<html><body>pear</body></html>"));
+        assertEquals(2, engine.getNumOfDocs());
+        assertSame(doc, engine.delete("http://a:80/"));
+        assertFalse(engine.contains("http://a"));
+    }
+
+    @Test
+    public void resultsShouldBeFilteredAndSortedByDocValues() throws IOException {
+        IndexingEngine engine = createEngine();
+        File file = File.createTempFile("page", ".html");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), "<html><body>apple pear plum grape</body></html>");
+        engine.index("file:" + file.getPath(), null);
+
+        SearchOptions options = new SearchOptions();
+        options.setFileType(WebDoc.FileType.LOCAL_WEB_DOC);
+        assertEquals(1, engine.search("apple", true, options).getBodyResults().size());
+
+        options = new SearchOptions();
+        options.setSortBy(SearchOptions.SortBy.NUM_OF_WORDS);
+        options.setDescending(true);
+        List<WebDoc> results = new ArrayList<>(engine.search("apple", true, options).getBodyResults());
+        assertEquals("file:" + file.getPath(), results.get(0).getUrlString());
+        assertEquals("http://b/", results.get(1).getUrlString());
+        assertEquals("http://a/", results.get(2).getUrlString());
+
+        options = new SearchOptions();
+        options.setHost("A");
+        assertEquals(1, engine.search(IndexingEngine.ALL_COMMAND, true, options).getHeadResults().size());
+        options = new SearchOptions();
+        options.setIndexedAfter(System.currentTimeMillis() + 60_000);
+        assertEquals(0, engine.search(IndexingEngine.ALL_COMMAND, true, options).getHeadResults().size());
+    }
+
+    @Test
+    public void illFormedQueryShouldReturnNull() throws IOException {
+        assertNull(createEngine().search("and(", false));
+    }
+
+    @Test
+    public void leastRecentlyAccessedDocsShouldBeEvicted() throws IOException {
+        IndexingEngine engine = new IndexingEngine();
+        engine.index("http://keep", "<html><body>apple keep</body></html>");
+        long budget = 64 * 1024;
+        engine.setMemoryBudget(budget);
+        for (int i = 0; i < 500; i++) {
+            engine.index("http://" + i, "<html><body>apple banana word" + (char) ('a' + i % 26) + "</body></html>");
+            // keep accessing the first doc
+            engine.getWebDoc("http://keep");
+        }
+        MemoryStats stats = engine.getMemoryStats();
+        assertTrue(stats.getUsedBytes() <= budget);
+        assertTrue(stats.getNumOfEvicted() > 0);
+        assertEquals(500 + 1 - stats.getNumOfEvicted(), engine.getNumOfDocs());
+        assertTrue(engine.contains("http://keep"));
+        assertFalse(engine.contains("http://0"));
+        assertEquals(engine.getNumOfDocs(), engine.search("apple", true).getBodyResults().size());
+    }
+
+    /** A page of the given words, with an extra word in body */
+    private static String createPage(String[] words, String extra) {
+        StringBuilder sb = new StringBuilder("<html><head><title>some article</title></head><body>");
+        for (String word : words)
+            sb.append(word).append(' ');
+        return sb.append(extra).append("</body></html>").toString();
+    }
+
+    @Test
+    public void nearDuplicatesShouldBeCollapsed() throws IOException {
+        // the fingerprints of longer pages are more stable
+        String[] words = new String[500];
+        String[] otherWords = new String[500];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = "word" + (char) ('a' + i / 26) + (char) ('a' + i % 26);
+            otherWords[i] = "other" + (char) ('a' + i / 26) + (char) ('a' + i % 26);
+        }
+
+        IndexingEngine engine = new IndexingEngine();
+        WebDoc original = engine.index("http://a/article", createPage(words, "original"));
+        assertSame(original, engine.index("http://a/article?print=1", createPage(words, "printable")));
+        assertNotSame(original, engine.index("http://b/other", createPage(otherWords, "original")));
+        assertEquals(2, engine.getNumOfDocs());
+        assertEquals("http://a/article", engine.getDuplicateOf("http://a/article?print=1"));
+        assertTrue(engine.contains("http://a/article?print=1"));
+        assertEquals(0, engine.search("printable", true).getBodyResults().size());
+        MemoryStats stats = engine.getMemoryStats();
+        assertEquals(1, stats.getNumOfDuplicates());
+        assertTrue(stats.getDuplicateBytesSaved() > 0);
+
+        // the collapsed url is forgotten with the original one
+        engine.delete("http://a/article");
+        assertFalse(engine.contains("http://a/article?print=1"));
+
+        engine.setNearDuplicateDetection(IndexingEngine.DuplicateMode.OFF, 0, 0);
+        engine.index("http://a/article", createPage(words, "original"));
+        engine.index("http://a/article?print=1", createPage(words, "printable"));
+        assertEquals(3, engine.getNumOfDocs());
+    }
+}
@@ -64,4 +64,17 @@ public class QueryBuilderTest {
 		Assert.assertTrue("Query \"not apple \" should be parsed to \"NOT([apple])\"",
 				QueryBuilder.parseInfixForm("not apple").toString().equals("NOT([apple])"));
 	}
+
+	@Test
+	public void parsedTermQueryTypeShouldBeCorrect() {
+		Assert.assertTrue("\"learn*\" should be a PrefixQuery", QueryBuilder.parse("learn*") instanceof PrefixQuery);
+		Assert.assertTrue("\"l?arn*\" should be a WildcardQuery",
+				QueryBuilder.parse("l?arn*") instanceof WildcardQuery);
+		Assert.assertTrue("\"lern~1\" should be a FuzzyQuery", QueryBuilder.parse("lern~1") instanceof FuzzyQuery);
+		Assert.assertTrue("\"and*\" should be a PrefixQuery", QueryBuilder.parse("and*") instanceof PrefixQuery);
+		Assert.assertTrue("\"learn* and apple\" should be an AndQuery",
+				QueryBuilder.parseInfixForm("learn* and apple") instanceof AndQuery);
+		Assert.assertTrue("Query \"not lern~\" should be parsed to \"NOT([lern~])\"",
+				QueryBuilder.parseInfixForm("not lern~").toString().equals("NOT([lern~])"));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryEvaluatorTest {
+
+	private WebIndexForBody createIndex() {
+		WebIndexForBody index = new WebIndexForBody();
+		index.add(new WebDoc("http://a", "<html><body>apple banana cat</body></html>"));
+		index.add(new WebDoc("http://b", "<html><body>apple dog</body></html>"));
+		index.add(new WebDoc("http://c", "<html><body>banana cat dog</body></html>"));
+		index.add(new WebDoc("http://d", "<html><body>elephant</body></html>"));
+		return index;
+	}
+
+	@After
+	public void resetEvaluator() {
+		QueryEvaluator.disableParallelism();
+		QueryEvaluator.setCostThreshold(QueryEvaluator.DEFAULT_COST_THRESHOLD);
+	}
+
+	@Test
+	public void parallelResultsShouldEqualSequentialResults() {
+		WebIndexForBody index = createIndex();
+		String[] queries = { "and(apple,banana)", "or(and(apple,dog),and(banana,not(apple)))",
+				"or(elephant,and(cat,or(dog,apple)))", "and(or(apple,banana),or(cat,dog),not(elephant))" };
+
+		String[] sequential = new String[queries.length];
+		for (int i = 0; i < queries.length; i++) {
+			sequential[i] = String.valueOf(QueryBuilder.parse(queries[i]).matches(index));
+		}
+
+		QueryEvaluator.enableParallelism(4);
+		QueryEvaluator.setCostThreshold(0);
+		for (int i = 0; i < queries.length; i++) {
+			Set<WebDoc> result = QueryBuilder.parse(queries[i]).matches(index);
+			Assert.assertEquals("Parallel result of \"" + queries[i] + "\" should equal the sequential one",
+					sequential[i], String.valueOf(result));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parallelismLessThanTwoShouldBeRejected() {
+		QueryEvaluator.enableParallelism(1);
+	}
+
+	@Test
+	public void interruptedEvaluationShouldBeCancelled() {
+		WebIndexForBody index = createIndex();
+		Thread.currentThread().interrupt();
+		try {
+			QueryBuilder.parse("and(apple,banana)").matches(index);
+			Assert.fail("Evaluation in an interrupted thread should be cancelled");
+		} catch (CancellationException e) {
+			Assert.assertFalse("Interrupt status should be cleared", Thread.currentThread().isInterrupted());
+		}
+	}
+
+	@Test
+	public void interruptedParallelEvaluationShouldBeCancelled() {
+		WebIndexForBody index = createIndex();
+		QueryEvaluator.enableParallelism(4);
+		QueryEvaluator.setCostThreshold(0);
+		Thread.currentThread().interrupt();
+		try {
+			QueryBuilder.parse("or(and(apple,banana),and(cat,dog))").matches(index);
+			Assert.fail("Parallel evaluation in an interrupted thread should be cancelled");
+		} catch (CancellationException e) {
+			Assert.assertFalse("Interrupt status should be cleared", Thread.currentThread().isInterrupted());
+		}
+	}
+
+	@Test
+	public void replacingThePoolShouldNotFailRunningEvaluations() throws InterruptedException {
+		WebIndexForBody index = createIndex();
+		String query = "or(and(apple,dog),and(banana,not(apple)))";
+		String expected = String.valueOf(QueryBuilder.parse(query).matches(index));
+		QueryEvaluator.enableParallelism(2);
+		QueryEvaluator.setCostThreshold(0);
+		Thread toggler = new Thread(() -> {
+			for (int i = 0; i < 200; i++) {
+				if (i % 3 == 0)
+					QueryEvaluator.disableParallelism();
+				else
+					QueryEvaluator.enableParallelism(2);
+			}
+		});
+		toggler.start();
+		while (toggler.isAlive())
+			Assert.assertEquals(expected, String.valueOf(QueryBuilder.parse(query).matches(index)));
+		toggler.join();
+	}
+}
@@ -0,0 +1,66 @@
+package com.curtisnewbie.webBrowserModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/** Test cases for StandingQueries */
+public class StandingQueriesTest {
+
+	@Test
+	public void matchesShouldBePushedToListeners() throws IOException {
+		IndexingEngine engine = new IndexingEngine();
+		List<String> matches = new ArrayList<>();
+		StandingQueries queries = engine.getStandingQueries();
+		queries.register("apple and banana", true, (q, doc, inHead, inBody) -> matches.add(q + " " + doc.getUrlString()));
+		queries.register("or(fruit,plum*)", false, (q, doc, inHead, inBody) -> {
+			matches.add(q + " " + doc.getUrlString());
+			assertTrue(inHead);
+			assertFalse(inBody);
+		});
+		queries.register("not pear", true, (q, doc, inHead, inBody) -> {
+			if (inBody)
+				matches.add(q + " " + doc.getUrlString());
+		});
+
+		engine.index("http://a", "<html><head><title>fruit</title></head><body>apple banana pear</body></html>");
+		engine.index("http://b", "<html><body>apple cherry</body></html>");
+		Collections.sort(matches);
+		assertEquals(List.of("apple and banana http://a/", "not pear http://b/", "or(fruit,plum*) http://a/"),
+				matches);
+	}
+
+	@Test
+	public void onlyCandidateQueriesShouldBeChecked() {
+		StandingQueries queries = new StandingQueries();
+		List<String> matches = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+			queries.register("and(x" + i + ",yes)", false, (q, doc, inHead, inBody) -> matches.add(q.getQuery()));
+		queries.register("l?arn*", true, (q, doc, inHead, inBody) -> matches.add(q.getQuery()));
+
+		assertEquals(0, queries.percolate(new WebDoc("http://a/", "<html><body>nothing here</body></html>")));
+		assertEquals(0, queries.getNumOfChecks());
+		assertEquals(1, queries.percolate(new WebDoc("http://b/", "<html><body>x7 and learning</body></html>")));
+		assertEquals(2, queries.getNumOfChecks());
+		assertEquals(List.of("l?arn*"), matches);
+
+		StandingQueries.StandingQuery query = queries.register("x7 or x", true,
+				(q, doc, inHead, inBody) -> matches.add(q.getQuery()));
+		assertTrue(queries.unregister(query.getId()));
+		assertFalse(queries.unregister(query.getId()));
+		assertEquals(1001, queries.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void illFormedQueryShouldBeRejected() {
+		new StandingQueries().register("apple and", true, (q, doc, inHead, inBody) -> {
+		});
+	}
+}
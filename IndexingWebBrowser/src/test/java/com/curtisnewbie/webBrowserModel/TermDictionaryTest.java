@@ -0,0 +1,62 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TermDictionaryTest {
+
+	private TermDictionary dict;
+
+	@Before
+	public void setup() {
+		dict = new TermDictionary();
+		for (String term : new String[] { "learn", "learning", "learned", "lean", "yearn", "leader", "apple" }) {
+			dict.add(term);
+		}
+	}
+
+	@Test
+	public void prefixMatchesShouldBeSorted() {
+		Assert.assertEquals(Arrays.asList("learn", "learned", "learning"), dict.prefixMatches("learn"));
+		Assert.assertEquals(Collections.emptyList(), dict.prefixMatches("banana"));
+	}
+
+	@Test
+	public void wildcardMatchesShouldBeCorrect() {
+		Assert.assertEquals(Arrays.asList("learn", "learned", "learning", "yearn"), dict.wildcardMatches("?earn*"));
+		Assert.assertEquals(Arrays.asList("learning"), dict.wildcardMatches("*ing"));
+		Assert.assertEquals(Arrays.asList("lean", "learn"), dict.wildcardMatches("le*n"));
+	}
+
+	@Test
+	public void fuzzyMatchesShouldBeWithinDistance() {
+		Assert.assertEquals(Arrays.asList("lean", "learn", "yearn"), dict.fuzzyMatches("learn", 1));
+		Assert.assertEquals(Arrays.asList("lean", "learn"), dict.fuzzyMatches("lern", 1));
+		Assert.assertEquals(Arrays.asList("learn"), dict.fuzzyMatches("learn", 0));
+	}
+
+	@Test
+	public void removedTermShouldNotBeFound() {
+		Assert.assertTrue(dict.remove("learn"));
+		Assert.assertFalse(dict.contains("learn"));
+		Assert.assertTrue(dict.contains("learned"));
+		Assert.assertEquals(Arrays.asList("learned", "learning"), dict.prefixMatches("learn"));
+		Assert.assertEquals(6, dict.size());
+	}
+
+	@Test
+	public void bytesShouldBeReleasedWhenTermsAreRemoved() {
+		TermDictionary empty = new TermDictionary();
+		long emptyBytes = empty.getBytes();
+		empty.add("apple");
+		empty.add("apply");
+		Assert.assertTrue(empty.getBytes() > emptyBytes);
+		empty.remove("apple");
+		empty.remove("apply");
+		Assert.assertEquals(emptyBytes, empty.getBytes());
+	}
+}
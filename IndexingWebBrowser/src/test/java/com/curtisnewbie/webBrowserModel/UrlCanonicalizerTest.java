@@ -0,0 +1,24 @@
+package com.curtisnewbie.webBrowserModel;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/** Test cases for UrlCanonicalizer */
+public class UrlCanonicalizerTest {
+
+	@Test
+	public void spellingsOfTheSameUrlShouldBeCanonicalized() {
+		assertEquals("http://x/", UrlCanonicalizer.canonicalize("http://x"));
+		assertEquals("http://x/", UrlCanonicalizer.canonicalize("http://x/"));
+		assertEquals("http://x/", UrlCanonicalizer.canonicalize("HTTP://X/#top"));
+		assertEquals("http://x/", UrlCanonicalizer.canonicalize("http://x:80/?utm_source=feed&utm_medium=rss"));
+		assertEquals("https://x/a?id=1", UrlCanonicalizer.canonicalize(" https://x:443/b/../a?id=1&fbclid=abc "));
+		assertEquals("http://x/~a%2F", UrlCanonicalizer.canonicalize("http://x/%7ea%2f"));
+	}
+
+	@Test
+	public void localFilesShouldOnlyBeTrimmed() {
+		assertEquals("file:Test/Page.html", UrlCanonicalizer.canonicalize(" file:Test/Page.html "));
+	}
+}
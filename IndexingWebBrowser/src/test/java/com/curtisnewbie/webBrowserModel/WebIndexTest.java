@@ -0,0 +1,107 @@
+package com.curtisnewbie.webBrowserModel;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WebIndexTest {
+
+	private WebIndexForBody createIndex() {
+		WebIndexForBody index = new WebIndexForBody();
+		index.add(new WebDoc("http://a", "<html><body>apple banana</body></html>"));
+		index.add(new WebDoc("http://b", "<html><body>apple cat</body></html>"));
+		index.add(new WebDoc("http://c", "<html><body>dog</body></html>"));
+		return index;
+	}
+
+	@Test
+	public void deletedDocShouldNotBeMatched() {
+		WebIndexForBody index = createIndex();
+		Assert.assertTrue(index.delete("http://a"));
+		Assert.assertFalse(index.delete("http://a"));
+		Assert.assertEquals(2, index.getNumOfDocs());
+		Assert.assertEquals(1, index.getNumOfDeleted());
+		Assert.assertNull(index.getMatches("banana"));
+		Assert.assertEquals(1, index.getMatches("apple").size());
+		Assert.assertNull(index.getPrefixMatches("ban"));
+		Assert.assertEquals(1, QueryBuilder.parse("not(apple)").matches(index).size());
+	}
+
+	@Test
+	public void updatedDocShouldReplaceThePreviousOne() {
+		WebIndexForBody index = createIndex();
+		WebDoc doc = new WebDoc("http://a", "<html><body>apple elephant</body></html>");
+		index.update("http://a", doc);
+		Assert.assertEquals(3, index.getNumOfDocs());
+		Assert.assertNull(index.getMatches("banana"));
+		Assert.assertEquals(1, index.getMatches("elephant").size());
+		Set<WebDoc> apple = index.getMatches("apple");
+		Assert.assertEquals(2, apple.size());
+		Assert.assertTrue("The new WebDoc should be in the results",
+				apple.stream().anyMatch(d -> d == doc));
+	}
+
+	@Test
+	public void compactionShouldPurgeDeletedDocs() {
+		WebIndexForBody index = createIndex();
+		index.delete("http://a");
+		index.update("http://b", new WebDoc("http://b", "<html><body>cat</body></html>"));
+		index.compact();
+		Assert.assertEquals(0, index.getNumOfDeleted());
+		Assert.assertEquals(2, index.getNumOfDocs());
+		Assert.assertEquals("Words of the deleted WebDoc should be removed", 2, index.getNumOfWords());
+		Assert.assertEquals(1, index.getMatches("cat").size());
+		Assert.assertNull(index.getMatches("apple"));
+	}
+
+	@Test
+	public void indexShouldBeCompactedLazily() {
+		WebIndexForBody index = new WebIndexForBody();
+		int numOfDocs = WebIndex.MIN_DELETED_TO_COMPACT * 2;
+		for (int i = 0; i < numOfDocs; i++) {
+			index.add(new WebDoc("http://" + i, "<html><body>apple</body></html>"));
+		}
+		for (int i = 0; i < WebIndex.MIN_DELETED_TO_COMPACT - 1; i++) {
+			index.delete("http://" + i);
+		}
+		Assert.assertEquals(WebIndex.MIN_DELETED_TO_COMPACT - 1, index.getNumOfDeleted());
+		index.delete("http://" + (WebIndex.MIN_DELETED_TO_COMPACT - 1));
+		Assert.assertEquals(0, index.getNumOfDeleted());
+		Assert.assertEquals(numOfDocs - WebIndex.MIN_DELETED_TO_COMPACT, index.getMatches("apple").size());
+	}
+
+	@Test
+	public void termStatsShouldOnlyCountTheLiveDocs() {
+		WebIndexForBody index = new WebIndexForBody();
+		index.add(new WebDoc("http://a", "<html><body>apple apple banana</body></html>"));
+		index.add(new WebDoc("http://b", "<html><body>Apple cat apple apple</body></html>"));
+		index.add(new WebDoc("http://c", "<html><body>dog</body></html>"));
+		Assert.assertEquals(2, index.getDocFreq("apple"));
+		Assert.assertEquals(5, index.getTotalTermFreq("apple"));
+		Assert.assertEquals(5, index.getSumDocFreq());
+		Assert.assertEquals(8, index.getSumTotalTermFreq());
+		Assert.assertEquals(8 / 3.0, index.getAvgDocLength(), 1e-9);
+
+		List<TermStats> top = index.getTopTerms(2);
+		Assert.assertEquals(2, top.size());
+		Assert.assertEquals("apple", top.get(0).getWord());
+		Assert.assertEquals(5, top.get(0).getTotalTermFreq());
+		Assert.assertEquals(1, top.get(1).getDocFreq());
+		// 3 words with df 1, 1 word with df 2
+		Assert.assertArrayEquals(new long[] { 3, 1 }, index.getPostingsLengthHistogram());
+
+		// the statistics are updated before the index is compacted
+		index.delete("http://b");
+		index.update("http://c", new WebDoc("http://c", "<html><body>banana</body></html>"));
+		Assert.assertTrue(index.getNumOfDeleted() > 0);
+		Assert.assertEquals(1, index.getDocFreq("apple"));
+		Assert.assertEquals(2, index.getTotalTermFreq("apple"));
+		Assert.assertEquals(0, index.getDocFreq("cat"));
+		Assert.assertEquals(0, index.getDocFreq("dog"));
+		Assert.assertEquals(2, index.getNumOfLiveTerms());
+		Assert.assertEquals(4, index.getSumTotalTermFreq());
+		Assert.assertArrayEquals(new long[] { 1, 1 }, index.getPostingsLengthHistogram());
+	}
+}